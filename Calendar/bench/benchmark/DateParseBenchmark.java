@@ -0,0 +1,151 @@
+package benchmark;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.List;
+
+import calendar.model.IsoDateTimeParser;
+
+/**
+ * A microbenchmark of reading the dates in a command line. Each round parses the two
+ * date-times and the date of a recurring create command, in place in the line, the given
+ * number of times with the JDK's ISO formatters and then with {@link IsoDateTimeParser}, and
+ * prints the nanoseconds per date of each. The first rounds warm up the JIT compiler, so only
+ * the later ones should be compared.
+ * How to run it:
+ * java benchmark.DateParseBenchmark [--iterations {count}] [--rounds {count}]
+ */
+public class DateParseBenchmark {
+  private static final String LINE = "create event \"Team sync\" from 2025-03-10T08:00 "
+          + "to 2025-03-10T08:30 repeats MW until 2025-06-30";
+  private static final int DATE_TIME_LENGTH = 16;
+  private static final int DATE_LENGTH = 10;
+  // Each iteration parses two date-times and a date
+  private static final int DATES_PER_ITERATION = 3;
+
+  private final int iterations;
+  private final int rounds;
+  private final int startFrom;
+  private final int endFrom;
+  private final int untilFrom;
+  // Sums the parsed fields, so the JIT compiler cannot leave out the parsing
+  private long sink;
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param iterations the number of times each round parses the line's dates each way
+   * @param rounds     the number of rounds
+   * @throws IllegalArgumentException if there are no iterations or no rounds
+   */
+  public DateParseBenchmark(int iterations, int rounds) {
+    if ((iterations < 1) || (rounds < 1)) {
+      throw new IllegalArgumentException("Iterations and rounds must be positive");
+    }
+    this.iterations = iterations;
+    this.rounds = rounds;
+    this.startFrom = LINE.indexOf("2025-03-10T08:00");
+    this.endFrom = LINE.indexOf("2025-03-10T08:30");
+    this.untilFrom = LINE.indexOf("2025-06-30");
+  }
+
+  /**
+   * Runs the benchmark from the command line.
+   *
+   * @param args [--iterations {count}] [--rounds {count}]
+   */
+  public static void main(String[] args) {
+    List<String> options = Arrays.asList(args);
+    int iterations = Integer.parseInt(option(options, "--iterations", "2000000"));
+    int rounds = Integer.parseInt(option(options, "--rounds", "6"));
+    new DateParseBenchmark(iterations, rounds).run();
+  }
+
+  /**
+   * Gets the value following an option, or a default if the option is not given.
+   */
+  private static String option(List<String> args, String option, String defaultValue) {
+    int index = args.indexOf(option);
+    if ((index < 0) || (index == args.size() - 1)) {
+      return defaultValue;
+    }
+    return args.get(index + 1);
+  }
+
+  /**
+   * Runs every round and prints the results.
+   */
+  public void run() {
+    for (int round = 1; round <= rounds; round++) {
+      long formatter = timeFormatter();
+      long parser = timeParser();
+      double perDate = (double) iterations * DATES_PER_ITERATION;
+      System.out.printf("round %d: formatter %.0f ns/date, IsoDateTimeParser %.1f ns/date, "
+              + "%.1fx%n", round, formatter / perDate, parser / perDate,
+              (double) formatter / parser);
+    }
+    System.out.println("checksum " + sink);
+  }
+
+  /**
+   * Parses the line's dates with the ISO formatters, as commands did before, and gets how
+   * long it took.
+   */
+  private long timeFormatter() {
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += formatterDateTime(startFrom).getMinute()
+              + formatterDateTime(endFrom).getMinute()
+              + formatterDate(untilFrom).getDayOfMonth();
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Parses the line's dates with the fast path and gets how long it took.
+   */
+  private long timeParser() {
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += IsoDateTimeParser.parseDateTime(LINE, startFrom, startFrom + DATE_TIME_LENGTH)
+              .getMinute()
+              + IsoDateTimeParser.parseDateTime(LINE, endFrom, endFrom + DATE_TIME_LENGTH)
+              .getMinute()
+              + IsoDateTimeParser.parseDate(LINE, untilFrom, untilFrom + DATE_LENGTH)
+              .getDayOfMonth();
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Parses a date-time in place in the line with ISO_LOCAL_DATE_TIME.
+   */
+  private static LocalDateTime formatterDateTime(int from) {
+    ParsePosition position = new ParsePosition(from);
+    try {
+      TemporalAccessor parsed = DateTimeFormatter.ISO_LOCAL_DATE_TIME.parse(LINE, position);
+      return (position.getIndex() == from + DATE_TIME_LENGTH)
+              ? LocalDateTime.from(parsed) : null;
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses a date in place in the line with ISO_LOCAL_DATE.
+   */
+  private static LocalDate formatterDate(int from) {
+    ParsePosition position = new ParsePosition(from);
+    try {
+      TemporalAccessor parsed = DateTimeFormatter.ISO_LOCAL_DATE.parse(LINE, position);
+      return (position.getIndex() == from + DATE_LENGTH) ? LocalDate.from(parsed) : null;
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import calendar.model.Event;
+import calendar.model.IEvent;
+import calendar.model.OffHeapEventStore;
+import calendar.model.SmartCalendarModel;
+
+/**
+ * Measures the garbage collection pauses of a calendar holding many events, with its events
+ * on the heap or in an {@link OffHeapEventStore}. The calendar is loaded with the given number
+ * of events, then the program allocates objects of mixed lifetimes, as a long-running server
+ * does, while querying the calendar now and then. Every stop-the-world pause the collector
+ * reports during that work is recorded, and the number of pauses, their total, mean, 99th
+ * percentile and longest are printed, followed by the pause of one full collection.
+ * Each store should be run in a JVM of its own with the same heap size, for example:
+ * java -Xmx4g -XX:MaxDirectMemorySize=4g benchmark.GcPauseBenchmark --store offheap
+ * --events 10000000
+ * How to run it:
+ * java benchmark.GcPauseBenchmark --store heap|offheap [--events {count}] [--churn {MB}]
+ */
+public class GcPauseBenchmark {
+  private static final int BATCH_SIZE = 100_000;
+  private static final int CHUNK_SIZE = 8 * 1024;
+  // The number of chunks kept alive at once, so some of them live long enough to be promoted
+  private static final int LIVE_CHUNKS = 16 * 1024;
+  // The number of chunks allocated between queries of the calendar
+  private static final int QUERY_INTERVAL = 16 * 1024;
+  private static final double NANOS_PER_SECOND = 1e9;
+  private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+  private final boolean offHeap;
+  private final int events;
+  private final long churnBytes;
+  // The durations of the pauses seen, in milliseconds, guarded by itself
+  private final List<Long> pauses = new ArrayList<Long>();
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param offHeap    whether the calendar keeps its events off the heap
+   * @param events     the number of events to load
+   * @param churnBytes the number of bytes to allocate once the events are loaded
+   * @throws IllegalArgumentException if the number of events or bytes is not positive
+   */
+  public GcPauseBenchmark(boolean offHeap, int events, long churnBytes) {
+    if ((events < 1) || (churnBytes < 1)) {
+      throw new IllegalArgumentException("Events and churn must be positive");
+    }
+    this.offHeap = offHeap;
+    this.events = events;
+    this.churnBytes = churnBytes;
+  }
+
+  /**
+   * Runs the benchmark from the command line.
+   *
+   * @param args --store heap|offheap [--events {count}] [--churn {MB}]
+   * @throws InterruptedException if interrupted while waiting for the last pauses
+   */
+  public static void main(String[] args) throws InterruptedException {
+    List<String> options = Arrays.asList(args);
+    String store = option(options, "--store", null);
+    if (!store.equals("heap") && !store.equals("offheap")) {
+      throw new IllegalArgumentException("Store must be 'heap' or 'offheap'");
+    }
+    int events = Integer.parseInt(option(options, "--events", "1000000"));
+    long churn = Long.parseLong(option(options, "--churn", "8192")) * 1024 * 1024;
+    new GcPauseBenchmark(store.equals("offheap"), events, churn).run();
+  }
+
+  /**
+   * Gets the value following an option, or a default if the option is not given.
+   */
+  private static String option(List<String> args, String option, String defaultValue) {
+    int index = args.indexOf(option);
+    if ((index < 0) || (index == args.size() - 1)) {
+      if (defaultValue == null) {
+        throw new IllegalArgumentException(option + " requires a value");
+      }
+      return defaultValue;
+    }
+    return args.get(index + 1);
+  }
+
+  /**
+   * Loads the calendar, then allocates while recording pauses, and prints the results.
+   *
+   * @throws InterruptedException if interrupted while waiting for the last pauses
+   */
+  public void run() throws InterruptedException {
+    long start = System.nanoTime();
+    SmartCalendarModel calendar = load();
+    System.gc();
+    System.out.printf("%s store: %,d events loaded in %.1f s, %,d MB of heap in use%n",
+            offHeap ? "off-heap" : "heap", events,
+            (System.nanoTime() - start) / NANOS_PER_SECOND, usedHeap() >> 20);
+
+    listenForPauses();
+    start = System.nanoTime();
+    long found = churn(calendar);
+    double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+    List<Long> churnPauses = takePauses();
+    report(String.format("churn of %,d MB in %.1f s", churnBytes >> 20, seconds), churnPauses);
+
+    System.gc();
+    report("full collection", takePauses());
+    System.out.println("events found " + found);
+  }
+
+  /**
+   * Creates the calendar and adds the events in batches, half an hour apart.
+   */
+  private SmartCalendarModel load() {
+    SmartCalendarModel calendar = offHeap
+            ? new SmartCalendarModel("Load", ZoneId.of("UTC"), new OffHeapEventStore())
+            : new SmartCalendarModel("Load", ZoneId.of("UTC"));
+    List<IEvent> batch = new ArrayList<IEvent>(BATCH_SIZE);
+    for (int i = 0; i < events; i++) {
+      LocalDateTime eventStart = BASE.plusMinutes(30L * i);
+      batch.add(Event.getBuilder().subject("Meeting " + (i % 5000))
+              .description("Room " + (i % 97))
+              .startDateTime(eventStart).endDateTime(eventStart.plusMinutes(25))
+              .build());
+      if (batch.size() == BATCH_SIZE) {
+        calendar.addEvents(batch);
+        batch.clear();
+      }
+    }
+    calendar.addEvents(batch);
+    return calendar;
+  }
+
+  /**
+   * Allocates chunks, keeping the latest of them alive so that some are promoted, and prints
+   * a day of the calendar every so often.
+   *
+   * @return the number of events found, so the queries are not left out
+   */
+  private long churn(SmartCalendarModel calendar) {
+    byte[][] live = new byte[LIVE_CHUNKS][];
+    long chunks = churnBytes / CHUNK_SIZE;
+    long found = 0;
+    for (long i = 0; i < chunks; i++) {
+      live[(int) (i % LIVE_CHUNKS)] = new byte[CHUNK_SIZE];
+      if (i % QUERY_INTERVAL == 0) {
+        long day = (i * 7919) % (events / 48 + 1);
+        found += calendar.printEvents(BASE.plusDays(day)).size();
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Records the duration of every stop-the-world collection from now on. Collectors that run
+   * alongside the application, such as G1's concurrent marking, are left out.
+   */
+  private void listenForPauses() {
+    NotificationListener listener = (Notification notification, Object handback) -> {
+      if (!notification.getType().equals(
+              GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+        return;
+      }
+      GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+              (CompositeData) notification.getUserData());
+      if (info.getGcName().contains("Concurrent")) {
+        return;
+      }
+      synchronized (pauses) {
+        pauses.add(info.getGcInfo().getDuration());
+      }
+    };
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+    }
+  }
+
+  /**
+   * Gets the pauses recorded so far and forgets them. Notifications arrive on a thread of
+   * their own, so the last ones are given a moment to arrive first.
+   */
+  private List<Long> takePauses() throws InterruptedException {
+    Thread.sleep(500);
+    synchronized (pauses) {
+      List<Long> taken = new ArrayList<Long>(pauses);
+      pauses.clear();
+      return taken;
+    }
+  }
+
+  /**
+   * Prints the number of pauses and their total, mean, 99th percentile and longest.
+   */
+  private static void report(String work, List<Long> pauses) {
+    if (pauses.isEmpty()) {
+      System.out.printf("%s: no pauses%n", work);
+      return;
+    }
+    Collections.sort(pauses);
+    long total = 0;
+    for (long pause : pauses) {
+      total += pause;
+    }
+    long p99 = pauses.get((int) Math.ceil(pauses.size() * 0.99) - 1);
+    System.out.printf("%s: %d pauses, total %d ms, mean %.1f ms, p99 %d ms, max %d ms%n",
+            work, pauses.size(), total, (double) total / pauses.size(), p99,
+            pauses.get(pauses.size() - 1));
+  }
+
+  /**
+   * Gets the number of bytes of heap in use.
+   */
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,189 @@
+package benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A latency benchmark for HTTP mode. A number of clients send requests to an HTTP API on
+ * this machine at once, each on a calendar of its own: new events, and range, status and
+ * free/busy queries of the days they are on. Each client waits for every reply before
+ * sending its next request. At the end the number of requests per second and the spread of
+ * their latencies are printed.
+ * How to run it, with the API already listening:
+ * java benchmark.HttpLoadClient --port {port} [--clients {count}] [--requests {count}]
+ */
+public class HttpLoadClient {
+  private static final long NANOS_PER_MICRO = 1_000L;
+
+  private final URI api;
+  private final int clients;
+  private final int requests;
+  private final HttpClient http = HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1).build();
+
+  /**
+   * Creates a latency benchmark.
+   *
+   * @param port     the port the API listens on
+   * @param clients  the number of clients sending requests at once
+   * @param requests the number of requests each client sends
+   * @throws IllegalArgumentException if there are no clients or no requests
+   */
+  public HttpLoadClient(int port, int clients, int requests) {
+    if ((clients < 1) || (requests < 1)) {
+      throw new IllegalArgumentException("Clients and requests must be positive");
+    }
+    this.api = URI.create("http://127.0.0.1:" + port + "/api/calendars");
+    this.clients = clients;
+    this.requests = requests;
+  }
+
+  /**
+   * Runs the benchmark from the command line.
+   *
+   * @param args --port {port} [--clients {count}] [--requests {count}]
+   * @throws Exception if a client fails
+   */
+  public static void main(String[] args) throws Exception {
+    List<String> options = Arrays.asList(args);
+    int port = Integer.parseInt(option(options, "--port", null));
+    int clients = Integer.parseInt(option(options, "--clients", "8"));
+    int requests = Integer.parseInt(option(options, "--requests", "1000"));
+    new HttpLoadClient(port, clients, requests).run();
+  }
+
+  /**
+   * Gets the value following an option, or a default if the option is not given.
+   */
+  private static String option(List<String> args, String option, String defaultValue) {
+    int index = args.indexOf(option);
+    if ((index < 0) || (index == args.size() - 1)) {
+      if (defaultValue == null) {
+        throw new IllegalArgumentException(option + " requires a value");
+      }
+      return defaultValue;
+    }
+    return args.get(index + 1);
+  }
+
+  /**
+   * Runs every client at once and prints the results.
+   *
+   * @throws Exception if a client fails
+   */
+  public void run() throws Exception {
+    String run = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    try {
+      List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+      long start = System.nanoTime();
+      for (int i = 0; i < clients; i++) {
+        results.add(pool.submit(client("load-" + run + "-" + i)));
+      }
+      long[] times = new long[clients * requests];
+      for (int i = 0; i < clients; i++) {
+        System.arraycopy(results.get(i).get(), 0, times, i * requests, requests);
+      }
+      long elapsed = System.nanoTime() - start;
+
+      Arrays.sort(times);
+      System.out.println(clients + " clients sent " + times.length + " requests in "
+              + (elapsed / 1_000_000L) + " ms (" + (times.length * 1_000_000_000L / elapsed)
+              + " requests/s)");
+      System.out.println("Latency (us): median " + micros(times, 0.5) + ", p90 "
+              + micros(times, 0.9) + ", p99 " + micros(times, 0.99) + ", max "
+              + micros(times, 1.0));
+    } catch (ExecutionException e) {
+      throw new IOException("A client failed: " + e.getCause().getMessage(), e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets a latency at a fraction of the way through the sorted latencies.
+   */
+  private static long micros(long[] sorted, double fraction) {
+    int index = (int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)));
+    return sorted[index] / NANOS_PER_MICRO;
+  }
+
+  /**
+   * Makes a client that uses its own calendar and times each request it sends.
+   *
+   * @param calendarName the name of the client's calendar
+   * @return the client, which returns the latency of each request in nanoseconds
+   */
+  private Callable<long[]> client(String calendarName) {
+    return () -> {
+      send(post("", "name=" + calendarName + "&timezone=UTC"));
+      long[] times = new long[requests];
+      for (int i = 0; i < requests; i++) {
+        HttpRequest request = request(calendarName, i);
+        long start = System.nanoTime();
+        send(request);
+        times[i] = System.nanoTime() - start;
+      }
+      return times;
+    };
+  }
+
+  /**
+   * Gets a client's request: mostly new events, with queries of the days they are on.
+   */
+  private HttpRequest request(String calendarName, int i) {
+    String day = "2025-03-" + (10 + (i / 12) % 18);
+    String time = String.format("%02d:%02d", 8 + (i % 12), (i / 216) % 59);
+    String calendar = "/" + calendarName;
+    switch (i % 5) {
+      case 1:
+        return get(calendar + "/events?from=" + day + "T00:00&to=" + day + "T23:59");
+      case 3:
+        return get(calendar + "/status?at=" + day + "T" + time);
+      case 4:
+        return get(calendar + "/freebusy?from=" + day + "T00:00&to=" + day + "T23:59");
+      default:
+        return post(calendar + "/events", "subject=" + encode("Load " + i) + "&start=" + day
+                + "T" + time + "&end=" + day + "T" + time.substring(0, 2) + ":59");
+    }
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(URI.create(api + path)).GET().build();
+  }
+
+  private HttpRequest post(String path, String form) {
+    return HttpRequest.newBuilder(URI.create(api + path))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+  }
+
+  /**
+   * Sends a request and reads its reply.
+   *
+   * @throws IOException if the request fails
+   */
+  private void send(HttpRequest request) throws IOException, InterruptedException {
+    HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() >= 300) {
+      throw new IOException(request.uri() + " failed: " + response.body());
+    }
+  }
+}
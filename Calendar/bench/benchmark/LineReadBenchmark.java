@@ -0,0 +1,162 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+import calendar.controller.LineSource;
+
+/**
+ * Measures how fast a headless command file is read, the way the controllers read it. Each
+ * round reads every line of the file once with a {@link Scanner} looping on hasNext() and
+ * nextLine().trim(), as the controllers used to, and once with a {@link LineSource}, and
+ * prints the lines per second of each. Run it several rounds on a warm page cache, and on a
+ * file of at least 32 MB to measure the memory-mapped reads.
+ * How to run it:
+ * java benchmark.LineReadBenchmark --file {file} [--rounds {count}] [--generate {megabytes}]
+ * With --generate, the file is first written with that many megabytes of commands.
+ */
+public class LineReadBenchmark {
+  private static final double NANOS_PER_SECOND = 1e9;
+
+  private final File file;
+  private final int rounds;
+
+  /**
+   * Creates a benchmark.
+   *
+   * @param file   the command file to read
+   * @param rounds the number of times to read it each way
+   * @throws IllegalArgumentException if there are no rounds
+   */
+  public LineReadBenchmark(File file, int rounds) {
+    if (rounds < 1) {
+      throw new IllegalArgumentException("Rounds must be positive");
+    }
+    this.file = file;
+    this.rounds = rounds;
+  }
+
+  /**
+   * Runs the benchmark from the command line.
+   *
+   * @param args --file {file} [--rounds {count}] [--generate {megabytes}]
+   * @throws IOException if the file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    List<String> options = Arrays.asList(args);
+    File file = new File(option(options, "--file", null));
+    int rounds = Integer.parseInt(option(options, "--rounds", "3"));
+    String generate = option(options, "--generate", "");
+    if (!generate.isEmpty()) {
+      generate(file, Long.parseLong(generate) * 1024 * 1024);
+    }
+    new LineReadBenchmark(file, rounds).run();
+  }
+
+  /**
+   * Gets the value following an option, or a default if the option is not given.
+   */
+  private static String option(List<String> args, String option, String defaultValue) {
+    int index = args.indexOf(option);
+    if ((index < 0) || (index == args.size() - 1)) {
+      if (defaultValue == null) {
+        throw new IllegalArgumentException(option + " requires a value");
+      }
+      return defaultValue;
+    }
+    return args.get(index + 1);
+  }
+
+  /**
+   * Writes a command file of about the given size, mixing the commands a script is made of.
+   */
+  private static void generate(File file, long bytes) throws IOException {
+    long written = 0;
+    try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+      for (int i = 0; written < bytes; i++) {
+        int day = 1 + i % 28;
+        String line;
+        switch (i % 4) {
+          case 0:
+            line = String.format("create event \"Meeting %d\" from 2025-03-%02dT09:00 "
+                    + "to 2025-03-%02dT10:00", i, day, day);
+            break;
+          case 1:
+            line = String.format("show status on 2025-03-%02dT09:30", day);
+            break;
+          case 2:
+            line = String.format("  print events on 2025-03-%02d  ", day);
+            break;
+          default:
+            line = "";
+            break;
+        }
+        out.write(line);
+        out.newLine();
+        written += line.length() + 1;
+      }
+      out.write("exit");
+      out.newLine();
+    }
+  }
+
+  /**
+   * Reads the file each way for every round and prints the results.
+   *
+   * @throws IOException if the file cannot be read
+   */
+  public void run() throws IOException {
+    System.out.printf("%s: %d bytes%n", file, file.length());
+    for (int round = 1; round <= rounds; round++) {
+      report(round, "Scanner", readWithScanner());
+      report(round, "LineSource", readWithLineSource());
+    }
+  }
+
+  /**
+   * Reads every line with a scanner, and gets how many were read and how long it took.
+   */
+  private long[] readWithScanner() throws IOException {
+    long start = System.nanoTime();
+    long lines = 0;
+    long chars = 0;
+    try (Scanner in = new Scanner(file)) {
+      while (in.hasNext()) {
+        chars += in.nextLine().trim().length();
+        lines++;
+      }
+    }
+    return new long[]{lines, chars, System.nanoTime() - start};
+  }
+
+  /**
+   * Reads every line with a line source, and gets how many were read and how long it took.
+   */
+  private long[] readWithLineSource() throws IOException {
+    long start = System.nanoTime();
+    long lines = 0;
+    long chars = 0;
+    try (LineSource in = LineSource.open(file)) {
+      while (in.hasNext()) {
+        chars += in.nextLine().length();
+        lines++;
+      }
+    }
+    return new long[]{lines, chars, System.nanoTime() - start};
+  }
+
+  /**
+   * Prints one reading of the file. The number of characters read is printed too, so both
+   * ways can be seen to have read the same text.
+   */
+  private static void report(int round, String reader, long[] result) {
+    double seconds = result[2] / NANOS_PER_SECOND;
+    System.out.printf("round %d %-10s %,d lines, %,d chars, %.2f s, %,.0f lines/s%n", round,
+            reader, result[0], result[1], seconds, result[0] / seconds);
+  }
+}
@@ -0,0 +1,188 @@
+package benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A load test for server mode. A number of clients connect to a server on this machine at
+ * once. Each creates and uses a calendar of its own, then sends commands one at a time,
+ * waiting for the prompt that ends each reply, and times every round trip. At the end the
+ * number of commands per second and the spread of round-trip times are printed.
+ * How to run it, with a server already listening:
+ * java benchmark.ServerLoadClient --port {port} [--clients {count}] [--commands {count}]
+ */
+public class ServerLoadClient {
+  private static final byte[] PROMPT = "> ".getBytes(StandardCharsets.UTF_8);
+  private static final long NANOS_PER_MICRO = 1_000L;
+
+  private final int port;
+  private final int clients;
+  private final int commands;
+
+  /**
+   * Creates a load test.
+   *
+   * @param port     the port the server listens on
+   * @param clients  the number of clients to connect at once
+   * @param commands the number of commands each client sends
+   * @throws IllegalArgumentException if there are no clients or no commands
+   */
+  public ServerLoadClient(int port, int clients, int commands) {
+    if ((clients < 1) || (commands < 1)) {
+      throw new IllegalArgumentException("Clients and commands must be positive");
+    }
+    this.port = port;
+    this.clients = clients;
+    this.commands = commands;
+  }
+
+  /**
+   * Runs the load test from the command line.
+   *
+   * @param args --port {port} [--clients {count}] [--commands {count}]
+   * @throws Exception if a client fails
+   */
+  public static void main(String[] args) throws Exception {
+    List<String> options = Arrays.asList(args);
+    int port = Integer.parseInt(option(options, "--port", null));
+    int clients = Integer.parseInt(option(options, "--clients", "8"));
+    int commands = Integer.parseInt(option(options, "--commands", "1000"));
+    new ServerLoadClient(port, clients, commands).run();
+  }
+
+  /**
+   * Gets the value following an option, or a default if the option is not given.
+   */
+  private static String option(List<String> args, String option, String defaultValue) {
+    int index = args.indexOf(option);
+    if ((index < 0) || (index == args.size() - 1)) {
+      if (defaultValue == null) {
+        throw new IllegalArgumentException(option + " requires a value");
+      }
+      return defaultValue;
+    }
+    return args.get(index + 1);
+  }
+
+  /**
+   * Runs every client at once and prints the results.
+   *
+   * @throws Exception if a client fails
+   */
+  public void run() throws Exception {
+    String run = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    ExecutorService pool = Executors.newFixedThreadPool(clients);
+    try {
+      List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+      long start = System.nanoTime();
+      for (int i = 0; i < clients; i++) {
+        results.add(pool.submit(client("load-" + run + "-" + i)));
+      }
+      long[] times = new long[clients * commands];
+      for (int i = 0; i < clients; i++) {
+        System.arraycopy(results.get(i).get(), 0, times, i * commands, commands);
+      }
+      long elapsed = System.nanoTime() - start;
+
+      Arrays.sort(times);
+      System.out.println(clients + " clients sent " + times.length + " commands in "
+              + (elapsed / 1_000_000L) + " ms (" + (times.length * 1_000_000_000L / elapsed)
+              + " commands/s)");
+      System.out.println("Round trip (us): median " + micros(times, 0.5) + ", p99 "
+              + micros(times, 0.99) + ", max " + micros(times, 1.0));
+    } catch (ExecutionException e) {
+      throw new IOException("A client failed: " + e.getCause().getMessage(), e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets a round-trip time at a fraction of the way through the sorted times.
+   */
+  private static long micros(long[] sorted, double fraction) {
+    int index = (int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)));
+    return sorted[index] / NANOS_PER_MICRO;
+  }
+
+  /**
+   * Makes a client that uses its own calendar and times each command it sends.
+   *
+   * @param calendarName the name of the client's calendar
+   * @return the client, which returns the round-trip time of each command in nanoseconds
+   */
+  private Callable<long[]> client(String calendarName) {
+    return () -> {
+      long[] times = new long[commands];
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+        socket.setTcpNoDelay(true);
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        awaitPrompt(in);
+        send(in, out, "create calendar --name " + calendarName + " --timezone UTC");
+        send(in, out, "use calendar --name " + calendarName);
+        for (int i = 0; i < commands; i++) {
+          long start = System.nanoTime();
+          send(in, out, command(i));
+          times[i] = System.nanoTime() - start;
+        }
+        out.write("exit\n".getBytes(StandardCharsets.UTF_8));
+      }
+      return times;
+    };
+  }
+
+  /**
+   * Gets a client's command: mostly new events, with queries of the days they are on.
+   */
+  private static String command(int i) {
+    String day = "2025-03-" + (10 + (i / 12) % 18);
+    String time = String.format("%02d:%02d", 8 + (i % 12), (i / 216) % 59);
+    switch (i % 4) {
+      case 1:
+        return "print events on " + day;
+      case 3:
+        return "show status on " + day + "T" + time;
+      default:
+        return "create event \"Load " + i + "\" from " + day + "T" + time + " to " + day
+                + "T" + time.substring(0, 2) + ":59";
+    }
+  }
+
+  /**
+   * Sends a command and waits for its reply.
+   */
+  private static void send(InputStream in, OutputStream out, String command)
+          throws IOException {
+    out.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    awaitPrompt(in);
+  }
+
+  /**
+   * Reads a reply up to the prompt that ends it.
+   */
+  private static void awaitPrompt(InputStream in) throws IOException {
+    int matched = 0;
+    while (matched < PROMPT.length) {
+      int b = in.read();
+      if (b < 0) {
+        throw new IOException("Server closed the connection");
+      }
+      matched = (b == PROMPT[matched]) ? matched + 1 : ((b == PROMPT[0]) ? 1 : 0);
+    }
+  }
+}
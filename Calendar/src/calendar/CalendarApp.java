@@ -2,15 +2,36 @@ package calendar;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
+import calendar.controller.BatchController;
 import calendar.controller.ControllerGUI;
 import calendar.controller.HeadlessController;
+import calendar.controller.HttpApiController;
 import calendar.controller.ICalendarController;
 import calendar.controller.InteractiveController;
+import calendar.controller.PipelinedHeadlessController;
+import calendar.controller.ServerController;
+import calendar.controller.ValidateController;
 import calendar.model.CalendarManager;
+import calendar.model.EventStore;
 import calendar.model.ICalendarManager;
+import calendar.model.MappedCalendarModel;
+import calendar.model.OffHeapEventStore;
+import calendar.model.persistence.CalendarJournal;
+import calendar.model.persistence.CalendarSnapshotter;
+import calendar.model.persistence.JournalSyncPolicy;
+import calendar.model.persistence.JournalingCalendarManager;
+import calendar.model.persistence.WorkspaceCalendarManager;
 import calendar.view.CalendarView;
 import calendar.view.ICalendarView;
 import calendar.view.ICalendarViewGUI;
@@ -18,16 +39,72 @@ import calendar.view.JFrameView;
 
 /**
  * The driver of this application.
- * This application supports three modes as well as the management of multiple calendars:
+ * This application supports seven modes as well as the management of multiple calendars:
  * - GUI mode (default): Graphical user interface
  * - Interactive mode: User enters commands through the console
  * - Headless mode: Commands are read from a file
+ * - Batch mode: Commands are read from many files, each run as in headless mode
+ * - Validate mode: Commands are read from a file and checked, but not run
+ * - Server mode: Commands are read from clients connected over TCP
+ * - HTTP mode: The calendars are served as a JSON API over HTTP
  * How to run each mode:
  * - GUI: java CalendarApp (no arguments, default mode) or java CalendarApp --mode gui
  * - Interactive: java CalendarApp --mode interactive
- * - Headless: java CalendarApp --mode headless {file name}
+ * - Headless: java CalendarApp --mode headless {file name} [--pipelined]
+ * - Batch: java CalendarApp --mode batch {file or directory}... [--output {directory}]
+ *   [--parallelism {count}]
+ * - Validate: java CalendarApp --mode validate {file name} [--parallelism {count}]
+ * - Server: java CalendarApp --mode server --port {port}
+ * - HTTP: java CalendarApp --mode http --port {port} [--threads {count}]
+ * With --pipelined, headless mode reads, parses, runs and writes output on separate threads.
+ * The option is experimental, as it has not yet been shown to be faster than the plain run.
+ * Batch mode runs up to --parallelism scripts at once (one per processor by default), each
+ * with its own calendars, and writes each script's output to {script name}.out next to the
+ * script or in the --output directory. A summary of the run is printed at the end.
+ * Validate mode parses every line of the file on up to --parallelism threads and prints each
+ * error with its line number, without changing any calendar.
+ * Server mode listens on a port of this machine. Every connection is a session of its own, as
+ * in interactive mode, with its own calendar in use, on calendars shared by all sessions.
+ * HTTP mode handles requests on --threads threads (one per processor by default).
+ * Any mode can keep its calendars across runs by adding --journal {directory}. Every change
+ * is then appended to a journal in that directory, and the calendars are rebuilt from it on
+ * the next start. --journal-sync every|group|os controls how often the journal is forced to
+ * disk (group by default). Every 10000 changes a snapshot of all calendars is written in the
+ * background and the journal before it is deleted, so startup stays fast.
+ * Instead of a journal, --workspace {directory} keeps the calendars in a directory of month
+ * segment files. Changes are written by the save command, every --autosave {seconds} if
+ * given, and on exit; each save only writes what changed since the last one.
+ * --store offheap keeps the events of every calendar created outside the Java heap, so very
+ * large calendars add almost nothing to garbage collection pauses; --store heap, the default,
+ * keeps them as objects on the heap. A workspace keeps its own month segments instead.
+ * --mapped {file} opens a calendar file written by 'export cal {file}.cal' as a read-only
+ * calendar, answering queries straight from the file without loading it. The option can be
+ * given more than once, but not with a journal or workspace, which would keep the calendar.
  */
 public class CalendarApp {
+  private static final int GUI_QUERY_CACHE_SIZE = 256;
+  private static final String JOURNAL_OPTION = "--journal";
+  private static final String JOURNAL_SYNC_OPTION = "--journal-sync";
+  private static final int JOURNAL_GROUP_COMMIT_SIZE = 32;
+  private static final int JOURNAL_SNAPSHOT_INTERVAL = 10000;
+  private static final String WORKSPACE_OPTION = "--workspace";
+  private static final String AUTOSAVE_OPTION = "--autosave";
+  private static final String STORE_OPTION = "--store";
+  private static final String MAPPED_OPTION = "--mapped";
+  private static final String PIPELINED_OPTION = "--pipelined";
+  private static final String OUTPUT_OPTION = "--output";
+  private static final String PARALLELISM_OPTION = "--parallelism";
+  private static final String PORT_OPTION = "--port";
+  private static final String THREADS_OPTION = "--threads";
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+  private static final long WORKSPACE_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+  private static Path journalDirectory = null;
+  private static JournalSyncPolicy journalSyncPolicy = JournalSyncPolicy.GROUP_COMMIT;
+  private static Path workspaceDirectory = null;
+  private static Duration autosaveInterval = null;
+  private static boolean offHeapStore = false;
+  private static final List<Path> mappedFiles = new ArrayList<Path>();
 
   /**
    * Initializes and runs the calendar application.
@@ -35,13 +112,25 @@ public class CalendarApp {
    * @param args command line arguments in either format:
    *             --mode interactive (for interactive mode)
    *             --mode headless {file name} (for headless mode)
+   *             --mode batch {files or directories} (for batch mode)
+   *             --mode validate {file name} (for validate mode)
+   *             --mode server --port {port} (for server mode)
+   *             --mode http --port {port} (for HTTP mode)
    *             --mode gui (for gui mode)
-   *             or no arguments (defaults to gui mode)
+   *             or no arguments (defaults to gui mode),
+   *             optionally followed by --journal {directory} [--journal-sync policy]
+   *             or --workspace {directory} [--autosave seconds],
+   *             and optionally by --store heap|offheap and --mapped {file}
    * @throws IllegalArgumentException if the mode is invalid or arguments are missing
    * @throws RuntimeException         if the file cannot be found in headless mode
    */
   public static void main(String[] args) {
     try {
+      args = parseJournalOptions(args);
+      args = parseWorkspaceOptions(args);
+      args = parseStoreOption(args);
+      args = parseMappedOptions(args);
+
       // If no arguments provided, default to GUI mode
       if (args.length == 0) {
         ICalendarController controller = createGUIController();
@@ -58,6 +147,246 @@ public class CalendarApp {
     }
   }
 
+  /**
+   * Reads and removes the journal options from the command line arguments.
+   *
+   * @param args the command line arguments
+   * @return the remaining arguments
+   * @throws IllegalArgumentException if a journal option has no valid value
+   */
+  private static String[] parseJournalOptions(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args));
+    String directory = removeOption(remaining, JOURNAL_OPTION);
+    String syncPolicy = removeOption(remaining, JOURNAL_SYNC_OPTION);
+
+    if (directory != null) {
+      journalDirectory = Paths.get(directory);
+    }
+    if (syncPolicy != null) {
+      switch (syncPolicy.toLowerCase()) {
+        case "every":
+          journalSyncPolicy = JournalSyncPolicy.EVERY_RECORD;
+          break;
+        case "group":
+          journalSyncPolicy = JournalSyncPolicy.GROUP_COMMIT;
+          break;
+        case "os":
+          journalSyncPolicy = JournalSyncPolicy.OS_DEFAULT;
+          break;
+        default:
+          throw new IllegalArgumentException("Journal sync must be 'every', 'group', or 'os'");
+      }
+    }
+    return remaining.toArray(new String[0]);
+  }
+
+  /**
+   * Reads and removes the workspace options from the command line arguments.
+   *
+   * @param args the command line arguments
+   * @return the remaining arguments
+   * @throws IllegalArgumentException if a workspace option has no valid value, or a workspace
+   *                                  is combined with a journal
+   */
+  private static String[] parseWorkspaceOptions(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args));
+    String directory = removeOption(remaining, WORKSPACE_OPTION);
+    String autosave = removeOption(remaining, AUTOSAVE_OPTION);
+
+    if (directory != null) {
+      if (journalDirectory != null) {
+        throw new IllegalArgumentException(WORKSPACE_OPTION + " cannot be used with " +
+                JOURNAL_OPTION);
+      }
+      workspaceDirectory = Paths.get(directory);
+    }
+    if (autosave != null) {
+      if (workspaceDirectory == null) {
+        throw new IllegalArgumentException(AUTOSAVE_OPTION + " requires " + WORKSPACE_OPTION);
+      }
+      try {
+        autosaveInterval = Duration.ofSeconds(Long.parseLong(autosave));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Autosave interval must be a number of seconds");
+      }
+    }
+    return remaining.toArray(new String[0]);
+  }
+
+  /**
+   * Reads and removes the store option from the command line arguments.
+   *
+   * @param args the command line arguments
+   * @return the remaining arguments
+   * @throws IllegalArgumentException if the store is not valid, or an off-heap store is
+   *                                  combined with a workspace
+   */
+  private static String[] parseStoreOption(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args));
+    String store = removeOption(remaining, STORE_OPTION);
+
+    if (store != null) {
+      switch (store.toLowerCase()) {
+        case "heap":
+          offHeapStore = false;
+          break;
+        case "offheap":
+          offHeapStore = true;
+          break;
+        default:
+          throw new IllegalArgumentException("Store must be 'heap' or 'offheap'");
+      }
+    }
+    if (offHeapStore && (workspaceDirectory != null)) {
+      throw new IllegalArgumentException(STORE_OPTION + " offheap cannot be used with " +
+              WORKSPACE_OPTION);
+    }
+    return remaining.toArray(new String[0]);
+  }
+
+  /**
+   * Reads and removes every mapped calendar option from the command line arguments.
+   *
+   * @param args the command line arguments
+   * @return the remaining arguments
+   * @throws IllegalArgumentException if an option has no value, or calendar files are
+   *                                  combined with a journal or workspace
+   */
+  private static String[] parseMappedOptions(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args));
+    for (String file = removeOption(remaining, MAPPED_OPTION); file != null;
+         file = removeOption(remaining, MAPPED_OPTION)) {
+      mappedFiles.add(Paths.get(file));
+    }
+    if (!mappedFiles.isEmpty() && ((journalDirectory != null) || (workspaceDirectory != null))) {
+      throw new IllegalArgumentException(MAPPED_OPTION + " cannot be used with " +
+              JOURNAL_OPTION + " or " + WORKSPACE_OPTION);
+    }
+    return remaining.toArray(new String[0]);
+  }
+
+  /**
+   * Gets what makes the store of each calendar created.
+   *
+   * @return the store factory, or null to keep events on the heap
+   */
+  private static Supplier<EventStore> storeFactory() {
+    return offHeapStore ? OffHeapEventStore::new : null;
+  }
+
+  /**
+   * Removes an option and its value from the arguments.
+   *
+   * @return the value of the option, or null if the option is not present
+   * @throws IllegalArgumentException if the option has no value
+   */
+  private static String removeOption(List<String> args, String option) {
+    int index = args.indexOf(option);
+    if (index < 0) {
+      return null;
+    }
+    if (index == args.size() - 1) {
+      throw new IllegalArgumentException(option + " requires a value");
+    }
+    String value = args.get(index + 1);
+    args.subList(index, index + 2).clear();
+    return value;
+  }
+
+  /**
+   * Creates the calendar manager used by every mode. When a journal directory was given, the
+   * calendars recorded in it are recovered and every further change is journaled, with
+   * periodic snapshots keeping the journal short.
+   *
+   * @param queryCacheSize the number of query results each calendar caches, or 0 for none
+   * @return the calendar manager
+   * @throws RuntimeException if the journal cannot be opened or recovered
+   */
+  private static ICalendarManager createManager(int queryCacheSize) {
+    if (workspaceDirectory != null) {
+      return openWorkspace(queryCacheSize);
+    }
+    CalendarManager manager = new CalendarManager(queryCacheSize, storeFactory());
+    if (journalDirectory == null) {
+      openMappedCalendars(manager);
+      return manager;
+    }
+
+    try {
+      CalendarJournal journal = CalendarJournal.recover(journalDirectory, manager,
+              journalSyncPolicy, JOURNAL_GROUP_COMMIT_SIZE);
+      CalendarSnapshotter snapshotter = new CalendarSnapshotter(manager, journal);
+      snapshotter.snapshotEvery(JOURNAL_SNAPSHOT_INTERVAL);
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> closeJournal(snapshotter, journal)));
+      return new JournalingCalendarManager(manager, journal);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open journal: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Adds the read-only calendars of the calendar files given on the command line.
+   *
+   * @param manager the manager to add them to
+   * @throws IllegalArgumentException if two calendars have the same name
+   * @throws RuntimeException         if a file cannot be opened
+   */
+  private static void openMappedCalendars(CalendarManager manager) {
+    for (Path file : mappedFiles) {
+      try {
+        manager.addCalendar(MappedCalendarModel.open(file));
+      } catch (IOException e) {
+        throw new RuntimeException("Could not open calendar file " + file + ": " +
+                e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Opens the workspace directory, saving any unsaved changes when the application exits.
+   *
+   * @param queryCacheSize the number of query results each calendar caches, or 0 for none
+   * @return the workspace's calendar manager
+   * @throws RuntimeException if the workspace cannot be opened
+   */
+  private static ICalendarManager openWorkspace(int queryCacheSize) {
+    try {
+      WorkspaceCalendarManager workspace = new WorkspaceCalendarManager(workspaceDirectory,
+              WORKSPACE_MEMORY_BUDGET, queryCacheSize);
+      workspace.setAutosaveInterval(autosaveInterval);
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          workspace.close();
+        } catch (IOException e) {
+          System.err.println("Could not save calendars: " + e.getMessage());
+        }
+      }));
+      return workspace;
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open workspace: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Closes the journal when the application exits, so pending records and snapshots reach
+   * the disk.
+   *
+   * @param snapshotter the snapshotter to wait for
+   * @param journal     the journal to close
+   */
+  private static void closeJournal(CalendarSnapshotter snapshotter, CalendarJournal journal) {
+    try {
+      snapshotter.close();
+    } catch (IOException e) {
+      System.err.println("Could not write snapshot: " + e.getMessage());
+    }
+    try {
+      journal.close();
+    } catch (IOException e) {
+      System.err.println("Could not close journal: " + e.getMessage());
+    }
+  }
+
   /**
    * Validates the format of the command line arguments.
    *
@@ -67,14 +396,15 @@ public class CalendarApp {
   private static void validateArguments(String[] args) {
     if (args.length < 2 || !args[0].equals("--mode")) {
       throw new IllegalArgumentException(
-              "Invalid arguments. Use --mode followed by 'interactive', 'headless', or 'gui'");
+              "Invalid arguments. Use --mode followed by 'interactive', 'headless', 'batch', " +
+                      "'validate', 'server', 'http', or 'gui'");
     }
   }
 
   /**
    * Creates the controller based on the mode.
    *
-   * @param mode the mode (interactive, headless, or gui)
+   * @param mode the mode (interactive, headless, batch, validate, server, http, or gui)
    * @param args the command line arguments
    * @return the controller
    * @throws IllegalArgumentException if the mode is invalid
@@ -88,8 +418,17 @@ public class CalendarApp {
         return createHeadlessController(args);
       case "gui":
         return createGUIController();
+      case "batch":
+        return createBatchController(args);
+      case "validate":
+        return createValidateController(args);
+      case "server":
+        return createServerController(args);
+      case "http":
+        return createHttpController(args);
       default:
-        throw new IllegalArgumentException("Mode must be 'interactive', 'headless', or 'gui'");
+        throw new IllegalArgumentException("Mode must be 'interactive', 'headless', 'batch', " +
+                "'validate', 'server', 'http', or 'gui'");
     }
   }
 
@@ -99,8 +438,8 @@ public class CalendarApp {
    * @return an interactive controller
    */
   private static ICalendarController createInteractiveController() {
-    ICalendarManager manager = new CalendarManager();
-    ICalendarView calendarView = new CalendarView(System.out);
+    ICalendarManager manager = createManager(0);
+    ICalendarView calendarView = new CalendarView(System.out, OUTPUT_BUFFER_SIZE);
     Readable readable = new InputStreamReader(System.in);
     return new InteractiveController(manager, calendarView, readable);
   }
@@ -116,20 +455,155 @@ public class CalendarApp {
     if (args.length < 3) {
       throw new IllegalArgumentException(
               "Headless mode requires the following format: java CalendarApp --mode headless " +
-                      "{file name}");
+                      "{file name} [--pipelined (experimental)]");
     }
 
-    ICalendarManager manager = new CalendarManager();
-    ICalendarView calendarView = new CalendarView(System.out);
+    ICalendarManager manager = createManager(0);
+    ICalendarView calendarView = new CalendarView(System.out, OUTPUT_BUFFER_SIZE);
     File file = new File(args[2]);
+    boolean pipelined = args.length > 3 && args[3].equals(PIPELINED_OPTION);
 
     try {
+      if (pipelined) {
+        return new PipelinedHeadlessController(manager, calendarView, file);
+      }
       return new HeadlessController(manager, calendarView, file);
     } catch (FileNotFoundException e) {
       throw new RuntimeException("File not found: " + args[2]);
     }
   }
 
+  /**
+   * Creates a batch controller for the scripts and directories named after the mode.
+   *
+   * @param args the command line arguments containing the scripts and batch options
+   * @return a batch controller
+   * @throws IllegalArgumentException if no scripts are named, an option has no valid value, or
+   *                                  a journal or workspace was requested
+   */
+  private static ICalendarController createBatchController(String[] args) {
+    if ((journalDirectory != null) || (workspaceDirectory != null) || !mappedFiles.isEmpty()) {
+      throw new IllegalArgumentException("Batch mode gives each script its own calendars, " +
+              "so it cannot be used with " + JOURNAL_OPTION + ", " + WORKSPACE_OPTION +
+              " or " + MAPPED_OPTION);
+    }
+    List<String> paths = new ArrayList<String>(Arrays.asList(args).subList(2, args.length));
+    String output = removeOption(paths, OUTPUT_OPTION);
+    String parallelism = removeOption(paths, PARALLELISM_OPTION);
+    if (paths.isEmpty()) {
+      throw new IllegalArgumentException(
+              "Batch mode requires the following format: java CalendarApp --mode batch " +
+                      "{file or directory}... [--output directory] [--parallelism count]");
+    }
+
+    int threads = parseParallelism(parallelism, "scripts");
+    return new BatchController(BatchController.findScripts(paths),
+            (output == null) ? null : Paths.get(output), threads,
+            () -> new CalendarManager(0, storeFactory()),
+            new CalendarView(System.out, OUTPUT_BUFFER_SIZE));
+  }
+
+  /**
+   * Creates a validate controller for the file named after the mode.
+   *
+   * @param args the command line arguments containing the filename and parallelism
+   * @return a validate controller
+   * @throws IllegalArgumentException if no file is named or the parallelism is not a number
+   * @throws RuntimeException         if the file is not found
+   */
+  private static ICalendarController createValidateController(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args).subList(2, args.length));
+    String parallelism = removeOption(remaining, PARALLELISM_OPTION);
+    if (remaining.size() != 1) {
+      throw new IllegalArgumentException(
+              "Validate mode requires the following format: java CalendarApp --mode validate " +
+                      "{file name} [--parallelism count]");
+    }
+
+    int threads = parseParallelism(parallelism, "threads");
+    try {
+      return new ValidateController(new File(remaining.get(0)), threads,
+              new CalendarView(System.out, OUTPUT_BUFFER_SIZE));
+    } catch (FileNotFoundException e) {
+      throw new RuntimeException("File not found: " + remaining.get(0));
+    }
+  }
+
+  /**
+   * Creates a server controller listening on the port named after the mode.
+   *
+   * @param args the command line arguments containing the port
+   * @return a server controller
+   * @throws IllegalArgumentException if no valid port is named
+   * @throws RuntimeException         if the port cannot be listened on
+   */
+  private static ICalendarController createServerController(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args).subList(2, args.length));
+    String port = removeOption(remaining, PORT_OPTION);
+    if ((port == null) || !remaining.isEmpty()) {
+      throw new IllegalArgumentException(
+              "Server mode requires the following format: java CalendarApp --mode server " +
+                      "--port {port}");
+    }
+
+    ICalendarManager manager = createManager(0);
+    try {
+      return new ServerController(manager, Integer.parseInt(port), new CalendarView(System.out));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Port must be a number");
+    } catch (IOException e) {
+      throw new RuntimeException("Could not listen on port " + port + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Creates an HTTP API controller listening on the port named after the mode.
+   *
+   * @param args the command line arguments containing the port and number of threads
+   * @return an HTTP API controller
+   * @throws IllegalArgumentException if no valid port is named or the threads are not a number
+   * @throws RuntimeException         if the port cannot be listened on
+   */
+  private static ICalendarController createHttpController(String[] args) {
+    List<String> remaining = new ArrayList<String>(Arrays.asList(args).subList(2, args.length));
+    String port = removeOption(remaining, PORT_OPTION);
+    String threads = removeOption(remaining, THREADS_OPTION);
+    if ((port == null) || !remaining.isEmpty()) {
+      throw new IllegalArgumentException(
+              "HTTP mode requires the following format: java CalendarApp --mode http " +
+                      "--port {port} [--threads count]");
+    }
+
+    ICalendarManager manager = createManager(0);
+    try {
+      return new HttpApiController(manager, Integer.parseInt(port),
+              parseParallelism(threads, "threads"), new CalendarView(System.out));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Port must be a number");
+    } catch (IOException e) {
+      throw new RuntimeException("Could not listen on port " + port + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the value of the parallelism option, which is one per processor if not given.
+   *
+   * @param parallelism the value of the option, or null if it was not given
+   * @param unit        what the parallelism counts, for the error message
+   * @return the parallelism
+   * @throws IllegalArgumentException if the value is not a number
+   */
+  private static int parseParallelism(String parallelism, String unit) {
+    if (parallelism == null) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    try {
+      return Integer.parseInt(parallelism);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Parallelism must be a number of " + unit);
+    }
+  }
+
   /**
    * Creates a GUI controller with default calendar setup.
    *
@@ -149,11 +623,16 @@ public class CalendarApp {
    * @return configured calendar manager with default calendar
    */
   private static ICalendarManager setupDefaultCalendar() {
-    ICalendarManager manager = new CalendarManager();
+    // The GUI repeats the same per-day queries on every refresh, so cache their results
+    ICalendarManager manager = createManager(GUI_QUERY_CACHE_SIZE);
 
-    // Create a default calendar with system timezone
-    manager.createCalendar("MyCalendar", ZoneId.systemDefault());
-    manager.useCalendar("MyCalendar");
+    // Create a default calendar with system timezone, unless it was recovered from a journal
+    if (!manager.getCalendarNames().contains("MyCalendar")) {
+      manager.createCalendar("MyCalendar", ZoneId.systemDefault());
+    }
+    if (manager.getCurrentCalendar() == null) {
+      manager.useCalendar("MyCalendar");
+    }
 
     return manager;
   }
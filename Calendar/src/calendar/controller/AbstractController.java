@@ -1,9 +1,16 @@
 package calendar.controller;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.controller.command.AbstractEventCommand;
+import calendar.controller.command.ICalendarCommand;
+import calendar.controller.parser.CommandTokens;
 import calendar.controller.parser.ICommandFactory;
 import calendar.controller.parser.ICommandParser;
 import calendar.controller.parser.SmartCommandParserFactory;
 import calendar.model.ICalendarManager;
+import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
 /**
@@ -11,11 +18,25 @@ import calendar.view.ICalendarView;
  * It contains the common setup and methods for the controller.
  * It also contains the abstract methods for creating the controller and converting the input
  * string.
+ * Commands between 'begin' and 'commit' form a block. They are parsed as they are read, but
+ * only run at 'commit', together, as one group of changes to the calendar in use: if any of
+ * them fails, none of their changes are kept. 'rollback' drops the block without running it,
+ * and so does the end of the input, which reports the block it drops.
  */
 public abstract class AbstractController implements ICalendarController {
+  private static final String BEGIN = "begin";
+  private static final String COMMIT = "commit";
+  private static final String ROLLBACK = "rollback";
+
   protected final ICalendarView calendarView;
   protected final ICommandFactory factory;
   protected final ICalendarManager manager;
+  // The words of the command being run, reused for every line
+  private final CommandTokens command = new CommandTokens();
+  // The commands of the open block and the lines they were parsed from, or null if no block
+  // is open
+  private List<AbstractEventCommand> block;
+  private List<String> blockLines;
 
   protected AbstractController(ICalendarManager manager, ICalendarView calendarView) {
     //this.calendarModel = calendarModel;
@@ -33,12 +54,169 @@ public abstract class AbstractController implements ICalendarController {
 
   /**
    * Takes a command line and parses it, creating the corresponding command or throwing an
-   * exception.
+   * exception. The line is split into words once, and those words are used both to route
+   * the command and to parse it. Inside a block, the command is kept to run at 'commit'.
    *
    * @param commandLine the line to parse
    */
   protected void parseCommand(String commandLine) {
-    ICommandParser parser = factory.createParser(commandLine);
-    parser.parse(commandLine);
+    command.reset(commandLine);
+    if (runBlockCommand()) {
+      return;
+    }
+    ICommandParser parser = factory.createParserFor(command);
+    if (block == null) {
+      parser.parse(command);
+    } else {
+      addToBlock(commandLine, parser.compile(command));
+    }
+  }
+
+  /**
+   * Runs a command parsed ahead of time, on another thread, as parseCommand would run its
+   * line: a command on the calendar in use fails first if no calendar is in use, then with
+   * the error its parsing gave, if any. Inside a block, the command is kept to run at
+   * 'commit'.
+   *
+   * @param parsed the parsed line
+   */
+  void runParsed(ParsedCommand parsed) {
+    if ((parsed.getCommand() == null) && (parsed.getFailure() == null)) {
+      parseCommand(parsed.getLine());
+      return;
+    }
+    if (parsed.needsCalendar()) {
+      requireCalendarInUse();
+    }
+    if (parsed.getFailure() != null) {
+      throw parsed.getFailure();
+    } else if (block == null) {
+      parsed.getCommand().execute(manager, calendarView);
+    } else {
+      addToBlock(parsed.getLine(), parsed.getCommand());
+    }
+  }
+
+  /**
+   * Checks whether a command begins, commits or rolls back a block.
+   *
+   * @param command the words of the command
+   * @return true if the command is one of those
+   */
+  static boolean isBlockCommand(CommandTokens command) {
+    return (command.size() == 1) && (command.is(0, BEGIN) || command.is(0, COMMIT)
+            || command.is(0, ROLLBACK));
+  }
+
+  /**
+   * Ends the input, by an exit command or by running out of lines. A block still open is
+   * dropped without being run, and reported as an error.
+   */
+  protected void endInput() {
+    if (block != null) {
+      calendarView.displayError("Rolled back " + count(closeBlock(COMMIT)) + ", since the " +
+              "input ended before 'commit'.");
+    }
+  }
+
+  /**
+   * Runs the command if it begins, commits or rolls back a block.
+   *
+   * @return true if the command was one of those
+   */
+  private boolean runBlockCommand() {
+    if (!isBlockCommand(command)) {
+      return false;
+    } else if (command.is(0, BEGIN)) {
+      beginBlock();
+    } else if (command.is(0, COMMIT)) {
+      commitBlock();
+    } else {
+      calendarView.displayMessage("Rolled back " + count(closeBlock(ROLLBACK)));
+    }
+    return true;
+  }
+
+  /**
+   * Opens a block on the calendar in use.
+   */
+  private void beginBlock() {
+    if (block != null) {
+      throw new IllegalArgumentException("A block is already open. Use 'commit' or " +
+              "'rollback' to close it first.");
+    }
+    requireCalendarInUse();
+    block = new ArrayList<AbstractEventCommand>();
+    blockLines = new ArrayList<String>();
+  }
+
+  /**
+   * Adds a parsed command to the open block. Only commands on the events of the calendar in
+   * use can be added, so every command of a block applies to the same calendar.
+   */
+  private void addToBlock(String commandLine, ICalendarCommand parsed) {
+    if (!(parsed instanceof AbstractEventCommand)) {
+      throw new IllegalArgumentException("Only commands on the events of the calendar in " +
+              "use can be run in a block. Use 'commit' or 'rollback' to close it first.");
+    }
+    block.add((AbstractEventCommand) parsed);
+    blockLines.add(commandLine);
+  }
+
+  /**
+   * Closes the open block and runs its commands as one group of changes to the calendar in
+   * use. If a command fails, the calendar is left as it was before the block.
+   */
+  private void commitBlock() {
+    List<String> lines = blockLines;
+    List<AbstractEventCommand> commands = closeBlock(COMMIT);
+    ICalendarModel calendar = requireCalendarInUse();
+    calendar.applyChanges(changed -> {
+      for (int i = 0; i < commands.size(); i++) {
+        try {
+          commands.get(i).execute(changed, calendarView);
+        } catch (RuntimeException e) {
+          throw new IllegalArgumentException("Rolled back " + count(commands) + ", since '" +
+                  lines.get(i) + "' failed: " + e.getMessage(), e);
+        }
+      }
+    });
+    calendarView.displayMessage("Committed " + count(commands));
+  }
+
+  /**
+   * Gets the calendar in use, failing if there is none.
+   */
+  private ICalendarModel requireCalendarInUse() {
+    ICalendarModel calendar = manager.getCurrentCalendar();
+    if (calendar == null) {
+      throw new IllegalArgumentException("No calendar is currently in use. " +
+              "Use 'use calendar --name [calendar-name]' command first.");
+    }
+    return calendar;
+  }
+
+  /**
+   * Closes the open block.
+   *
+   * @param closedBy the command closing the block
+   * @return the commands of the block
+   */
+  private List<AbstractEventCommand> closeBlock(String closedBy) {
+    if (block == null) {
+      throw new IllegalArgumentException("No block is open. Use 'begin' before '" +
+              closedBy + "'.");
+    }
+    List<AbstractEventCommand> commands = block;
+    block = null;
+    blockLines = null;
+    return commands;
+  }
+
+  /**
+   * Describes how many commands a block has.
+   */
+  private static String count(List<AbstractEventCommand> commands) {
+    return commands.size() + ((commands.size() == 1) ? " command" : " commands");
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,221 @@
+package calendar.controller;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import calendar.model.ICalendarManager;
+import calendar.view.CalendarView;
+import calendar.view.ICalendarView;
+
+/**
+ * This class represents a controller that runs many command scripts in one application.
+ * Each script runs as in headless mode, with its own calendar manager and its own buffered
+ * output file, and up to a set number of scripts run at once on a pool of threads. When
+ * every script has finished, the number of scripts, any failures and how long they took are
+ * shown in a summary view.
+ */
+public class BatchController implements ICalendarController {
+  private static final String OUTPUT_EXTENSION = ".out";
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private final List<File> scripts;
+  private final Path outputDirectory;
+  private final int parallelism;
+  private final Supplier<? extends ICalendarManager> managers;
+  private final ICalendarView summary;
+
+  /**
+   * Creates a controller for a batch of scripts.
+   *
+   * @param scripts         the script files to run
+   * @param outputDirectory the directory to write each script's output to, or null to write
+   *                        it next to the script
+   * @param parallelism     the most scripts to run at once
+   * @param managers        makes a new, empty calendar manager for each script
+   * @param summary         the view to show the summary of the batch in
+   * @throws IllegalArgumentException if an argument is null or there are no scripts, the
+   *                                  parallelism is not positive, or two scripts would write
+   *                                  the same output file
+   */
+  public BatchController(List<File> scripts, Path outputDirectory, int parallelism,
+                         Supplier<? extends ICalendarManager> managers,
+                         ICalendarView summary) {
+    if ((scripts == null) || (managers == null) || (summary == null)) {
+      throw new IllegalArgumentException("scripts, managers or view is null");
+    } else if (scripts.isEmpty()) {
+      throw new IllegalArgumentException("No scripts to run");
+    } else if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.scripts = new ArrayList<File>(scripts);
+    this.outputDirectory = outputDirectory;
+    this.parallelism = parallelism;
+    this.managers = managers;
+    this.summary = summary;
+
+    Set<Path> outputs = new HashSet<Path>();
+    for (File script : this.scripts) {
+      if (!outputs.add(outputFile(script).toAbsolutePath().normalize())) {
+        throw new IllegalArgumentException("More than one script writes to " +
+                outputFile(script));
+      }
+    }
+  }
+
+  /**
+   * Finds the scripts named on the command line. A directory stands for every file directly
+   * inside it, in order of name, except output files, so that a directory run before with
+   * its output written next to its scripts can be run again.
+   *
+   * @param paths the names of script files and directories of scripts
+   * @return the script files
+   * @throws IllegalArgumentException if a name is neither a file nor a directory
+   */
+  public static List<File> findScripts(List<String> paths) {
+    List<File> scripts = new ArrayList<File>();
+    for (String path : paths) {
+      File file = new File(path);
+      if (file.isDirectory()) {
+        File[] files = file.listFiles(each -> each.isFile()
+                && !each.getName().endsWith(OUTPUT_EXTENSION));
+        Arrays.sort(files);
+        scripts.addAll(Arrays.asList(files));
+      } else if (file.isFile()) {
+        scripts.add(file);
+      } else {
+        throw new IllegalArgumentException("No script or directory named " + path);
+      }
+    }
+    return scripts;
+  }
+
+  /**
+   * Gets the file a script's output is written to.
+   *
+   * @param script the script
+   * @return the output file
+   */
+  public Path outputFile(File script) {
+    String name = script.getName() + OUTPUT_EXTENSION;
+    if (outputDirectory == null) {
+      return script.toPath().resolveSibling(name);
+    }
+    return outputDirectory.resolve(name);
+  }
+
+  /**
+   * Runs every script and shows a summary once they have all finished.
+   *
+   * @throws RuntimeException if the output directory cannot be created, or the batch is
+   *                          interrupted
+   */
+  @Override
+  public void execute() {
+    try {
+      if (outputDirectory != null) {
+        Files.createDirectories(outputDirectory);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not create output directory: " + e.getMessage(), e);
+    }
+
+    int threads = Math.min(parallelism, scripts.size());
+    AtomicInteger threadNumber = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "batch-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long start = System.nanoTime();
+    try {
+      List<Future<Long>> runs = new ArrayList<Future<Long>>();
+      for (File script : scripts) {
+        runs.add(pool.submit(() -> runScript(script)));
+      }
+      showSummary(runs, start, threads);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Batch interrupted", e);
+    } finally {
+      pool.shutdownNow();
+      summary.flush();
+    }
+  }
+
+  /**
+   * Runs one script, writing its output to its output file.
+   *
+   * @return how long the script took, in nanoseconds
+   */
+  private long runScript(File script) throws IOException {
+    long start = System.nanoTime();
+    try (Writer out = Files.newBufferedWriter(outputFile(script), StandardCharsets.UTF_8)) {
+      ICalendarView view = new CalendarView(out, OUTPUT_BUFFER_SIZE);
+      new HeadlessController(managers.get(), view, script).execute();
+    } catch (FileNotFoundException e) {
+      throw new RuntimeException("File not found: " + script, e);
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Waits for every script and shows how many ran, which failed and how long they took.
+   */
+  private void showSummary(List<Future<Long>> runs, long start, int threads)
+          throws InterruptedException {
+    long total = 0;
+    long slowest = -1;
+    File slowestScript = null;
+    int failed = 0;
+    for (int i = 0; i < runs.size(); i++) {
+      File script = scripts.get(i);
+      try {
+        long time = runs.get(i).get();
+        total += time;
+        if (time > slowest) {
+          slowest = time;
+          slowestScript = script;
+        }
+      } catch (ExecutionException e) {
+        failed++;
+        summary.displayError(script + ": " + e.getCause().getMessage());
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+
+    int succeeded = runs.size() - failed;
+    summary.displayMessage("Ran " + runs.size() + " scripts in " + millis(elapsed) +
+            " ms on " + threads + ((threads == 1) ? " thread (" : " threads (") + failed +
+            " failed)");
+    if (succeeded > 0) {
+      summary.displayMessage("Script time: total " + millis(total) + " ms, mean " +
+              millis(total / succeeded) + " ms, slowest " + millis(slowest) + " ms (" +
+              slowestScript + ")");
+    }
+  }
+
+  /**
+   * Converts nanoseconds to whole milliseconds.
+   */
+  private static long millis(long nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+}
@@ -219,6 +219,19 @@ public class ControllerGUI implements Features, ICalendarController {
     }
   }
 
+  @Override
+  public List<String> suggestSubjects(String prefix, int limit) {
+    if (prefix == null || limit <= 0) {
+      return List.of();
+    }
+
+    try {
+      return getCurrentCalendarModel().suggestSubjects(prefix, limit);
+    } catch (Exception e) {
+      return List.of();
+    }
+  }
+
   @Override
   public void requestCreateEvent(LocalDate date) {
     if (validateNonNull(date, "Cannot create event for null date.")) {
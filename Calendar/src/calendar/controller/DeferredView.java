@@ -0,0 +1,158 @@
+package calendar.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import calendar.model.IEvent;
+import calendar.view.ICalendarView;
+
+/**
+ * Package-private view that hands every call on to another view from a separate writer
+ * thread, so commands can keep running while earlier output is being written.
+ * Calls are queued in batches and replayed in the order they were made, so the output is
+ * exactly what the wrapped view would have written if it were called directly. Event lists
+ * are copied when queued, since the caller may reuse them.
+ */
+class DeferredView implements ICalendarView {
+  private static final int BATCH_SIZE = 256;
+  private static final int QUEUED_BATCHES = 64;
+  private static final List<Runnable> END = new ArrayList<Runnable>();
+
+  private final ICalendarView view;
+  private final BlockingQueue<List<Runnable>> queue;
+  private List<Runnable> batch;
+  private Thread writer;
+  private volatile RuntimeException failure;
+
+  /**
+   * Constructs a view that defers its calls to the given view.
+   *
+   * @param view the view that writes the output
+   */
+  DeferredView(ICalendarView view) {
+    this.view = view;
+    this.queue = new ArrayBlockingQueue<List<Runnable>>(QUEUED_BATCHES);
+    this.batch = new ArrayList<Runnable>(BATCH_SIZE);
+  }
+
+  /**
+   * Starts the writer thread. Calls made before this are queued until it starts.
+   */
+  void start() {
+    writer = new Thread(this::write, "calendar-output");
+    writer.start();
+  }
+
+  /**
+   * Hands over the remaining calls and waits until the writer thread has made all of them.
+   *
+   * @throws IllegalStateException if the wrapped view failed to write some output
+   */
+  void finish() {
+    if (!batch.isEmpty()) {
+      put(batch);
+      batch = new ArrayList<Runnable>(BATCH_SIZE);
+    }
+    put(END);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing output", e);
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void displayMessage(String message) {
+    defer(() -> view.displayMessage(message));
+  }
+
+  @Override
+  public void displayError(String error) {
+    defer(() -> view.displayError(error));
+  }
+
+  @Override
+  public void displayEventsForDate(LocalDate date, List<IEvent> events) {
+    List<IEvent> copy = new ArrayList<IEvent>(events);
+    defer(() -> view.displayEventsForDate(date, copy));
+  }
+
+  @Override
+  public void displayEventsForDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                        List<IEvent> events) {
+    List<IEvent> copy = new ArrayList<IEvent>(events);
+    defer(() -> view.displayEventsForDateRange(startDate, endDate, copy));
+  }
+
+  @Override
+  public void displaySearchResults(String terms, List<IEvent> events) {
+    List<IEvent> copy = new ArrayList<IEvent>(events);
+    defer(() -> view.displaySearchResults(terms, copy));
+  }
+
+  @Override
+  public void displayStatus(String dateTime, boolean isBusy) {
+    defer(() -> view.displayStatus(dateTime, isBusy));
+  }
+
+  @Override
+  public void displayPrompt() {
+    defer(view::displayPrompt);
+  }
+
+  @Override
+  public void flush() {
+    defer(view::flush);
+  }
+
+  /**
+   * Queues a call, handing the batch to the writer thread once it is full.
+   */
+  private void defer(Runnable call) {
+    batch.add(call);
+    if (batch.size() == BATCH_SIZE) {
+      put(batch);
+      batch = new ArrayList<Runnable>(BATCH_SIZE);
+    }
+  }
+
+  /**
+   * Hands a batch to the writer thread, waiting while the queue is full.
+   */
+  private void put(List<Runnable> calls) {
+    try {
+      queue.put(calls);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing output", e);
+    }
+  }
+
+  /**
+   * Makes the queued calls until the end marker arrives. After a failure the remaining calls
+   * are dropped, so the commands never wait on a writer that has stopped.
+   */
+  private void write() {
+    try {
+      for (List<Runnable> calls = queue.take(); calls != END; calls = queue.take()) {
+        for (int i = 0; i < calls.size() && failure == null; i++) {
+          try {
+            calls.get(i).run();
+          } catch (RuntimeException e) {
+            failure = e;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -85,6 +85,16 @@ public interface Features {
    */
   List<IEvent> getEventsForDate(LocalDate date);
 
+  /**
+   * Gets existing event subjects in the current calendar that start with the given prefix,
+   * for autocompleting subject fields.
+   *
+   * @param prefix the text typed so far
+   * @param limit  the maximum number of subjects to return
+   * @return up to limit matching subjects, or an empty list if none match
+   */
+  List<String> suggestSubjects(String prefix, int limit);
+
   // High-level event requests following MVC principles
 
   /**
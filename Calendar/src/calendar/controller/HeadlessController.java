@@ -2,7 +2,8 @@ package calendar.controller;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 
 import calendar.model.ICalendarManager;
 import calendar.view.ICalendarView;
@@ -34,12 +35,27 @@ public class HeadlessController extends AbstractController {
     this.file = file;
   }
 
+  /**
+   * Runs the commands of the file. Buffered output is flushed once, when the commands end.
+   */
   @Override
   public void execute() {
-    try (Scanner sc = new Scanner(this.file)) {
-      while (sc.hasNext()) {
-        String commandLine = sc.nextLine().trim();
+    try {
+      runCommands();
+    } finally {
+      this.calendarView.flush();
+    }
+  }
+
+  /**
+   * Runs each command of the file until an exit command or the end of the file.
+   */
+  private void runCommands() {
+    try (LineSource lines = LineSource.open(this.file)) {
+      while (lines.hasNext()) {
+        String commandLine = lines.nextLine();
         if (commandLine.equals("exit") || commandLine.equals("q")) {
+          endInput();
           return;
         } else {
           try {
@@ -49,10 +65,13 @@ public class HeadlessController extends AbstractController {
           }
         }
       }
-    } catch (FileNotFoundException e) {
+    } catch (FileNotFoundException | NoSuchFileException e) {
       throw new RuntimeException("File not found: " + e.getMessage(), e);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read commands: " + e.getMessage(), e);
     }
 
+    endInput();
     this.calendarView.displayError("No exit command.");
   }
 }
\ No newline at end of file
@@ -0,0 +1,593 @@
+package calendar.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import calendar.model.ICalendarManager;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+import calendar.model.IsoDateTimeParser;
+import calendar.view.ICalendarView;
+import calendar.view.JsonWriter;
+
+/**
+ * This class represents a controller that serves the calendars of one manager as a JSON API
+ * over HTTP, on this machine.
+ * Every resource is under /api/calendars. Queries are GET requests and changes are POST
+ * requests, with their parameters in the query string or a form body, and dates and times
+ * in the same ISO formats as commands. Replies are JSON objects; a failed request gets an
+ * object with an "error" message, with status 400 for a bad request and 404 for a missing
+ * calendar or resource.
+ * Requests are handled on a pool of threads. The calendars are not safe to use from many
+ * threads, so each request holds a lock only while it reads or changes them; the reply is
+ * written after the lock is released, a value at a time, so a large range of events is never
+ * built up as one string and a slow client does not hold up other requests.
+ */
+public class HttpApiController implements ICalendarController {
+  private static final String API = "/api";
+  private static final String CALENDARS = "calendars";
+  private static final int DEFAULT_UPCOMING = 10;
+  private static final int MAX_UPCOMING = 1000;
+  private static final Comparator<IEvent> BY_START =
+          Comparator.comparing(IEvent::getStartDateTime).thenComparing(IEvent::getSubject);
+
+  private final ICalendarManager manager;
+  private final ICalendarView log;
+  private final HttpServer server;
+  private final ExecutorService pool;
+  // Held while a request reads or changes the calendars
+  private final Object lock = new Object();
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  static {
+    // The server writes the headers and the body of a reply separately. Without this, the
+    // body waits for the client to acknowledge the headers, which takes about 40 ms
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  /**
+   * Creates an HTTP API listening on a port of the loopback address.
+   *
+   * @param manager the manager of the calendars to serve
+   * @param port    the port to listen on, or 0 for any free port
+   * @param threads the number of threads to handle requests on
+   * @param log     the view to show what the server is doing in
+   * @throws IllegalArgumentException if the manager or view is null, the port is invalid or
+   *                                  the number of threads is not positive
+   * @throws IOException              if the port cannot be listened on
+   */
+  public HttpApiController(ICalendarManager manager, int port, int threads, ICalendarView log)
+          throws IOException {
+    if ((manager == null) || (log == null)) {
+      throw new IllegalArgumentException("manager or view is null");
+    } else if ((port < 0) || (port > 0xFFFF)) {
+      throw new IllegalArgumentException("Port must be between 0 and 65535");
+    } else if (threads < 1) {
+      throw new IllegalArgumentException("Threads must be positive");
+    }
+    this.manager = manager;
+    this.log = log;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+            port), 0);
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.pool = Executors.newFixedThreadPool(threads, task -> {
+      Thread thread = new Thread(task, "http-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(pool);
+    server.createContext(API, this::handle);
+  }
+
+  /**
+   * Gets the port the API listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops the API. This may be called from any thread.
+   */
+  public void stop() {
+    stopped.countDown();
+  }
+
+  /**
+   * Serves requests until the API is stopped.
+   */
+  @Override
+  public void execute() {
+    server.start();
+    log.displayMessage("Listening on http://" + server.getAddress().getHostString() + ":"
+            + getPort() + API + "/" + CALENDARS);
+    log.flush();
+    try {
+      stopped.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      server.stop(0);
+      pool.shutdownNow();
+      log.flush();
+    }
+  }
+
+  /**
+   * Handles one request, replying with its result or with why it failed.
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      Reply reply;
+      try {
+        reply = route(exchange);
+      } catch (ApiException e) {
+        reply = error(e.status, e.getMessage());
+      } catch (IllegalArgumentException e) {
+        reply = error(400, e.getMessage());
+      } catch (RuntimeException e) {
+        reply = error(500, "Could not handle request: " + e.getMessage());
+      }
+      send(exchange, reply);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Finds what a request asks for and does it.
+   *
+   * @return the reply to send
+   * @throws ApiException             if there is no such resource or method
+   * @throws IllegalArgumentException if a parameter is missing or invalid, or the change
+   *                                  cannot be made
+   */
+  private Reply route(HttpExchange exchange) throws IOException {
+    List<String> path = new ArrayList<String>();
+    for (String segment : exchange.getRequestURI().getPath().substring(API.length())
+            .split("/")) {
+      if (!segment.isEmpty()) {
+        path.add(segment);
+      }
+    }
+    if (path.isEmpty() || !path.get(0).equals(CALENDARS) || (path.size() > 4)) {
+      throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    boolean post = exchange.getRequestMethod().equals("POST");
+    if (!post && !exchange.getRequestMethod().equals("GET")) {
+      throw new ApiException(405, "Only GET and POST requests are supported");
+    }
+    Map<String, String> parameters = parameters(exchange, post);
+    if (path.size() == 1) {
+      return post ? createCalendar(parameters) : listCalendars();
+    }
+
+    String calendar = path.get(1);
+    String resource = String.join("/", path.subList(2, path.size()));
+    switch ((post ? "POST " : "GET ") + resource) {
+      case "GET ":
+        return describeCalendar(calendar);
+      case "GET events":
+        return eventsInRange(calendar, parameters);
+      case "POST events":
+        return createEvent(calendar, parameters);
+      case "POST events/edit":
+        return editEvent(calendar, parameters);
+      case "POST events/copy":
+        return copyEvents(calendar, parameters);
+      case "GET status":
+        return status(calendar, parameters);
+      case "GET upcoming":
+        return upcoming(calendar, parameters);
+      case "GET freebusy":
+        return freeBusy(calendar, parameters);
+      default:
+        throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+  }
+
+  /**
+   * Lists the names and timezones of every calendar.
+   */
+  private Reply listCalendars() {
+    List<ISmartCalendarModel> calendars = new ArrayList<ISmartCalendarModel>();
+    synchronized (lock) {
+      for (String name : manager.getCalendarNames()) {
+        calendars.add(manager.getCalendar(name));
+      }
+    }
+    calendars.sort(Comparator.comparing(ISmartCalendarModel::getCalendarName));
+    return new Reply(200, json -> {
+      json.beginObject().name(CALENDARS).beginArray();
+      for (ISmartCalendarModel calendar : calendars) {
+        writeCalendar(json, calendar.getCalendarName(), calendar.getTimezone());
+      }
+      json.endArray().endObject();
+    });
+  }
+
+  /**
+   * Creates a calendar from its name and timezone.
+   */
+  private Reply createCalendar(Map<String, String> parameters) {
+    String name = required(parameters, "name");
+    ZoneId timezone;
+    try {
+      timezone = ZoneId.of(required(parameters, "timezone"));
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid timezone: " + parameters.get("timezone") +
+              ". IANA timezone format is expected.");
+    }
+    synchronized (lock) {
+      manager.createCalendar(name, timezone);
+    }
+    return new Reply(201, json -> writeCalendar(json, name, timezone));
+  }
+
+  /**
+   * Gets the name and timezone of a calendar.
+   */
+  private Reply describeCalendar(String name) {
+    ZoneId timezone;
+    synchronized (lock) {
+      timezone = calendar(name).getTimezone();
+    }
+    return new Reply(200, json -> writeCalendar(json, name, timezone));
+  }
+
+  /**
+   * Lists the events of a calendar that overlap a range, in order of start.
+   */
+  private Reply eventsInRange(String name, Map<String, String> parameters) {
+    LocalDateTime from = dateTime(parameters, "from");
+    LocalDateTime to = dateTime(parameters, "to");
+    IEvent[] events;
+    synchronized (lock) {
+      events = calendar(name).printEvents(from, to).toArray(new IEvent[0]);
+    }
+    // Events cannot change, so they are sorted and written without the lock
+    Arrays.sort(events, BY_START);
+    return new Reply(200, json -> {
+      json.beginObject().name("calendar").value(name).name("from").value(from)
+              .name("to").value(to).name("events").beginArray();
+      for (IEvent event : events) {
+        json.event(event);
+      }
+      json.endArray().endObject();
+    });
+  }
+
+  /**
+   * Creates a single event: timed, given a start and end, or all day, given a date.
+   */
+  private Reply createEvent(String name, Map<String, String> parameters) {
+    String subject = required(parameters, "subject");
+    if (parameters.containsKey("date")) {
+      LocalDateTime date = date(parameters, "date");
+      synchronized (lock) {
+        calendar(name).createSingleAllDayEvent(subject, date);
+      }
+    } else {
+      LocalDateTime start = dateTime(parameters, "start");
+      LocalDateTime end = dateTime(parameters, "end");
+      synchronized (lock) {
+        calendar(name).createSingleTimedEvent(subject, start, end);
+      }
+    }
+    return done(201, "created");
+  }
+
+  /**
+   * Changes a property of an event, of it and the later events of its series, or of its
+   * whole series, as the scope parameter says.
+   */
+  private Reply editEvent(String name, Map<String, String> parameters) {
+    String subject = required(parameters, "subject");
+    LocalDateTime start = dateTime(parameters, "start");
+    String property = required(parameters, "property");
+    String value = required(parameters, "value");
+    String scope = parameters.getOrDefault("scope", "event");
+    switch (scope) {
+      case "event":
+        LocalDateTime end = dateTime(parameters, "end");
+        synchronized (lock) {
+          calendar(name).editEvent(subject, start, end, property, value);
+        }
+        break;
+      case "events":
+        synchronized (lock) {
+          calendar(name).editEvents(subject, start, property, value);
+        }
+        break;
+      case "series":
+        synchronized (lock) {
+          calendar(name).editSeries(subject, start, property, value);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid scope: '" + scope +
+                "'. Valid scopes are: event, events, series");
+    }
+    return done(200, "edited");
+  }
+
+  /**
+   * Copies an event, given its subject and start, or every event on a date, to a target
+   * calendar.
+   */
+  private Reply copyEvents(String name, Map<String, String> parameters) {
+    String target = required(parameters, "target");
+    if (parameters.containsKey("subject")) {
+      String subject = parameters.get("subject");
+      LocalDateTime start = dateTime(parameters, "start");
+      LocalDateTime to = dateTime(parameters, "to");
+      synchronized (lock) {
+        calendar(name);
+        // Copies are made from the manager's calendar in use
+        manager.useCalendar(name);
+        manager.copyEvent(subject, start, target, to);
+      }
+    } else {
+      LocalDateTime date = date(parameters, "date");
+      LocalDateTime to = date(parameters, "to");
+      synchronized (lock) {
+        calendar(name);
+        manager.useCalendar(name);
+        manager.copyEventsOnDate(date, target, to);
+      }
+    }
+    return done(200, "copied");
+  }
+
+  /**
+   * Tells whether a calendar has an event at a time.
+   */
+  private Reply status(String name, Map<String, String> parameters) {
+    LocalDateTime at = dateTime(parameters, "at");
+    boolean busy;
+    synchronized (lock) {
+      busy = calendar(name).showStatus(at);
+    }
+    return new Reply(200, json -> json.beginObject().name("calendar").value(name)
+            .name("at").value(at).name("busy").value(busy).endObject());
+  }
+
+  /**
+   * Lists the next events of a calendar starting at or after a time, in order of start.
+   */
+  private Reply upcoming(String name, Map<String, String> parameters) {
+    LocalDateTime from = dateTime(parameters, "from");
+    int limit = DEFAULT_UPCOMING;
+    if (parameters.containsKey("limit")) {
+      try {
+        limit = Integer.parseInt(parameters.get("limit"));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Limit must be a number");
+      }
+      if ((limit < 1) || (limit > MAX_UPCOMING)) {
+        throw new IllegalArgumentException("Limit must be between 1 and " + MAX_UPCOMING);
+      }
+    }
+    List<IEvent> events;
+    synchronized (lock) {
+      events = calendar(name).getUpcomingEvents(from, limit);
+    }
+    return new Reply(200, json -> {
+      json.beginObject().name("calendar").value(name).name("from").value(from)
+              .name("events").beginArray();
+      for (IEvent event : events) {
+        json.event(event);
+      }
+      json.endArray().endObject();
+    });
+  }
+
+  /**
+   * Lists the times in a range when a calendar is busy, merging events that overlap or
+   * touch, without saying what the events are.
+   */
+  private Reply freeBusy(String name, Map<String, String> parameters) {
+    LocalDateTime from = dateTime(parameters, "from");
+    LocalDateTime to = dateTime(parameters, "to");
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("'to' must not be before 'from'");
+    }
+    IEvent[] events;
+    synchronized (lock) {
+      events = calendar(name).printEvents(from, to).toArray(new IEvent[0]);
+    }
+    Arrays.sort(events, BY_START);
+    return new Reply(200, json -> {
+      json.beginObject().name("calendar").value(name).name("from").value(from)
+              .name("to").value(to).name("busy").beginArray();
+      LocalDateTime busyStart = null;
+      LocalDateTime busyEnd = null;
+      for (IEvent event : events) {
+        LocalDateTime start = max(event.getStartDateTime(), from);
+        LocalDateTime end = (event.getEndDateTime() == null) ? event.getStartDateTime()
+                : event.getEndDateTime();
+        end = end.isAfter(to) ? to : end;
+        if ((busyEnd != null) && !start.isAfter(busyEnd)) {
+          busyEnd = max(busyEnd, end);
+        } else {
+          writeInterval(json, busyStart, busyEnd);
+          busyStart = start;
+          busyEnd = end;
+        }
+      }
+      writeInterval(json, busyStart, busyEnd);
+      json.endArray().endObject();
+    });
+  }
+
+  private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  /**
+   * Writes a busy interval, if there is one.
+   */
+  private static void writeInterval(JsonWriter json, LocalDateTime start, LocalDateTime end)
+          throws IOException {
+    if (start != null) {
+      json.beginObject().name("start").value(start).name("end").value(end).endObject();
+    }
+  }
+
+  private static void writeCalendar(JsonWriter json, String name, ZoneId timezone)
+          throws IOException {
+    json.beginObject().name("name").value(name).name("timezone").value(timezone.getId())
+            .endObject();
+  }
+
+  /**
+   * Gets a calendar by name. The lock must be held.
+   *
+   * @throws ApiException if there is no such calendar
+   */
+  private ISmartCalendarModel calendar(String name) {
+    if (!manager.getCalendarNames().contains(name)) {
+      throw new ApiException(404, "Calendar with name " + name + " does not exist");
+    }
+    return manager.getCalendar(name);
+  }
+
+  /**
+   * Reads the parameters of a request from its query string and, for a POST request, its
+   * form body.
+   */
+  private static Map<String, String> parameters(HttpExchange exchange, boolean post)
+          throws IOException {
+    Map<String, String> parameters = new HashMap<String, String>();
+    addParameters(parameters, exchange.getRequestURI().getRawQuery());
+    if (post) {
+      addParameters(parameters, new String(exchange.getRequestBody().readAllBytes(),
+              StandardCharsets.UTF_8));
+    }
+    return parameters;
+  }
+
+  private static void addParameters(Map<String, String> parameters, String encoded) {
+    if ((encoded == null) || encoded.isEmpty()) {
+      return;
+    }
+    for (String pair : encoded.split("&")) {
+      int equals = pair.indexOf('=');
+      if (equals > 0) {
+        parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private static String required(Map<String, String> parameters, String name) {
+    String value = parameters.get(name);
+    if ((value == null) || value.isEmpty()) {
+      throw new IllegalArgumentException("Missing parameter '" + name + "'");
+    }
+    return value;
+  }
+
+  private static LocalDateTime dateTime(Map<String, String> parameters, String name) {
+    String text = required(parameters, name);
+    LocalDateTime dateTime = IsoDateTimeParser.parseDateTime(text);
+    if (dateTime == null) {
+      throw new IllegalArgumentException("Invalid date-time for '" + name + "': '" + text +
+              "'. Expected format: YYYY-MM-DDThh:mm (e.g., 2025-05-05T14:30)");
+    }
+    return dateTime;
+  }
+
+  private static LocalDateTime date(Map<String, String> parameters, String name) {
+    String text = required(parameters, name);
+    LocalDate date = IsoDateTimeParser.parseDate(text);
+    if (date == null) {
+      throw new IllegalArgumentException("Invalid date for '" + name + "': '" + text +
+              "'. Expected format: YYYY-MM-DD (e.g., 2025-05-05)");
+    }
+    return date.atStartOfDay();
+  }
+
+  /**
+   * Makes the reply to a change that has been made.
+   */
+  private static Reply done(int status, String result) {
+    return new Reply(status, json -> json.beginObject().name("result").value(result)
+            .endObject());
+  }
+
+  private static Reply error(int status, String message) {
+    return new Reply(status, json -> json.beginObject().name("error").value(message)
+            .endObject());
+  }
+
+  /**
+   * Sends a reply, writing its JSON as the body is sent.
+   */
+  private static void send(HttpExchange exchange, Reply reply) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(reply.status, 0);
+    JsonWriter json = new JsonWriter(new OutputStreamWriter(exchange.getResponseBody(),
+            StandardCharsets.UTF_8));
+    reply.body.write(json);
+    json.flush();
+  }
+
+  /**
+   * Writes the body of a reply.
+   */
+  private interface Body {
+    void write(JsonWriter json) throws IOException;
+  }
+
+  /**
+   * The status of a reply and how to write its body.
+   */
+  private static final class Reply {
+    private final int status;
+    private final Body body;
+
+    private Reply(int status, Body body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  /**
+   * A request that fails with a status other than 400.
+   */
+  private static final class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    private ApiException(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+}
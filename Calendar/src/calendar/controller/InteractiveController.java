@@ -1,6 +1,6 @@
 package calendar.controller;
 
-import java.util.Scanner;
+import java.io.IOException;
 
 import calendar.model.ICalendarManager;
 import calendar.view.ICalendarView;
@@ -29,33 +29,71 @@ public class InteractiveController extends AbstractController {
     this.in = in;
   }
 
+  /**
+   * Runs the user's commands until they quit. Buffered output is flushed at the end of each
+   * command, before waiting for the next one.
+   */
   @Override
   public void execute() {
-    Scanner sc = new Scanner(in);
+    LineSource lines = new LineSource(in);
     boolean quit = false;
 
-    //print the welcome message
-    this.calendarView.displayMessage("Welcome to the Calendar Application - Interactive Mode");
-    this.calendarView.displayMessage("Type 'exit' to quit");
-    this.calendarView.displayMessage("");
-    this.calendarView.displayPrompt();
-
-    while (!quit && sc.hasNext()) { //continue until the user quits
-      String commandLine = sc.nextLine().trim();
-
-      if (commandLine.equals("exit") || commandLine.equals("q")) {
-        //after the user has quit, print farewell message
-        this.calendarView.displayMessage("Goodbye");
-        quit = true;
-      } else {
-        try {
-          parseCommand(commandLine);
-        } catch (Exception e) {
-          this.calendarView.displayError(e.getMessage());
+    try {
+      //print the welcome message
+      this.calendarView.displayMessage("Welcome to the Calendar Application - Interactive Mode");
+      this.calendarView.displayMessage("Type 'exit' to quit");
+      this.calendarView.displayMessage("");
+      this.calendarView.displayPrompt();
+      this.calendarView.flush();
+
+      while (!quit && hasNext(lines)) { //continue until the user quits
+        String commandLine = nextLine(lines);
+
+        if (commandLine.equals("exit") || commandLine.equals("q")) {
+          //after the user has quit, print farewell message
+          endInput();
+          this.calendarView.displayMessage("Goodbye");
+          quit = true;
+        } else {
+          try {
+            parseCommand(commandLine);
+          } catch (Exception e) {
+            this.calendarView.displayError(e.getMessage());
+          }
+          this.calendarView.displayMessage("");
+          this.calendarView.displayPrompt(); //prompt for the instruction name
+          this.calendarView.flush();
         }
-        this.calendarView.displayMessage("");
-        this.calendarView.displayPrompt(); //prompt for the instruction name
       }
+      if (!quit) {
+        endInput();
+      }
+    } finally {
+      this.calendarView.flush();
+    }
+  }
+
+  /**
+   * Waits for more input from the user.
+   *
+   * @return true if the user has typed another command
+   */
+  private static boolean hasNext(LineSource lines) {
+    try {
+      return lines.hasNext();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read input: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Reads the user's next command.
+   */
+  private static String nextLine(LineSource lines) {
+    try {
+      return lines.nextLine();
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read input: " + e.getMessage(), e);
     }
   }
-}
\ No newline at end of file
+}
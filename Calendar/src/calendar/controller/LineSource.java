@@ -0,0 +1,272 @@
+package calendar.controller;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads command lines from a file or a {@link Readable} through one large character buffer.
+ * Lines are found by scanning the buffer in place, and each line becomes a single trimmed
+ * string with no copies in between.
+ * The source answers the way a {@link java.util.Scanner} looping on {@code hasNext()} and
+ * {@code nextLine()} does, which is how the controllers read commands: lines are only
+ * returned while some non-whitespace text is left, so blank lines at the end are ignored
+ * while blank lines before a command are still returned.
+ * Files are read through a file channel, and files of at least {@link #MAP_THRESHOLD} bytes
+ * are memory-mapped a window at a time instead of read with a system call per buffer.
+ */
+public final class LineSource implements Closeable {
+  static final long MAP_THRESHOLD = 32L * 1024 * 1024;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+  private final Readable in;
+  private char[] buffer;
+  private int position;
+  private int limit;
+  private boolean endOfInput;
+  // A line ended with '\r', so a '\n' right after it belongs to the same line break
+  private boolean skipLineFeed;
+
+  /**
+   * Creates a source that reads lines from a readable, such as the console.
+   *
+   * @param in the readable to read from
+   */
+  public LineSource(Readable in) {
+    if (in == null) {
+      throw new IllegalArgumentException("readable is null");
+    }
+    this.in = in;
+    this.buffer = new char[BUFFER_SIZE];
+  }
+
+  /**
+   * Opens a source that reads the lines of a file in the platform's default charset, like
+   * a scanner on the file would.
+   *
+   * @param file the file to read
+   * @return the source
+   * @throws IOException if the file cannot be opened
+   */
+  public static LineSource open(File file) throws IOException {
+    return new LineSource(new ChannelReadable(FileChannel.open(file.toPath(),
+            StandardOpenOption.READ), Charset.defaultCharset()));
+  }
+
+  /**
+   * Checks whether any non-whitespace text is left, reading ahead as far as needed.
+   *
+   * @return true if another command line follows
+   * @throws IOException if the input cannot be read
+   */
+  public boolean hasNext() throws IOException {
+    int scanned = 0;
+    while (true) {
+      for (int i = position + scanned; i < limit; i++) {
+        if (!Character.isWhitespace(buffer[i])) {
+          return true;
+        }
+      }
+      scanned = limit - position;
+      if (!fill()) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Reads the next line without its line break and surrounding whitespace.
+   *
+   * @return the trimmed line
+   * @throws IOException            if the input cannot be read
+   * @throws NoSuchElementException if the input has ended
+   */
+  public String nextLine() throws IOException {
+    int scanned = 0;
+    while (true) {
+      if (skipLineFeed && position < limit) {
+        skipLineFeed = false;
+        if (buffer[position] == '\n') {
+          position++;
+        }
+      }
+      for (int i = position + scanned; i < limit; i++) {
+        char c = buffer[i];
+        if (isLineBreak(c)) {
+          String line = trimmed(position, i);
+          position = i + 1;
+          skipLineFeed = c == '\r';
+          return line;
+        }
+      }
+      scanned = limit - position;
+      if (!fill()) {
+        if (scanned == 0) {
+          throw new NoSuchElementException("No line found");
+        }
+        String line = trimmed(position, limit);
+        position = limit;
+        return line;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in instanceof Closeable) {
+      ((Closeable) in).close();
+    }
+  }
+
+  /**
+   * Reads more input after what is buffered, moving the unread part to the front of the
+   * buffer or growing it when a line does not fit.
+   *
+   * @return false if the input has ended
+   */
+  private boolean fill() throws IOException {
+    if (endOfInput) {
+      return false;
+    }
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int read;
+    do {
+      read = in.read(CharBuffer.wrap(buffer, limit, buffer.length - limit));
+    } while (read == 0);
+    if (read < 0) {
+      endOfInput = true;
+      return false;
+    }
+    limit += read;
+    return true;
+  }
+
+  /**
+   * Makes a string of the buffered characters in a range, without surrounding whitespace.
+   */
+  private String trimmed(int start, int end) {
+    while (start < end && buffer[start] <= ' ') {
+      start++;
+    }
+    while (end > start && buffer[end - 1] <= ' ') {
+      end--;
+    }
+    return start == end ? "" : new String(buffer, start, end - start);
+  }
+
+  /**
+   * Checks whether a character ends a line, with the same line breaks a scanner accepts.
+   */
+  private static boolean isLineBreak(char c) {
+    if (c <= '\r') {
+      return c == '\n' || c == '\r';
+    }
+    return c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  /**
+   * Decodes the bytes of a file channel through a heap buffer, which the decoders handle
+   * much faster than a direct or mapped one. Large files are mapped a window at a time and
+   * copied into that buffer in bulk, and smaller ones are read into it.
+   * Malformed input is replaced rather than reported, as a reader would.
+   */
+  private static final class ChannelReadable implements Readable, Closeable {
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final long size;
+    private final boolean mapped;
+    private final ByteBuffer bytes;
+    private ByteBuffer window;
+    // Where the current window of a mapped file ends
+    private long windowEnd;
+    private boolean lastBytes;
+    private boolean finished;
+
+    ChannelReadable(FileChannel channel, Charset charset) throws IOException {
+      this.channel = channel;
+      this.decoder = charset.newDecoder()
+              .onMalformedInput(CodingErrorAction.REPLACE)
+              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.size = channel.size();
+      this.mapped = size >= MAP_THRESHOLD;
+      this.bytes = ByteBuffer.allocate(BUFFER_SIZE).flip();
+      this.window = ByteBuffer.allocate(0);
+    }
+
+    @Override
+    public int read(CharBuffer target) throws IOException {
+      int start = target.position();
+      while (target.hasRemaining() && !finished) {
+        CoderResult result = decoder.decode(bytes, target, lastBytes);
+        if (result.isOverflow()) {
+          break;
+        } else if (!lastBytes) {
+          lastBytes = !readBytes();
+        } else if (decoder.flush(target).isUnderflow()) {
+          finished = true;
+        } else {
+          break;
+        }
+      }
+      int read = target.position() - start;
+      return (read == 0) && finished ? -1 : read;
+    }
+
+    /**
+     * Makes the next bytes of the file available, keeping any bytes the decoder has not
+     * used yet.
+     *
+     * @return false if the whole file has been read
+     */
+    private boolean readBytes() throws IOException {
+      bytes.compact();
+      int read = mapped ? copyFromWindow() : channel.read(bytes);
+      bytes.flip();
+      return read >= 0;
+    }
+
+    /**
+     * Copies the next bytes of the mapped file in one bulk copy, mapping the next window of
+     * the file when the current one is used up.
+     *
+     * @return the number of bytes copied, or -1 at the end of the file
+     */
+    private int copyFromWindow() throws IOException {
+      if (!window.hasRemaining()) {
+        if (windowEnd == size) {
+          return -1;
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd,
+                Math.min(MAP_WINDOW, size - windowEnd));
+        windowEnd += window.limit();
+      }
+      int count = Math.min(bytes.remaining(), window.remaining());
+      window.get(bytes.array(), bytes.arrayOffset() + bytes.position(), count);
+      bytes.position(bytes.position() + count);
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package calendar.controller;
+
+import calendar.controller.command.ICalendarCommand;
+import calendar.controller.parser.CommandTokens;
+import calendar.controller.parser.SmartCommandParserFactory;
+
+/**
+ * A command line parsed ahead of the thread that runs it. It holds the command the line was
+ * compiled into, or the error compiling it gave, so that the error is only reported when the
+ * line's turn comes. Lines that begin, commit or roll back a block are not compiled, since
+ * what they do depends on the commands run before them.
+ */
+final class ParsedCommand {
+  private final String line;
+  private final ICalendarCommand command;
+  private final RuntimeException failure;
+  private final boolean needsCalendar;
+
+  private ParsedCommand(String line, ICalendarCommand command, RuntimeException failure,
+                        boolean needsCalendar) {
+    this.line = line;
+    this.command = command;
+    this.failure = failure;
+    this.needsCalendar = needsCalendar;
+  }
+
+  /**
+   * Parses a command line without touching any calendar.
+   *
+   * @param line    the trimmed line
+   * @param tokens  the words of the line, reused between lines
+   * @param factory the factory routing the command to its parser
+   * @return the parsed line
+   */
+  static ParsedCommand parse(String line, CommandTokens tokens,
+                             SmartCommandParserFactory factory) {
+    tokens.reset(line);
+    if (AbstractController.isBlockCommand(tokens)) {
+      return unparsed(line);
+    }
+    boolean needsCalendar = factory.needsCalendar(tokens);
+    try {
+      return new ParsedCommand(line, factory.findParser(tokens).compile(tokens), null,
+              needsCalendar);
+    } catch (RuntimeException e) {
+      return new ParsedCommand(line, null, e, needsCalendar);
+    }
+  }
+
+  /**
+   * Passes on a line without parsing it, for the thread running commands to handle itself.
+   *
+   * @param line the trimmed line
+   * @return the line, not compiled
+   */
+  static ParsedCommand unparsed(String line) {
+    return new ParsedCommand(line, null, null, false);
+  }
+
+  /**
+   * Gets the line the command was parsed from.
+   *
+   * @return the trimmed line
+   */
+  String getLine() {
+    return line;
+  }
+
+  /**
+   * Gets the command the line was compiled into.
+   *
+   * @return the command, or null if the line was not compiled or failed to compile
+   */
+  ICalendarCommand getCommand() {
+    return command;
+  }
+
+  /**
+   * Gets the error compiling the line gave.
+   *
+   * @return the error, or null if there was none
+   */
+  RuntimeException getFailure() {
+    return failure;
+  }
+
+  /**
+   * Checks whether the command can only run with a calendar in use.
+   *
+   * @return true if it fails without a calendar in use
+   */
+  boolean needsCalendar() {
+    return needsCalendar;
+  }
+}
@@ -0,0 +1,219 @@
+package calendar.controller;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import calendar.controller.parser.CommandTokens;
+import calendar.controller.parser.SmartCommandParserFactory;
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A headless controller that runs a command file as a pipeline of four threads.
+ * A reader thread reads and trims lines into a bounded queue, a parser thread compiles each
+ * line into a command object without touching any calendar, the calling thread runs the
+ * commands against the calendars in order, and a writer thread writes the output. Each stage
+ * hands the next one batches of its work through a bounded queue. Commands are still run one
+ * at a time and in file order, and the output, errors included, is exactly what
+ * {@link HeadlessController} writes for the same file: an error from parsing a line is only
+ * reported when the line's turn to run comes, after any error for having no calendar in use,
+ * blank lines in the middle of the file are reported as empty commands, blank lines at the
+ * end are ignored, and a file without an exit command ends with the same error.
+ * This controller is experimental: it has not yet been shown to run a file faster than
+ * {@link HeadlessController}.
+ */
+public class PipelinedHeadlessController extends AbstractController {
+  private static final int BATCH_SIZE = 512;
+  private static final int QUEUED_BATCHES = 64;
+  private static final List<String> END = new ArrayList<String>();
+  private static final List<ParsedCommand> PARSED_END = new ArrayList<ParsedCommand>();
+
+  private final File file;
+  private final DeferredView output;
+  // Routes commands for the parser thread, which only compiles them
+  private final SmartCommandParserFactory parsers;
+  private volatile IOException readFailure;
+  private volatile Throwable parseFailure;
+
+  /**
+   * Create a controller that runs the commands of a file through a pipeline.
+   *
+   * @param manager the calendar manager (model)
+   * @param view    the calendar view where results are displayed
+   * @param file    the file to read commands from
+   * @throws FileNotFoundException if the file does not exist or cannot be read
+   */
+  public PipelinedHeadlessController(ICalendarManager manager, ICalendarView view, File file)
+          throws FileNotFoundException {
+    this(manager, view == null ? null : new DeferredView(view), file);
+  }
+
+  /**
+   * Creates the controller with the view its commands write to.
+   */
+  private PipelinedHeadlessController(ICalendarManager manager, DeferredView output,
+                                      File file) throws FileNotFoundException {
+    super(manager, output);
+    if ((manager == null) || (output == null) || (file == null)) {
+      throw new IllegalArgumentException("model, view or readable is null");
+    } else if (!file.exists() || !file.canRead()) {
+      throw new FileNotFoundException("File does not exist or cannot be read.");
+    }
+    this.file = file;
+    this.output = output;
+    this.parsers = new SmartCommandParserFactory(manager, output);
+  }
+
+  @Override
+  public void execute() {
+    BlockingQueue<List<String>> lines = new ArrayBlockingQueue<List<String>>(QUEUED_BATCHES);
+    BlockingQueue<List<ParsedCommand>> commands =
+            new ArrayBlockingQueue<List<ParsedCommand>>(QUEUED_BATCHES);
+    Thread reader = new Thread(() -> readLines(lines), "calendar-reader");
+    Thread parser = new Thread(() -> parseLines(lines, commands), "calendar-parser");
+    reader.setDaemon(true);
+    parser.setDaemon(true);
+    reader.start();
+    parser.start();
+    output.start();
+    try {
+      applyCommands(commands);
+    } finally {
+      // Stops the reader and parser if an exit command ended the file early
+      reader.interrupt();
+      parser.interrupt();
+      output.flush();
+      output.finish();
+    }
+  }
+
+  /**
+   * Runs the queued commands in order until an exit command or the end of the file.
+   */
+  private void applyCommands(BlockingQueue<List<ParsedCommand>> commands) {
+    for (List<ParsedCommand> batch = take(commands); batch != PARSED_END;
+         batch = take(commands)) {
+      for (ParsedCommand command : batch) {
+        if (isExit(command.getLine())) {
+          endInput();
+          return;
+        }
+        try {
+          runParsed(command);
+        } catch (Exception e) {
+          this.calendarView.displayError(e.getMessage());
+        }
+      }
+    }
+    if (readFailure != null) {
+      throw new RuntimeException("Could not read commands: " + readFailure.getMessage(),
+              readFailure);
+    } else if (parseFailure != null) {
+      throw new RuntimeException("Could not parse commands: " + parseFailure.getMessage(),
+              parseFailure);
+    }
+    endInput();
+    this.calendarView.displayError("No exit command.");
+  }
+
+  /**
+   * Compiles each batch of lines into a batch of commands, followed by the end marker. An
+   * exit command is passed on as it is, and nothing after it is parsed. The end marker is
+   * also sent if parsing fails, and the failure is reported when the commands reach it.
+   */
+  private void parseLines(BlockingQueue<List<String>> lines,
+                          BlockingQueue<List<ParsedCommand>> commands) {
+    CommandTokens tokens = new CommandTokens();
+    try {
+      for (List<String> batch = lines.take(); batch != END; batch = lines.take()) {
+        List<ParsedCommand> parsed = new ArrayList<ParsedCommand>(batch.size());
+        for (String line : batch) {
+          if (isExit(line)) {
+            parsed.add(ParsedCommand.unparsed(line));
+            commands.put(parsed);
+            return;
+          }
+          parsed.add(ParsedCommand.parse(line, tokens, parsers));
+        }
+        commands.put(parsed);
+      }
+    } catch (InterruptedException e) {
+      // The commands ended before the file did
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException | Error e) {
+      parseFailure = e;
+      throw e;
+    } finally {
+      // Sent however parsing stops, so the commands are never left waiting for it
+      try {
+        commands.put(PARSED_END);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Checks whether a line is an exit command.
+   */
+  private static boolean isExit(String line) {
+    return line.equals("exit") || line.equals("q");
+  }
+
+  /**
+   * Reads trimmed lines into the queue in batches, followed by the end marker.
+   */
+  private void readLines(BlockingQueue<List<String>> lines) {
+    try (LineSource in = LineSource.open(file)) {
+      List<String> batch = new ArrayList<String>(BATCH_SIZE);
+      while (in.hasNext()) {
+        batch = add(lines, batch, in.nextLine());
+      }
+      if (!batch.isEmpty()) {
+        lines.put(batch);
+      }
+    } catch (IOException e) {
+      readFailure = e;
+    } catch (InterruptedException e) {
+      // The commands ended before the file did
+      return;
+    }
+    try {
+      lines.put(END);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Adds a line to a batch, queueing the batch once it is full.
+   *
+   * @return the batch to add the next line to
+   */
+  private static List<String> add(BlockingQueue<List<String>> lines, List<String> batch,
+                                  String line) throws InterruptedException {
+    batch.add(line);
+    if (batch.size() < BATCH_SIZE) {
+      return batch;
+    }
+    lines.put(batch);
+    return new ArrayList<String>(BATCH_SIZE);
+  }
+
+  /**
+   * Takes the next batch of commands, waiting for the parser if needed.
+   */
+  private static List<ParsedCommand> take(BlockingQueue<List<ParsedCommand>> commands) {
+    try {
+      return commands.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading commands", e);
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package calendar.controller;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * This class represents a controller that serves the calendars of one manager to clients on
+ * this machine over TCP.
+ * Clients send commands a line at a time, as they would type them in interactive mode, and
+ * get back what interactive mode would display, ending with a prompt. Each connection is a
+ * session with its own calendar in use, on calendars shared by every session.
+ * Connections are served by one thread with a selector, which also runs every command, so
+ * commands from different sessions never run at once and the calendars need no locking.
+ * A client that does not read its output is not sent more until it catches up.
+ */
+public class ServerController implements ICalendarController {
+  private static final int READ_BUFFER_SIZE = 1 << 16;
+  // A session's commands are not read while this many bytes of its output wait to be sent
+  private static final int MAX_PENDING_OUTPUT = 1 << 20;
+
+  private final ICalendarManager manager;
+  private final ICalendarView log;
+  private final Selector selector;
+  private final ServerSocketChannel server;
+  private volatile boolean stopped;
+
+  /**
+   * Creates a server listening on a port of the loopback address.
+   *
+   * @param manager the manager of the calendars every session shares
+   * @param port    the port to listen on, or 0 for any free port
+   * @param log     the view to show what the server is doing in
+   * @throws IllegalArgumentException if the manager or view is null, or the port is invalid
+   * @throws IOException              if the port cannot be listened on
+   */
+  public ServerController(ICalendarManager manager, int port, ICalendarView log)
+          throws IOException {
+    if ((manager == null) || (log == null)) {
+      throw new IllegalArgumentException("manager or view is null");
+    } else if ((port < 0) || (port > 0xFFFF)) {
+      throw new IllegalArgumentException("Port must be between 0 and 65535");
+    }
+    this.manager = manager;
+    this.log = log;
+    this.selector = Selector.open();
+    try {
+      this.server = ServerSocketChannel.open();
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+      server.configureBlocking(false);
+      server.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      selector.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the port the server listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.socket().getLocalPort();
+  }
+
+  /**
+   * Stops the server, closing every connection. This may be called from any thread.
+   */
+  public void stop() {
+    stopped = true;
+    selector.wakeup();
+  }
+
+  /**
+   * Serves clients until the server is stopped.
+   *
+   * @throws RuntimeException if the server cannot accept or wait for connections
+   */
+  @Override
+  public void execute() {
+    log.displayMessage("Listening on port " + getPort());
+    log.flush();
+    try {
+      while (!stopped) {
+        selector.select();
+        Iterator<SelectionKey> ready = selector.selectedKeys().iterator();
+        while (ready.hasNext()) {
+          SelectionKey key = ready.next();
+          ready.remove();
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            serve(key);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Server failed: " + e.getMessage(), e);
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Accepts a new connection and greets it.
+   */
+  private void accept() throws IOException {
+    SocketChannel channel = server.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    // Replies are small and clients wait for each one
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    Connection connection = new Connection(channel, new ServerSession(manager));
+    SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+    try {
+      connection.run(key);
+    } catch (IOException e) {
+      connection.close(key);
+    }
+  }
+
+  /**
+   * Reads from or writes to a connection that is ready, closing it if it fails or ends.
+   */
+  private void serve(SelectionKey key) {
+    Connection connection = (Connection) key.attachment();
+    try {
+      if (key.isValid() && key.isWritable()) {
+        connection.write(key);
+      }
+      if (key.isValid() && key.isReadable()) {
+        connection.read(key);
+      }
+    } catch (IOException e) {
+      connection.close(key);
+    }
+  }
+
+  /**
+   * Closes every connection and stops listening.
+   */
+  private void close() {
+    for (SelectionKey key : selector.keys()) {
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        log.displayError("Could not close connection: " + e.getMessage());
+      }
+    }
+    try {
+      selector.close();
+    } catch (IOException e) {
+      log.displayError("Could not close server: " + e.getMessage());
+    }
+    log.flush();
+  }
+
+  /**
+   * A client's connection: its session, the bytes read but not yet decoded, and the output
+   * still to be sent.
+   */
+  private static final class Connection {
+    private final SocketChannel channel;
+    private final ServerSession session;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE);
+    private final Deque<ByteBuffer> pending = new ArrayDeque<ByteBuffer>();
+    private int pendingBytes;
+
+    private Connection(SocketChannel channel, ServerSession session) {
+      this.channel = channel;
+      this.session = session;
+    }
+
+    /**
+     * Reads what the client sent and runs its complete commands.
+     */
+    void read(SelectionKey key) throws IOException {
+      if (channel.read(bytes) < 0) {
+        close(key);
+        return;
+      }
+      bytes.flip();
+      decoder.decode(bytes, chars, false);
+      bytes.compact();
+      chars.flip();
+      session.receive(chars);
+      chars.clear();
+      run(key);
+    }
+
+    /**
+     * Runs the session's complete commands and starts sending their output.
+     */
+    void run(SelectionKey key) throws IOException {
+      session.execute();
+      String text = session.takeOutput();
+      if (!text.isEmpty()) {
+        ByteBuffer output = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        pending.add(output);
+        pendingBytes += output.remaining();
+      }
+      write(key);
+    }
+
+    /**
+     * Sends as much of the output as the connection takes without waiting, then chooses
+     * what to wait for next.
+     */
+    void write(SelectionKey key) throws IOException {
+      while (!pending.isEmpty()) {
+        ByteBuffer output = pending.peek();
+        pendingBytes -= channel.write(output);
+        if (output.hasRemaining()) {
+          break;
+        }
+        pending.remove();
+      }
+
+      if (session.isClosed() && pending.isEmpty()) {
+        close(key);
+        return;
+      }
+      int interest = pending.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+      if (!session.isClosed() && (pendingBytes < MAX_PENDING_OUTPUT)) {
+        interest |= SelectionKey.OP_READ;
+      }
+      key.interestOps(interest);
+    }
+
+    /**
+     * Closes the connection, dropping any output not yet sent.
+     */
+    void close(SelectionKey key) {
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // The connection is being dropped either way
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package calendar.controller;
+
+import calendar.model.ICalendarManager;
+import calendar.view.CalendarView;
+
+/**
+ * One connection to the server. Commands arrive as text, a line at a time, and are run as in
+ * interactive mode, each followed by a prompt for the next one, on the calendar this session
+ * uses. What the commands display is kept until the server sends it to the client.
+ */
+class ServerSession extends AbstractController {
+  // A line longer than this without an end is not a command, and the session is closed
+  private static final int MAX_LINE_LENGTH = 1 << 16;
+
+  private final StringBuilder input = new StringBuilder();
+  private final StringBuilder output;
+  private boolean welcomed;
+  private boolean closed;
+
+  /**
+   * Creates a session on the calendars of a shared manager, with no calendar in use.
+   *
+   * @param shared the manager of the calendars every session shares
+   */
+  ServerSession(ICalendarManager shared) {
+    this(new SessionCalendarManager(shared), new StringBuilder());
+  }
+
+  private ServerSession(SessionCalendarManager manager, StringBuilder output) {
+    super(manager, new CalendarView(output));
+    this.output = output;
+  }
+
+  /**
+   * Adds text received from the client. Its commands are run by {@link #execute()}.
+   *
+   * @param text the text received
+   */
+  void receive(CharSequence text) {
+    input.append(text);
+  }
+
+  /**
+   * Runs every complete line received so far, greeting the client the first time. A session
+   * is closed by an exit command, after which nothing more is run.
+   */
+  @Override
+  public void execute() {
+    if (!welcomed) {
+      calendarView.displayMessage("Welcome to the Calendar Application - Server Mode");
+      calendarView.displayMessage("Type 'exit' to quit");
+      calendarView.displayMessage("");
+      calendarView.displayPrompt();
+      welcomed = true;
+    }
+
+    int start = 0;
+    for (int end = indexOfNewline(start); !closed && (end >= 0); end = indexOfNewline(start)) {
+      String commandLine = input.substring(start, end).trim();
+      start = end + 1;
+      if (commandLine.equals("exit") || commandLine.equals("q")) {
+        endInput();
+        calendarView.displayMessage("Goodbye");
+        closed = true;
+      } else {
+        try {
+          parseCommand(commandLine);
+        } catch (Exception e) {
+          calendarView.displayError(e.getMessage());
+        }
+        calendarView.displayMessage("");
+        calendarView.displayPrompt();
+      }
+    }
+    input.delete(0, start);
+
+    if (!closed && (input.length() > MAX_LINE_LENGTH)) {
+      calendarView.displayError("Command is longer than " + MAX_LINE_LENGTH + " characters.");
+      closed = true;
+    }
+  }
+
+  /**
+   * Finds the end of the next line of input.
+   *
+   * @return the index of the newline, or -1 if the line has not been completed
+   */
+  private int indexOfNewline(int from) {
+    return input.indexOf("\n", from);
+  }
+
+  /**
+   * Takes what the commands have displayed since the last call.
+   *
+   * @return the text to send to the client, which may be empty
+   */
+  String takeOutput() {
+    String text = output.toString();
+    output.setLength(0);
+    return text;
+  }
+
+  /**
+   * Checks whether the client ended the session.
+   *
+   * @return true if nothing more will be run
+   */
+  boolean isClosed() {
+    return closed;
+  }
+}
@@ -0,0 +1,124 @@
+package calendar.controller;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import calendar.model.ICalendarManager;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * The calendars of a shared manager, as seen by one session of the server.
+ * Every session has its own calendar in use, remembered by name. Before anything is done to
+ * the calendar in use, that calendar is made the one in use by the shared manager too, so a
+ * shared manager that records changes, such as a journal, still sees them in order. A
+ * session that has not chosen a calendar has none in use, whatever other sessions chose.
+ * Sessions take turns on the shared manager, so it is only used by one thread at a time.
+ */
+class SessionCalendarManager implements ICalendarManager {
+  private final ICalendarManager shared;
+  // The name of the calendar this session uses, or null if it has not chosen one
+  private String calendarName;
+
+  /**
+   * Creates a session with no calendar in use.
+   *
+   * @param shared the manager of the calendars every session shares
+   */
+  SessionCalendarManager(ICalendarManager shared) {
+    if (shared == null) {
+      throw new IllegalArgumentException("shared manager is null");
+    }
+    this.shared = shared;
+  }
+
+  @Override
+  public ISmartCalendarModel getCurrentCalendar() {
+    if (calendarName == null) {
+      return null;
+    }
+    switchShared();
+    return shared.getCurrentCalendar();
+  }
+
+  @Override
+  public ISmartCalendarModel getCalendar(String calendarName) {
+    return shared.getCalendar(calendarName);
+  }
+
+  @Override
+  public void createCalendar(String calendarName, ZoneId timezone) {
+    shared.createCalendar(calendarName, timezone);
+  }
+
+  @Override
+  public void useCalendar(String calendarName) {
+    shared.useCalendar(calendarName);
+    this.calendarName = calendarName;
+  }
+
+  @Override
+  public void editCalendar(String calendarName, String property, String newValue) {
+    shared.editCalendar(calendarName, property, newValue);
+    // Keep using the calendar under its new name
+    if ("name".equals(property) && calendarName.equals(this.calendarName)) {
+      this.calendarName = newValue;
+    }
+  }
+
+  @Override
+  public void copyEvent(String eventName, LocalDateTime sourceDateTime,
+                        String targetCalendarName, LocalDateTime targetDateTime) {
+    validateCalendarInUse();
+    shared.copyEvent(eventName, sourceDateTime, targetCalendarName, targetDateTime);
+  }
+
+  @Override
+  public void copyEventsOnDate(LocalDateTime sourceDate, String targetCalendarName,
+                               LocalDateTime targetDate) {
+    validateCalendarInUse();
+    shared.copyEventsOnDate(sourceDate, targetCalendarName, targetDate);
+  }
+
+  @Override
+  public void copyEventsBetweenDates(LocalDateTime startDate, LocalDateTime endDate,
+                                     String targetCalendarName, LocalDateTime targetStartDate) {
+    validateCalendarInUse();
+    shared.copyEventsBetweenDates(startDate, endDate, targetCalendarName, targetStartDate);
+  }
+
+  @Override
+  public List<String> getCalendarNames() {
+    return shared.getCalendarNames();
+  }
+
+  @Override
+  public int save() {
+    return shared.save();
+  }
+
+  /**
+   * Checks that this session has a calendar in use and makes it the one the shared manager
+   * uses, for copies, which the shared manager makes from its calendar in use.
+   *
+   * @throws IllegalArgumentException if the session has no calendar in use, or another
+   *                                  session renamed it
+   */
+  private void validateCalendarInUse() {
+    if (calendarName == null) {
+      throw new IllegalArgumentException("No calendar is currently in use. " +
+              "Use 'use calendar' command first.");
+    }
+    switchShared();
+  }
+
+  /**
+   * Makes this session's calendar the one the shared manager uses, if it is not already.
+   */
+  private void switchShared() {
+    ISmartCalendarModel current = shared.getCurrentCalendar();
+    if ((current == null) || !calendarName.equals(current.getCalendarName())) {
+      shared.useCalendar(calendarName);
+    }
+  }
+}
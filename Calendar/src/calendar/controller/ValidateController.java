@@ -0,0 +1,227 @@
+package calendar.controller;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import calendar.controller.parser.CommandTokens;
+import calendar.controller.parser.SmartCommandParserFactory;
+import calendar.model.CalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * This class represents a controller that checks a command file without running it.
+ * Every line up to the first exit command is parsed into a command as headless mode would
+ * parse it, so mistakes of syntax and in the arguments of commands, such as bad dates or
+ * unknown properties, are found, but no command is run and no calendar is changed. Lines after
+ * the exit command are not checked, since headless mode never runs them. Checks that depend
+ * on the calendars, such as whether a calendar is in use or an event exists, are left for the
+ * real run.
+ * The file is read in chunks of lines, and the lines of each chunk are parsed in parallel on a
+ * fork-join pool while the next chunks are read, so files of millions of lines are checked
+ * with little memory. Every error is reported with its line number, in the order of the file,
+ * followed by a summary.
+ */
+public class ValidateController implements ICalendarController {
+  private static final int CHUNK_LINES = 1 << 14;
+  // Fewer lines than this are parsed by one task rather than split further
+  private static final int TASK_LINES = 512;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+
+  private final File file;
+  private final int parallelism;
+  private final ICalendarView report;
+  private final SmartCommandParserFactory factory;
+
+  /**
+   * Creates a controller to check a command file.
+   *
+   * @param file        the file of commands to check
+   * @param parallelism the most threads to parse lines on at once
+   * @param report      the view to report errors and the summary in
+   * @throws IllegalArgumentException if the file or view is null, or the parallelism is not
+   *                                  positive
+   * @throws FileNotFoundException    if the file does not exist or cannot be read
+   */
+  public ValidateController(File file, int parallelism, ICalendarView report)
+          throws FileNotFoundException {
+    if ((file == null) || (report == null)) {
+      throw new IllegalArgumentException("file or view is null");
+    } else if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    } else if (!file.exists() || !file.canRead()) {
+      throw new FileNotFoundException("File does not exist or cannot be read.");
+    }
+    this.file = file;
+    this.parallelism = parallelism;
+    this.report = report;
+    // Commands are only parsed, never run, so the parsers' calendars are never used
+    this.factory = new SmartCommandParserFactory(new CalendarManager(), report);
+  }
+
+  /**
+   * Checks the lines of the file up to the first exit command, reporting each error and then
+   * a summary.
+   *
+   * @throws RuntimeException if the file cannot be read, or the check is interrupted
+   */
+  @Override
+  public void execute() {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      checkLines(pool);
+    } finally {
+      pool.shutdownNow();
+      report.flush();
+    }
+  }
+
+  /**
+   * Reads the file a chunk at a time, handing each chunk to the pool. A few chunks are
+   * checked ahead of the one being reported, so the pool stays busy while memory stays
+   * bounded. Reading stops at the first exit command, since headless mode runs no lines
+   * after it.
+   */
+  private void checkLines(ForkJoinPool pool) {
+    long start = System.nanoTime();
+    Deque<ForkJoinTask<List<LineError>>> checking = new ArrayDeque<>();
+    long lineCount = 0;
+    long errorCount = 0;
+    boolean exits = false;
+    try (LineSource lines = LineSource.open(this.file)) {
+      while (!exits && lines.hasNext()) {
+        String[] chunk = new String[CHUNK_LINES];
+        int size = 0;
+        while (!exits && (size < CHUNK_LINES) && lines.hasNext()) {
+          chunk[size] = lines.nextLine();
+          exits = isExit(chunk[size]);
+          size++;
+        }
+        checking.add(pool.submit(new CheckTask(chunk, lineCount + 1, 0, size)));
+        lineCount += size;
+        if (checking.size() > 2 * parallelism) {
+          errorCount += reportErrors(checking.remove());
+        }
+      }
+    } catch (FileNotFoundException | NoSuchFileException e) {
+      throw new RuntimeException("File not found: " + e.getMessage(), e);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not read commands: " + e.getMessage(), e);
+    }
+    while (!checking.isEmpty()) {
+      errorCount += reportErrors(checking.remove());
+    }
+
+    if (!exits) {
+      report.displayError("No exit command.");
+    }
+    report.displayMessage("Checked " + lineCount + ((lineCount == 1) ? " line in " : " lines in ")
+            + ((System.nanoTime() - start) / NANOS_PER_MILLI) + " ms: " + errorCount
+            + ((errorCount == 1) ? " error" : " errors"));
+  }
+
+  /**
+   * Waits for a chunk to be checked and reports its errors.
+   *
+   * @return the number of errors
+   */
+  private int reportErrors(ForkJoinTask<List<LineError>> checked) {
+    List<LineError> errors = checked.join();
+    for (LineError error : errors) {
+      report.displayError("Line " + error.line + ": " + error.message);
+    }
+    return errors.size();
+  }
+
+  /**
+   * Checks whether a line ends the commands, as in headless mode.
+   */
+  private static boolean isExit(String line) {
+    return line.equals("exit") || line.equals("q");
+  }
+
+  /**
+   * Checks one line, parsing it into a command without running it.
+   *
+   * @param command the words of the line, reused between lines
+   * @return the reason the line is not a valid command, or null if it is
+   */
+  private String check(String line, CommandTokens command) {
+    if (isExit(line)) {
+      return null;
+    }
+    try {
+      command.reset(line);
+      if ((command.size() == 1) && (command.is(0, "begin") || command.is(0, "commit")
+              || command.is(0, "rollback"))) {
+        return null;
+      }
+      factory.findParser(command).compile(command);
+      return null;
+    } catch (RuntimeException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Checks a range of the lines of a chunk, splitting it in half until it is small enough
+   * to check on one thread.
+   */
+  private final class CheckTask extends RecursiveTask<List<LineError>> {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] chunk;
+    private final long firstLine;
+    private final int from;
+    private final int to;
+
+    private CheckTask(String[] chunk, long firstLine, int from, int to) {
+      this.chunk = chunk;
+      this.firstLine = firstLine;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<LineError> compute() {
+      if (to - from <= TASK_LINES) {
+        List<LineError> errors = new ArrayList<LineError>();
+        CommandTokens command = new CommandTokens();
+        for (int i = from; i < to; i++) {
+          String message = check(chunk[i], command);
+          if (message != null) {
+            errors.add(new LineError(firstLine + i, message));
+          }
+        }
+        return errors;
+      }
+      int middle = (from + to) >>> 1;
+      CheckTask second = new CheckTask(chunk, firstLine, middle, to);
+      second.fork();
+      List<LineError> errors = new CheckTask(chunk, firstLine, from, middle).compute();
+      errors.addAll(second.join());
+      return errors;
+    }
+  }
+
+  /**
+   * An error found on a line of the file.
+   */
+  private static final class LineError {
+    private final long line;
+    private final String message;
+
+    private LineError(long line, String message) {
+      this.line = line;
+      this.message = message;
+    }
+  }
+}
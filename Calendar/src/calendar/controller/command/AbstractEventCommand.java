@@ -0,0 +1,31 @@
+package calendar.controller.command;
+
+import calendar.model.ICalendarManager;
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command on the events of a single calendar. Run through a manager, it applies to the
+ * calendar in use at the time it runs.
+ */
+public abstract class AbstractEventCommand implements ICalendarCommand {
+
+  @Override
+  public final void execute(ICalendarManager manager, ICalendarView view) {
+    ICalendarModel calendar = manager.getCurrentCalendar();
+    if (calendar == null) {
+      throw new IllegalArgumentException("No calendar is currently in use. " +
+              "Use 'use calendar --name [calendar-name]' command first.");
+    }
+    execute(calendar, view);
+  }
+
+  /**
+   * Runs the command on a calendar, showing any results in a view.
+   *
+   * @param calendar the calendar
+   * @param view     the view to display results in
+   * @throws IllegalArgumentException if the command cannot be carried out
+   */
+  public abstract void execute(ICalendarModel calendar, ICalendarView view);
+}
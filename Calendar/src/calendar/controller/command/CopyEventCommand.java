@@ -0,0 +1,73 @@
+package calendar.controller.command;
+
+import java.time.LocalDateTime;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that copies one event of the calendar in use to another calendar.
+ */
+public final class CopyEventCommand implements ICalendarCommand {
+  private final String subject;
+  private final LocalDateTime start;
+  private final String targetCalendar;
+  private final LocalDateTime targetStart;
+
+  /**
+   * Creates a command that copies an event.
+   *
+   * @param subject        the subject of the event
+   * @param start          when the event starts
+   * @param targetCalendar the name of the calendar to copy the event to
+   * @param targetStart    when the copy starts, in the target calendar's timezone
+   */
+  public CopyEventCommand(String subject, LocalDateTime start, String targetCalendar,
+                          LocalDateTime targetStart) {
+    this.subject = subject;
+    this.start = start;
+    this.targetCalendar = targetCalendar;
+    this.targetStart = targetStart;
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    manager.copyEvent(subject, start, targetCalendar, targetStart);
+  }
+
+  /**
+   * Gets the subject of the event.
+   *
+   * @return the subject
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  /**
+   * Gets when the event starts.
+   *
+   * @return the start
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the name of the calendar to copy the event to.
+   *
+   * @return the calendar name
+   */
+  public String getTargetCalendar() {
+    return targetCalendar;
+  }
+
+  /**
+   * Gets when the copy starts.
+   *
+   * @return the start of the copy
+   */
+  public LocalDateTime getTargetStart() {
+    return targetStart;
+  }
+}
@@ -0,0 +1,90 @@
+package calendar.controller.command;
+
+import java.time.LocalDateTime;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that copies the events of the calendar in use on a date, or between two dates, to
+ * another calendar.
+ */
+public final class CopyEventsCommand implements ICalendarCommand {
+  private final LocalDateTime startDate;
+  // Null when the events of a single date are copied
+  private final LocalDateTime endDate;
+  private final String targetCalendar;
+  private final LocalDateTime targetDate;
+
+  /**
+   * Creates a command that copies the events on a date.
+   *
+   * @param date           the date of the events
+   * @param targetCalendar the name of the calendar to copy the events to
+   * @param targetDate     the date to copy the events to
+   */
+  public CopyEventsCommand(LocalDateTime date, String targetCalendar, LocalDateTime targetDate) {
+    this(date, null, targetCalendar, targetDate);
+  }
+
+  /**
+   * Creates a command that copies the events between two dates.
+   *
+   * @param startDate      the first date of the events
+   * @param endDate        the last date of the events
+   * @param targetCalendar the name of the calendar to copy the events to
+   * @param targetDate     the date the copied range starts on
+   */
+  public CopyEventsCommand(LocalDateTime startDate, LocalDateTime endDate,
+                           String targetCalendar, LocalDateTime targetDate) {
+    this.startDate = startDate;
+    this.endDate = endDate;
+    this.targetCalendar = targetCalendar;
+    this.targetDate = targetDate;
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    if (endDate == null) {
+      manager.copyEventsOnDate(startDate, targetCalendar, targetDate);
+    } else {
+      manager.copyEventsBetweenDates(startDate, endDate, targetCalendar, targetDate);
+    }
+  }
+
+  /**
+   * Gets the first date of the events.
+   *
+   * @return the first date
+   */
+  public LocalDateTime getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Gets the last date of the events.
+   *
+   * @return the last date, or null when the events of a single date are copied
+   */
+  public LocalDateTime getEndDate() {
+    return endDate;
+  }
+
+  /**
+   * Gets the name of the calendar to copy the events to.
+   *
+   * @return the calendar name
+   */
+  public String getTargetCalendar() {
+    return targetCalendar;
+  }
+
+  /**
+   * Gets the date the copied events start on.
+   *
+   * @return the target date
+   */
+  public LocalDateTime getTargetDate() {
+    return targetDate;
+  }
+}
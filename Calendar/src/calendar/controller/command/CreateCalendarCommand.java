@@ -0,0 +1,48 @@
+package calendar.controller.command;
+
+import java.time.ZoneId;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that creates a calendar in a timezone.
+ */
+public final class CreateCalendarCommand implements ICalendarCommand {
+  private final String name;
+  private final ZoneId timezone;
+
+  /**
+   * Creates a command that creates a calendar.
+   *
+   * @param name     the name of the calendar
+   * @param timezone the timezone of the calendar
+   */
+  public CreateCalendarCommand(String name, ZoneId timezone) {
+    this.name = name;
+    this.timezone = timezone;
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    manager.createCalendar(name, timezone);
+  }
+
+  /**
+   * Gets the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the timezone of the calendar.
+   *
+   * @return the timezone
+   */
+  public ZoneId getTimezone() {
+    return timezone;
+  }
+}
@@ -0,0 +1,169 @@
+package calendar.controller.command;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that creates an event, timed or all-day, once or repeating on some weekdays.
+ * A repeating event either repeats a number of times or until a date.
+ */
+public final class CreateEventCommand extends AbstractEventCommand {
+  private final String subject;
+  private final LocalDateTime start;
+  // Null for an all-day event
+  private final LocalDateTime end;
+  // Empty for an event that does not repeat
+  private final List<DayOfWeek> weekdays;
+  private final int count;
+  // Null for an event that repeats a number of times
+  private final LocalDateTime until;
+
+  /**
+   * Creates a command for a single timed event.
+   *
+   * @param subject the subject of the event
+   * @param start   when the event starts
+   * @param end     when the event ends
+   */
+  public CreateEventCommand(String subject, LocalDateTime start, LocalDateTime end) {
+    this(subject, start, end, Collections.emptyList(), 0, null);
+  }
+
+  /**
+   * Creates a command for a single all-day event.
+   *
+   * @param subject the subject of the event
+   * @param date    the date of the event
+   */
+  public CreateEventCommand(String subject, LocalDateTime date) {
+    this(subject, date, null, Collections.emptyList(), 0, null);
+  }
+
+  private CreateEventCommand(String subject, LocalDateTime start, LocalDateTime end,
+                             List<DayOfWeek> weekdays, int count, LocalDateTime until) {
+    this.subject = subject;
+    this.start = start;
+    this.end = end;
+    this.weekdays = weekdays;
+    this.count = count;
+    this.until = until;
+  }
+
+  /**
+   * Makes a command for this event repeating a number of times.
+   *
+   * @param weekdays the weekdays the event repeats on
+   * @param count    the number of times the event happens
+   * @return the command for the repeating event
+   */
+  public CreateEventCommand repeating(List<DayOfWeek> weekdays, int count) {
+    return new CreateEventCommand(subject, start, end, copyOf(weekdays), count, null);
+  }
+
+  /**
+   * Makes a command for this event repeating until a date.
+   *
+   * @param weekdays the weekdays the event repeats on
+   * @param until    the last date the event can happen on
+   * @return the command for the repeating event
+   */
+  public CreateEventCommand repeatingUntil(List<DayOfWeek> weekdays, LocalDateTime until) {
+    return new CreateEventCommand(subject, start, end, copyOf(weekdays), 0, until);
+  }
+
+  @Override
+  public void execute(ICalendarModel calendar, ICalendarView view) {
+    if (weekdays.isEmpty()) {
+      if (isAllDay()) {
+        calendar.createSingleAllDayEvent(subject, start);
+      } else {
+        calendar.createSingleTimedEvent(subject, start, end);
+      }
+      return;
+    }
+    // The model takes a list it may change, so each run gets its own copy
+    ArrayList<DayOfWeek> days = new ArrayList<>(weekdays);
+    if (isAllDay() && (until == null)) {
+      calendar.createRecurringAllDayEvent(subject, start, days, count);
+    } else if (isAllDay()) {
+      calendar.createRecurringAllDayEventUntil(subject, start, days, until);
+    } else if (until == null) {
+      calendar.createRecurringTimedEvent(subject, start, end, days, count);
+    } else {
+      calendar.createRecurringTimedEventUntil(subject, start, end, days, until);
+    }
+  }
+
+  /**
+   * Gets the subject of the event.
+   *
+   * @return the subject
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  /**
+   * Gets when the event starts, at the start of its date for an all-day event.
+   *
+   * @return the start
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets when a timed event ends.
+   *
+   * @return the end, or null for an all-day event
+   */
+  public LocalDateTime getEnd() {
+    return end;
+  }
+
+  /**
+   * Checks whether the event lasts all day.
+   *
+   * @return true for an all-day event
+   */
+  public boolean isAllDay() {
+    return end == null;
+  }
+
+  /**
+   * Gets the weekdays the event repeats on.
+   *
+   * @return the weekdays, empty if the event does not repeat
+   */
+  public List<DayOfWeek> getWeekdays() {
+    return weekdays;
+  }
+
+  /**
+   * Gets the number of times a repeating event happens.
+   *
+   * @return the count, or 0 if the event does not repeat a number of times
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the last date a repeating event can happen on.
+   *
+   * @return the date, or null if the event does not repeat until a date
+   */
+  public LocalDateTime getUntil() {
+    return until;
+  }
+
+  private static List<DayOfWeek> copyOf(List<DayOfWeek> weekdays) {
+    return Collections.unmodifiableList(new ArrayList<>(weekdays));
+  }
+}
@@ -0,0 +1,58 @@
+package calendar.controller.command;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that renames a calendar or changes its timezone.
+ */
+public final class EditCalendarCommand implements ICalendarCommand {
+  private final String name;
+  private final String property;
+  private final String value;
+
+  /**
+   * Creates a command that edits a calendar.
+   *
+   * @param name     the name of the calendar
+   * @param property the property to change, name or timezone
+   * @param value    the new value of the property
+   */
+  public EditCalendarCommand(String name, String property, String value) {
+    this.name = name;
+    this.property = property;
+    this.value = value;
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    manager.editCalendar(name, property, value);
+  }
+
+  /**
+   * Gets the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the property to change.
+   *
+   * @return the property
+   */
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * Gets the new value of the property.
+   *
+   * @return the value
+   */
+  public String getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,134 @@
+package calendar.controller.command;
+
+import java.time.LocalDateTime;
+
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that changes a property of one event, of an event and the rest of its series,
+ * or of a whole series.
+ */
+public final class EditEventCommand extends AbstractEventCommand {
+
+  /**
+   * The events an edit applies to.
+   */
+  public enum Scope {
+    /**
+     * The event alone.
+     */
+    EVENT,
+
+    /**
+     * The event and the events after it in its series.
+     */
+    EVENTS,
+
+    /**
+     * Every event in the series.
+     */
+    SERIES
+  }
+
+  private final Scope scope;
+  private final String subject;
+  private final LocalDateTime start;
+  // Only used to find a single event
+  private final LocalDateTime end;
+  private final String property;
+  private final String value;
+
+  /**
+   * Creates a command that edits events.
+   *
+   * @param scope    the events the edit applies to
+   * @param subject  the subject of the event
+   * @param start    when the event starts
+   * @param end      when the event ends, needed only to edit a single event
+   * @param property the property to change
+   * @param value    the new value of the property
+   * @throws IllegalArgumentException if a single event is edited without its end
+   */
+  public EditEventCommand(Scope scope, String subject, LocalDateTime start, LocalDateTime end,
+                          String property, String value) {
+    if ((scope == Scope.EVENT) && (end == null)) {
+      throw new IllegalArgumentException("Editing a single event needs its end time");
+    }
+    this.scope = scope;
+    this.subject = subject;
+    this.start = start;
+    this.end = end;
+    this.property = property;
+    this.value = value;
+  }
+
+  @Override
+  public void execute(ICalendarModel calendar, ICalendarView view) {
+    switch (scope) {
+      case EVENT:
+        calendar.editEvent(subject, start, end, property, value);
+        break;
+      case EVENTS:
+        calendar.editEvents(subject, start, property, value);
+        break;
+      default:
+        calendar.editSeries(subject, start, property, value);
+        break;
+    }
+  }
+
+  /**
+   * Gets the events the edit applies to.
+   *
+   * @return the scope of the edit
+   */
+  public Scope getScope() {
+    return scope;
+  }
+
+  /**
+   * Gets the subject of the event.
+   *
+   * @return the subject
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  /**
+   * Gets when the event starts.
+   *
+   * @return the start
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets when a single event ends.
+   *
+   * @return the end, or null when a series is edited
+   */
+  public LocalDateTime getEnd() {
+    return end;
+  }
+
+  /**
+   * Gets the property to change.
+   *
+   * @return the property
+   */
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * Gets the new value of the property.
+   *
+   * @return the value
+   */
+  public String getValue() {
+    return value;
+  }
+}
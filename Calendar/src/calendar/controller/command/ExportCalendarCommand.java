@@ -0,0 +1,85 @@
+package calendar.controller.command;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import calendar.model.ICalendarManager;
+import calendar.model.ISmartCalendarModel;
+import calendar.model.MappedCalendarModel;
+import calendar.model.interchange.CsvExporter;
+import calendar.model.interchange.IcsExporter;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that writes the calendar in use to a file, as CSV if the file name ends with
+ * .csv, as a memory-mapped calendar file that can be opened read-only if it ends with .cal,
+ * and as iCalendar otherwise.
+ */
+public final class ExportCalendarCommand implements ICalendarCommand {
+  private final String fileName;
+  private final Path file;
+
+  /**
+   * Creates a command that exports to a file.
+   *
+   * @param fileName the name of the file
+   * @throws IllegalArgumentException if the name is not a valid file name
+   */
+  public ExportCalendarCommand(String fileName) {
+    this.fileName = fileName;
+    this.file = toPath(fileName);
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    ISmartCalendarModel calendar = currentCalendar(manager);
+    try {
+      int count;
+      if (fileName.toLowerCase().endsWith(".csv")) {
+        count = new CsvExporter(calendar).exportTo(file);
+      } else if (fileName.toLowerCase().endsWith(".cal")) {
+        count = MappedCalendarModel.write(calendar, file);
+      } else {
+        count = new IcsExporter(calendar).exportTo(file);
+      }
+      view.displayMessage("Exported " + count + " events to " + file.toAbsolutePath());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not write '" + fileName + "': " +
+              e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the file to export to.
+   *
+   * @return the file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Converts a file name from a command to a path.
+   */
+  static Path toPath(String fileName) {
+    try {
+      return Paths.get(fileName);
+    } catch (InvalidPathException e) {
+      throw new IllegalArgumentException("Invalid file name '" + fileName + "'");
+    }
+  }
+
+  /**
+   * Gets the calendar in use, which files are exported from and imported into.
+   */
+  static ISmartCalendarModel currentCalendar(ICalendarManager manager) {
+    ISmartCalendarModel calendar = manager.getCurrentCalendar();
+    if (calendar == null) {
+      throw new IllegalArgumentException("No calendar is currently in use. " +
+              "Use 'use calendar --name [calendar-name]' command first.");
+    }
+    return calendar;
+  }
+}
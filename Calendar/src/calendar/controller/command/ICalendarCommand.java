@@ -0,0 +1,22 @@
+package calendar.controller.command;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that has been parsed and checked but not run yet.
+ * Commands hold their arguments as typed values, never change once made and refer to no
+ * calendar until they run, so a command can be parsed ahead of time, kept, and run later or
+ * more than once.
+ */
+public interface ICalendarCommand {
+
+  /**
+   * Runs the command on the calendars of a manager, showing any results in a view.
+   *
+   * @param manager the manager of the calendars
+   * @param view    the view to display results in
+   * @throws IllegalArgumentException if the command cannot be carried out
+   */
+  void execute(ICalendarManager manager, ICalendarView view);
+}
@@ -0,0 +1,56 @@
+package calendar.controller.command;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import calendar.model.ICalendarManager;
+import calendar.model.interchange.IcsImporter;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that adds the events of an iCalendar file to the calendar in use.
+ */
+public final class ImportCalendarCommand implements ICalendarCommand {
+  private final String fileName;
+  private final Path file;
+
+  /**
+   * Creates a command that imports from a file.
+   *
+   * @param fileName the name of the file
+   * @throws IllegalArgumentException if the name is not a valid file name
+   */
+  public ImportCalendarCommand(String fileName) {
+    this.fileName = fileName;
+    this.file = ExportCalendarCommand.toPath(fileName);
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    IcsImporter importer = new IcsImporter(ExportCalendarCommand.currentCalendar(manager));
+    try {
+      int count = importer.importFrom(file);
+      String message = "Imported " + count + " events from " + file.toAbsolutePath();
+      if (importer.getSimplifiedRules() > 0) {
+        message += " (" + importer.getSimplifiedRules() + " unsupported recurrence rules " +
+                "were imported as their first occurrence only)";
+      }
+      view.displayMessage(message);
+    } catch (NoSuchFileException e) {
+      throw new IllegalArgumentException("File not found: '" + fileName + "'");
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read '" + fileName + "': " +
+              e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the file to import from.
+   *
+   * @return the file
+   */
+  public Path getFile() {
+    return file;
+  }
+}
@@ -0,0 +1,62 @@
+package calendar.controller.command;
+
+import java.time.LocalDateTime;
+
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that shows the events on a date or in a range of times.
+ */
+public final class PrintEventsCommand extends AbstractEventCommand {
+  private final LocalDateTime start;
+  // Null when the events of a single date are shown
+  private final LocalDateTime end;
+
+  /**
+   * Creates a command that shows the events on a date.
+   *
+   * @param date the date
+   */
+  public PrintEventsCommand(LocalDateTime date) {
+    this(date, null);
+  }
+
+  /**
+   * Creates a command that shows the events in a range of times.
+   *
+   * @param start the start of the range
+   * @param end   the end of the range, or null to show the events on the start's date
+   */
+  public PrintEventsCommand(LocalDateTime start, LocalDateTime end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  public void execute(ICalendarModel calendar, ICalendarView view) {
+    if (end == null) {
+      view.displayEventsForDate(start.toLocalDate(), calendar.printEvents(start));
+    } else {
+      view.displayEventsForDateRange(start, end, calendar.printEvents(start, end));
+    }
+  }
+
+  /**
+   * Gets the date, or the start of the range, to show events for.
+   *
+   * @return the start
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the end of the range to show events for.
+   *
+   * @return the end, or null when the events of a single date are shown
+   */
+  public LocalDateTime getEnd() {
+    return end;
+  }
+}
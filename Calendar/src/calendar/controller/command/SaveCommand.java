@@ -0,0 +1,20 @@
+package calendar.controller.command;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that writes every change made since the last save.
+ */
+public final class SaveCommand implements ICalendarCommand {
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    int files = manager.save();
+    if (files == 0) {
+      view.displayMessage("No changes to save");
+    } else {
+      view.displayMessage("Saved changes to " + files + " files");
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package calendar.controller.command;
+
+import java.time.LocalDateTime;
+
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that shows the events whose subject or description contains all of some words,
+ * optionally only those in a range of times.
+ */
+public final class SearchEventsCommand extends AbstractEventCommand {
+  private final String terms;
+  // Both null when every event is searched
+  private final LocalDateTime start;
+  private final LocalDateTime end;
+
+  /**
+   * Creates a command that searches every event.
+   *
+   * @param terms the words to search for
+   */
+  public SearchEventsCommand(String terms) {
+    this(terms, null, null);
+  }
+
+  /**
+   * Creates a command that searches the events in a range of times.
+   *
+   * @param terms the words to search for
+   * @param start the start of the range
+   * @param end   the end of the range
+   */
+  public SearchEventsCommand(String terms, LocalDateTime start, LocalDateTime end) {
+    this.terms = terms;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  public void execute(ICalendarModel calendar, ICalendarView view) {
+    if (start == null) {
+      view.displaySearchResults(terms, calendar.searchEvents(terms));
+    } else {
+      view.displaySearchResults(terms, calendar.searchEvents(terms, start, end));
+    }
+  }
+
+  /**
+   * Gets the words to search for.
+   *
+   * @return the search terms
+   */
+  public String getTerms() {
+    return terms;
+  }
+
+  /**
+   * Gets the start of the range searched.
+   *
+   * @return the start, or null when every event is searched
+   */
+  public LocalDateTime getStart() {
+    return start;
+  }
+
+  /**
+   * Gets the end of the range searched.
+   *
+   * @return the end, or null when every event is searched
+   */
+  public LocalDateTime getEnd() {
+    return end;
+  }
+}
@@ -0,0 +1,39 @@
+package calendar.controller.command;
+
+import java.time.LocalDateTime;
+
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that shows whether the user is busy at a time.
+ */
+public final class ShowStatusCommand extends AbstractEventCommand {
+  private final LocalDateTime dateTime;
+  private final String label;
+
+  /**
+   * Creates a command that shows the status at a time.
+   *
+   * @param dateTime the time
+   * @param label    the time as the user wrote it, which is how the status shows it
+   */
+  public ShowStatusCommand(LocalDateTime dateTime, String label) {
+    this.dateTime = dateTime;
+    this.label = label;
+  }
+
+  @Override
+  public void execute(ICalendarModel calendar, ICalendarView view) {
+    view.displayStatus(label, calendar.showStatus(dateTime));
+  }
+
+  /**
+   * Gets the time to show the status at.
+   *
+   * @return the time
+   */
+  public LocalDateTime getDateTime() {
+    return dateTime;
+  }
+}
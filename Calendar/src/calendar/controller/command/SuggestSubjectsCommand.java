@@ -0,0 +1,46 @@
+package calendar.controller.command;
+
+import java.util.List;
+
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that lists the existing event subjects starting with a prefix.
+ */
+public final class SuggestSubjectsCommand extends AbstractEventCommand {
+  private final String prefix;
+  private final int limit;
+
+  /**
+   * Creates a command that suggests subjects.
+   *
+   * @param prefix the start of the subjects
+   * @param limit  the most subjects to list
+   */
+  public SuggestSubjectsCommand(String prefix, int limit) {
+    this.prefix = prefix;
+    this.limit = limit;
+  }
+
+  @Override
+  public void execute(ICalendarModel calendar, ICalendarView view) {
+    List<String> subjects = calendar.suggestSubjects(prefix, limit);
+    if (subjects.isEmpty()) {
+      view.displayMessage("No subjects start with '" + prefix + "'");
+      return;
+    }
+    for (String subject : subjects) {
+      view.displayMessage(subject);
+    }
+  }
+
+  /**
+   * Gets the start of the subjects to list.
+   *
+   * @return the prefix
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+}
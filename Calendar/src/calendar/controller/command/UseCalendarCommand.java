@@ -0,0 +1,34 @@
+package calendar.controller.command;
+
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * A command that puts a calendar in use, so that later commands on events apply to it.
+ */
+public final class UseCalendarCommand implements ICalendarCommand {
+  private final String name;
+
+  /**
+   * Creates a command that puts a calendar in use.
+   *
+   * @param name the name of the calendar
+   */
+  public UseCalendarCommand(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public void execute(ICalendarManager manager, ICalendarView view) {
+    manager.useCalendar(name);
+  }
+
+  /**
+   * Gets the name of the calendar.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+}
@@ -3,19 +3,24 @@ package calendar.controller.parser;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import calendar.controller.command.ICalendarCommand;
 import calendar.model.ICalendarManager;
 import calendar.model.ICalendarModel;
+import calendar.model.IsoDateTimeParser;
 import calendar.view.ICalendarView;
 
 /**
  * Abstract base class for command parsers.
  * Contains common parsing logic shared by all command types.
+ * Parsing a command only reads its words: it produces a command object that refers to no
+ * calendar, and the command changes or queries the calendars only when it is executed.
+ * Parsers keep no state between commands, so one instance of each parser is made per factory
+ * and reused for every command it handles.
  */
 public abstract class AbstractCommandParser implements ICommandParser {
   // Common array indices used across parsers
@@ -23,11 +28,6 @@ public abstract class AbstractCommandParser implements ICommandParser {
   protected static final int COMMAND_SUBTYPE_INDEX = 1;
   protected static final int SUBJECT_START_INDEX = 2;
 
-  // Formatters for parsing dates and times
-  protected static final DateTimeFormatter DATE_TIME_FORMATTER =
-          DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-  protected static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
-
   // Maps single characters to days of week
   protected static final Map<Character, DayOfWeek> WEEKDAY_MAP = new HashMap<>();
 
@@ -45,7 +45,8 @@ public abstract class AbstractCommandParser implements ICommandParser {
   protected static final String UNTIL = "until";
   protected static final String TIMES = "times";
 
-  protected final ICalendarModel model;
+  // Gives the calendar that commands on a single calendar apply to
+  private final Supplier<? extends ICalendarModel> calendar;
   protected final ICalendarView view;
   protected final ICalendarManager manager;
 
@@ -60,10 +61,16 @@ public abstract class AbstractCommandParser implements ICommandParser {
   }
 
   /**
-   * Constructs an abstract command parser.
+   * Constructs an abstract command parser for commands on a single calendar. The calendar
+   * is looked up each time a command is parsed, so one parser serves every calendar that
+   * is put in use.
+   *
+   * @param calendar gives the calendar to apply commands to
+   * @param view     the view
    */
-  protected AbstractCommandParser(ICalendarModel model, ICalendarView view) {
-    this.model = model;
+  protected AbstractCommandParser(Supplier<? extends ICalendarModel> calendar,
+                                  ICalendarView view) {
+    this.calendar = calendar;
     this.view = view;
     this.manager = null;
   }
@@ -77,77 +84,123 @@ public abstract class AbstractCommandParser implements ICommandParser {
   protected AbstractCommandParser(ICalendarManager manager, ICalendarView view) {
     this.manager = manager;
     this.view = view;
-    this.model = null;
+    this.calendar = null;
   }
 
   /**
-   * Parses the command with the given parts.
+   * Gets the calendar the command being parsed applies to.
+   *
+   * @return the calendar
+   */
+  protected ICalendarModel model() {
+    return calendar.get();
+  }
+
+  /**
+   * Parses and executes a command line by reading its words once and parsing those.
+   *
+   * @param commandLine the command line
+   * @throws IllegalArgumentException if parsing fails
+   */
+  @Override
+  public void parse(String commandLine) throws IllegalArgumentException {
+    parse(new CommandTokens(commandLine));
+  }
+
+  /**
+   * Parses the command with the given words and runs it on the manager's calendars.
+   * Parsers for commands on a single calendar run them on that calendar instead.
+   *
+   * @param command the words of the command
+   * @throws IllegalArgumentException if parsing or running the command fails
+   */
+  @Override
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(manager, view);
+  }
+
+  @Override
+  public ICalendarCommand compile(String commandLine) throws IllegalArgumentException {
+    return compile(new CommandTokens(commandLine));
+  }
+
+  /**
+   * Parses the command with the given words without running it.
    * Each subclass implements this to handle its specific command type.
    *
-   * @param commandParts the split command parts
+   * @param command the words of the command
+   * @return the parsed command
    * @throws IllegalArgumentException if parsing fails
    */
-  public abstract void parse(String commandParts) throws IllegalArgumentException;
+  @Override
+  public abstract ICalendarCommand compile(CommandTokens command)
+          throws IllegalArgumentException;
 
   /**
-   * Validates that an array has at least the specified length.
+   * Validates that a command has at least the specified number of words.
    * Used to ensure commands have all required parameters before accessing them.
    */
-  protected void validateMinimumLength(String[] parts, int minLength, String errorMessage) {
-    if (parts.length < minLength) {
+  protected void validateMinimumLength(CommandTokens command, int minLength,
+                                       String errorMessage) {
+    if (command.size() < minLength) {
       throw new IllegalArgumentException(errorMessage);
     }
   }
 
   /**
-   * Validates that a keyword matches the expected value (case-insensitive).
+   * Validates that a word matches the expected keyword (case-insensitive).
    * Used to verify command structure.
    */
-  protected void validateKeyword(String actual, String expected, String context) {
-    if (!actual.equalsIgnoreCase(expected)) {
+  protected void validateKeyword(CommandTokens command, int index, String expected,
+                                 String context) {
+    if (!command.is(index, expected)) {
       throw new IllegalArgumentException("Expected '" + expected + "' " +
               (context.isEmpty() ? "" : "after " + context + " ") +
-              "but found '" + actual + "'");
+              "but found '" + command.get(index) + "'");
     }
   }
 
   /**
-   * Parses a date-time string in ISO format.
+   * Parses a date-time word in ISO format, straight from the command line.
    * Format: YYYY-MM-DDThh:mm
    * The 'T' separates date from time.
    */
-  protected LocalDateTime parseDateTime(String dateTimeStr) {
-    try {
-      return LocalDateTime.parse(dateTimeStr, DATE_TIME_FORMATTER);
-    } catch (DateTimeParseException e) {
-      throw new IllegalArgumentException("Invalid date-time format: '" + dateTimeStr +
+  protected LocalDateTime parseDateTime(CommandTokens command, int index) {
+    LocalDateTime parsed = IsoDateTimeParser.parseDateTime(command.getLine(),
+            command.start(index), command.end(index));
+    if (parsed == null) {
+      throw new IllegalArgumentException("Invalid date-time format: '" + command.get(index) +
               "'. Expected format: YYYY-MM-DDThh:mm (e.g., 2025-05-05T14:30)");
     }
+    return parsed;
   }
 
   /**
-   * Parses a date string in ISO format.
+   * Parses a date word in ISO format, straight from the command line.
    * Format: YYYY-MM-DD
    * Returns the date at start of day (00:00).
    */
-  protected LocalDateTime parseDate(String dateStr) {
-    try {
-      return LocalDate.parse(dateStr, DATE_FORMATTER).atStartOfDay();
-    } catch (DateTimeParseException e) {
-      throw new IllegalArgumentException("Invalid date format: '" + dateStr +
+  protected LocalDateTime parseDate(CommandTokens command, int index) {
+    LocalDate parsed = IsoDateTimeParser.parseDate(command.getLine(),
+            command.start(index), command.end(index));
+    if (parsed == null) {
+      throw new IllegalArgumentException("Invalid date format: '" + command.get(index) +
               "'. Expected format: YYYY-MM-DD (e.g., 2025-05-05)");
     }
+    return parsed.atStartOfDay();
   }
 
   /**
    * Parses weekday characters into DayOfWeek list.
    * Example: "MWF" -> [MONDAY, WEDNESDAY, FRIDAY]
    */
-  protected ArrayList<DayOfWeek> parseWeekdays(String weekdaysStr) {
+  protected ArrayList<DayOfWeek> parseWeekdays(CommandTokens command, int index) {
     ArrayList<DayOfWeek> weekdays = new ArrayList<>();
+    int length = command.length(index);
 
-    // Process each character in the string
-    for (char c : weekdaysStr.toCharArray()) {
+    // Process each character of the word
+    for (int i = 0; i < length; i++) {
+      char c = command.charAt(index, i);
       DayOfWeek day = WEEKDAY_MAP.get(Character.toUpperCase(c));
       if (day == null) {
         throw new IllegalArgumentException("Invalid weekday character: '" + c +
@@ -168,15 +221,16 @@ public abstract class AbstractCommandParser implements ICommandParser {
    * Parses a count value for recurring events.
    * Must be a positive integer.
    */
-  protected int parseCount(String countStr) {
+  protected int parseCount(CommandTokens command, int index) {
     try {
-      int count = Integer.parseInt(countStr);
+      int count = Integer.parseInt(command.getLine(), command.start(index),
+              command.end(index), 10);
       if (count <= 0) {
         throw new IllegalArgumentException("Count must be positive, but found: " + count);
       }
       return count;
     } catch (NumberFormatException e) {
-      throw new IllegalArgumentException("Invalid count '" + countStr +
+      throw new IllegalArgumentException("Invalid count '" + command.get(index) +
               "'. Expected a positive number.");
     }
   }
@@ -185,81 +239,31 @@ public abstract class AbstractCommandParser implements ICommandParser {
    * Finds the end index of quoted text starting at the given index.
    * Handles both quoted and unquoted text:
    *
-   * @param parts      the command parts array
+   * @param command    the words of the command
    * @param startIndex where to start looking
    * @return index after the text
    */
-  protected int extractQuotedText(String[] parts, int startIndex) {
-    if (startIndex >= parts.length) {
-      throw new IllegalArgumentException("Missing text at expected position");
-    }
-
-    // Check if text starts with a quote
-    if (!parts[startIndex].startsWith("\"")) {
-      // Single word, not quoted, return next index
-      return startIndex + 1;
-    }
-
-    // Multi-word quoted text, find closing quote
-    int currentIndex = startIndex;
-    while (currentIndex < parts.length && !parts[currentIndex].endsWith("\"")) {
-      currentIndex++;
-    }
-
-    if (currentIndex >= parts.length) {
-      throw new IllegalArgumentException("Unclosed quote in text");
-    }
-
-    // Return index after the element with closing quote
-    return currentIndex + 1;
+  protected int extractQuotedText(CommandTokens command, int startIndex) {
+    return command.quotedTextEnd(startIndex);
   }
 
   /**
-   * Builds text content from parts array, handling quotes.
-   * Reconstructs multi-word strings that were split by spaces.
+   * Builds text content from words of the command, handling quotes.
+   * Multi-word text is cut from the command line in one piece when its words are single
+   * spaced.
    */
-  protected String buildQuotedText(String[] parts, int startIndex, int endIndex) {
-    if (startIndex >= parts.length) {
-      throw new IllegalArgumentException("Invalid text position");
-    }
-
-    // Single element, just strip quotes if present
-    if (endIndex == startIndex + 1) {
-      return stripQuotes(parts[startIndex]);
-    }
-
-    // Multiple elements, reconstruct with spaces
-    StringBuilder builder = new StringBuilder();
-    for (int i = startIndex; i < endIndex; i++) {
-      if (i > startIndex) {
-        builder.append(" ");
-      }
-      builder.append(parts[i]);
-    }
-
-    return stripQuotes(builder.toString());
-  }
-
-  /**
-   * Removes quotes from a string if present.
-   * "Team Meeting" -> Team Meeting
-   */
-  protected String stripQuotes(String value) {
-    if (value != null && value.length() >= 2 &&
-            value.startsWith("\"") && value.endsWith("\"")) {
-      return value.substring(1, value.length() - 1);
-    }
-    return value;
+  protected String buildQuotedText(CommandTokens command, int startIndex, int endIndex) {
+    return command.quotedText(startIndex, endIndex);
   }
 
   /**
    * Validates the 'times' keyword appears after a count.
    * Required syntax: "for [count] times"
    */
-  protected void validateTimesKeyword(String[] parts, int index) {
-    if (index >= parts.length || !parts[index].equalsIgnoreCase(TIMES)) {
+  protected void validateTimesKeyword(CommandTokens command, int index) {
+    if (!command.is(index, TIMES)) {
       throw new IllegalArgumentException("Expected 'times' after count. " +
               "Format: repeats [weekdays] for [count] times");
     }
   }
-}
\ No newline at end of file
+}
@@ -1,57 +1,77 @@
 package calendar.controller.parser;
 
+import java.util.function.Supplier;
+
 import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
 /**
  * Factory that creates command parser objects for commands on an individual calendar.
+ * One parser of each kind is made with the factory and reused for every command.
  */
 public class CommandParserFactory implements ICommandFactory {
   private static final String CREATE = "create";
   private static final String EDIT = "edit";
   private static final String PRINT = "print";
   private static final String SHOW = "show";
+  private static final String SEARCH = "search";
+  private static final String SUGGEST = "suggest";
 
-  private final ICalendarModel model;
-  private final ICalendarView view;
+  private final ICommandParser create;
+  private final ICommandParser edit;
+  private final ICommandParser print;
+  private final ICommandParser show;
+  private final ICommandParser search;
+  private final ICommandParser suggest;
 
+  /**
+   * Creates a factory for commands on one calendar.
+   *
+   * @param model the calendar
+   * @param view  the view to display results in
+   */
   public CommandParserFactory(ICalendarModel model, ICalendarView view) {
-    this.model = model;
-    this.view = view;
+    Supplier<ICalendarModel> calendar = () -> model;
+    this.create = new CreateCommandParser(calendar, view);
+    this.edit = new EditCommandParser(calendar, view);
+    this.print = new PrintCommandParser(calendar, view);
+    this.show = new ShowCommandParser(calendar, view);
+    this.search = new SearchCommandParser(calendar, view);
+    this.suggest = new SuggestCommandParser(calendar, view);
   }
 
   @Override
   public ICommandParser createParser(String commandLine) throws IllegalArgumentException {
-    validateCommandNotEmpty(commandLine);
+    return createParserFor(new CommandTokens(commandLine));
+  }
+
+  @Override
+  public ICommandParser createParserFor(CommandTokens command) throws IllegalArgumentException {
+    validateCommandNotEmpty(command);
     ICommandParser parser;
 
-    String[] commandParts = commandLine.trim().split("\\s+");
-    String commandType = commandParts[0].toLowerCase();
-    //String commandType = commandLine.trim().substring(0, 0).toLowerCase();
-
-    switch (commandType) {
-      case CREATE:
-        parser = new CreateCommandParser(model, view);
-        break;
-      case EDIT:
-        parser = new EditCommandParser(model, view);
-        break;
-      case PRINT:
-        parser = new PrintCommandParser(model, view);
-        break;
-      case SHOW:
-        parser = new ShowCommandParser(model, view);
-        break;
-      default:
-        throw new IllegalArgumentException("Unknown command: '" + commandType +
-                "'. Valid commands are: create, edit, print, show");
+    if (command.is(0, CREATE)) {
+      parser = create;
+    } else if (command.is(0, EDIT)) {
+      parser = edit;
+    } else if (command.is(0, PRINT)) {
+      parser = print;
+    } else if (command.is(0, SHOW)) {
+      parser = show;
+    } else if (command.is(0, SEARCH)) {
+      parser = search;
+    } else if (command.is(0, SUGGEST)) {
+      parser = suggest;
+    } else {
+      throw new IllegalArgumentException("Unknown command: '" + command.get(0).toLowerCase() +
+              "'. Valid commands are: create, edit, print, show, search, suggest");
     }
     return parser;
   }
 
   // Check if the command line is empty, throw an exception if it is
-  private void validateCommandNotEmpty(String commandLine) {
-    if (commandLine == null || commandLine.trim().isEmpty()) {
+  private void validateCommandNotEmpty(CommandTokens command) {
+    if (command.size() == 0) {
       throw new IllegalArgumentException("Command cannot be empty. Please enter a valid command.");
     }
   }
@@ -0,0 +1,257 @@
+package calendar.controller.parser;
+
+import java.util.Arrays;
+
+/**
+ * The words of a command line, found by scanning the line once.
+ * Each word is kept as the offsets where it starts and ends in the line, so routing a command
+ * and checking its keywords needs no regular expressions, split arrays or substrings. Words
+ * are separated by whitespace as in {@code line.trim().split("\\s+")}, and quoted text is
+ * read back with the same rules the parsers have always used.
+ * One instance can be reset for every line a controller reads.
+ */
+public final class CommandTokens {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private String line;
+  private int[] starts;
+  private int[] ends;
+  private int count;
+
+  /**
+   * Creates the words of an empty command, to be reset with each line.
+   */
+  public CommandTokens() {
+    this.line = "";
+    this.starts = new int[INITIAL_CAPACITY];
+    this.ends = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Creates the words of a command line.
+   *
+   * @param line the command line
+   */
+  public CommandTokens(String line) {
+    this();
+    reset(line);
+  }
+
+  /**
+   * Scans a new command line, replacing the words of the previous one.
+   *
+   * @param line the command line, or null for an empty command
+   * @return these tokens
+   */
+  public CommandTokens reset(String line) {
+    this.line = (line == null) ? "" : line;
+    this.count = 0;
+    int end = this.line.length();
+    int index = 0;
+    // Skip what String.trim would remove, then split the rest on whitespace
+    while ((index < end) && (this.line.charAt(index) <= ' ')) {
+      index++;
+    }
+    while ((end > index) && (this.line.charAt(end - 1) <= ' ')) {
+      end--;
+    }
+    while (index < end) {
+      int start = index;
+      while ((index < end) && !isSeparator(this.line.charAt(index))) {
+        index++;
+      }
+      add(start, index);
+      while ((index < end) && isSeparator(this.line.charAt(index))) {
+        index++;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Gets the number of words in the command.
+   *
+   * @return the number of words
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Gets the command line the words were read from.
+   *
+   * @return the command line
+   */
+  public String getLine() {
+    return line;
+  }
+
+  /**
+   * Gets a word of the command as a string.
+   *
+   * @param index the position of the word
+   * @return the word
+   * @throws IllegalArgumentException if the command has no word at that position
+   */
+  public String get(int index) {
+    checkIndex(index);
+    return line.substring(starts[index], ends[index]);
+  }
+
+  /**
+   * Checks whether a word is the given keyword, ignoring case.
+   *
+   * @param index   the position of the word
+   * @param keyword the keyword
+   * @return true if the command has the keyword at that position
+   */
+  public boolean is(int index, String keyword) {
+    return (index >= 0) && (index < count) && (length(index) == keyword.length())
+            && line.regionMatches(true, starts[index], keyword, 0, keyword.length());
+  }
+
+  /**
+   * Checks whether a word is exactly the given text, case included.
+   *
+   * @param index the position of the word
+   * @param text  the text
+   * @return true if the command has the text at that position
+   */
+  public boolean isExactly(int index, String text) {
+    return (index >= 0) && (index < count) && (length(index) == text.length())
+            && line.startsWith(text, starts[index]);
+  }
+
+  /**
+   * Gets the offset in the line where a word starts.
+   */
+  int start(int index) {
+    checkIndex(index);
+    return starts[index];
+  }
+
+  /**
+   * Gets the offset in the line just after a word ends.
+   */
+  int end(int index) {
+    checkIndex(index);
+    return ends[index];
+  }
+
+  /**
+   * Gets the length of a word.
+   */
+  int length(int index) {
+    return ends[index] - starts[index];
+  }
+
+  /**
+   * Gets a character of a word.
+   */
+  char charAt(int index, int offset) {
+    return line.charAt(starts[index] + offset);
+  }
+
+  /**
+   * Finds where the text starting at a word ends. Text that starts with a quote runs to the
+   * first word that ends with one; any other text is a single word.
+   *
+   * @param index the position of the first word of the text
+   * @return the position just after the text
+   * @throws IllegalArgumentException if there is no text there or its quote is not closed
+   */
+  int quotedTextEnd(int index) {
+    if (index >= count) {
+      throw new IllegalArgumentException("Missing text at expected position");
+    }
+    if (line.charAt(starts[index]) != '"') {
+      return index + 1;
+    }
+    int current = index;
+    while ((current < count) && (line.charAt(ends[current] - 1) != '"')) {
+      current++;
+    }
+    if (current >= count) {
+      throw new IllegalArgumentException("Unclosed quote in text");
+    }
+    return current + 1;
+  }
+
+  /**
+   * Reads text made of one or more words without its surrounding quotes. Words are joined by
+   * single spaces, however much whitespace separated them in the line.
+   *
+   * @param index the position of the first word
+   * @param end   the position just after the last word
+   * @return the text
+   * @throws IllegalArgumentException if there is no word at the first position
+   */
+  String quotedText(int index, int end) {
+    if (index >= count) {
+      throw new IllegalArgumentException("Invalid text position");
+    }
+    int from = starts[index];
+    int to = ends[end - 1];
+    if ((to - from >= 2) && (line.charAt(from) == '"') && (line.charAt(to - 1) == '"')) {
+      from++;
+      to--;
+    }
+    if (isSingleSpaced(index, end)) {
+      return line.substring(from, to);
+    }
+    StringBuilder text = new StringBuilder(to - from);
+    for (int i = index; i < end; i++) {
+      if (i > index) {
+        text.append(' ');
+      }
+      text.append(line, Math.max(starts[i], from), Math.min(ends[i], to));
+    }
+    return text.toString();
+  }
+
+  @Override
+  public String toString() {
+    return line;
+  }
+
+  /**
+   * Checks whether the words in a range are separated by exactly one space each.
+   */
+  private boolean isSingleSpaced(int index, int end) {
+    for (int i = index + 1; i < end; i++) {
+      if ((starts[i] != ends[i - 1] + 1) || (line.charAt(ends[i - 1]) != ' ')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records a word, growing the offset arrays when they are full.
+   */
+  private void add(int start, int end) {
+    if (count == starts.length) {
+      starts = Arrays.copyOf(starts, count * 2);
+      ends = Arrays.copyOf(ends, count * 2);
+    }
+    starts[count] = start;
+    ends[count] = end;
+    count++;
+  }
+
+  /**
+   * Checks that the command has a word at a position.
+   */
+  private void checkIndex(int index) {
+    if ((index < 0) || (index >= count)) {
+      throw new IllegalArgumentException("Missing text at expected position");
+    }
+  }
+
+  /**
+   * Checks whether a character separates words, matching the regular expression {@code \s}.
+   */
+  private static boolean isSeparator(char c) {
+    return (c == ' ') || ((c >= '\t') && (c <= '\r'));
+  }
+}
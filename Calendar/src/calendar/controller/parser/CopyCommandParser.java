@@ -2,6 +2,9 @@ package calendar.controller.parser;
 
 import java.time.LocalDateTime;
 
+import calendar.controller.command.CopyEventCommand;
+import calendar.controller.command.CopyEventsCommand;
+import calendar.controller.command.ICalendarCommand;
 import calendar.model.ICalendarManager;
 import calendar.view.ICalendarView;
 
@@ -22,123 +25,122 @@ class CopyCommandParser extends AbstractCommandParser {
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] commandParts = commandLine.trim().split("\\s+");
-
-    validateMinimumLength(commandParts, MIN_COMMAND_LENGTH, "Incomplete copy command. Format: " +
+  public ICalendarCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_COMMAND_LENGTH, "Incomplete copy command. Format: " +
             "copy events on [date] --target [calendarName] to [date]");
 
-    String copyType = validateCopyType(commandParts[COMMAND_SUBTYPE_INDEX]);
+    String copyType = validateCopyType(command, COMMAND_SUBTYPE_INDEX);
 
     // parse based on copy type
     if (copyType.equals(EVENT)) {
-      parseCopySingleEvent(commandParts);
+      return parseCopySingleEvent(command);
     } else {
-      parseCopyMultipleEvent(commandParts);
+      return parseCopyMultipleEvent(command);
     }
   }
 
   /**
    * Validates and returns the copy type.
    */
-  private String validateCopyType(String copyType) {
-    String type = copyType.toLowerCase();
-    if (!type.equals(EVENT) && !type.equals(EVENTS)) {
-      throw new IllegalArgumentException("Invalid copy type '" + copyType +
-              "'. Must be 'event' or 'events'");
+  private String validateCopyType(CommandTokens command, int index) {
+    if (command.is(index, EVENT)) {
+      return EVENT;
+    } else if (command.is(index, EVENTS)) {
+      return EVENTS;
     }
-    return type;
+    throw new IllegalArgumentException("Invalid copy type '" + command.get(index) +
+            "'. Must be 'event' or 'events'");
   }
 
   /**
    * Parses single event copy command.
    */
-  private void parseCopySingleEvent(String[] parts) {
+  private ICalendarCommand parseCopySingleEvent(CommandTokens command) {
     final int eventNameIndex = 2;
 
     // find event name
-    int eventEndIndex = extractQuotedText(parts, eventNameIndex);
-    String eventName = buildQuotedText(parts, eventNameIndex, eventEndIndex);
+    int eventEndIndex = extractQuotedText(command, eventNameIndex);
+    String eventName = buildQuotedText(command, eventNameIndex, eventEndIndex);
 
     // Validate we have the "on" keyword where expected
-    validateKeyword(parts[eventEndIndex], ON, "event name");
+    validateKeyword(command, eventEndIndex, ON, "event name");
 
     // Parse the date (should be dateStringTtimeString format)
-    LocalDateTime originalDate = parseDateTime(parts[eventEndIndex + 1]);
+    LocalDateTime originalDate = parseDateTime(command, eventEndIndex + 1);
 
     // Validate the --target keyword appears before the calendar name
-    validateKeyword(parts[eventEndIndex + 2], "--target", "date");
+    validateKeyword(command, eventEndIndex + 2, "--target", "date");
 
     // Get the new calendar name
     int calendarNameIndex = eventEndIndex + 3;
-    int nameEndIndex = extractQuotedText(parts, calendarNameIndex);
-    String calendarName = buildQuotedText(parts, calendarNameIndex, nameEndIndex);
+    int nameEndIndex = extractQuotedText(command, calendarNameIndex);
+    String calendarName = buildQuotedText(command, calendarNameIndex, nameEndIndex);
 
     // Validate we have the "to" keyword where expected
-    validateKeyword(parts[nameEndIndex], TO, "calendar name");
+    validateKeyword(command, nameEndIndex, TO, "calendar name");
 
     // Parse the new date (should be dateStringTtimeString format)
-    LocalDateTime newDate = parseDateTime(parts[nameEndIndex + 1]);
+    LocalDateTime newDate = parseDateTime(command, nameEndIndex + 1);
 
-    // Call manager to copy event
-    manager.copyEvent(eventName, originalDate, calendarName, newDate);
+    // Copy the event
+    return new CopyEventCommand(eventName, originalDate, calendarName, newDate);
   }
 
   /**
    * Parses multiple events copy command.
    */
-  private void parseCopyMultipleEvent(String[] parts) {
+  private ICalendarCommand parseCopyMultipleEvent(CommandTokens command) {
     final int keyWord = 2;
     final int date1Offset = 1;
     int targetOffset = 0;
     LocalDateTime date2 = null;
 
     // check which copy command and parse accordingly
-    if (parts[keyWord].equals("on")) {
+    if (command.isExactly(keyWord, "on")) {
       // Parse the first date (dateString format)
-      LocalDateTime date1 = parseDate(parts[keyWord + date1Offset]);
+      LocalDateTime date1 = parseDate(command, keyWord + date1Offset);
       targetOffset = 2;
       
       // Validate --target keyword
-      validateKeyword(parts[keyWord + targetOffset], "--target", "date");
+      validateKeyword(command, keyWord + targetOffset, "--target", "date");
       
       // Get the calendar name
       int calendarNameIndex = keyWord + targetOffset + 1;
-      int nameEndIndex = extractQuotedText(parts, calendarNameIndex);
-      String calendarName = buildQuotedText(parts, calendarNameIndex, nameEndIndex);
+      int nameEndIndex = extractQuotedText(command, calendarNameIndex);
+      String calendarName = buildQuotedText(command, calendarNameIndex, nameEndIndex);
 
       // Validate we have the "to" keyword where expected
-      validateKeyword(parts[nameEndIndex], TO, "calendar name");
+      validateKeyword(command, nameEndIndex, TO, "calendar name");
 
       // Parse the last date (dateString format)
-      LocalDateTime lastDate = parseDate(parts[nameEndIndex + 1]);
+      LocalDateTime lastDate = parseDate(command, nameEndIndex + 1);
       
-      manager.copyEventsOnDate(date1, calendarName, lastDate);
+      return new CopyEventsCommand(date1, calendarName, lastDate);
     }
-    else if (parts[keyWord].equals("between")) {
+    else if (command.isExactly(keyWord, "between")) {
       // Parse the first date (dateString format)
-      LocalDateTime date1 = parseDate(parts[keyWord + date1Offset]);
+      LocalDateTime date1 = parseDate(command, keyWord + date1Offset);
       targetOffset = 4;
       final int andOffset = 2;
-      validateKeyword(parts[keyWord + andOffset], "and", "date");
+      validateKeyword(command, keyWord + andOffset, "and", "date");
       // get date2 (dateString format)
-      date2 = parseDate(parts[keyWord + andOffset + 1]);
+      date2 = parseDate(command, keyWord + andOffset + 1);
       
       // Validate --target keyword
-      validateKeyword(parts[keyWord + targetOffset], "--target", "second date");
+      validateKeyword(command, keyWord + targetOffset, "--target", "second date");
       
       // Get the calendar name
       int calendarNameIndex = keyWord + targetOffset + 1;
-      int nameEndIndex = extractQuotedText(parts, calendarNameIndex);
-      String calendarName = buildQuotedText(parts, calendarNameIndex, nameEndIndex);
+      int nameEndIndex = extractQuotedText(command, calendarNameIndex);
+      String calendarName = buildQuotedText(command, calendarNameIndex, nameEndIndex);
 
       // Validate we have the "to" keyword where expected
-      validateKeyword(parts[nameEndIndex], TO, "calendar name");
+      validateKeyword(command, nameEndIndex, TO, "calendar name");
 
       // Parse the last date (dateString format)
-      LocalDateTime lastDate = parseDate(parts[nameEndIndex + 1]);
+      LocalDateTime lastDate = parseDate(command, nameEndIndex + 1);
       
-      manager.copyEventsBetweenDates(date1, date2, calendarName, lastDate);
+      return new CopyEventsCommand(date1, date2, calendarName, lastDate);
     }
     else {
       throw new IllegalArgumentException("Invalid copy command. Format: " +
@@ -146,4 +148,4 @@ class CopyCommandParser extends AbstractCommandParser {
               "copy events between [date] and [date] --target [calendarName] to [date]");
     }
   }
-}
\ No newline at end of file
+}
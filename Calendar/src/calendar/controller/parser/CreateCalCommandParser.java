@@ -2,6 +2,7 @@ package calendar.controller.parser;
 
 import java.time.ZoneId;
 
+import calendar.controller.command.CreateCalendarCommand;
 import calendar.model.ICalendarManager;
 import calendar.view.ICalendarView;
 
@@ -22,42 +23,35 @@ class CreateCalCommandParser extends AbstractCommandParser {
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] commandParts = commandLine.trim().split("\\s+");
-
-    validateFormat(commandParts);
+  public CreateCalendarCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateFormat(command);
 
     // Extract calendar name
-    int nameEndIndex = extractQuotedText(commandParts, CAL_NAME_INDEX);
-    String calendarName = buildQuotedText(commandParts, CAL_NAME_INDEX, nameEndIndex);
+    int nameEndIndex = extractQuotedText(command, CAL_NAME_INDEX);
+    String calendarName = buildQuotedText(command, CAL_NAME_INDEX, nameEndIndex);
 
-    validateKeyword(commandParts[nameEndIndex], "--timezone", "'calendar name'");
+    validateKeyword(command, nameEndIndex, "--timezone", "'calendar name'");
 
     // get timezone (handle quoted timezone)
     int timezoneStartIndex = nameEndIndex + 1;
-    int timezoneEndIndex = extractQuotedText(commandParts, timezoneStartIndex);
-    String timeZone = buildQuotedText(commandParts, timezoneStartIndex, timezoneEndIndex);
+    int timezoneEndIndex = extractQuotedText(command, timezoneStartIndex);
+    String timeZone = buildQuotedText(command, timezoneStartIndex, timezoneEndIndex);
     
     if (!validateTimeZone(timeZone)) {
       throw new IllegalArgumentException("Invalid region time zone.");
     }
 
-    if (this.manager != null) {
-      ZoneId zone = ZoneId.of(timeZone);
-      this.manager.createCalendar(calendarName, zone);
-    } else {
-      throw new IllegalArgumentException("Calendar manager is null.");
-    }
+    return new CreateCalendarCommand(calendarName, ZoneId.of(timeZone));
   }
 
   /**
    * Validates create calendar command format.
    */
-  private void validateFormat(String[] commandParts) {
-    validateMinimumLength(commandParts, MIN_COMMAND_LENGTH, "Invalid create command. " +
+  private void validateFormat(CommandTokens command) {
+    validateMinimumLength(command, MIN_COMMAND_LENGTH, "Invalid create command. " +
             "Format should be: create calendar --name [calName] --timezone [area/location]");
-    validateKeyword(commandParts[COMMAND_SUBTYPE_INDEX], "calendar", "'create'");
-    validateKeyword(commandParts[NAME_COMMAND_INDEX], "--name", "'calendar'");
+    validateKeyword(command, COMMAND_SUBTYPE_INDEX, "calendar", "'create'");
+    validateKeyword(command, NAME_COMMAND_INDEX, "--name", "'calendar'");
   }
 
   /**
@@ -3,8 +3,9 @@ package calendar.controller.parser;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.function.Supplier;
 
+import calendar.controller.command.CreateEventCommand;
 import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
@@ -16,193 +17,153 @@ class CreateCommandParser extends AbstractCommandParser {
   // Specific indices for create command structure
   private static final int MIN_CREATE_COMMAND_LENGTH = 4;
   private static final int REPEATS_OFFSET = 3;  // Offset from subject end for "repeats" keyword
-  private static final int WEEKDAYS_OFFSET = 4; // Offset from subject end for weekdays
-  private static final int RECUR_TYPE_OFFSET = 5; // Offset for "for" or "until"
-  private static final int RECUR_VALUE_OFFSET = 6; // Offset for count or until date
-  private static final int TIMES_KEYWORD_OFFSET = 7; // Offset for "times" keyword
 
-  public CreateCommandParser(ICalendarModel model, ICalendarView view) {
-    super(model, view);
+  public CreateCommandParser(Supplier<? extends ICalendarModel> calendar, ICalendarView view) {
+    super(calendar, view);
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] commandParts = commandLine.trim().split("\\s+");
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(model(), view);
+  }
 
-    validateCreateCommandFormat(commandParts);
+  @Override
+  public CreateEventCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateCreateCommandFormat(command);
 
     // Extract subject
-    int subjectEndIndex = extractQuotedText(commandParts, SUBJECT_START_INDEX);
-    String subject = buildQuotedText(commandParts, SUBJECT_START_INDEX, subjectEndIndex);
+    int subjectEndIndex = extractQuotedText(command, SUBJECT_START_INDEX);
+    String subject = buildQuotedText(command, SUBJECT_START_INDEX, subjectEndIndex);
 
     // Determine event type
-    String eventType = getEventTypeKeyword(commandParts, subjectEndIndex);
+    boolean timed = isTimedEvent(command, subjectEndIndex);
 
-    // Get remaining parts
-    String[] remainingParts = Arrays.copyOfRange(commandParts, subjectEndIndex + 1,
-            commandParts.length);
+    // The remaining words start after the event type
+    int remainingIndex = subjectEndIndex + 1;
 
-    if (eventType.equals(FROM)) {
-      parseTimedEvent(subject, remainingParts);
+    if (timed) {
+      return parseTimedEvent(subject, command, remainingIndex);
     } else {
-      parseAllDayEvent(subject, remainingParts);
+      return parseAllDayEvent(subject, command, remainingIndex);
     }
   }
 
   /**
    * Validates create command format.
    */
-  private void validateCreateCommandFormat(String[] commandParts) {
-    validateMinimumLength(commandParts, MIN_CREATE_COMMAND_LENGTH, "Invalid create command. " +
+  private void validateCreateCommandFormat(CommandTokens command) {
+    validateMinimumLength(command, MIN_CREATE_COMMAND_LENGTH, "Invalid create command. " +
             "Format should be: create event \"subject\" from/on [date/time]");
-    validateKeyword(commandParts[COMMAND_SUBTYPE_INDEX], EVENT, "'create'");
+    validateKeyword(command, COMMAND_SUBTYPE_INDEX, EVENT, "'create'");
   }
 
   /**
-   * Gets the event type keyword.
+   * Checks the event type keyword.
+   *
+   * @return true for 'from', which starts a timed event, and false for 'on'
    */
-  private String getEventTypeKeyword(String[] parts, int index) {
-    if (index >= parts.length) {
+  private boolean isTimedEvent(CommandTokens command, int index) {
+    if (index >= command.size()) {
       throw new IllegalArgumentException("Incomplete command. After the event subject, " +
               "specify either 'from' for timed events or 'on' for all-day events.");
     }
 
-    String eventType = parts[index].toLowerCase();
-    if (!eventType.equals(FROM) && !eventType.equals(ON)) {
-      throw new IllegalArgumentException("Invalid keyword '" + parts[index] +
+    if (!command.is(index, FROM) && !command.is(index, ON)) {
+      throw new IllegalArgumentException("Invalid keyword '" + command.get(index) +
               "'. Use 'from' for timed events or 'on' for all-day events");
     }
 
-    return eventType;
+    return command.is(index, FROM);
   }
 
   /**
-   * Parses a timed event.
+   * Parses a timed event from the words after 'from'.
    */
-  private void parseTimedEvent(String subject, String[] remainingParts) {
-    final int startTimeIndex = 0;
-    final int toKeywordIndex = 1;
-    final int endTimeIndex = 2;
+  private CreateEventCommand parseTimedEvent(String subject, CommandTokens command, int index) {
+    final int startTimeOffset = 0;
+    final int toKeywordOffset = 1;
+    final int endTimeOffset = 2;
     final int minTimedEventLength = 3;
 
-    validateMinimumLength(remainingParts, minTimedEventLength, "Incomplete timed event. Format: " +
-            "from YYYY-MM-DDThh:mm to YYYY-MM-DDThh:mm");
+    validateMinimumLength(command, index + minTimedEventLength, "Incomplete timed event. " +
+            "Format: from YYYY-MM-DDThh:mm to YYYY-MM-DDThh:mm");
 
-    LocalDateTime startTime = parseDateTime(remainingParts[startTimeIndex]);
-    validateKeyword(remainingParts[toKeywordIndex], TO, "start and end times");
-    LocalDateTime endTime = parseDateTime(remainingParts[endTimeIndex]);
+    LocalDateTime startTime = parseDateTime(command, index + startTimeOffset);
+    validateKeyword(command, index + toKeywordOffset, TO, "start and end times");
+    LocalDateTime endTime = parseDateTime(command, index + endTimeOffset);
 
-    if (remainingParts.length == minTimedEventLength) {
-      model.createSingleTimedEvent(subject, startTime, endTime);
-    } else {
-      parseRecurringTimedEvent(subject, startTime, endTime, remainingParts);
+    CreateEventCommand event = new CreateEventCommand(subject, startTime, endTime);
+    if (command.size() == index + minTimedEventLength) {
+      return event;
     }
+    return parseRecurrence(event, command, index + REPEATS_OFFSET, "end time");
   }
 
   /**
-   * Parses an all-day event.
+   * Parses an all-day event from the words after 'on'.
    */
-  private void parseAllDayEvent(String subject, String[] remainingParts) {
-    final int dateIndex = 0;
+  private CreateEventCommand parseAllDayEvent(String subject, CommandTokens command, int index) {
+    final int dateOffset = 0;
     final int minAllDayLength = 1;
 
-    validateMinimumLength(remainingParts, minAllDayLength, "Missing date for all-day event. " +
+    validateMinimumLength(command, index + minAllDayLength, "Missing date for all-day event. " +
             "Format: on YYYY-MM-DD");
 
-    LocalDateTime eventDate = parseDate(remainingParts[dateIndex]);
+    LocalDateTime eventDate = parseDate(command, index + dateOffset);
 
-    if (remainingParts.length == minAllDayLength) {
-      model.createSingleAllDayEvent(subject, eventDate);
-    } else {
-      parseRecurringAllDayEvent(subject, eventDate, remainingParts);
+    CreateEventCommand event = new CreateEventCommand(subject, eventDate);
+    if (command.size() == index + minAllDayLength) {
+      return event;
     }
+    return parseRecurrence(event, command, index + minAllDayLength, "date");
   }
 
   /**
-   * Parses recurring options for a timed event.
+   * Parses the recurring options that follow an event, starting at the "repeats" keyword.
+   *
+   * @param event the event that repeats
+   * @param index the position of the "repeats" keyword
+   * @param after what comes before the "repeats" keyword, for error messages
    */
-  private void parseRecurringTimedEvent(String subject, LocalDateTime startTime,
-                                        LocalDateTime endTime, String[] parts) {
-    // Confirm the "repeats" keyword is where we expect it
-    validateKeyword(parts[REPEATS_OFFSET], REPEATS, "end time");
-
-    // Need at least 3 more elements after weekdays
-    validateMinimumLength(parts, WEEKDAYS_OFFSET + 3, "Incomplete recurring event");
-
-    // Parse which days of the week this event repeats on
-    ArrayList<DayOfWeek> weekdays = parseWeekdays(parts[WEEKDAYS_OFFSET]);
-
-    // Next word determines recurrence type: "for" (count) or "until" (date)
-    String recurType = parts[RECUR_TYPE_OFFSET].toLowerCase();
-
-    if (recurType.equals(FOR)) {
-      // Parse the count number
-      int count = parseCount(parts[RECUR_VALUE_OFFSET]);
-
-      // Verify the word "times" appears after the count
-      validateTimesKeyword(parts, TIMES_KEYWORD_OFFSET);
-
-      // Create the recurring event with specified count
-      model.createRecurringTimedEvent(subject, startTime, endTime, weekdays, count);
-
-    } else if (recurType.equals(UNTIL)) {
-      // Parse the end date
-      LocalDateTime untilDate = parseDate(parts[RECUR_VALUE_OFFSET]);
-
-      // Create recurring events until the specified date
-      model.createRecurringTimedEventUntil(subject, startTime, endTime, weekdays, untilDate);
-
-    } else {
-      // Neither "for" nor "until" - invalid syntax
-      throw new IllegalArgumentException("Expected 'for' or 'until' after weekdays but found '" +
-              parts[RECUR_TYPE_OFFSET] + "'. Use 'for [count] times' or 'until [date]'");
-    }
-  }
-
-  /**
-   * Parses recurring options for an all-day event.
-   */
-  private void parseRecurringAllDayEvent(String subject, LocalDateTime eventDate,
-                                         String[] parts) {
-    final int repeatsIndex = 1;
-    final int weekdaysIndex = 2;
-    final int recurTypeIndex = 3;
-    final int recurValueIndex = 4;
-    final int timesIndex = 5;
+  private CreateEventCommand parseRecurrence(CreateEventCommand event, CommandTokens command,
+                                             int index, String after) {
+    final int weekdaysOffset = 1;
+    final int recurTypeOffset = 2;
+    final int recurValueOffset = 3;
+    final int timesOffset = 4;
 
     // Confirm the "repeats" keyword is where we expect it
-    validateKeyword(parts[repeatsIndex], REPEATS, "date");
+    validateKeyword(command, index, REPEATS, after);
 
     // Need at least 3 more elements after weekdays
-    validateMinimumLength(parts, weekdaysIndex + 3, "Incomplete recurring event");
+    validateMinimumLength(command, index + weekdaysOffset + 3, "Incomplete recurring event");
 
     // Parse which days of the week this event repeats on
-    ArrayList<DayOfWeek> weekdays = parseWeekdays(parts[weekdaysIndex]);
+    ArrayList<DayOfWeek> weekdays = parseWeekdays(command, index + weekdaysOffset);
 
     // Next word determines recurrence type: "for" (count) or "until" (date)
-    String recurType = parts[recurTypeIndex].toLowerCase();
-
-    if (recurType.equals(FOR)) {
+    if (command.is(index + recurTypeOffset, FOR)) {
       // Parse the count number
-      int count = parseCount(parts[recurValueIndex]);
+      int count = parseCount(command, index + recurValueOffset);
 
       // Verify the word "times" appears after the count
-      validateTimesKeyword(parts, timesIndex);
+      validateTimesKeyword(command, index + timesOffset);
 
-      // Create the recurring all-day events with specified count
-      model.createRecurringAllDayEvent(subject, eventDate, weekdays, count);
+      // Repeat the event the specified number of times
+      return event.repeating(weekdays, count);
 
-    } else if (recurType.equals(UNTIL)) {
+    } else if (command.is(index + recurTypeOffset, UNTIL)) {
       // Parse the end date
-      LocalDateTime untilDate = parseDate(parts[recurValueIndex]);
+      LocalDateTime untilDate = parseDate(command, index + recurValueOffset);
 
-      // Create recurring all-day events until the specified date
-      model.createRecurringAllDayEventUntil(subject, eventDate, weekdays, untilDate);
+      // Repeat the event until the specified date
+      return event.repeatingUntil(weekdays, untilDate);
 
     } else {
       // Neither "for" nor "until" - invalid syntax
       throw new IllegalArgumentException("Expected 'for' or 'until' after weekdays but found '" +
-              parts[recurTypeIndex] + "'. Use 'for [count] times' or 'until [date]'");
+              command.get(index + recurTypeOffset) +
+              "'. Use 'for [count] times' or 'until [date]'");
     }
   }
-}
\ No newline at end of file
+}
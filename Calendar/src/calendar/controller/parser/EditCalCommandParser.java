@@ -1,5 +1,6 @@
 package calendar.controller.parser;
 
+import calendar.controller.command.EditCalendarCommand;
 import calendar.model.ICalendarManager;
 import calendar.view.ICalendarView;
 
@@ -20,56 +21,47 @@ class EditCalCommandParser extends AbstractCommandParser {
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] commandParts = commandLine.trim().split("\\s+");
-
-    validateFormat(commandParts);
+  public EditCalendarCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateFormat(command);
 
     // Extract calendar name
-    int nameEndIndex = extractQuotedText(commandParts, CAL_NAME_INDEX);
-    String calendarName = buildQuotedText(commandParts, CAL_NAME_INDEX, nameEndIndex);
+    int nameEndIndex = extractQuotedText(command, CAL_NAME_INDEX);
+    String calendarName = buildQuotedText(command, CAL_NAME_INDEX, nameEndIndex);
 
-    validateKeyword(commandParts[nameEndIndex], "--property", "'calendar name'");
+    validateKeyword(command, nameEndIndex, "--property", "'calendar name'");
 
     // Extract property name
-    String propertyName = validateProperty(commandParts[nameEndIndex + 1]);
+    String propertyName = validateProperty(command, nameEndIndex + 1);
 
     // extract new value
     int propertyIndex = nameEndIndex + 2;
-    int propertyEndIndex = extractQuotedText(commandParts, propertyIndex);
-    String newValue = buildQuotedText(commandParts, propertyIndex, propertyEndIndex);
+    int propertyEndIndex = extractQuotedText(command, propertyIndex);
+    String newValue = buildQuotedText(command, propertyIndex, propertyEndIndex);
 
-    manager.editCalendar(calendarName, propertyName, newValue);
+    return new EditCalendarCommand(calendarName, propertyName, newValue);
   }
 
   /**
    * Validates create calendar command format.
    */
-  private void validateFormat(String[] commandParts) {
-    validateMinimumLength(commandParts, MIN_COMMAND_LENGTH, "Invalid use command. " +
+  private void validateFormat(CommandTokens command) {
+    validateMinimumLength(command, MIN_COMMAND_LENGTH, "Invalid use command. " +
             "Format should be: edit calendar --name [name-of-calendar] --property [property-name]" +
             " [new-property-value]");
-    validateKeyword(commandParts[COMMAND_SUBTYPE_INDEX], "calendar", "'edit'");
-    validateKeyword(commandParts[NAME_COMMAND_INDEX], "--name", "'calendar'");
+    validateKeyword(command, COMMAND_SUBTYPE_INDEX, "calendar", "'edit'");
+    validateKeyword(command, NAME_COMMAND_INDEX, "--name", "'calendar'");
   }
 
   /**
    * Validates and returns the property name.
    */
-  private String validateProperty(String property) {
-    String prop = property.toLowerCase();
-    if (!isValidProperty(prop)) {
-      throw new IllegalArgumentException("Invalid property '" + property +
-              "'. Valid properties are: name or timezone");
+  private String validateProperty(CommandTokens command, int index) {
+    if (command.is(index, "name")) {
+      return "name";
+    } else if (command.is(index, "timezone")) {
+      return "timezone";
     }
-    return prop;
-  }
-
-  /**
-   * Checks if a property name is valid.
-   */
-  private boolean isValidProperty(String property) {
-    return property.equals("name") ||
-            property.equals("timezone");
+    throw new IllegalArgumentException("Invalid property '" + command.get(index) +
+            "'. Valid properties are: name or timezone");
   }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package calendar.controller.parser;
 
 import java.time.LocalDateTime;
+import java.util.function.Supplier;
 
+import calendar.controller.command.EditEventCommand;
 import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
@@ -15,132 +17,130 @@ class EditCommandParser extends AbstractCommandParser {
   private static final int EDIT_TYPE_INDEX = 1;
   private static final int PROPERTY_INDEX = 2;
   private static final int SUBJECT_INDEX = 3;
+  private static final String[] EDIT_TYPES = {EVENT, EVENTS, SERIES};
+  private static final String[] PROPERTIES =
+          {"subject", "start", "end", "description", "location", "status"};
 
-  public EditCommandParser(ICalendarModel model, ICalendarView view) {
-    super(model, view);
+  public EditCommandParser(Supplier<? extends ICalendarModel> calendar, ICalendarView view) {
+    super(calendar, view);
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] parts = commandLine.trim().split("\\s+");
-    validateMinimumLength(parts, MIN_EDIT_COMMAND_LENGTH, "Incomplete edit command. Format: " +
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(model(), view);
+  }
+
+  @Override
+  public EditEventCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_EDIT_COMMAND_LENGTH, "Incomplete edit command. Format: " +
             "edit event [property] \"subject\" from [start] to [end] with [value]");
 
-    String editType = validateEditType(parts[EDIT_TYPE_INDEX]);
-    String property = validateProperty(parts[PROPERTY_INDEX]);
+    String editType = validateEditType(command, EDIT_TYPE_INDEX);
+    String property = validateProperty(command, PROPERTY_INDEX);
 
     // Get the subject
-    int subjectEndIndex = extractQuotedText(parts, SUBJECT_INDEX);
-    String subject = buildQuotedText(parts, SUBJECT_INDEX, subjectEndIndex);
+    int subjectEndIndex = extractQuotedText(command, SUBJECT_INDEX);
+    String subject = buildQuotedText(command, SUBJECT_INDEX, subjectEndIndex);
 
     // Ensure "from" keyword follows the subject
-    validateKeyword(parts[subjectEndIndex], FROM, "subject");
+    validateKeyword(command, subjectEndIndex, FROM, "subject");
 
     // Start time is the word after the subject
-    LocalDateTime startTime = parseDateTime(parts[subjectEndIndex + 1]);
+    LocalDateTime startTime = parseDateTime(command, subjectEndIndex + 1);
 
     // Route based on edit type
     if (editType.equals(EVENT)) {
-      parseEditSingleEvent(parts, subjectEndIndex + 2, subject, startTime, property);
+      return parseEditSingleEvent(command, subjectEndIndex + 2, subject, startTime, property);
     } else {
-      parseEditSeriesEvent(parts, subjectEndIndex + 2, subject, startTime, property, editType);
+      return parseEditSeriesEvent(command, subjectEndIndex + 2, subject, startTime, property,
+              editType);
     }
   }
 
   /**
    * Validates and returns the edit type.
    */
-  private String validateEditType(String editType) {
-    String type = editType.toLowerCase();
-    if (!type.equals(EVENT) && !type.equals(EVENTS) && !type.equals(SERIES)) {
-      throw new IllegalArgumentException("Invalid edit type '" + editType +
-              "'. Must be 'event', 'events', or 'series'");
+  private String validateEditType(CommandTokens command, int index) {
+    for (String type : EDIT_TYPES) {
+      if (command.is(index, type)) {
+        return type;
+      }
     }
-    return type;
+    throw new IllegalArgumentException("Invalid edit type '" + command.get(index) +
+            "'. Must be 'event', 'events', or 'series'");
   }
 
   /**
    * Validates and returns the property name.
    */
-  private String validateProperty(String property) {
-    String prop = property.toLowerCase();
-    if (!isValidProperty(prop)) {
-      throw new IllegalArgumentException("Invalid property '" + property +
-              "'. Valid properties are: subject, start, end, description, location, status");
+  private String validateProperty(CommandTokens command, int index) {
+    for (String property : PROPERTIES) {
+      if (command.is(index, property)) {
+        return property;
+      }
     }
-    return prop;
-  }
-
-  /**
-   * Checks if a property name is valid.
-   */
-  private boolean isValidProperty(String property) {
-    return property.equals("subject") ||
-            property.equals("start") ||
-            property.equals("end") ||
-            property.equals("description") ||
-            property.equals("location") ||
-            property.equals("status");
+    throw new IllegalArgumentException("Invalid property '" + command.get(index) +
+            "'. Valid properties are: subject, start, end, description, location, status");
   }
 
   /**
    * Parses single event edit command.
    */
-  private void parseEditSingleEvent(String[] parts, int index, String subject,
-                                    LocalDateTime startTime, String property) {
+  private EditEventCommand parseEditSingleEvent(CommandTokens command, int index,
+                                                String subject, LocalDateTime startTime,
+                                                String property) {
     final int toOffset = 0;
     final int endTimeOffset = 1;
     final int withOffset = 2;
     final int valueOffset = 3;
 
     // Validate we have the "to" keyword where expected
-    validateKeyword(parts[index + toOffset], TO, "start time in single event edit");
+    validateKeyword(command, index + toOffset, TO, "start time in single event edit");
 
     // Parse the end time
-    LocalDateTime endTime = parseDateTime(parts[index + endTimeOffset]);
+    LocalDateTime endTime = parseDateTime(command, index + endTimeOffset);
 
     // Validate the "with" keyword appears before the new value
-    validateKeyword(parts[index + withOffset], WITH, "new value");
+    validateKeyword(command, index + withOffset, WITH, "new value");
 
     // Extract the new value
-    String newValue = extractNewValue(parts, index + valueOffset);
+    String newValue = extractNewValue(command, index + valueOffset);
 
-    // Call model to edit this specific single event
-    model.editEvent(subject, startTime, endTime, property, newValue);
+    // Edit this specific single event
+    return new EditEventCommand(EditEventCommand.Scope.EVENT, subject, startTime, endTime,
+            property, newValue);
   }
 
   /**
    * Parses series event edit command.
    */
-  private void parseEditSeriesEvent(String[] parts, int index, String subject,
-                                    LocalDateTime startTime, String property, String editType) {
+  private EditEventCommand parseEditSeriesEvent(CommandTokens command, int index,
+                                                String subject, LocalDateTime startTime,
+                                                String property, String editType) {
     final int withOffset = 0;
     final int valueOffset = 1;
 
     // Validate the "with" keyword appears where expected
-    validateKeyword(parts[index + withOffset], WITH, "new value");
+    validateKeyword(command, index + withOffset, WITH, "new value");
 
     // Extract the new value
-    String newValue = extractNewValue(parts, index + valueOffset);
+    String newValue = extractNewValue(command, index + valueOffset);
 
-    // Route to the appropriate model method based on edit scope
-    if (editType.equals(EVENTS)) {
-      // "edit events" - changes this occurrence and all future occurrences
-      model.editEvents(subject, startTime, property, newValue);
-    } else {
-      // "edit series" - changes ALL occurrences in the series
-      model.editSeries(subject, startTime, property, newValue);
-    }
+    // "edit events" changes this occurrence and all future occurrences, while
+    // "edit series" changes ALL occurrences in the series
+    EditEventCommand.Scope scope = editType.equals(EVENTS)
+            ? EditEventCommand.Scope.EVENTS : EditEventCommand.Scope.SERIES;
+    return new EditEventCommand(scope, subject, startTime, null, property, newValue);
   }
 
   /**
-   * Extracts the new value from the command parts.
-   * @param parts the command parts
+   * Extracts the new value from the command.
+   * @param command the words of the command
    * @param valueIndex the starting index of the value
    * @return the extracted value
    */
-  private String extractNewValue(String[] parts, int valueIndex) {
-    int valueEndIndex = extractQuotedText(parts, valueIndex);
-    return buildQuotedText(parts, valueIndex, valueEndIndex);
+  private String extractNewValue(CommandTokens command, int valueIndex) {
+    int valueEndIndex = extractQuotedText(command, valueIndex);
+    return buildQuotedText(command, valueIndex, valueEndIndex);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package calendar.controller.parser;
+
+import calendar.controller.command.ExportCalendarCommand;
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * Parser for export calendar commands.
+ * Writes the calendar in use to a file, in the format given by the file's extension.
+ */
+class ExportCalCommandParser extends AbstractCommandParser {
+  // Specific indices for export command structure
+  private static final int MIN_COMMAND_LENGTH = 3;
+  private static final int FILE_INDEX = 2;
+  private static final String FORMAT_MESSAGE =
+          "Format should be: export cal [file].ics, export cal [file].csv or " +
+                  "export cal [file].cal";
+
+  public ExportCalCommandParser(ICalendarManager manager, ICalendarView view) {
+    super(manager, view);
+    if (manager == null || view == null) {
+      throw new IllegalArgumentException("Manager or view is null.");
+    }
+  }
+
+  @Override
+  public ExportCalendarCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_COMMAND_LENGTH,
+            "Incomplete export command. " + FORMAT_MESSAGE);
+    validateKeyword(command, COMMAND_SUBTYPE_INDEX, "cal", "'export'");
+
+    int fileEndIndex = extractQuotedText(command, FILE_INDEX);
+    String fileName = buildQuotedText(command, FILE_INDEX, fileEndIndex);
+    if (fileEndIndex != command.size()) {
+      throw new IllegalArgumentException("Invalid export command. " + FORMAT_MESSAGE);
+    }
+
+    String extension = fileName.toLowerCase();
+    if (!extension.endsWith(".ics") && !extension.endsWith(".csv")
+            && !extension.endsWith(".cal")) {
+      throw new IllegalArgumentException("Unsupported export file '" + fileName + "'. " +
+              FORMAT_MESSAGE);
+    }
+    return new ExportCalendarCommand(fileName);
+  }
+}
@@ -14,4 +14,14 @@ public interface ICommandFactory {
    */
   public ICommandParser createParser(String commandLine);
 
+  /**
+   * Creates a parser for a command whose words have already been read, so the line is not
+   * split again to route it.
+   *
+   * @param command the words of the command
+   * @return an instance of the command parser based on what action the user is trying to take
+   * @throws IllegalArgumentException if the command is unknown
+   */
+  public ICommandParser createParserFor(CommandTokens command);
+
 }
@@ -1,5 +1,7 @@
 package calendar.controller.parser;
 
+import calendar.controller.command.ICalendarCommand;
+
 /**
  * Interface for parsing and executing calendar commands.
  * Implementations of this interface are responsible for interpreting user input
@@ -14,4 +16,30 @@ public interface ICommandParser {
    * @throws IllegalArgumentException if the command is invalid, malformed, or cannot be executed
    */
   void parse(String commandLine) throws IllegalArgumentException;
-}
\ No newline at end of file
+
+  /**
+   * Parses and executes a command whose words have already been read.
+   *
+   * @param command the words of the command to parse and execute
+   * @throws IllegalArgumentException if the command is invalid, malformed, or cannot be executed
+   */
+  void parse(CommandTokens command) throws IllegalArgumentException;
+
+  /**
+   * Parses a command line without running it.
+   *
+   * @param commandLine the command line string to parse
+   * @return the parsed command, to be executed later
+   * @throws IllegalArgumentException if the command is invalid or malformed
+   */
+  ICalendarCommand compile(String commandLine) throws IllegalArgumentException;
+
+  /**
+   * Parses a command whose words have already been read, without running it.
+   *
+   * @param command the words of the command to parse
+   * @return the parsed command, to be executed later
+   * @throws IllegalArgumentException if the command is invalid or malformed
+   */
+  ICalendarCommand compile(CommandTokens command) throws IllegalArgumentException;
+}
@@ -0,0 +1,42 @@
+package calendar.controller.parser;
+
+import calendar.controller.command.ImportCalendarCommand;
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * Parser for import calendar commands.
+ * Adds the events of an iCalendar file to the calendar in use.
+ */
+class ImportCalCommandParser extends AbstractCommandParser {
+  // Specific indices for import command structure
+  private static final int MIN_COMMAND_LENGTH = 3;
+  private static final int FILE_INDEX = 2;
+  private static final String FORMAT_MESSAGE = "Format should be: import cal [file].ics";
+
+  public ImportCalCommandParser(ICalendarManager manager, ICalendarView view) {
+    super(manager, view);
+    if (manager == null || view == null) {
+      throw new IllegalArgumentException("Manager or view is null.");
+    }
+  }
+
+  @Override
+  public ImportCalendarCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_COMMAND_LENGTH,
+            "Incomplete import command. " + FORMAT_MESSAGE);
+    validateKeyword(command, COMMAND_SUBTYPE_INDEX, "cal", "'import'");
+
+    int fileEndIndex = extractQuotedText(command, FILE_INDEX);
+    String fileName = buildQuotedText(command, FILE_INDEX, fileEndIndex);
+    if (fileEndIndex != command.size()) {
+      throw new IllegalArgumentException("Invalid import command. " + FORMAT_MESSAGE);
+    }
+
+    if (!fileName.toLowerCase().endsWith(".ics")) {
+      throw new IllegalArgumentException("Unsupported import file '" + fileName + "'. " +
+              FORMAT_MESSAGE);
+    }
+    return new ImportCalendarCommand(fileName);
+  }
+}
@@ -1,10 +1,10 @@
 package calendar.controller.parser;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.function.Supplier;
 
+import calendar.controller.command.PrintEventsCommand;
 import calendar.model.ICalendarModel;
-import calendar.model.IEvent;
 import calendar.view.ICalendarView;
 
 /**
@@ -23,57 +23,58 @@ class PrintCommandParser extends AbstractCommandParser {
   private static final int END_DATE_INDEX = 5;
   private static final int DATE_RANGE_LENGTH = 6;
 
-  public PrintCommandParser(ICalendarModel model, ICalendarView view) {
-    super(model, view);
+  public PrintCommandParser(Supplier<? extends ICalendarModel> calendar, ICalendarView view) {
+    super(calendar, view);
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] parts = commandLine.trim().split("\\s+");
-    validateMinimumLength(parts, MIN_PRINT_COMMAND_LENGTH, "Incomplete print command. Use: " +
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(model(), view);
+  }
+
+  @Override
+  public PrintEventsCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_PRINT_COMMAND_LENGTH, "Incomplete print command. Use: " +
             "print events on YYYY-MM-DD OR print events from [start] to [end]");
 
-    validateKeyword(parts[EVENTS_INDEX], EVENTS, "'print'");
+    validateKeyword(command, EVENTS_INDEX, EVENTS, "'print'");
 
     // Check query type and route accordingly
-    String queryType = parts[QUERY_TYPE_INDEX];
-    if (queryType.equalsIgnoreCase(ON)) {
-      parsePrintOnDate(parts);
-    } else if (queryType.equalsIgnoreCase(FROM)) {
-      parsePrintDateRange(parts);
+    if (command.is(QUERY_TYPE_INDEX, ON)) {
+      return parsePrintOnDate(command);
+    } else if (command.is(QUERY_TYPE_INDEX, FROM)) {
+      return parsePrintDateRange(command);
     } else {
       throw new IllegalArgumentException("After 'print events', use either 'on' for single date " +
-              "or 'from' for date range. Found: '" + queryType + "'");
+              "or 'from' for date range. Found: '" + command.get(QUERY_TYPE_INDEX) + "'");
     }
   }
 
   /**
    * Handles printing events on a specific date.
    */
-  private void parsePrintOnDate(String[] parts) {
-    if (parts.length != MIN_PRINT_COMMAND_LENGTH) {
+  private PrintEventsCommand parsePrintOnDate(CommandTokens command) {
+    if (command.size() != MIN_PRINT_COMMAND_LENGTH) {
       throw new IllegalArgumentException("For 'print events on', provide exactly one date. " +
               "Format: print events on YYYY-MM-DD");
     }
 
-    LocalDateTime date = parseDate(parts[DATE_INDEX]);
-    List<IEvent> events = model.printEvents(date);
-    view.displayEventsForDate(date.toLocalDate(), events);
+    LocalDateTime date = parseDate(command, DATE_INDEX);
+    return new PrintEventsCommand(date);
   }
 
   /**
    * Handles printing events in a date range.
    */
-  private void parsePrintDateRange(String[] parts) {
-    if (parts.length != DATE_RANGE_LENGTH) {
+  private PrintEventsCommand parsePrintDateRange(CommandTokens command) {
+    if (command.size() != DATE_RANGE_LENGTH) {
       throw new IllegalArgumentException("For date range, use: print events from [start] to [end]");
     }
 
-    validateKeyword(parts[TO_KEYWORD_INDEX], TO, "dates");
+    validateKeyword(command, TO_KEYWORD_INDEX, TO, "dates");
 
-    LocalDateTime startDate = parseDateTime(parts[DATE_INDEX]);
-    LocalDateTime endDate = parseDateTime(parts[END_DATE_INDEX]);
-    List<IEvent> events = model.printEvents(startDate, endDate);
-    view.displayEventsForDateRange(startDate, endDate, events);
+    LocalDateTime startDate = parseDateTime(command, DATE_INDEX);
+    LocalDateTime endDate = parseDateTime(command, END_DATE_INDEX);
+    return new PrintEventsCommand(startDate, endDate);
   }
 }
\ No newline at end of file
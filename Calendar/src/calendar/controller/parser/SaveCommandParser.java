@@ -0,0 +1,28 @@
+package calendar.controller.parser;
+
+import calendar.controller.command.SaveCommand;
+import calendar.model.ICalendarManager;
+import calendar.view.ICalendarView;
+
+/**
+ * Parser for the save command, which writes every change made since the last save.
+ * Format: save
+ */
+class SaveCommandParser extends AbstractCommandParser {
+  private static final int COMMAND_LENGTH = 1;
+
+  public SaveCommandParser(ICalendarManager manager, ICalendarView view) {
+    super(manager, view);
+    if (manager == null || view == null) {
+      throw new IllegalArgumentException("Manager or view is null.");
+    }
+  }
+
+  @Override
+  public SaveCommand compile(CommandTokens command) throws IllegalArgumentException {
+    if (command.size() != COMMAND_LENGTH) {
+      throw new IllegalArgumentException("Invalid save command. Format should be: save");
+    }
+    return new SaveCommand();
+  }
+}
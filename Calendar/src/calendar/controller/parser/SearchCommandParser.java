@@ -0,0 +1,71 @@
+package calendar.controller.parser;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.function.Supplier;
+
+import calendar.controller.command.SearchEventsCommand;
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * Parser for search events commands.
+ * Finds events whose subject or description contains all of the given words,
+ * optionally limited to a date range.
+ */
+class SearchCommandParser extends AbstractCommandParser {
+  // Specific indices for search command structure
+  private static final int MIN_SEARCH_COMMAND_LENGTH = 3;
+  private static final int EVENTS_INDEX = 1;
+  private static final int TERMS_INDEX = 2;
+
+  // Offsets from the end of the search terms for date range queries
+  private static final int BETWEEN_OFFSET = 0;
+  private static final int START_DATE_OFFSET = 1;
+  private static final int AND_OFFSET = 2;
+  private static final int END_DATE_OFFSET = 3;
+  private static final int DATE_RANGE_LENGTH = 4;
+
+  public SearchCommandParser(Supplier<? extends ICalendarModel> calendar, ICalendarView view) {
+    super(calendar, view);
+  }
+
+  @Override
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(model(), view);
+  }
+
+  @Override
+  public SearchEventsCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_SEARCH_COMMAND_LENGTH, "Incomplete search command. " +
+            "Format: search events \"terms\" [between YYYY-MM-DD and YYYY-MM-DD]");
+    validateKeyword(command, EVENTS_INDEX, EVENTS, "'search'");
+
+    // Extract the search terms
+    int termsEndIndex = extractQuotedText(command, TERMS_INDEX);
+    String terms = buildQuotedText(command, TERMS_INDEX, termsEndIndex);
+
+    int remaining = command.size() - termsEndIndex;
+    if (remaining == 0) {
+      return new SearchEventsCommand(terms);
+    } else if (remaining == DATE_RANGE_LENGTH) {
+      return parseSearchDateRange(command, termsEndIndex, terms);
+    } else {
+      throw new IllegalArgumentException("To limit a search to a date range, use: " +
+              "search events \"terms\" between YYYY-MM-DD and YYYY-MM-DD");
+    }
+  }
+
+  /**
+   * Handles searching for events in a date range.
+   * Both dates are inclusive, so the range ends at the end of the second date.
+   */
+  private SearchEventsCommand parseSearchDateRange(CommandTokens command, int index, String terms) {
+    validateKeyword(command, index + BETWEEN_OFFSET, "between", "search terms");
+    LocalDateTime startDate = parseDate(command, index + START_DATE_OFFSET);
+    validateKeyword(command, index + AND_OFFSET, "and", "date");
+    LocalDateTime endDate = parseDate(command, index + END_DATE_OFFSET)
+            .toLocalDate().atTime(LocalTime.MAX);
+    return new SearchEventsCommand(terms, startDate, endDate);
+  }
+}
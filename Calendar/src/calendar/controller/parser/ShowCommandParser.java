@@ -1,7 +1,9 @@
 package calendar.controller.parser;
 
 import java.time.LocalDateTime;
+import java.util.function.Supplier;
 
+import calendar.controller.command.ShowStatusCommand;
 import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
@@ -16,25 +18,28 @@ class ShowCommandParser extends AbstractCommandParser {
   private static final int ON_INDEX = 2;
   private static final int DATETIME_INDEX = 3;
 
-  public ShowCommandParser(ICalendarModel model, ICalendarView view) {
-    super(model, view);
+  public ShowCommandParser(Supplier<? extends ICalendarModel> calendar, ICalendarView view) {
+    super(calendar, view);
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] parts = commandLine.trim().split("\\s+");
-    if (parts.length != SHOW_COMMAND_LENGTH) {
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(model(), view);
+  }
+
+  @Override
+  public ShowStatusCommand compile(CommandTokens command) throws IllegalArgumentException {
+    if (command.size() != SHOW_COMMAND_LENGTH) {
       throw new IllegalArgumentException("Show status requires exactly 4 parts. " +
               "Format: show status on YYYY-MM-DDThh:mm");
     }
 
     // Validate keywords in expected positions
-    validateKeyword(parts[STATUS_INDEX], STATUS, "'show'");
-    validateKeyword(parts[ON_INDEX], ON, "'show status'");
+    validateKeyword(command, STATUS_INDEX, STATUS, "'show'");
+    validateKeyword(command, ON_INDEX, ON, "'show status'");
 
-    // Parse and check the date/time
-    LocalDateTime dateTime = parseDateTime(parts[DATETIME_INDEX]);
-    boolean isBusy = model.showStatus(dateTime);
-    view.displayStatus(parts[DATETIME_INDEX], isBusy);
+    // Parse the date/time to check
+    LocalDateTime dateTime = parseDateTime(command, DATETIME_INDEX);
+    return new ShowStatusCommand(dateTime, command.get(DATETIME_INDEX));
   }
 }
\ No newline at end of file
@@ -1,79 +1,160 @@
 package calendar.controller.parser;
 
+import java.util.function.Supplier;
+
 import calendar.model.ICalendarManager;
 import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
 /**
  * Factory that creates smart command parser objects.
+ * Parsers keep no state between commands, so the factory makes one of each when it is built
+ * and hands the same one out for every command of its kind. Commands on a single calendar go
+ * to parsers that look up the calendar in use as they parse, so putting another calendar in
+ * use needs no new parsers either. Commands are routed through one table of the words they
+ * start with, checked in order.
  */
 public class SmartCommandParserFactory implements ICommandFactory {
   private static final String CREATE = "create";
   private static final String EDIT = "edit";
   private static final String USE = "use";
   private static final String COPY = "copy";
+  private static final String EXPORT = "export";
+  private static final String IMPORT = "import";
+  private static final String SAVE = "save";
 
   private final ICalendarManager manager;
   private final ICalendarView view;
+  private final Route[] routes;
 
+  /**
+   * Creates a factory for commands on the calendars of a manager.
+   *
+   * @param manager the manager of the calendars
+   * @param view    the view to display results in
+   * @throws IllegalArgumentException if the manager or view is null
+   */
   public SmartCommandParserFactory(ICalendarManager manager, ICalendarView view) {
     this.manager = manager;
     this.view = view;
+    Supplier<ICalendarModel> calendar = () -> manager.getCurrentCalendar();
+    this.routes = new Route[] {
+      new Route(SAVE, null, 1, false, new SaveCommandParser(manager, view)),
+      new Route(USE, null, 2, false, new UseCalCommandParser(manager, view)),
+      new Route(COPY, null, 2, false, new CopyCommandParser(manager, view)),
+      new Route(EXPORT, "cal", 2, false, new ExportCalCommandParser(manager, view)),
+      new Route(IMPORT, "cal", 2, false, new ImportCalCommandParser(manager, view)),
+      new Route(CREATE, "calendar", 2, false, new CreateCalCommandParser(manager, view)),
+      new Route(EDIT, "calendar", 2, false, new EditCalCommandParser(manager, view)),
+      new Route(CREATE, null, 1, true, new CreateCommandParser(calendar, view)),
+      new Route(EDIT, null, 1, true, new EditCommandParser(calendar, view)),
+      new Route("print", null, 1, true, new PrintCommandParser(calendar, view)),
+      new Route("show", null, 1, true, new ShowCommandParser(calendar, view)),
+      new Route("search", null, 1, true, new SearchCommandParser(calendar, view)),
+      new Route("suggest", null, 1, true, new SuggestCommandParser(calendar, view))
+    };
   }
 
   @Override
   public ICommandParser createParser(String commandLine) throws IllegalArgumentException {
-    validateCommandNotEmpty(commandLine);
-    ICommandParser parser = null;
-
-    String[] commandParts = commandLine.trim().split("\\s+");
-    String commandType = commandParts[0].toLowerCase();
-    
-    // Check if we have at least 2 parts before accessing commandParts[1]
-    if (commandParts.length < 2) {
-      // For single-word commands, try to delegate to event command factory if calendar is active
-      ICalendarModel model = manager.getCurrentCalendar();
-      if (model == null) {
-        throw new IllegalArgumentException("No calendar is currently in use. " +
-                "Use 'use calendar --name [calendar-name]' command first.");
-      }
-      ICommandFactory defaultFactory = new CommandParserFactory(model, view);
-      parser = defaultFactory.createParser(commandLine);
-      return parser;
-    }
-    
-    String commandType2 = commandParts[1].toLowerCase();
+    return createParserFor(new CommandTokens(commandLine));
+  }
 
-    if (commandType.equals(USE)) {
-      parser = new UseCalCommandParser(manager, view);
-    }
-    else if (commandType.equals(COPY)) {
-      parser = new CopyCommandParser(manager, view);
+  @Override
+  public ICommandParser createParserFor(CommandTokens command) throws IllegalArgumentException {
+    validateCommandNotEmpty(command);
+
+    Route route = route(command);
+    // Anything unknown would be a command on the calendar in use, so that is checked first
+    if ((route == null) || route.needsCalendar) {
+      validateCalendarInUse();
     }
-    else if (commandType.equals(CREATE) && commandType2.equals("calendar")) {
-      parser = new CreateCalCommandParser(manager, view);
+    return findParser(command);
+  }
+
+  /**
+   * Finds the parser for a command without checking that a calendar is in use, for commands
+   * that are only compiled and not run. Parsers keep no state, so one factory can route
+   * commands for many threads at once.
+   *
+   * @param command the words of the command
+   * @return the parser for the command
+   * @throws IllegalArgumentException if the command is empty or unknown
+   */
+  public ICommandParser findParser(CommandTokens command) throws IllegalArgumentException {
+    validateCommandNotEmpty(command);
+    Route route = route(command);
+    if (route == null) {
+      throw new IllegalArgumentException("Unknown command: '" + command.get(0).toLowerCase() +
+              "'. Valid commands are: create, edit, print, show, search, suggest");
     }
-    else if (commandType.equals(EDIT) && commandType2.equals("calendar")) {
-      parser = new EditCalCommandParser(manager, view);
+    return route.parser;
+  }
+
+  /**
+   * Checks whether a command can only run with a calendar in use, as createParserFor checks
+   * before parsing it. Unknown commands count as commands on the calendar in use, and an
+   * empty command does not.
+   *
+   * @param command the words of the command
+   * @return true if the command fails without a calendar in use
+   */
+  public boolean needsCalendar(CommandTokens command) {
+    if (command.size() == 0) {
+      return false;
     }
-    else {
-      // get specific currently in use calendar from manager method
-      ICalendarModel model = manager.getCurrentCalendar();
-      if (model == null) {
-        throw new IllegalArgumentException("No calendar is currently in use. " +
-                "Use 'use calendar --name [calendar-name]' command first.");
+    Route route = route(command);
+    return (route == null) || route.needsCalendar;
+  }
+
+  // Find the first row of the routing table matching the command, or null if none does
+  private Route route(CommandTokens command) {
+    for (Route route : routes) {
+      if (route.matches(command)) {
+        return route;
       }
-      ICommandFactory defaultFactory = new CommandParserFactory(model, view);
-      parser = defaultFactory.createParser(commandLine);
     }
+    return null;
+  }
 
-    return parser;
+  // Check that a calendar is in use, throw an exception if there is none
+  private void validateCalendarInUse() {
+    if (manager.getCurrentCalendar() == null) {
+      throw new IllegalArgumentException("No calendar is currently in use. " +
+              "Use 'use calendar --name [calendar-name]' command first.");
+    }
   }
 
   // Check if the command line is empty, throw an exception if it is
-  private void validateCommandNotEmpty(String commandLine) {
-    if (commandLine == null || commandLine.trim().isEmpty()) {
+  private void validateCommandNotEmpty(CommandTokens command) {
+    if (command.size() == 0) {
       throw new IllegalArgumentException("Command cannot be empty. Please enter a valid command.");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * A row of the routing table: the words a command starts with and the parser for it.
+   */
+  private static final class Route {
+    private final String first;
+    // The second word, or null if any second word will do
+    private final String second;
+    private final int minimumWords;
+    private final boolean needsCalendar;
+    private final ICommandParser parser;
+
+    Route(String first, String second, int minimumWords, boolean needsCalendar,
+          ICommandParser parser) {
+      this.first = first;
+      this.second = second;
+      this.minimumWords = minimumWords;
+      this.needsCalendar = needsCalendar;
+      this.parser = parser;
+    }
+
+    boolean matches(CommandTokens command) {
+      return (command.size() >= minimumWords) && command.is(0, first)
+              && ((second == null) || command.is(1, second));
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package calendar.controller.parser;
+
+import java.util.function.Supplier;
+
+import calendar.controller.command.SuggestSubjectsCommand;
+import calendar.model.ICalendarModel;
+import calendar.view.ICalendarView;
+
+/**
+ * Parser for suggest subjects commands.
+ * Lists the existing event subjects that start with a prefix, so exact subjects can be
+ * looked up before an edit or copy command.
+ */
+class SuggestCommandParser extends AbstractCommandParser {
+  // Specific indices for suggest command structure
+  private static final int MIN_SUGGEST_COMMAND_LENGTH = 3;
+  private static final int SUBJECTS_INDEX = 1;
+  private static final int PREFIX_INDEX = 2;
+
+  // Maximum number of subjects listed for a prefix
+  private static final int SUGGESTION_LIMIT = 10;
+
+  public SuggestCommandParser(Supplier<? extends ICalendarModel> calendar, ICalendarView view) {
+    super(calendar, view);
+  }
+
+  @Override
+  public void parse(CommandTokens command) throws IllegalArgumentException {
+    compile(command).execute(model(), view);
+  }
+
+  @Override
+  public SuggestSubjectsCommand compile(CommandTokens command)
+          throws IllegalArgumentException {
+    validateMinimumLength(command, MIN_SUGGEST_COMMAND_LENGTH, "Incomplete suggest command. " +
+            "Format: suggest subjects \"prefix\"");
+    validateKeyword(command, SUBJECTS_INDEX, "subjects", "'suggest'");
+
+    // Extract the prefix, which must be the rest of the command
+    int prefixEndIndex = extractQuotedText(command, PREFIX_INDEX);
+    if (prefixEndIndex != command.size()) {
+      throw new IllegalArgumentException("Use quotes for a prefix with spaces. " +
+              "Format: suggest subjects \"prefix\"");
+    }
+    String prefix = buildQuotedText(command, PREFIX_INDEX, prefixEndIndex);
+    return new SuggestSubjectsCommand(prefix, SUGGESTION_LIMIT);
+  }
+}
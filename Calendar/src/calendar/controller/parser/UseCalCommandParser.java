@@ -1,5 +1,6 @@
 package calendar.controller.parser;
 
+import calendar.controller.command.UseCalendarCommand;
 import calendar.model.ICalendarManager;
 import calendar.view.ICalendarView;
 
@@ -20,33 +21,27 @@ class UseCalCommandParser extends AbstractCommandParser {
   }
 
   @Override
-  public void parse(String commandLine) throws IllegalArgumentException {
-    String[] commandParts = commandLine.trim().split("\\s+");
-
-    validateFormat(commandParts);
+  public UseCalendarCommand compile(CommandTokens command) throws IllegalArgumentException {
+    validateFormat(command);
 
     // Extract calendar name
-    int nameEndIndex = extractQuotedText(commandParts, CAL_NAME_INDEX);
-    String calendarName = buildQuotedText(commandParts, CAL_NAME_INDEX, nameEndIndex);
-    if (nameEndIndex != commandParts.length) {
+    int nameEndIndex = extractQuotedText(command, CAL_NAME_INDEX);
+    String calendarName = buildQuotedText(command, CAL_NAME_INDEX, nameEndIndex);
+    if (nameEndIndex != command.size()) {
       throw new IllegalArgumentException("Invalid use command. " +
               "Format should be: use calendar --name [name-of-calendar]");
     }
 
-    if (this.manager != null) {
-      this.manager.useCalendar(calendarName);
-    } else {
-      throw new IllegalArgumentException("Calendar manager is null.");
-    }
+    return new UseCalendarCommand(calendarName);
   }
 
   /**
    * Validates use calendar command format.
    */
-  private void validateFormat(String[] commandParts) {
-    validateMinimumLength(commandParts, MIN_COMMAND_LENGTH, "Invalid use command. " +
+  private void validateFormat(CommandTokens command) {
+    validateMinimumLength(command, MIN_COMMAND_LENGTH, "Invalid use command. " +
             "Format should be: use calendar --name [name-of-calendar]");
-    validateKeyword(commandParts[COMMAND_SUBTYPE_INDEX], "calendar", "'use'");
-    validateKeyword(commandParts[NAME_COMMAND_INDEX], "--name", "'calendar'");
+    validateKeyword(command, COMMAND_SUBTYPE_INDEX, "calendar", "'use'");
+    validateKeyword(command, NAME_COMMAND_INDEX, "--name", "'calendar'");
   }
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+package calendar.model;
+
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One change made to a calendar, as told to its listeners. Each change has a type and the
+ * events it took out of the calendar and put into it: a replaced event is the one old event and
+ * the one new event, and an edited series or a timezone change lists every old event and the
+ * new event that took its place in the same order. A renamed calendar changes no events.
+ * The lists of events a change is created with are not copied, so they must not be changed
+ * afterwards. Changes handed out by a {@link CalendarChangePublisher} also carry the name of
+ * the calendar they were made to.
+ */
+public final class CalendarChange {
+
+  /**
+   * The kinds of change a calendar can go through.
+   */
+  public enum Type {
+    EVENT_ADDED,
+    EVENT_REMOVED,
+    EVENT_REPLACED,
+    SERIES_EDITED,
+    TIMEZONE_CHANGED,
+    CALENDAR_RENAMED,
+    // Changes were left out because the subscriber fell behind, so it should read the
+    // calendar again instead of relying on the changes it has
+    RESYNC
+  }
+
+  private final Type type;
+  private final List<IEvent> oldEvents;
+  private final List<IEvent> newEvents;
+  private final Integer seriesId;
+  private final ZoneId oldTimezone;
+  private final ZoneId newTimezone;
+  private final String oldName;
+  private final String newName;
+  private final String calendarName;
+
+  private CalendarChange(Type type, List<IEvent> oldEvents, List<IEvent> newEvents,
+                         Integer seriesId, ZoneId oldTimezone, ZoneId newTimezone,
+                         String oldName, String newName) {
+    this(type, oldEvents, newEvents, seriesId, oldTimezone, newTimezone, oldName, newName,
+            null);
+  }
+
+  private CalendarChange(Type type, List<IEvent> oldEvents, List<IEvent> newEvents,
+                         Integer seriesId, ZoneId oldTimezone, ZoneId newTimezone,
+                         String oldName, String newName, String calendarName) {
+    this.type = type;
+    this.oldEvents = oldEvents;
+    this.newEvents = newEvents;
+    this.seriesId = seriesId;
+    this.oldTimezone = oldTimezone;
+    this.newTimezone = newTimezone;
+    this.oldName = oldName;
+    this.newName = newName;
+    this.calendarName = calendarName;
+  }
+
+  /**
+   * Creates the change of an event being added.
+   *
+   * @param event the event added
+   * @return the change
+   */
+  public static CalendarChange eventAdded(IEvent event) {
+    return new CalendarChange(Type.EVENT_ADDED, List.of(), List.of(event), null,
+            null, null, null, null);
+  }
+
+  /**
+   * Creates the change of an event being removed.
+   *
+   * @param event the event removed
+   * @return the change
+   */
+  public static CalendarChange eventRemoved(IEvent event) {
+    return new CalendarChange(Type.EVENT_REMOVED, List.of(event), List.of(), null,
+            null, null, null, null);
+  }
+
+  /**
+   * Creates the change of an event being replaced by an edited copy of it.
+   *
+   * @param oldEvent the event as it was
+   * @param newEvent the event as it is now
+   * @return the change
+   */
+  public static CalendarChange eventReplaced(IEvent oldEvent, IEvent newEvent) {
+    return new CalendarChange(Type.EVENT_REPLACED, List.of(oldEvent), List.of(newEvent), null,
+            null, null, null, null);
+  }
+
+  /**
+   * Creates the change of some or all of the events of a series being edited.
+   *
+   * @param seriesId  the series the events belonged to before the edit
+   * @param oldEvents the events as they were
+   * @param newEvents the events as they are now, in the same order
+   * @return the change
+   */
+  public static CalendarChange seriesEdited(Integer seriesId, List<IEvent> oldEvents,
+                                            List<IEvent> newEvents) {
+    return new CalendarChange(Type.SERIES_EDITED, Collections.unmodifiableList(oldEvents),
+            Collections.unmodifiableList(newEvents), seriesId, null, null, null, null);
+  }
+
+  /**
+   * Creates the change of every event being moved from one timezone to another.
+   *
+   * @param oldTimezone the timezone of the events before
+   * @param newTimezone the timezone of the events now
+   * @param oldEvents   the events as they were
+   * @param newEvents   the events as they are now, in the same order
+   * @return the change
+   */
+  public static CalendarChange timezoneChanged(ZoneId oldTimezone, ZoneId newTimezone,
+                                               List<IEvent> oldEvents, List<IEvent> newEvents) {
+    return new CalendarChange(Type.TIMEZONE_CHANGED, Collections.unmodifiableList(oldEvents),
+            Collections.unmodifiableList(newEvents), null, oldTimezone, newTimezone, null, null);
+  }
+
+  /**
+   * Creates the change of a calendar being renamed.
+   *
+   * @param oldName the name before
+   * @param newName the name now
+   * @return the change
+   */
+  public static CalendarChange calendarRenamed(String oldName, String newName) {
+    return new CalendarChange(Type.CALENDAR_RENAMED, List.of(), List.of(), null,
+            null, null, oldName, newName);
+  }
+
+  /**
+   * Creates the marker standing in for changes left out because a subscriber fell behind.
+   *
+   * @param calendarName the calendar to read again, or null for every calendar
+   * @return the marker
+   */
+  static CalendarChange resync(String calendarName) {
+    return new CalendarChange(Type.RESYNC, List.of(), List.of(), null, null, null, null, null,
+            calendarName);
+  }
+
+  /**
+   * Gets a copy of this change that carries the name of the calendar it was made to.
+   *
+   * @param name the name of the calendar
+   * @return the copy
+   */
+  CalendarChange inCalendar(String name) {
+    return new CalendarChange(type, oldEvents, newEvents, seriesId, oldTimezone, newTimezone,
+            oldName, newName, name);
+  }
+
+  /**
+   * Gets the type of this change.
+   *
+   * @return the type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the events this change took out of the calendar.
+   *
+   * @return the old events, which may be none
+   */
+  public List<IEvent> getOldEvents() {
+    return oldEvents;
+  }
+
+  /**
+   * Gets the events this change put into the calendar.
+   *
+   * @return the new events, which may be none
+   */
+  public List<IEvent> getNewEvents() {
+    return newEvents;
+  }
+
+  /**
+   * Gets the series whose events were edited.
+   *
+   * @return the series ID, or null if this is not an edit of a series
+   */
+  public Integer getSeriesId() {
+    return seriesId;
+  }
+
+  /**
+   * Gets the timezone the events were in before a timezone change.
+   *
+   * @return the old timezone, or null if this is not a timezone change
+   */
+  public ZoneId getOldTimezone() {
+    return oldTimezone;
+  }
+
+  /**
+   * Gets the timezone the events are in after a timezone change.
+   *
+   * @return the new timezone, or null if this is not a timezone change
+   */
+  public ZoneId getNewTimezone() {
+    return newTimezone;
+  }
+
+  /**
+   * Gets the name of the calendar before it was renamed.
+   *
+   * @return the old name, or null if this is not a rename
+   */
+  public String getOldName() {
+    return oldName;
+  }
+
+  /**
+   * Gets the name of the calendar after it was renamed.
+   *
+   * @return the new name, or null if this is not a rename
+   */
+  public String getNewName() {
+    return newName;
+  }
+
+  /**
+   * Gets the name of the calendar this change was made to. Only changes handed out by a
+   * publisher carry it, since a listener is given the calendar itself.
+   *
+   * @return the name, or null if it is not known, or for a marker, if every calendar must be
+   *         read again
+   */
+  public String getCalendarName() {
+    return calendarName;
+  }
+}
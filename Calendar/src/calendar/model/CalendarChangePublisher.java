@@ -0,0 +1,364 @@
+package calendar.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Publishes the changes made to one calendar, or to every calendar of a manager, to
+ * subscribers that take them at their own pace, such as dashboards and sync jobs.
+ * Each subscriber has a buffer of its own holding up to a fixed number of changes it has not
+ * asked for yet. Changes are handed to a subscriber on the given executor, one at a time and
+ * only as it requests them, so the calendar never waits for a subscriber: making a change
+ * only adds it to the buffers. When a buffer is full, the overflow strategy decides what is
+ * left out. Subscribers are only given the changes made after they subscribe, each carrying
+ * the name of the calendar it was made to.
+ */
+public class CalendarChangePublisher implements Flow.Publisher<CalendarChange>, AutoCloseable {
+
+  /**
+   * What a subscriber's buffer does with a change when it is full.
+   */
+  public enum Overflow {
+    // The oldest change in the buffer is dropped to make room
+    DROP_OLDEST,
+    // The changes in the buffer are replaced by one RESYNC marker, and later changes are left
+    // out until the marker has been handed to the subscriber
+    RESYNC
+  }
+
+  private final int bufferSize;
+  private final Overflow overflow;
+  private final Executor executor;
+  // Whether the changes come from every calendar of a manager, so a marker names none
+  private final boolean everyCalendar;
+  private final List<ChangeSubscription> subscriptions =
+          new CopyOnWriteArrayList<ChangeSubscription>();
+  // Kept private so nothing else can feed changes to the subscribers
+  private final ICalendarListener listener = this::calendarChanged;
+  private Runnable stopListening;
+  private volatile boolean closed;
+
+  private CalendarChangePublisher(int bufferSize, Overflow overflow, Executor executor,
+                                  boolean everyCalendar) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("Buffer size must be positive");
+    }
+    if ((overflow == null) || (executor == null)) {
+      throw new IllegalArgumentException("Overflow strategy and executor cannot be null");
+    }
+    this.bufferSize = bufferSize;
+    this.overflow = overflow;
+    this.executor = executor;
+    this.everyCalendar = everyCalendar;
+  }
+
+  /**
+   * Creates a publisher of the changes made to one calendar.
+   *
+   * @param calendar   the calendar whose changes are published
+   * @param bufferSize the number of changes each subscriber's buffer holds
+   * @param overflow   what a full buffer does with another change
+   * @param executor   runs the deliveries to subscribers
+   * @return the publisher, which publishes until it is closed
+   * @throws IllegalArgumentException if an argument is null or the buffer size is not positive
+   */
+  public static CalendarChangePublisher of(ICalendarModel calendar, int bufferSize,
+                                           Overflow overflow, Executor executor) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("Calendar cannot be null");
+    }
+    CalendarChangePublisher publisher =
+            new CalendarChangePublisher(bufferSize, overflow, executor, false);
+    calendar.addChangeListener(publisher.listener);
+    publisher.stopListening = () -> calendar.removeChangeListener(publisher.listener);
+    return publisher;
+  }
+
+  /**
+   * Creates a publisher of the changes made to every calendar of a manager, including
+   * calendars created after it.
+   *
+   * @param manager    the manager whose calendars' changes are published
+   * @param bufferSize the number of changes each subscriber's buffer holds
+   * @param overflow   what a full buffer does with another change
+   * @param executor   runs the deliveries to subscribers
+   * @return the publisher, which publishes until it is closed
+   * @throws IllegalArgumentException if an argument is null or the buffer size is not positive
+   */
+  public static CalendarChangePublisher of(CalendarManager manager, int bufferSize,
+                                           Overflow overflow, Executor executor) {
+    if (manager == null) {
+      throw new IllegalArgumentException("Calendar manager cannot be null");
+    }
+    CalendarChangePublisher publisher =
+            new CalendarChangePublisher(bufferSize, overflow, executor, true);
+    manager.addChangeListener(publisher.listener);
+    publisher.stopListening = () -> manager.removeChangeListener(publisher.listener);
+    return publisher;
+  }
+
+  /**
+   * Subscribes to the changes made from now on. The subscriber is handed its subscription on
+   * the executor, like everything else it is told. If this publisher is closed, the
+   * subscriber is then told it is complete.
+   *
+   * @param subscriber the subscriber
+   * @throws NullPointerException if the subscriber is null, as publishers must
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super CalendarChange> subscriber) {
+    Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+    ChangeSubscription subscription = new ChangeSubscription(subscriber);
+    subscriptions.add(subscription);
+    if (closed) {
+      subscription.finish();
+    }
+    subscription.start();
+  }
+
+  /**
+   * Gets the number of subscribers still subscribed.
+   *
+   * @return the number of subscribers
+   */
+  public int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Stops publishing. Each subscriber is still handed the changes in its buffer as it asks
+   * for them, and is then told it is complete.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    stopListening.run();
+    for (ChangeSubscription subscription : subscriptions) {
+      subscription.finish();
+    }
+  }
+
+  /**
+   * Adds the changes of one operation on a calendar to every subscriber's buffer.
+   */
+  private void calendarChanged(ICalendarModel calendar, List<CalendarChange> changes) {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    String name = (calendar instanceof ISmartCalendarModel)
+            ? ((ISmartCalendarModel) calendar).getCalendarName() : null;
+    List<CalendarChange> named = new ArrayList<CalendarChange>(changes.size());
+    for (CalendarChange change : changes) {
+      named.add(change.inCalendar(name));
+    }
+    for (ChangeSubscription subscription : subscriptions) {
+      subscription.offer(named, everyCalendar ? null : name);
+    }
+  }
+
+  /**
+   * One subscriber's buffer and demand. Deliveries run as a task on the executor, of which at
+   * most one is scheduled or running at a time, so the subscriber is signalled in order.
+   */
+  private final class ChangeSubscription implements Flow.Subscription, Runnable {
+    private final Flow.Subscriber<? super CalendarChange> subscriber;
+    // The rest is guarded by this subscription
+    private final ArrayDeque<CalendarChange> buffer = new ArrayDeque<CalendarChange>();
+    private long demand;
+    // Whether a RESYNC marker waits in the buffer, so other changes are left out
+    private boolean resyncWaiting;
+    // Whether a delivery task is scheduled or running, which it is from the start so that the
+    // subscriber is handed its subscription before anything else
+    private boolean delivering = true;
+    // Whether the subscriber is told nothing more, after it cancels or is completed
+    private boolean done;
+    // Whether the subscriber is to be completed once its buffer is empty
+    private boolean finishing;
+    // The error to fail the subscriber with, after it asks for a count that is not positive
+    private IllegalArgumentException error;
+    // Only read and written by the delivery task
+    private boolean subscribed;
+
+    ChangeSubscription(Flow.Subscriber<? super CalendarChange> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    /**
+     * Schedules the first delivery task, which hands the subscriber its subscription.
+     */
+    void start() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        cancel();
+      }
+    }
+
+    /**
+     * Adds changes to the buffer, making room for each by the overflow strategy.
+     *
+     * @param changes    the changes
+     * @param resyncName the calendar a RESYNC marker names
+     */
+    void offer(List<CalendarChange> changes, String resyncName) {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        for (CalendarChange change : changes) {
+          if (resyncWaiting) {
+            break;
+          }
+          if (buffer.size() == bufferSize) {
+            if (overflow == Overflow.DROP_OLDEST) {
+              buffer.poll();
+            } else {
+              buffer.clear();
+              buffer.add(CalendarChange.resync(resyncName));
+              resyncWaiting = true;
+              break;
+            }
+          }
+          buffer.add(change);
+        }
+      }
+      deliverIfNeeded();
+    }
+
+    @Override
+    public void request(long n) {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        if (n <= 0) {
+          error = new IllegalArgumentException("Requested count must be positive: " + n);
+        } else {
+          demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n;
+        }
+      }
+      deliverIfNeeded();
+    }
+
+    @Override
+    public void cancel() {
+      synchronized (this) {
+        done = true;
+        buffer.clear();
+      }
+      subscriptions.remove(this);
+    }
+
+    /**
+     * Completes the subscriber once its buffer has been handed over.
+     */
+    void finish() {
+      synchronized (this) {
+        finishing = true;
+      }
+      deliverIfNeeded();
+    }
+
+    /**
+     * Schedules a delivery task if there is something the subscriber can be given and no task
+     * is already on its way. The calendar's thread only ever schedules, and never delivers.
+     */
+    private void deliverIfNeeded() {
+      synchronized (this) {
+        if (delivering || done || !canSignal()) {
+          return;
+        }
+        delivering = true;
+      }
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        // The executor is shut down, so nothing can reach this subscriber any more
+        cancel();
+      }
+    }
+
+    /**
+     * Checks whether the subscriber can be signalled now. Guarded by this subscription.
+     */
+    private boolean canSignal() {
+      return (error != null) || ((demand > 0) && !buffer.isEmpty())
+              || (finishing && buffer.isEmpty());
+    }
+
+    /**
+     * Hands changes to the subscriber while it has asked for them, then completes it or fails
+     * it if that is due.
+     */
+    @Override
+    public void run() {
+      if (!subscribed) {
+        subscribed = true;
+        if (!signal(() -> subscriber.onSubscribe(this))) {
+          return;
+        }
+      }
+      while (true) {
+        CalendarChange next = null;
+        IllegalArgumentException failure;
+        synchronized (this) {
+          if (done || !canSignal()) {
+            delivering = false;
+            return;
+          }
+          failure = error;
+          if ((failure == null) && (demand > 0) && !buffer.isEmpty()) {
+            next = buffer.poll();
+            demand--;
+            if (next.getType() == CalendarChange.Type.RESYNC) {
+              resyncWaiting = false;
+            }
+          } else {
+            done = true;
+            delivering = false;
+          }
+        }
+        if (next == null) {
+          subscriptions.remove(this);
+          if (failure != null) {
+            subscriber.onError(failure);
+          } else {
+            subscriber.onComplete();
+          }
+          return;
+        }
+        CalendarChange change = next;
+        if (!signal(() -> subscriber.onNext(change))) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Signals the subscriber, treating a subscriber that fails as having cancelled.
+     *
+     * @return true if the subscriber took the signal
+     */
+    private boolean signal(Runnable signal) {
+      try {
+        signal.run();
+        return true;
+      } catch (RuntimeException e) {
+        cancel();
+        synchronized (this) {
+          delivering = false;
+        }
+        return false;
+      }
+    }
+  }
+}
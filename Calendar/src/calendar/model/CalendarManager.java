@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.Supplier;
 
 
 /**
@@ -18,13 +19,50 @@ import java.util.ArrayList;
 public class CalendarManager implements ICalendarManager {
   private final Map<String, ISmartCalendarModel> calendars;
   private ISmartCalendarModel currentCalendar;
+  private final int queryCacheSize;
+  // Makes the store of each calendar created, or null to keep events in memory
+  private final Supplier<EventStore> storeFactory;
+  // The listeners told of changes to every calendar, including calendars added later
+  private final List<ICalendarListener> listeners;
 
   /**
    * Constructs a new CalendarManager with an empty set of calendars.
    */
   public CalendarManager() {
+    this(0);
+  }
+
+  /**
+   * Constructs a new CalendarManager with an empty set of calendars whose calendars cache
+   * query results.
+   *
+   * @param queryCacheSize the number of query results each calendar caches, or 0 to disable
+   *                       caching
+   * @throws IllegalArgumentException if the cache size is negative
+   */
+  public CalendarManager(int queryCacheSize) {
+    this(queryCacheSize, null);
+  }
+
+  /**
+   * Constructs a new CalendarManager with an empty set of calendars, each of which keeps its
+   * events in a store of its own, such as an {@link OffHeapEventStore}.
+   *
+   * @param queryCacheSize the number of query results each calendar caches, or 0 to disable
+   *                       caching
+   * @param storeFactory   makes an empty store for each calendar created, or null to keep
+   *                       events in memory
+   * @throws IllegalArgumentException if the cache size is negative
+   */
+  public CalendarManager(int queryCacheSize, Supplier<EventStore> storeFactory) {
+    if (queryCacheSize < 0) {
+      throw new IllegalArgumentException("Query cache size cannot be negative");
+    }
     this.calendars = new HashMap<String, ISmartCalendarModel>();
     this.currentCalendar = null;
+    this.queryCacheSize = queryCacheSize;
+    this.storeFactory = storeFactory;
+    this.listeners = new ArrayList<ICalendarListener>();
   }
 
   @Override
@@ -32,11 +70,76 @@ public class CalendarManager implements ICalendarManager {
     return this.currentCalendar;
   }
 
+  @Override
+  public ISmartCalendarModel getCalendar(String calendarName) {
+    validateCalendarExists(calendarName);
+    return this.calendars.get(calendarName);
+  }
+
   @Override
   public void createCalendar(String calendarName, ZoneId timezone) {
     validateCalendarNameAvailable(calendarName);
-    ISmartCalendarModel newCalendar = new SmartCalendarModel(calendarName, timezone);
+    SmartCalendarModel newCalendar = (storeFactory == null)
+            ? new SmartCalendarModel(calendarName, timezone)
+            : new SmartCalendarModel(calendarName, timezone, storeFactory.get());
+    if (queryCacheSize > 0) {
+      newCalendar.enableQueryCache(queryCacheSize);
+    }
     this.calendars.put(calendarName, newCalendar);
+    addListenersTo(newCalendar);
+  }
+
+  /**
+   * Adds an existing calendar, such as a read-only {@link MappedCalendarModel}, under its own
+   * name.
+   *
+   * @param calendar the calendar to add
+   * @throws IllegalArgumentException if a calendar with the same name already exists
+   */
+  public void addCalendar(ISmartCalendarModel calendar) {
+    validateCalendarNameAvailable(calendar.getCalendarName());
+    this.calendars.put(calendar.getCalendarName(), calendar);
+    addListenersTo(calendar);
+  }
+
+  /**
+   * Adds a listener to be told of every later change to every calendar, including calendars
+   * created or added after it. Each calendar tells the listener of its own changes, so the
+   * listener is given the calendar that changed.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void addChangeListener(ICalendarListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.add(listener);
+    for (ISmartCalendarModel calendar : calendars.values()) {
+      calendar.addChangeListener(listener);
+    }
+  }
+
+  /**
+   * Removes a listener from every calendar. Nothing happens if it was not listening.
+   *
+   * @param listener the listener
+   */
+  public void removeChangeListener(ICalendarListener listener) {
+    if (listeners.remove(listener)) {
+      for (ISmartCalendarModel calendar : calendars.values()) {
+        calendar.removeChangeListener(listener);
+      }
+    }
+  }
+
+  /**
+   * Adds every listener of this manager to a calendar that has just joined it.
+   */
+  private void addListenersTo(ISmartCalendarModel calendar) {
+    for (ICalendarListener listener : listeners) {
+      calendar.addChangeListener(listener);
+    }
   }
 
   @Override
@@ -164,4 +267,15 @@ public class CalendarManager implements ICalendarManager {
   public List<String> getCalendarNames() {
     return new ArrayList<>(calendars.keySet());
   }
+
+  /**
+   * Always fails, since the calendars of this manager only exist in memory.
+   *
+   * @throws IllegalArgumentException always
+   */
+  @Override
+  public int save() {
+    throw new IllegalArgumentException("Calendars are only kept in memory. Start the " +
+        "application with --workspace [directory] to save them.");
+  }
 }
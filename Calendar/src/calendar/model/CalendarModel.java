@@ -3,12 +3,22 @@ package calendar.model;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.List;
 import java.util.Set;
 import java.util.Comparator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import calendar.model.QueryCache.QueryKey;
+import calendar.model.QueryCache.QueryType;
 
 /**
  * Implementation of the calendar model that manages a collection of events.
@@ -16,9 +26,27 @@ import java.util.Comparator;
  * both single and recurring.
  */
 public class CalendarModel implements ICalendarModel {
-  protected final Set<IEvent> events;
+  protected final EventStore events;
   private final EventValidator validator;
+  private final EventTextIndex textIndex;
+  private final SubjectIndex subjectIndex;
+  private QueryCache queryCache;
+  private long generation;
   protected Integer nextSeriesId = 1;
+  // While applyChanges runs, the events added and removed since the indexes were last brought
+  // up to date; both are null the rest of the time
+  private List<IEvent> unindexedAdditions;
+  private List<IEvent> unindexedRemovals;
+  // While applyChanges runs, a copy of each event the group has touched as it was before the
+  // group began, so a failed group can put them back; null the rest of the time
+  private EventSnapshot snapshot;
+  // The listeners told of changes. The array is replaced rather than changed, so telling them
+  // needs neither a copy nor a lock, and an empty one costs a length check per change
+  private ICalendarListener[] listeners = new ICalendarListener[0];
+  // The changes the listeners have not been told of yet, or null if there are none
+  private List<CalendarChange> pendingChanges;
+  // How many operations that make many changes are running, so their changes are told at once
+  private int changeDepth;
 
   // Constants for all-day events as per assignment requirements
   private static final LocalTime ALL_DAY_START = LocalTime.of(8, 0);  // 8 AM
@@ -28,8 +56,43 @@ public class CalendarModel implements ICalendarModel {
    * Constructs a new CalendarModel with an empty set of events.
    */
   public CalendarModel() {
-    this.events = new HashSet<IEvent>();
+    this(new InMemoryEventStore());
+  }
+
+  /**
+   * Constructs a new CalendarModel whose events are kept in the given store.
+   * Events already in the store belong to the calendar. A store that does not keep its events
+   * in memory is not covered by the text index, so searches read every event instead. If such
+   * a store can count its subjects and knows its highest series ID, no event is read here.
+   * @param store the store holding the events of this calendar
+   * @throws IllegalArgumentException if the store is null
+   */
+  public CalendarModel(EventStore store) {
+    if (store == null) {
+      throw new IllegalArgumentException("Event store cannot be null");
+    }
+    this.events = store;
     this.validator = new EventValidator();
+    this.textIndex = store.isResident() ? new EventTextIndex() : null;
+    this.subjectIndex = new SubjectIndex();
+    if (textIndex == null) {
+      Map<String, Integer> subjects = store.countSubjects();
+      Integer maxSeriesId = store.getMaxSeriesId();
+      if ((subjects != null) && (maxSeriesId != null)) {
+        subjectIndex.addCounts(subjects);
+        nextSeriesId = maxSeriesId + 1;
+        return;
+      }
+    }
+    for (IEvent event : store) {
+      if (textIndex != null) {
+        textIndex.add(event);
+      }
+      subjectIndex.add(event.getSubject());
+      if (event.getSeriesId() != null && event.getSeriesId() >= nextSeriesId) {
+        nextSeriesId = event.getSeriesId() + 1;
+      }
+    }
   }
 
   /**
@@ -79,13 +142,18 @@ public class CalendarModel implements ICalendarModel {
     LocalDateTime currentEnd = endDateTime;
     int occurrences = 0;
 
-    while (occurrences < count) {
-      if (weekdays.contains(currentStart.getDayOfWeek())) {
-        addTimedEvent(subject, currentStart, currentEnd, seriesId);
-        occurrences++;
+    beginChanges();
+    try {
+      while (occurrences < count) {
+        if (weekdays.contains(currentStart.getDayOfWeek())) {
+          addTimedEvent(subject, currentStart, currentEnd, seriesId);
+          occurrences++;
+        }
+        currentStart = currentStart.plusDays(1);
+        currentEnd = currentEnd.plusDays(1);
       }
-      currentStart = currentStart.plusDays(1);
-      currentEnd = currentEnd.plusDays(1);
+    } finally {
+      endChanges();
     }
   }
 
@@ -111,13 +179,18 @@ public class CalendarModel implements ICalendarModel {
     LocalDateTime currentStart = startDateTime;
     LocalDateTime currentEnd = endDateTime;
 
-    // Compare dates only, not times, for "until" logic
-    while (!currentStart.toLocalDate().isAfter(untilDate.toLocalDate())) {
-      if (weekdays.contains(currentStart.getDayOfWeek())) {
-        addTimedEvent(subject, currentStart, currentEnd, seriesId);
+    beginChanges();
+    try {
+      // Compare dates only, not times, for "until" logic
+      while (!currentStart.toLocalDate().isAfter(untilDate.toLocalDate())) {
+        if (weekdays.contains(currentStart.getDayOfWeek())) {
+          addTimedEvent(subject, currentStart, currentEnd, seriesId);
+        }
+        currentStart = currentStart.plusDays(1);
+        currentEnd = currentEnd.plusDays(1);
       }
-      currentStart = currentStart.plusDays(1);
-      currentEnd = currentEnd.plusDays(1);
+    } finally {
+      endChanges();
     }
   }
 
@@ -138,12 +211,17 @@ public class CalendarModel implements ICalendarModel {
     LocalDateTime currentDate = startDate;
     int occurrences = 0;
 
-    while (occurrences < count) {
-      if (weekdays.contains(currentDate.getDayOfWeek())) {
-        addAllDayEvent(subject, currentDate, seriesId);
-        occurrences++;
+    beginChanges();
+    try {
+      while (occurrences < count) {
+        if (weekdays.contains(currentDate.getDayOfWeek())) {
+          addAllDayEvent(subject, currentDate, seriesId);
+          occurrences++;
+        }
+        currentDate = currentDate.plusDays(1);
       }
-      currentDate = currentDate.plusDays(1);
+    } finally {
+      endChanges();
     }
   }
 
@@ -164,12 +242,17 @@ public class CalendarModel implements ICalendarModel {
     Integer seriesId = nextSeriesId++;
     LocalDateTime currentDate = startDate;
 
-    // Compare dates only, not times, for "until" logic
-    while (!currentDate.toLocalDate().isAfter(untilDate.toLocalDate())) {
-      if (weekdays.contains(currentDate.getDayOfWeek())) {
-        addAllDayEvent(subject, currentDate, seriesId);
+    beginChanges();
+    try {
+      // Compare dates only, not times, for "until" logic
+      while (!currentDate.toLocalDate().isAfter(untilDate.toLocalDate())) {
+        if (weekdays.contains(currentDate.getDayOfWeek())) {
+          addAllDayEvent(subject, currentDate, seriesId);
+        }
+        currentDate = currentDate.plusDays(1);
       }
-      currentDate = currentDate.plusDays(1);
+    } finally {
+      endChanges();
     }
   }
 
@@ -186,7 +269,7 @@ public class CalendarModel implements ICalendarModel {
   public void editEvent(String subject, LocalDateTime startDateTime, LocalDateTime endDateTime,
                         String property, String newValue) {
     IEvent eventToEdit = findEvent(subject, startDateTime, endDateTime);
-    updateEventProperty(eventToEdit, property, newValue, null);
+    recordEdit(eventToEdit, updateEventProperty(eventToEdit, property, newValue, null));
   }
 
   /**
@@ -228,7 +311,8 @@ public class CalendarModel implements ICalendarModel {
   public List<IEvent> printEvents(LocalDateTime date) {
     LocalDateTime startOfDay = date.toLocalDate().atStartOfDay();
     LocalDateTime endOfDay = date.toLocalDate().atTime(LocalTime.MAX);
-    return getEventsInInterval(startOfDay, endOfDay);
+    return cachedEvents(new QueryKey(QueryType.EVENTS_ON_DATE, startOfDay, null, 0),
+        () -> getEventsInInterval(startOfDay, endOfDay));
   }
 
   /**
@@ -239,7 +323,49 @@ public class CalendarModel implements ICalendarModel {
    */
   @Override
   public List<IEvent> printEvents(LocalDateTime startDateTime, LocalDateTime endDateTime) {
-    return getEventsInInterval(startDateTime, endDateTime);
+    return cachedEvents(new QueryKey(QueryType.EVENTS_IN_RANGE, startDateTime, endDateTime, 0),
+        () -> getEventsInInterval(startDateTime, endDateTime));
+  }
+
+  /**
+   * Iterates over the events that occur within a time interval.
+   * The events are filtered as the iterator advances, so no list of them is built.
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime the end of the interval (inclusive)
+   * @return an iterator over the events that overlap with the given interval, in no order
+   */
+  @Override
+  public Iterator<IEvent> eventIterator(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    Iterator<IEvent> all = events.candidates(startDateTime, endDateTime);
+    return new Iterator<IEvent>() {
+      private IEvent next = advance();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public IEvent next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        IEvent event = next;
+        next = advance();
+        return event;
+      }
+
+      // Finds the next event that overlaps with the interval
+      private IEvent advance() {
+        while (all.hasNext()) {
+          IEvent event = all.next();
+          if (eventsOverlap(event, startDateTime, endDateTime)) {
+            return event;
+          }
+        }
+        return null;
+      }
+    };
   }
 
   /**
@@ -251,10 +377,23 @@ public class CalendarModel implements ICalendarModel {
    */
   @Override
   public List<IEvent> getUpcomingEvents(LocalDateTime startDateTime, int maxEvents) {
+    return cachedEvents(new QueryKey(QueryType.UPCOMING_EVENTS, startDateTime, null, maxEvents),
+        () -> findUpcomingEvents(startDateTime, maxEvents));
+  }
+
+  /**
+   * Finds a limited number of events that start on or after a specific date/time.
+   * @param startDateTime the start date/time to search from (inclusive)
+   * @param maxEvents the maximum number of events to return
+   * @return the upcoming events sorted by start time
+   */
+  private List<IEvent> findUpcomingEvents(LocalDateTime startDateTime, int maxEvents) {
     List<IEvent> upcomingEvents = new ArrayList<>();
     
     // Filter events that start on or after the given date/time
-    for (IEvent event : events) {
+    Iterator<IEvent> candidates = events.candidates(startDateTime, LocalDateTime.MAX);
+    while (candidates.hasNext()) {
+      IEvent event = candidates.next();
       if (!event.getStartDateTime().isBefore(startDateTime)) {
         upcomingEvents.add(event);
       }
@@ -278,14 +417,468 @@ public class CalendarModel implements ICalendarModel {
    */
   @Override
   public boolean showStatus(LocalDateTime dateTime) {
-    for (IEvent event : events) {
-      if (isTimeWithinEvent(dateTime, event)) {
+    if (queryCache == null) {
+      return isBusyAt(dateTime);
+    }
+    return queryCache.get(new QueryKey(QueryType.STATUS, dateTime, null, 0), generation,
+        () -> isBusyAt(dateTime));
+  }
+
+  /**
+   * Checks if any event covers the given time.
+   * @param dateTime the time to check
+   * @return true if there is an event at the given time
+   */
+  private boolean isBusyAt(LocalDateTime dateTime) {
+    Iterator<IEvent> candidates = events.candidates(dateTime, dateTime);
+    while (candidates.hasNext()) {
+      if (isTimeWithinEvent(dateTime, candidates.next())) {
         return true;
       }
     }
     return false;
   }
 
+  /**
+   * Gets all events whose subject or description contains every word of the search terms.
+   * @param terms the words to search for (case-insensitive)
+   * @return a list of matching events, sorted by start time
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  @Override
+  public List<IEvent> searchEvents(String terms) {
+    List<IEvent> matches = findMatches(terms);
+    matches.sort(Comparator.comparing(IEvent::getStartDateTime));
+    return matches;
+  }
+
+  /**
+   * Gets all events in a time interval whose subject or description contains every word of the
+   * search terms.
+   * @param terms the words to search for (case-insensitive)
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime the end of the interval (inclusive)
+   * @return a list of matching events that overlap with the interval, sorted by start time
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  @Override
+  public List<IEvent> searchEvents(String terms, LocalDateTime startDateTime,
+                                   LocalDateTime endDateTime) {
+    List<IEvent> matches = new ArrayList<>();
+    for (IEvent event : findMatches(terms)) {
+      if (eventsOverlap(event, startDateTime, endDateTime)) {
+        matches.add(event);
+      }
+    }
+    matches.sort(Comparator.comparing(IEvent::getStartDateTime));
+    return matches;
+  }
+
+  /**
+   * Finds the events containing every word of the search terms, using the text index when
+   * there is one and reading every event otherwise.
+   * @param terms the words to search for
+   * @return the matching events, in no particular order
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  private List<IEvent> findMatches(String terms) {
+    if (textIndex != null) {
+      indexHeldChanges();
+      return textIndex.search(terms);
+    }
+    Set<String> tokens = EventTextIndex.tokenize(terms);
+    if (tokens.isEmpty()) {
+      throw new IllegalArgumentException("Search terms cannot be empty");
+    }
+    List<IEvent> matches = new ArrayList<>();
+    for (IEvent event : events) {
+      Set<String> words = EventTextIndex.tokenize(event.getSubject());
+      words.addAll(EventTextIndex.tokenize(event.getDescription()));
+      if (words.containsAll(tokens)) {
+        matches.add(event);
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Gets the distinct event subjects that start with the given prefix, for autocompletion.
+   * @param prefix the prefix to complete (case-insensitive)
+   * @param limit the maximum number of subjects to return
+   * @return up to limit distinct subjects starting with the prefix, in alphabetical order
+   * @throws IllegalArgumentException if the prefix is null or the limit is negative
+   */
+  @Override
+  public List<String> suggestSubjects(String prefix, int limit) {
+    if (prefix == null || limit < 0) {
+      throw new IllegalArgumentException("Prefix cannot be null and limit cannot be negative");
+    }
+    indexHeldChanges();
+    return subjectIndex.suggest(prefix, limit);
+  }
+
+  /**
+   * Makes a group of changes to this calendar as one unit.
+   * The events change as each change is made, but the text and subject indexes are brought up
+   * to date once, after the last change, in one pass over the events added and removed. The
+   * group keeps a copy-on-write snapshot of the calendar, one event at a time: the first time
+   * it adds or removes an event, it copies what the calendar held under that event's subject
+   * and times, whether an event with its details or nothing. So the snapshot costs as much as
+   * the events the group touches, not the whole calendar or a whole month of it. If a change
+   * fails, every copied event is put back as it was, and the indexes are given back and
+   * relieved of the same events. A group made inside another is part of the outer one.
+   * Listeners are told of the whole group once it has been applied, and of nothing if it
+   * fails.
+   * @param changes makes the changes to the calendar it is given
+   * @throws IllegalArgumentException if changes is null, or a change is invalid
+   */
+  @Override
+  public void applyChanges(Consumer<? super ICalendarModel> changes) {
+    if (changes == null) {
+      throw new IllegalArgumentException("Changes cannot be null");
+    }
+    if (unindexedAdditions != null) {
+      changes.accept(this);
+      return;
+    }
+
+    Integer seriesId = nextSeriesId;
+    snapshot = new EventSnapshot();
+    unindexedAdditions = new ArrayList<>();
+    unindexedRemovals = new ArrayList<>();
+    int recorded = (pendingChanges == null) ? 0 : pendingChanges.size();
+    beginChanges();
+    try {
+      changes.accept(this);
+      indexHeldChanges();
+    } catch (RuntimeException e) {
+      restoreSnapshot(seriesId);
+      // The listeners are told of none of the changes that were undone
+      if (recorded == 0) {
+        pendingChanges = null;
+      } else {
+        pendingChanges.subList(recorded, pendingChanges.size()).clear();
+      }
+      throw e;
+    } finally {
+      snapshot = null;
+      unindexedAdditions = null;
+      unindexedRemovals = null;
+      endChanges();
+    }
+  }
+
+  /**
+   * Puts every event the group touched back the way it was in the snapshot. The indexes are
+   * first brought up to date with the group's changes, so that they match the events, and then
+   * each event the snapshot takes out of or puts back in the store is taken out of or put back
+   * in them too.
+   * @param seriesId the next series ID when the changes began
+   */
+  private void restoreSnapshot(Integer seriesId) {
+    indexHeldChanges();
+    for (Map.Entry<IEvent, IEvent> touched : snapshot.after.entrySet()) {
+      IEvent current = touched.getValue();
+      IEvent before = snapshot.before.get(touched.getKey());
+      if (current == before) {
+        continue;
+      }
+      if (current != EventSnapshot.ABSENT) {
+        events.remove(current);
+        unindex(current);
+      }
+      if (before != EventSnapshot.ABSENT) {
+        events.add(before);
+        index(before);
+      }
+    }
+    nextSeriesId = seriesId;
+    generation++;
+  }
+
+  /**
+   * Adds an event to the text and subject indexes.
+   */
+  private void index(IEvent event) {
+    if (textIndex != null) {
+      textIndex.add(event);
+    }
+    subjectIndex.add(event.getSubject());
+  }
+
+  /**
+   * Removes an event from the text and subject indexes.
+   */
+  private void unindex(IEvent event) {
+    if (textIndex != null) {
+      textIndex.remove(event);
+    }
+    subjectIndex.remove(event.getSubject());
+  }
+
+  /**
+   * Brings the indexes up to date with the changes applyChanges has held back, if any.
+   * Removed events leave the indexes before added ones join them, since an edited event is
+   * removed and added again as an equal event with other details.
+   */
+  private void indexHeldChanges() {
+    if ((unindexedAdditions == null)
+            || (unindexedAdditions.isEmpty() && unindexedRemovals.isEmpty())) {
+      return;
+    }
+    List<IEvent> added = unindexedAdditions;
+    if (!unindexedRemovals.isEmpty()) {
+      // An event added and then removed by the same changes was never indexed, so each
+      // event is indexed or unindexed by whether it was added or removed more often
+      Map<IEvent, Integer> net = new IdentityHashMap<>();
+      for (IEvent event : unindexedAdditions) {
+        net.merge(event, 1, Integer::sum);
+      }
+      for (IEvent event : unindexedRemovals) {
+        net.merge(event, -1, Integer::sum);
+      }
+      added = new ArrayList<>();
+      for (Map.Entry<IEvent, Integer> change : net.entrySet()) {
+        if (change.getValue() > 0) {
+          added.add(change.getKey());
+        } else if (change.getValue() < 0) {
+          if (textIndex != null) {
+            textIndex.remove(change.getKey());
+          }
+          subjectIndex.remove(change.getKey().getSubject());
+        }
+      }
+    }
+    if (textIndex != null) {
+      textIndex.addAll(added);
+    }
+    subjectIndex.addAll(added);
+    unindexedAdditions.clear();
+    unindexedRemovals.clear();
+  }
+
+  /**
+   * Enables caching of query results (printEvents, getUpcomingEvents and showStatus).
+   * Cached results are reused until the calendar is next modified; any change to the events
+   * invalidates them. Replaces any existing cache and its statistics.
+   * @param maxEntries the maximum number of results to keep, least recently used first out
+   * @throws IllegalArgumentException if maxEntries is not positive
+   */
+  public void enableQueryCache(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Query cache size must be positive");
+    }
+    this.queryCache = new QueryCache(maxEntries);
+  }
+
+  /**
+   * Disables query result caching and drops every cached result.
+   */
+  public void disableQueryCache() {
+    this.queryCache = null;
+  }
+
+  /**
+   * Gets the hit and miss statistics of the query cache.
+   * @return the cache statistics, or null if caching is not enabled
+   */
+  public QueryCacheStats getQueryCacheStats() {
+    return queryCache == null ? null : queryCache.stats();
+  }
+
+  /**
+   * Gets the modification generation of this calendar, which increases on every change to its
+   * events.
+   * @return the current generation
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Adds a listener to be told of every later change to this calendar.
+   * @param listener the listener
+   * @throws IllegalArgumentException if the listener is null
+   */
+  @Override
+  public void addChangeListener(ICalendarListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    ICalendarListener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+    more[listeners.length] = listener;
+    listeners = more;
+  }
+
+  /**
+   * Removes a listener so it is no longer told of changes.
+   * @param listener the listener
+   */
+  @Override
+  public void removeChangeListener(ICalendarListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        ICalendarListener[] fewer = new ICalendarListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, fewer, 0, i);
+        System.arraycopy(listeners, i + 1, fewer, i, fewer.length - i);
+        listeners = fewer;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Checks whether anything listens for changes, so changes need only be described when it
+   * does.
+   * @return true if there is at least one listener
+   */
+  protected boolean hasChangeListeners() {
+    return listeners.length > 0;
+  }
+
+  /**
+   * Records a change to tell the listeners of. The listeners are told right away, unless an
+   * operation that makes many changes is running, in which case they are told when it ends.
+   * @param change the change made
+   */
+  protected void recordChange(CalendarChange change) {
+    if (pendingChanges == null) {
+      pendingChanges = new ArrayList<>();
+    }
+    pendingChanges.add(change);
+    if (changeDepth == 0) {
+      tellListeners();
+    }
+  }
+
+  /**
+   * Starts an operation that makes many changes, whose changes are held back until the
+   * matching {@link #endChanges()}. Operations started inside another are part of it.
+   */
+  protected void beginChanges() {
+    changeDepth++;
+  }
+
+  /**
+   * Ends an operation started with {@link #beginChanges()}, telling the listeners of its
+   * changes if it is not part of another.
+   */
+  protected void endChanges() {
+    changeDepth--;
+    if ((changeDepth == 0) && (pendingChanges != null)) {
+      tellListeners();
+    }
+  }
+
+  /**
+   * Tells every listener of the changes recorded so far, as one list.
+   */
+  private void tellListeners() {
+    List<CalendarChange> changes = Collections.unmodifiableList(pendingChanges);
+    pendingChanges = null;
+    for (ICalendarListener listener : listeners) {
+      listener.calendarChanged(this, changes);
+    }
+  }
+
+  /**
+   * Records the edit of one event, which is lost if its edited copy equals another event.
+   * @param oldEvent the event as it was
+   * @param newEvent the event as it is now, or null if it was lost
+   */
+  private void recordEdit(IEvent oldEvent, IEvent newEvent) {
+    if (hasChangeListeners()) {
+      recordChange((newEvent == null) ? CalendarChange.eventRemoved(oldEvent)
+              : CalendarChange.eventReplaced(oldEvent, newEvent));
+    }
+  }
+
+  /**
+   * Answers an event query from the cache when caching is enabled.
+   * Results are stored unmodifiable and every caller gets its own copy.
+   * @param key the query parameters
+   * @param query computes the result of the query
+   * @return the result of the query
+   */
+  private List<IEvent> cachedEvents(QueryKey key, Supplier<List<IEvent>> query) {
+    if (queryCache == null) {
+      return query.get();
+    }
+    return new ArrayList<>(queryCache.get(key, generation, () -> List.copyOf(query.get())));
+  }
+
+  /**
+   * Adds an event to this calendar and to its indexes.
+   * All additions to the event set go through this method so the indexes stay in sync. While
+   * applyChanges runs, the event is only indexed once the changes are done.
+   * @param event the event to add
+   * @return true if the event was added, false if an equal event already exists
+   */
+  protected boolean insertEvent(IEvent event) {
+    if (!events.add(event)) {
+      return false;
+    }
+    generation++;
+    if (snapshot != null) {
+      snapshot.changed(event, EventSnapshot.ABSENT, event);
+    }
+    if (unindexedAdditions != null) {
+      unindexedAdditions.add(event);
+      return true;
+    }
+    if (textIndex != null) {
+      textIndex.add(event);
+    }
+    subjectIndex.add(event.getSubject());
+    return true;
+  }
+
+  /**
+   * Removes an event from this calendar and from its indexes.
+   * @param event the event to remove
+   * @return true if the event was removed, false if it was not in this calendar
+   */
+  protected boolean removeEvent(IEvent event) {
+    if (!events.remove(event)) {
+      return false;
+    }
+    generation++;
+    if (snapshot != null) {
+      snapshot.changed(event, event, EventSnapshot.ABSENT);
+    }
+    if (unindexedAdditions != null) {
+      unindexedRemovals.add(event);
+      return true;
+    }
+    if (textIndex != null) {
+      textIndex.remove(event);
+    }
+    subjectIndex.remove(event.getSubject());
+    return true;
+  }
+
+  /**
+   * Removes every event from this calendar and its indexes. While applyChanges runs, every
+   * event is copied into the snapshot first, so a failed group can put the events back.
+   */
+  protected void clearEvents() {
+    if (snapshot != null) {
+      for (IEvent event : events) {
+        snapshot.changed(event, event, EventSnapshot.ABSENT);
+      }
+    }
+    events.clear();
+    generation++;
+    if (unindexedAdditions != null) {
+      unindexedAdditions.clear();
+      unindexedRemovals.clear();
+    }
+    if (textIndex != null) {
+      textIndex.clear();
+    }
+    subjectIndex.clear();
+  }
+
   /**
    * Creates and adds a timed event without validation.
    * Handles duplicate checking and event creation.
@@ -300,7 +893,10 @@ public class CalendarModel implements ICalendarModel {
             .endDateTime(endDateTime)
             .seriesId(seriesId)
             .build();
-    this.events.add(newEvent);
+    insertEvent(newEvent);
+    if (hasChangeListeners()) {
+      recordChange(CalendarChange.eventAdded(newEvent));
+    }
   }
 
   /**
@@ -319,7 +915,10 @@ public class CalendarModel implements ICalendarModel {
             .endDateTime(endOfDay)
             .seriesId(seriesId)
             .build();
-    this.events.add(newEvent);
+    insertEvent(newEvent);
+    if (hasChangeListeners()) {
+      recordChange(CalendarChange.eventAdded(newEvent));
+    }
   }
 
   /**
@@ -361,7 +960,9 @@ public class CalendarModel implements ICalendarModel {
    */
   private IEvent findEvent(String subject, LocalDateTime startDateTime,
                            LocalDateTime endDateTime) {
-    for (IEvent event : events) {
+    Iterator<IEvent> candidates = events.candidates(startDateTime, startDateTime);
+    while (candidates.hasNext()) {
+      IEvent event = candidates.next();
       if (event.getSubject().equals(subject) &&
               event.getStartDateTime().equals(startDateTime)) {
         if (endDateTime == null || event.getEndDateTime().equals(endDateTime)) {
@@ -383,21 +984,48 @@ public class CalendarModel implements ICalendarModel {
                                 boolean fromThisEventForward) {
     if (baseEvent.getSeriesId() == null) {
       // Single event, just edit it
-      updateEventProperty(baseEvent, property, newValue, null);
+      recordEdit(baseEvent, updateEventProperty(baseEvent, property, newValue, null));
       return;
     }
 
     Integer seriesId = baseEvent.getSeriesId();
     Integer newSeriesId = determineNewSeriesId(baseEvent, property, newValue);
 
-    // Create a copy of events to avoid concurrent modification
-    Set<IEvent> eventsCopy = new HashSet<>(events);
+    // Only the events of the series are copied, to avoid changing the store while iterating
     LocalDateTime baseDate = baseEvent.getStartDateTime();
-
-    for (IEvent event : eventsCopy) {
+    List<IEvent> seriesEvents = new ArrayList<>();
+    Iterator<IEvent> candidates = events.seriesCandidates(seriesId,
+            fromThisEventForward ? baseDate.toLocalDate().atStartOfDay() : null);
+    while (candidates.hasNext()) {
+      IEvent event = candidates.next();
       if (shouldEditEvent(event, seriesId, baseDate, fromThisEventForward)) {
-        updateEventProperty(event, property, newValue, newSeriesId);
+        seriesEvents.add(event);
+      }
+    }
+
+    // The listeners are told of the events edited as one change, even if an edit fails part
+    // of the way through the series
+    List<IEvent> oldEvents = new ArrayList<>();
+    List<IEvent> newEvents = new ArrayList<>();
+    beginChanges();
+    try {
+      for (IEvent event : seriesEvents) {
+        IEvent updatedEvent = updateEventProperty(event, property, newValue, newSeriesId);
+        if (!hasChangeListeners()) {
+          continue;
+        }
+        if (updatedEvent == null) {
+          recordChange(CalendarChange.eventRemoved(event));
+        } else {
+          oldEvents.add(event);
+          newEvents.add(updatedEvent);
+        }
       }
+    } finally {
+      if (!oldEvents.isEmpty()) {
+        recordChange(CalendarChange.seriesEdited(seriesId, oldEvents, newEvents));
+      }
+      endChanges();
     }
   }
 
@@ -443,8 +1071,9 @@ public class CalendarModel implements ICalendarModel {
    * @param property the property name to update
    * @param newValue the new value as a string
    * @param newSeriesId the new series ID (if changing series membership)
+   * @return the updated event, or null if it equals another event and was not added
    */
-  private void updateEventProperty(IEvent event, String property, String newValue,
+  private IEvent updateEventProperty(IEvent event, String property, String newValue,
                                    Integer newSeriesId) {
     // Parse and validate the new value based on property type
     Object parsedValue = parsePropertyValue(property, newValue, event);
@@ -453,8 +1082,8 @@ public class CalendarModel implements ICalendarModel {
     IEvent updatedEvent = copyEventWithChange(event, property, parsedValue, newSeriesId);
 
     // Replace the old event with the updated one
-    events.remove(event);
-    events.add(updatedEvent);
+    removeEvent(event);
+    return insertEvent(updatedEvent) ? updatedEvent : null;
   }
 
   /**
@@ -579,7 +1208,9 @@ public class CalendarModel implements ICalendarModel {
    */
   private List<IEvent> getEventsInInterval(LocalDateTime startTime, LocalDateTime endTime) {
     List<IEvent> eventsInInterval = new ArrayList<>();
-    for (IEvent event : events) {
+    Iterator<IEvent> candidates = events.candidates(startTime, endTime);
+    while (candidates.hasNext()) {
+      IEvent event = candidates.next();
       if (eventsOverlap(event, startTime, endTime)) {
         eventsInInterval.add(event);
       }
@@ -622,11 +1253,11 @@ public class CalendarModel implements ICalendarModel {
    * @throws IllegalArgumentException if the format is invalid
    */
   private LocalDateTime parseDateTime(String dateTimeStr) {
-    try {
-      return LocalDateTime.parse(dateTimeStr);
-    } catch (DateTimeParseException e) {
+    LocalDateTime parsed = IsoDateTimeParser.parseDateTime(dateTimeStr);
+    if (parsed == null) {
       throw new IllegalArgumentException("Invalid date-time format: " + dateTimeStr);
     }
+    return parsed;
   }
 
   /**
@@ -658,4 +1289,27 @@ public class CalendarModel implements ICalendarModel {
               "Invalid status: " + statusStr + ". Valid values are: PUBLIC, PRIVATE");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * The events applyChanges has touched, as they were before it began and as they are now.
+   * Both maps are keyed by the event's subject and times, which is what makes events equal, so
+   * an edited event and the one it replaced share a key. A key with no event under it is
+   * recorded as ABSENT.
+   */
+  private static final class EventSnapshot {
+    private static final IEvent ABSENT = Event.getBuilder().subject("")
+            .startDateTime(LocalDateTime.MIN).build();
+
+    // Copied the first time a key is touched, and never changed after
+    private final Map<IEvent, IEvent> before = new HashMap<>();
+    private final Map<IEvent, IEvent> after = new HashMap<>();
+
+    /**
+     * Records that the event under a key went from one event, or ABSENT, to another.
+     */
+    void changed(IEvent key, IEvent from, IEvent to) {
+      before.putIfAbsent(key, from);
+      after.put(key, to);
+    }
+  }
+}
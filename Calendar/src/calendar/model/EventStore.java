@@ -0,0 +1,107 @@
+package calendar.model;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Holds the events of a calendar.
+ * A store decides where events live: all in memory, or on disk with only some of them loaded
+ * at a time. The calendar asks the store for the candidates of each time query, so a store
+ * that keeps events on disk only has to load the events that could overlap the query. Such a
+ * store can also say what the calendar needs to know when it opens, and which events an edit
+ * of a series may touch, without reading the rest.
+ * Events are compared with {@code equals}, as in a set. A store is not thread-safe, and it
+ * must not be changed while one of its iterators is in use.
+ */
+public interface EventStore extends Iterable<IEvent> {
+  /**
+   * Adds an event to this store.
+   *
+   * @param event the event to add
+   * @return true if the event was added, false if an equal event is already stored
+   */
+  boolean add(IEvent event);
+
+  /**
+   * Removes an event from this store.
+   *
+   * @param event the event to remove
+   * @return true if the event was removed, false if it was not stored
+   */
+  boolean remove(IEvent event);
+
+  /**
+   * Checks whether an equal event is stored.
+   *
+   * @param event the event to look for
+   * @return true if an equal event is stored
+   */
+  boolean contains(IEvent event);
+
+  /**
+   * Removes every event from this store.
+   */
+  void clear();
+
+  /**
+   * Gets the number of events in this store.
+   *
+   * @return the number of events
+   */
+  int size();
+
+  /**
+   * Iterates over every event in this store, in no particular order.
+   *
+   * @return an iterator over all events
+   */
+  @Override
+  Iterator<IEvent> iterator();
+
+  /**
+   * Iterates over the events that might overlap a time interval, in no particular order.
+   * Every event overlapping the interval is included, but other events may be included too,
+   * so callers must still check each event against the interval.
+   *
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime   the end of the interval (inclusive)
+   * @return an iterator over the candidate events
+   */
+  Iterator<IEvent> candidates(LocalDateTime startDateTime, LocalDateTime endDateTime);
+
+  /**
+   * Iterates over the events that might belong to a series and start on or after a date, in
+   * no particular order. Every such event is included, but other events may be included too,
+   * so callers must still check each event's series and start.
+   *
+   * @param seriesId the series whose events are wanted
+   * @param from     the earliest start of the events wanted, or null for the whole series
+   * @return an iterator over the candidate events
+   */
+  Iterator<IEvent> seriesCandidates(Integer seriesId, LocalDateTime from);
+
+  /**
+   * Counts the events using each subject, if this store knows without reading its events.
+   *
+   * @return the number of events with each subject, or null if the events must be read
+   */
+  Map<String, Integer> countSubjects();
+
+  /**
+   * Gets the highest series ID of the stored events, if this store knows without reading its
+   * events. After events are removed, it may be higher than that of any stored event.
+   *
+   * @return the highest series ID, 0 if no event belongs to a series, or null if the events
+   *         must be read
+   */
+  Integer getMaxSeriesId();
+
+  /**
+   * Checks whether this store keeps every event in memory for its whole life. Only then may
+   * a calendar keep references to the events in its own indexes.
+   *
+   * @return true if every event stays in memory
+   */
+  boolean isResident();
+}
@@ -0,0 +1,173 @@
+package calendar.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Package-private inverted index over the words in event subjects and descriptions.
+ * Each lower-cased word maps to the set of events (its posting list) that contain it, so a
+ * multi-word search only has to intersect a few posting lists instead of scanning every event.
+ * The index is maintained incrementally as events are added to and removed from a calendar.
+ */
+class EventTextIndex {
+  private final Map<String, Set<IEvent>> postings;
+
+  /**
+   * Constructs an empty text index.
+   */
+  EventTextIndex() {
+    this.postings = new HashMap<String, Set<IEvent>>();
+  }
+
+  /**
+   * Adds the words of the given event to the index.
+   *
+   * @param event the event to index
+   */
+  void add(IEvent event) {
+    for (String token : eventTokens(event)) {
+      postings.computeIfAbsent(token, k -> new HashSet<IEvent>()).add(event);
+    }
+  }
+
+  /**
+   * Adds the words of many events to the index in one pass.
+   * Events with the same subject and description, such as the occurrences of a series, share
+   * one split of their text into words and one lookup of each posting list.
+   *
+   * @param events the events to index
+   */
+  void addAll(Collection<IEvent> events) {
+    Map<String, Map<String, List<Set<IEvent>>>> texts =
+            new HashMap<String, Map<String, List<Set<IEvent>>>>();
+    for (IEvent event : events) {
+      List<Set<IEvent>> lists = texts
+              .computeIfAbsent(event.getSubject(), k -> new HashMap<String, List<Set<IEvent>>>())
+              .computeIfAbsent(event.getDescription(), k -> postingLists(event));
+      for (Set<IEvent> posting : lists) {
+        posting.add(event);
+      }
+    }
+  }
+
+  /**
+   * Gets the posting lists of every word of an event, making any that are missing.
+   */
+  private List<Set<IEvent>> postingLists(IEvent event) {
+    List<Set<IEvent>> lists = new ArrayList<Set<IEvent>>();
+    for (String token : eventTokens(event)) {
+      lists.add(postings.computeIfAbsent(token, k -> new HashSet<IEvent>()));
+    }
+    return lists;
+  }
+
+  /**
+   * Removes the words of the given event from the index.
+   *
+   * @param event the event to remove
+   */
+  void remove(IEvent event) {
+    for (String token : eventTokens(event)) {
+      Set<IEvent> posting = postings.get(token);
+      if (posting != null) {
+        posting.remove(event);
+        if (posting.isEmpty()) {
+          postings.remove(token);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes every event from the index.
+   */
+  void clear() {
+    postings.clear();
+  }
+
+  /**
+   * Finds all events that contain every word of the given search terms.
+   * The smallest posting list is walked and each candidate is checked against the others.
+   *
+   * @param terms the search terms
+   * @return the matching events, in no particular order
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  List<IEvent> search(String terms) {
+    Set<String> tokens = tokenize(terms);
+    if (tokens.isEmpty()) {
+      throw new IllegalArgumentException("Search terms cannot be empty");
+    }
+
+    List<Set<IEvent>> lists = new ArrayList<Set<IEvent>>();
+    for (String token : tokens) {
+      Set<IEvent> posting = postings.get(token);
+      if (posting == null) {
+        return new ArrayList<IEvent>();
+      }
+      lists.add(posting);
+    }
+    lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+    List<IEvent> matches = new ArrayList<IEvent>();
+    Set<IEvent> smallest = lists.get(0);
+    for (IEvent event : smallest) {
+      if (inAllLists(event, lists)) {
+        matches.add(event);
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Checks if an event is contained in every posting list after the first.
+   */
+  private boolean inAllLists(IEvent event, List<Set<IEvent>> lists) {
+    for (int i = 1; i < lists.size(); i++) {
+      if (!lists.get(i).contains(event)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collects the distinct words of an event's subject and description.
+   */
+  private Set<String> eventTokens(IEvent event) {
+    Set<String> tokens = tokenize(event.getSubject());
+    tokens.addAll(tokenize(event.getDescription()));
+    return tokens;
+  }
+
+  /**
+   * Splits text into distinct lower-cased words made of letters and digits.
+   * "Team Meeting: Q3-review" -> [team, meeting, q3, review]
+   *
+   * @param text the text to split (may be null)
+   * @return the set of words in the text
+   */
+  static Set<String> tokenize(String text) {
+    if (text == null) {
+      return new HashSet<String>();
+    }
+
+    Set<String> tokens = new HashSet<String>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        tokens.add(text.substring(start, i).toLowerCase());
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,23 @@
+package calendar.model;
+
+import java.util.List;
+
+/**
+ * Listens for changes to a calendar, so a cache, index, view or store that follows the
+ * calendar can update only what changed rather than query it again.
+ * Each call carries every change of one operation on the calendar: a recurring event arrives
+ * as all of its occurrences at once, and a group of changes made with applyChanges arrives
+ * once the whole group has been applied. A group that fails is put back the way it was and is
+ * never told. Listeners are called on the thread that changed the calendar, after the change,
+ * so they should be quick and must not change the calendar themselves.
+ */
+public interface ICalendarListener {
+
+  /**
+   * Called after an operation has changed a calendar.
+   *
+   * @param calendar the calendar that changed
+   * @param changes  the changes, in the order they were made
+   */
+  void calendarChanged(ICalendarModel calendar, List<CalendarChange> changes);
+}
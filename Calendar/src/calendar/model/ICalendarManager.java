@@ -17,6 +17,15 @@ public interface ICalendarManager {
    */
   ISmartCalendarModel getCurrentCalendar();
 
+  /**
+   * Gets the calendar with the specified name.
+   *
+   * @param calendarName the name of the calendar
+   * @return the calendar with the given name
+   * @throws IllegalArgumentException if no calendar with the given name exists
+   */
+  ISmartCalendarModel getCalendar(String calendarName);
+
   /**
    * Creates a new calendar with the specified name and timezone.
    * 
@@ -92,4 +101,14 @@ public interface ICalendarManager {
    * @return a list of calendar names
    */
   java.util.List<String> getCalendarNames();
+
+  /**
+   * Saves every change made since the last save to the directory the calendars are kept in.
+   * Only the parts of the calendars that changed are written.
+   *
+   * @return the number of files written or deleted
+   * @throws IllegalArgumentException if the calendars are not kept in a directory, or the
+   *                                  changes cannot be written
+   */
+  int save();
 }
@@ -3,7 +3,9 @@ package calendar.model;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Represents the calendar model interface that defines the core operations
@@ -134,6 +136,17 @@ public interface ICalendarModel {
    */
   List<IEvent> printEvents(LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+  /**
+   * Iterates over the events that occur within a time interval without collecting them into
+   * a list first. Events come in no particular order, and the calendar must not be changed
+   * while the iterator is in use.
+   *
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime   the end of the interval (inclusive)
+   * @return an iterator over the events that overlap with the given interval
+   */
+  Iterator<IEvent> eventIterator(LocalDateTime startDateTime, LocalDateTime endDateTime);
+
   /**
    * Gets a limited number of events that occur on or after a specific date/time.
    *
@@ -151,4 +164,62 @@ public interface ICalendarModel {
    * @return true if there is an event at the given time, false otherwise
    */
   boolean showStatus(LocalDateTime dateTime);
+
+  /**
+   * Gets all events whose subject or description contains every word of the search terms.
+   *
+   * @param terms the words to search for (case-insensitive)
+   * @return a list of matching events, sorted by start time
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  List<IEvent> searchEvents(String terms);
+
+  /**
+   * Gets all events within a time interval whose subject or description contains every word
+   * of the search terms.
+   *
+   * @param terms         the words to search for (case-insensitive)
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime   the end of the interval (inclusive)
+   * @return a list of matching events that overlap with the interval, sorted by start time
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  List<IEvent> searchEvents(String terms, LocalDateTime startDateTime, LocalDateTime endDateTime);
+
+  /**
+   * Gets the distinct event subjects that start with the given prefix, for autocompletion.
+   *
+   * @param prefix the prefix to complete (case-insensitive)
+   * @param limit  the maximum number of subjects to return
+   * @return up to limit distinct subjects starting with the prefix, in alphabetical order
+   * @throws IllegalArgumentException if the prefix is null or the limit is negative
+   */
+  List<String> suggestSubjects(String prefix, int limit);
+
+  /**
+   * Makes a group of changes to this calendar as one unit. The changes are made to the
+   * calendar passed to the consumer, and each change sees the ones before it. If any change
+   * fails, this calendar is put back the way it was before the first one and the failure is
+   * thrown. Changes the group makes to other calendars are not undone.
+   *
+   * @param changes makes the changes to the calendar it is given
+   * @throws IllegalArgumentException if changes is null, or a change is invalid
+   */
+  void applyChanges(Consumer<? super ICalendarModel> changes);
+
+  /**
+   * Adds a listener to be told of every later change to this calendar.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addChangeListener(ICalendarListener listener);
+
+  /**
+   * Removes a listener so it is no longer told of changes. Nothing happens if it was not
+   * listening.
+   *
+   * @param listener the listener
+   */
+  void removeChangeListener(ICalendarListener listener);
 }
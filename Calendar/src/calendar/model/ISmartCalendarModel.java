@@ -2,6 +2,7 @@ package calendar.model;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.List;
 
 /**
  * Interface for a smart calendar model that extends basic calendar functionality
@@ -107,6 +108,23 @@ public interface ISmartCalendarModel extends ICalendarModel {
    */
   void addEvent(IEvent event);
 
+  /**
+   * Adds many pre-built events to this calendar in one step.
+   * Behaves like calling {@link #addEvent} for each event, but lets implementations handle
+   * the whole batch at once, such as recording it as a single journal entry.
+   *
+   * @param events the events to add to the calendar
+   */
+  void addEvents(List<IEvent> events);
+
+  /**
+   * Gets every event in this calendar, in no particular order.
+   * The returned list is a copy, so it can be kept and read while the calendar changes.
+   *
+   * @return all events in this calendar
+   */
+  List<IEvent> getAllEvents();
+
   /**
    * Generates a unique series ID that doesn't conflict with existing series in this calendar.
    * 
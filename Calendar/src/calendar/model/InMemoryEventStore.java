@@ -0,0 +1,78 @@
+package calendar.model;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Package-private store that keeps every event in a hash set in memory.
+ * This is the store calendars use unless they are given another one. It has no way to narrow
+ * down a time query, so every event is a candidate.
+ */
+class InMemoryEventStore implements EventStore {
+  private final Set<IEvent> events;
+
+  /**
+   * Constructs an empty in-memory store.
+   */
+  InMemoryEventStore() {
+    this.events = new HashSet<IEvent>();
+  }
+
+  @Override
+  public boolean add(IEvent event) {
+    return events.add(event);
+  }
+
+  @Override
+  public boolean remove(IEvent event) {
+    return events.remove(event);
+  }
+
+  @Override
+  public boolean contains(IEvent event) {
+    return events.contains(event);
+  }
+
+  @Override
+  public void clear() {
+    events.clear();
+  }
+
+  @Override
+  public int size() {
+    return events.size();
+  }
+
+  @Override
+  public Iterator<IEvent> iterator() {
+    return events.iterator();
+  }
+
+  @Override
+  public Iterator<IEvent> candidates(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    return events.iterator();
+  }
+
+  @Override
+  public Iterator<IEvent> seriesCandidates(Integer seriesId, LocalDateTime from) {
+    return events.iterator();
+  }
+
+  @Override
+  public Map<String, Integer> countSubjects() {
+    return null;
+  }
+
+  @Override
+  public Integer getMaxSeriesId() {
+    return null;
+  }
+
+  @Override
+  public boolean isResident() {
+    return true;
+  }
+}
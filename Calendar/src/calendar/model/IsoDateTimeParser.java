@@ -0,0 +1,145 @@
+package calendar.model;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Parses ISO dates and date-times, checking the shapes commands use almost always,
+ * YYYY-MM-DDThh:mm and YYYY-MM-DD, digit by digit.
+ * Text in either shape is read with plain arithmetic, with no exceptions and no objects
+ * besides the result. Anything else, such as times with seconds or out-of-range fields, is
+ * handed to {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} or
+ * {@link DateTimeFormatter#ISO_LOCAL_DATE}, so exactly the same text is accepted as before.
+ */
+public final class IsoDateTimeParser {
+  private static final int DATE_LENGTH = 10;
+  private static final int DATE_TIME_LENGTH = 16;
+
+  private IsoDateTimeParser() {
+  }
+
+  /**
+   * Parses a date-time such as 2025-05-05T14:30.
+   *
+   * @param text the text to parse
+   * @return the date-time, or null if the text is not an ISO local date-time
+   */
+  public static LocalDateTime parseDateTime(CharSequence text) {
+    return parseDateTime(text, 0, text.length());
+  }
+
+  /**
+   * Parses a date-time that fills part of some text.
+   *
+   * @param text  the text holding the date-time
+   * @param start where the date-time starts
+   * @param end   where the date-time ends
+   * @return the date-time, or null if that part of the text is not an ISO local date-time
+   */
+  public static LocalDateTime parseDateTime(CharSequence text, int start, int end) {
+    if ((end - start == DATE_TIME_LENGTH) && isDate(text, start)
+            && (text.charAt(start + 13) == ':')
+            && ((text.charAt(start + 10) == 'T') || (text.charAt(start + 10) == 't'))) {
+      int year = digits(text, start, 4);
+      int month = digits(text, start + 5, 2);
+      int day = digits(text, start + 8, 2);
+      int hour = digits(text, start + 11, 2);
+      int minute = digits(text, start + 14, 2);
+      if ((year >= 0) && isValidDate(year, month, day) && (hour >= 0) && (hour < 24)
+              && (minute >= 0) && (minute < 60)) {
+        return LocalDateTime.of(year, month, day, hour, minute);
+      }
+    }
+    TemporalAccessor parsed = parse(text, start, end, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    return (parsed == null) ? null : LocalDateTime.from(parsed);
+  }
+
+  /**
+   * Parses a date such as 2025-05-05.
+   *
+   * @param text the text to parse
+   * @return the date, or null if the text is not an ISO local date
+   */
+  public static LocalDate parseDate(CharSequence text) {
+    return parseDate(text, 0, text.length());
+  }
+
+  /**
+   * Parses a date that fills part of some text.
+   *
+   * @param text  the text holding the date
+   * @param start where the date starts
+   * @param end   where the date ends
+   * @return the date, or null if that part of the text is not an ISO local date
+   */
+  public static LocalDate parseDate(CharSequence text, int start, int end) {
+    if ((end - start == DATE_LENGTH) && isDate(text, start)) {
+      int year = digits(text, start, 4);
+      int month = digits(text, start + 5, 2);
+      int day = digits(text, start + 8, 2);
+      if ((year >= 0) && isValidDate(year, month, day)) {
+        return LocalDate.of(year, month, day);
+      }
+    }
+    TemporalAccessor parsed = parse(text, start, end, DateTimeFormatter.ISO_LOCAL_DATE);
+    return (parsed == null) ? null : LocalDate.from(parsed);
+  }
+
+  /**
+   * Checks for the dashes of a YYYY-MM-DD date. The digits are checked as they are read.
+   */
+  private static boolean isDate(CharSequence text, int start) {
+    return (text.charAt(start + 4) == '-') && (text.charAt(start + 7) == '-');
+  }
+
+  /**
+   * Reads a number of decimal digits.
+   *
+   * @return the value of the digits, or -1 if any of them is not a digit
+   */
+  private static int digits(CharSequence text, int start, int count) {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      int digit = text.charAt(i) - '0';
+      if ((digit < 0) || (digit > 9)) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /**
+   * Checks that a month and day make a real date in a year, as the strict ISO formatters do.
+   */
+  private static boolean isValidDate(int year, int month, int day) {
+    if ((month < 1) || (month > 12) || (day < 1)) {
+      return false;
+    }
+    if (month == 2) {
+      boolean leap = ((year % 4) == 0) && (((year % 100) != 0) || ((year % 400) == 0));
+      return day <= (leap ? 29 : 28);
+    }
+    return day <= (((month == 4) || (month == 6) || (month == 9) || (month == 11)) ? 30 : 31);
+  }
+
+  /**
+   * Parses with a formatter, requiring the whole range of the text to be used.
+   *
+   * @return the parsed fields, or null if the range is not in the formatter's format
+   */
+  private static TemporalAccessor parse(CharSequence text, int start, int end,
+                                        DateTimeFormatter formatter) {
+    ParsePosition position = new ParsePosition(start);
+    try {
+      TemporalAccessor parsed = formatter.parse(text, position);
+      return (position.getIndex() == end) ? parsed : null;
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,801 @@
+package calendar.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A read-only calendar answering queries straight from a memory-mapped calendar file.
+ * Opening a calendar only maps the file and checks its header, so it takes the same time for
+ * any number of events; the operating system pages in the parts of the file a query touches.
+ * The file is columnar. Events are sorted by start, and each property is stored as its own
+ * array indexed by event position:
+ * <ul>
+ *   <li>start and end times, as epoch seconds (of the local date-time read as UTC) plus
+ *       nanoseconds</li>
+ *   <li>the running maximum of the end times, which forms the interval index: since it never
+ *       decreases, the first event that can still overlap a time is found by binary search</li>
+ *   <li>series ids, subject and description string indexes, and location/status flags</li>
+ *   <li>a string table of UTF-8 strings, each stored once</li>
+ * </ul>
+ * Files are written with {@link #write}, which the export command does for a .cal file, and
+ * the application opens them at startup with --mapped. Any method that would change the
+ * calendar throws an {@link IllegalArgumentException}, as an invalid change would.
+ */
+public class MappedCalendarModel implements ISmartCalendarModel {
+  private static final int MAGIC = 0x43414C4D; // "CALM"
+  private static final short VERSION = 1;
+  private static final int HEADER_SIZE = 112;
+  private static final int NO_VALUE = -1;
+
+  // Header fields
+  private static final int EVENT_COUNT = 8;
+  private static final int STRING_COUNT = 12;
+  private static final int NAME_INDEX = 16;
+  private static final int TIMEZONE_INDEX = 20;
+  private static final int STARTS = 24;
+  private static final int START_NANOS = 32;
+  private static final int ENDS = 40;
+  private static final int END_NANOS = 48;
+  private static final int MAX_ENDS = 56;
+  private static final int SERIES = 64;
+  private static final int SUBJECTS = 72;
+  private static final int DESCRIPTIONS = 80;
+  private static final int ATTRIBUTES = 88;
+  private static final int STRING_OFFSETS = 96;
+  private static final int STRING_DATA = 104;
+
+  // Attribute bits: location and status are stored as ordinal + 1, with 0 for none
+  private static final int LOCATION_MASK = 0x3;
+  private static final int STATUS_SHIFT = 2;
+  private static final int STATUS_MASK = 0x3;
+  private static final int NO_END = 0x10;
+
+  private final ByteBuffer buffer;
+  private final int eventCount;
+  private final String calendarName;
+  private final ZoneId timezone;
+  private final int starts;
+  private final int startNanos;
+  private final int ends;
+  private final int endNanos;
+  private final int maxEnds;
+  private final int series;
+  private final int subjects;
+  private final int descriptions;
+  private final int attributes;
+  private final int stringOffsets;
+  private final int stringData;
+  private SubjectIndex subjectIndex;
+
+  /**
+   * Constructs a calendar over a mapped calendar file.
+   */
+  private MappedCalendarModel(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a calendar file");
+    }
+    if (buffer.getShort(4) != VERSION) {
+      throw new IOException("Unsupported calendar file version " + buffer.getShort(4));
+    }
+    this.eventCount = buffer.getInt(EVENT_COUNT);
+    this.starts = section(STARTS, Long.BYTES);
+    this.startNanos = section(START_NANOS, Integer.BYTES);
+    this.ends = section(ENDS, Long.BYTES);
+    this.endNanos = section(END_NANOS, Integer.BYTES);
+    this.maxEnds = section(MAX_ENDS, Long.BYTES);
+    this.series = section(SERIES, Integer.BYTES);
+    this.subjects = section(SUBJECTS, Integer.BYTES);
+    this.descriptions = section(DESCRIPTIONS, Integer.BYTES);
+    this.attributes = section(ATTRIBUTES, 1);
+    int stringCount = buffer.getInt(STRING_COUNT);
+    this.stringOffsets = sectionOffset(STRING_OFFSETS, (long) (stringCount + 1) * Integer.BYTES);
+    this.stringData = sectionOffset(STRING_DATA,
+            buffer.getInt(stringOffsets + stringCount * Integer.BYTES));
+    this.calendarName = string(buffer.getInt(NAME_INDEX));
+    this.timezone = ZoneId.of(string(buffer.getInt(TIMEZONE_INDEX)));
+    this.subjectIndex = null;
+  }
+
+  /**
+   * Opens a calendar file written by {@link #write}. Only the header is read; the events are
+   * read from the mapping as queries need them.
+   *
+   * @param file the calendar file
+   * @return the read-only calendar
+   * @throws IOException if the file cannot be mapped or is not a calendar file
+   */
+  public static MappedCalendarModel open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Calendar file is too large to map");
+      }
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try {
+        return new MappedCalendarModel(mapped);
+      } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+        throw new IOException("Calendar file " + file.getFileName() + " is damaged", e);
+      }
+    }
+  }
+
+  /**
+   * Writes a calendar to a file that can be opened with {@link #open}. The file is written
+   * through a temporary file, so an existing file is only replaced once the new one is
+   * complete.
+   *
+   * @param calendar the calendar to write
+   * @param file     the file to write
+   * @return the number of events written
+   * @throws IOException if the file cannot be written, or the calendar is too large for a
+   *                     single mapping (2 GB)
+   */
+  public static int write(ISmartCalendarModel calendar, Path file) throws IOException {
+    List<IEvent> events = calendar.getAllEvents();
+    events.sort(Comparator.comparing(IEvent::getStartDateTime)
+            .thenComparing(MappedCalendarModel::effectiveEnd)
+            .thenComparing(IEvent::getSubject));
+
+    Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+    addString(strings, calendar.getCalendarName());
+    addString(strings, calendar.getTimezone().getId());
+    for (IEvent event : events) {
+      addString(strings, event.getSubject());
+      addString(strings, event.getDescription());
+    }
+    List<byte[]> encoded = new ArrayList<byte[]>(strings.size());
+    long stringBytes = 0;
+    for (String value : strings.keySet()) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      encoded.add(bytes);
+      stringBytes += bytes.length;
+    }
+
+    // Lay out the sections, each aligned to 8 bytes
+    long n = events.size();
+    long[] offsets = new long[11];
+    long[] sizes = {n * Long.BYTES, n * Integer.BYTES, n * Long.BYTES, n * Integer.BYTES,
+        n * Long.BYTES, n * Integer.BYTES, n * Integer.BYTES, n * Integer.BYTES, n,
+        (strings.size() + 1L) * Integer.BYTES, stringBytes};
+    long position = HEADER_SIZE;
+    for (int i = 0; i < sizes.length; i++) {
+      offsets[i] = position;
+      position = align(position + sizes[i]);
+    }
+    if (position > Integer.MAX_VALUE) {
+      throw new IOException("Calendar is too large for a single calendar file");
+    }
+
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, position);
+      writeHeader(out, events.size(), strings, calendar, offsets);
+      writeColumns(out, events, strings, offsets);
+      writeStrings(out, encoded, (int) offsets[9], (int) offsets[10]);
+      out.force();
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    return events.size();
+  }
+
+  /**
+   * Gets the number of events in this calendar.
+   *
+   * @return the event count
+   */
+  public int size() {
+    return eventCount;
+  }
+
+  @Override
+  public List<IEvent> printEvents(LocalDateTime date) {
+    return printEvents(date.toLocalDate().atStartOfDay(), date.toLocalDate().atTime(
+            LocalTime.MAX));
+  }
+
+  /**
+   * Gets all events that overlap a time interval, sorted by start time. Only the events
+   * starting between the first event that can still be running at the interval start (found
+   * through the interval index) and the interval end are visited.
+   *
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime   the end of the interval (inclusive)
+   * @return the overlapping events, sorted by start time
+   */
+  @Override
+  public List<IEvent> printEvents(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    List<IEvent> result = new ArrayList<IEvent>();
+    int last = firstStartAfter(endDateTime);
+    for (int i = firstPossiblyRunningAt(startDateTime); i < last; i++) {
+      if (compareEnd(i, startDateTime) >= 0) {
+        result.add(event(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Iterates over the events within a time interval, decoding each one only when it is
+   * reached. Unlike the in-memory calendar, the events come in start order.
+   */
+  @Override
+  public Iterator<IEvent> eventIterator(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    int first = firstPossiblyRunningAt(startDateTime);
+    int last = firstStartAfter(endDateTime);
+    return new Iterator<IEvent>() {
+      private int next = advance(first);
+
+      @Override
+      public boolean hasNext() {
+        return next < last;
+      }
+
+      @Override
+      public IEvent next() {
+        if (next >= last) {
+          throw new NoSuchElementException();
+        }
+        IEvent event = event(next);
+        next = advance(next + 1);
+        return event;
+      }
+
+      // Skips events that ended before the interval
+      private int advance(int i) {
+        while (i < last && compareEnd(i, startDateTime) < 0) {
+          i++;
+        }
+        return i;
+      }
+    };
+  }
+
+  @Override
+  public List<IEvent> getUpcomingEvents(LocalDateTime startDateTime, int maxEvents) {
+    List<IEvent> result = new ArrayList<IEvent>();
+    for (int i = firstStartAtOrAfter(startDateTime); i < eventCount && result.size() < maxEvents;
+         i++) {
+      result.add(event(i));
+    }
+    return result;
+  }
+
+  @Override
+  public boolean showStatus(LocalDateTime dateTime) {
+    int last = firstStartAfter(dateTime);
+    for (int i = firstPossiblyRunningAt(dateTime); i < last; i++) {
+      if (compareEnd(i, dateTime) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets all events whose subject or description contains every word of the search terms.
+   * A mapped calendar has no text index, so every event's text is scanned.
+   *
+   * @param terms the words to search for (case-insensitive)
+   * @return the matching events, sorted by start time
+   * @throws IllegalArgumentException if the terms contain no searchable words
+   */
+  @Override
+  public List<IEvent> searchEvents(String terms) {
+    return searchRange(terms, 0, eventCount, null);
+  }
+
+  @Override
+  public List<IEvent> searchEvents(String terms, LocalDateTime startDateTime,
+                                   LocalDateTime endDateTime) {
+    return searchRange(terms, firstPossiblyRunningAt(startDateTime),
+            firstStartAfter(endDateTime), startDateTime);
+  }
+
+  /**
+   * Gets the distinct subjects starting with a prefix. The subject index is built from the
+   * subject column the first time it is needed.
+   */
+  @Override
+  public List<String> suggestSubjects(String prefix, int limit) {
+    if (prefix == null || limit < 0) {
+      throw new IllegalArgumentException("Prefix cannot be null and limit cannot be negative");
+    }
+    if (subjectIndex == null) {
+      SubjectIndex index = new SubjectIndex();
+      for (int i = 0; i < eventCount; i++) {
+        index.add(string(buffer.getInt(subjects + i * Integer.BYTES)));
+      }
+      subjectIndex = index;
+    }
+    return subjectIndex.suggest(prefix, limit);
+  }
+
+  @Override
+  public String getCalendarName() {
+    return calendarName;
+  }
+
+  @Override
+  public ZoneId getTimezone() {
+    return timezone;
+  }
+
+  @Override
+  public IEvent findEventBySubjectAndTime(String subject, LocalDateTime startDateTime) {
+    for (int i = firstStartAtOrAfter(startDateTime);
+         i < eventCount && compareStart(i, startDateTime) == 0; i++) {
+      if (string(buffer.getInt(subjects + i * Integer.BYTES)).equals(subject)) {
+        return event(i);
+      }
+    }
+    throw new IllegalArgumentException("Event not found with subject '" + subject +
+            "' and start time '" + startDateTime + "'");
+  }
+
+  @Override
+  public IEvent createCopiedEvent(String eventName, LocalDateTime sourceDateTime,
+                                  LocalDateTime targetDateTime) {
+    IEvent sourceEvent = findEventBySubjectAndTime(eventName, sourceDateTime);
+    Duration eventDuration = Duration.between(sourceEvent.getStartDateTime(),
+            effectiveEnd(sourceEvent));
+    return Event.getBuilder()
+            .subject(sourceEvent.getSubject())
+            .description(sourceEvent.getDescription())
+            .location(sourceEvent.getLocation())
+            .status(sourceEvent.getStatus())
+            .startDateTime(targetDateTime)
+            .endDateTime(targetDateTime.plus(eventDuration))
+            .build();
+  }
+
+  /**
+   * Copies the events on a date to another calendar. The events of that date are loaded into
+   * a temporary in-memory calendar, which performs the copy exactly as a regular calendar.
+   */
+  @Override
+  public void copyAllEventsToCalendar(LocalDateTime sourceDate,
+                                      ISmartCalendarModel targetCalendar,
+                                      LocalDateTime targetDate) {
+    inMemoryCopy(printEvents(sourceDate)).copyAllEventsToCalendar(sourceDate, targetCalendar,
+            targetDate);
+  }
+
+  /**
+   * Copies the events in a range to another calendar. The events of the range are loaded into
+   * a temporary in-memory calendar, which performs the copy exactly as a regular calendar.
+   */
+  @Override
+  public void copyEventsInRangeToCalendar(LocalDateTime startDate, LocalDateTime endDate,
+                                          ISmartCalendarModel targetCalendar,
+                                          LocalDateTime targetStartDate) {
+    inMemoryCopy(printEvents(startDate, endDate)).copyEventsInRangeToCalendar(startDate,
+            endDate, targetCalendar, targetStartDate);
+  }
+
+  @Override
+  public List<IEvent> getAllEvents() {
+    List<IEvent> result = new ArrayList<IEvent>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      result.add(event(i));
+    }
+    return result;
+  }
+
+  @Override
+  public void createSingleTimedEvent(String subject, LocalDateTime startDateTime,
+                                     LocalDateTime endDateTime) {
+    throw readOnly();
+  }
+
+  @Override
+  public void createSingleAllDayEvent(String subject, LocalDateTime date) {
+    throw readOnly();
+  }
+
+  @Override
+  public void createRecurringTimedEvent(String subject, LocalDateTime startDateTime,
+                                        LocalDateTime endDateTime,
+                                        ArrayList<DayOfWeek> weekdays, int count) {
+    throw readOnly();
+  }
+
+  @Override
+  public void createRecurringTimedEventUntil(String subject, LocalDateTime startDateTime,
+                                             LocalDateTime endDateTime,
+                                             ArrayList<DayOfWeek> weekdays,
+                                             LocalDateTime untilDate) {
+    throw readOnly();
+  }
+
+  @Override
+  public void createRecurringAllDayEvent(String subject, LocalDateTime startDate,
+                                         ArrayList<DayOfWeek> weekdays, int count) {
+    throw readOnly();
+  }
+
+  @Override
+  public void createRecurringAllDayEventUntil(String subject, LocalDateTime startDate,
+                                              ArrayList<DayOfWeek> weekdays,
+                                              LocalDateTime untilDate) {
+    throw readOnly();
+  }
+
+  @Override
+  public void editEvent(String subject, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                        String property, String newValue) {
+    throw readOnly();
+  }
+
+  @Override
+  public void editEvents(String subject, LocalDateTime startDateTime, String property,
+                         String newValue) {
+    throw readOnly();
+  }
+
+  @Override
+  public void editSeries(String subject, LocalDateTime startDateTime, String property,
+                         String newValue) {
+    throw readOnly();
+  }
+
+  @Override
+  public void setCalendarName(String calendarName) {
+    throw readOnly();
+  }
+
+  @Override
+  public void setTimezone(ZoneId timezone) {
+    throw readOnly();
+  }
+
+  @Override
+  public void convertAllEventsToNewTimezone(ZoneId oldTimezone, ZoneId newTimezone) {
+    throw readOnly();
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    throw readOnly();
+  }
+
+  @Override
+  public void addEvents(List<IEvent> events) {
+    throw readOnly();
+  }
+
+  @Override
+  public Integer generateUniqueSeriesId() {
+    throw readOnly();
+  }
+
+  /**
+   * Runs a group of queries. Since this calendar cannot change, a group that tries to change
+   * it fails at its first change with nothing to undo.
+   */
+  @Override
+  public void applyChanges(Consumer<? super ICalendarModel> changes) {
+    if (changes == null) {
+      throw new IllegalArgumentException("Changes cannot be null");
+    }
+    changes.accept(this);
+  }
+
+  /**
+   * Accepts a listener, which is never told of anything since this calendar cannot change.
+   */
+  @Override
+  public void addChangeListener(ICalendarListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+  }
+
+  @Override
+  public void removeChangeListener(ICalendarListener listener) {
+    // Nothing listens, since this calendar never changes
+  }
+
+  /**
+   * Creates the exception thrown by every method that would change this calendar.
+   */
+  private IllegalArgumentException readOnly() {
+    return new IllegalArgumentException("Calendar " + calendarName + " is read-only");
+  }
+
+  /**
+   * Scans a range of event positions for events containing every search word.
+   *
+   * @param from     the first position to scan
+   * @param to       the position after the last one to scan
+   * @param runningAt if not null, only events ending at or after this time match
+   */
+  private List<IEvent> searchRange(String terms, int from, int to, LocalDateTime runningAt) {
+    Set<String> words = EventTextIndex.tokenize(terms);
+    if (words.isEmpty()) {
+      throw new IllegalArgumentException("Search terms cannot be empty");
+    }
+    List<IEvent> result = new ArrayList<IEvent>();
+    for (int i = from; i < to; i++) {
+      if (runningAt != null && compareEnd(i, runningAt) < 0) {
+        continue;
+      }
+      Set<String> eventWords = EventTextIndex.tokenize(
+              string(buffer.getInt(subjects + i * Integer.BYTES)));
+      eventWords.addAll(EventTextIndex.tokenize(
+              string(buffer.getInt(descriptions + i * Integer.BYTES))));
+      if (eventWords.containsAll(words)) {
+        result.add(event(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Builds a temporary in-memory calendar holding the given events.
+   */
+  private SmartCalendarModel inMemoryCopy(List<IEvent> events) {
+    SmartCalendarModel copy = new SmartCalendarModel(calendarName, timezone);
+    for (IEvent event : events) {
+      copy.addEvent(event);
+    }
+    return copy;
+  }
+
+  /**
+   * Reads the event at a position.
+   */
+  private IEvent event(int i) {
+    int flags = buffer.get(attributes + i);
+    int location = flags & LOCATION_MASK;
+    int status = (flags >> STATUS_SHIFT) & STATUS_MASK;
+    int seriesId = buffer.getInt(series + i * Integer.BYTES);
+    return Event.getBuilder()
+            .subject(string(buffer.getInt(subjects + i * Integer.BYTES)))
+            .description(string(buffer.getInt(descriptions + i * Integer.BYTES)))
+            .location(location == 0 ? null : EventLocation.values()[location - 1])
+            .status(status == 0 ? null : EventStatus.values()[status - 1])
+            .startDateTime(toDateTime(buffer.getLong(starts + i * Long.BYTES),
+                    buffer.getInt(startNanos + i * Integer.BYTES)))
+            .endDateTime((flags & NO_END) != 0 ? null
+                    : toDateTime(buffer.getLong(ends + i * Long.BYTES),
+                    buffer.getInt(endNanos + i * Integer.BYTES)))
+            .seriesId(seriesId == NO_VALUE ? null : seriesId)
+            .build();
+  }
+
+  /**
+   * Reads a string from the string table, or null for the null marker.
+   */
+  private String string(int index) {
+    if (index == NO_VALUE) {
+      return null;
+    }
+    int from = buffer.getInt(stringOffsets + index * Integer.BYTES);
+    int to = buffer.getInt(stringOffsets + (index + 1) * Integer.BYTES);
+    byte[] bytes = new byte[to - from];
+    ByteBuffer dup = buffer.duplicate();
+    dup.position(stringData + from);
+    dup.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Finds the first position whose start is after the given time.
+   */
+  private int firstStartAfter(LocalDateTime time) {
+    int low = 0;
+    int high = eventCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compareStart(mid, time) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the first position whose start is at or after the given time.
+   */
+  private int firstStartAtOrAfter(LocalDateTime time) {
+    int low = 0;
+    int high = eventCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (compareStart(mid, time) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the first position that can be running at the given time, using the running
+   * maximum of the end times: every event before it ends before the time's second.
+   */
+  private int firstPossiblyRunningAt(LocalDateTime time) {
+    long seconds = time.toEpochSecond(ZoneOffset.UTC);
+    int low = 0;
+    int high = eventCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (buffer.getLong(maxEnds + mid * Long.BYTES) < seconds) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Compares the start of the event at a position with a time.
+   */
+  private int compareStart(int i, LocalDateTime time) {
+    return compare(buffer.getLong(starts + i * Long.BYTES),
+            buffer.getInt(startNanos + i * Integer.BYTES), time);
+  }
+
+  /**
+   * Compares the end of the event at a position with a time. An event without an end is
+   * treated as ending when it starts.
+   */
+  private int compareEnd(int i, LocalDateTime time) {
+    return compare(buffer.getLong(ends + i * Long.BYTES),
+            buffer.getInt(endNanos + i * Integer.BYTES), time);
+  }
+
+  /**
+   * Compares a stored time with a date-time.
+   */
+  private static int compare(long seconds, int nanos, LocalDateTime time) {
+    int bySeconds = Long.compare(seconds, time.toEpochSecond(ZoneOffset.UTC));
+    return bySeconds != 0 ? bySeconds : Integer.compare(nanos, time.getNano());
+  }
+
+  /**
+   * Converts a stored time back to a date-time.
+   */
+  private static LocalDateTime toDateTime(long seconds, int nanos) {
+    return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+  }
+
+  /**
+   * Gets the end of an event, or its start if it has no end.
+   */
+  private static LocalDateTime effectiveEnd(IEvent event) {
+    return event.getEndDateTime() != null ? event.getEndDateTime() : event.getStartDateTime();
+  }
+
+  /**
+   * Validates a fixed-width section of one entry per event and returns its offset.
+   */
+  private int section(int headerField, int entrySize) throws IOException {
+    return sectionOffset(headerField, (long) eventCount * entrySize);
+  }
+
+  /**
+   * Validates that a section lies within the file and returns its offset.
+   */
+  private int sectionOffset(int headerField, long size) throws IOException {
+    long offset = buffer.getLong(headerField);
+    if (offset < HEADER_SIZE || size < 0 || offset + size > buffer.limit()) {
+      throw new IOException("Calendar file section at " + headerField + " is out of bounds");
+    }
+    return (int) offset;
+  }
+
+  /**
+   * Writes the header: counts, name and time zone indexes, and section offsets.
+   */
+  private static void writeHeader(ByteBuffer out, int eventCount, Map<String, Integer> strings,
+                                  ISmartCalendarModel calendar, long[] offsets) {
+    out.putInt(0, MAGIC);
+    out.putShort(4, VERSION);
+    out.putInt(EVENT_COUNT, eventCount);
+    out.putInt(STRING_COUNT, strings.size());
+    out.putInt(NAME_INDEX, strings.get(calendar.getCalendarName()));
+    out.putInt(TIMEZONE_INDEX, strings.get(calendar.getTimezone().getId()));
+    for (int i = 0; i < offsets.length; i++) {
+      out.putLong(STARTS + i * Long.BYTES, offsets[i]);
+    }
+  }
+
+  /**
+   * Writes the per-event columns, including the running maximum of the end times.
+   */
+  private static void writeColumns(ByteBuffer out, List<IEvent> events,
+                                   Map<String, Integer> strings, long[] offsets) {
+    long maxEnd = Long.MIN_VALUE;
+    for (int i = 0; i < events.size(); i++) {
+      IEvent event = events.get(i);
+      LocalDateTime start = event.getStartDateTime();
+      LocalDateTime end = effectiveEnd(event);
+      long endSeconds = end.toEpochSecond(ZoneOffset.UTC);
+      maxEnd = Math.max(maxEnd, endSeconds);
+
+      out.putLong((int) offsets[0] + i * Long.BYTES, start.toEpochSecond(ZoneOffset.UTC));
+      out.putInt((int) offsets[1] + i * Integer.BYTES, start.getNano());
+      out.putLong((int) offsets[2] + i * Long.BYTES, endSeconds);
+      out.putInt((int) offsets[3] + i * Integer.BYTES, end.getNano());
+      out.putLong((int) offsets[4] + i * Long.BYTES, maxEnd);
+      out.putInt((int) offsets[5] + i * Integer.BYTES,
+              event.getSeriesId() == null ? NO_VALUE : event.getSeriesId());
+      out.putInt((int) offsets[6] + i * Integer.BYTES, strings.get(event.getSubject()));
+      out.putInt((int) offsets[7] + i * Integer.BYTES,
+              event.getDescription() == null ? NO_VALUE : strings.get(event.getDescription()));
+
+      int flags = 0;
+      if (event.getLocation() != null) {
+        flags |= event.getLocation().ordinal() + 1;
+      }
+      if (event.getStatus() != null) {
+        flags |= (event.getStatus().ordinal() + 1) << STATUS_SHIFT;
+      }
+      if (event.getEndDateTime() == null) {
+        flags |= NO_END;
+      }
+      out.put((int) offsets[8] + i, (byte) flags);
+    }
+  }
+
+  /**
+   * Writes the string table offsets followed by the UTF-8 string data.
+   */
+  private static void writeStrings(ByteBuffer out, List<byte[]> encoded, int offsetsStart,
+                                   int dataStart) {
+    int position = 0;
+    for (int i = 0; i < encoded.size(); i++) {
+      out.putInt(offsetsStart + i * Integer.BYTES, position);
+      out.position(dataStart + position);
+      out.put(encoded.get(i));
+      position += encoded.get(i).length;
+    }
+    out.putInt(offsetsStart + encoded.size() * Integer.BYTES, position);
+  }
+
+  /**
+   * Adds a string to the string table if it is not null and not already present.
+   */
+  private static void addString(Map<String, Integer> strings, String value) {
+    if (value != null) {
+      strings.putIfAbsent(value, strings.size());
+    }
+  }
+
+  /**
+   * Rounds a file position up to the next multiple of 8.
+   */
+  private static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+}
@@ -0,0 +1,484 @@
+package calendar.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An event store that keeps its events outside the Java heap, so a calendar with millions of
+ * events adds almost nothing for the garbage collector to trace.
+ * Each event is a fixed-width record in a direct buffer:
+ * <ul>
+ *   <li>start and end times, as epoch seconds (of the local date-time read as UTC) plus
+ *       nanoseconds</li>
+ *   <li>the series id, the event's hash code, and location/status flags</li>
+ *   <li>references to the subject and description, which are stored as UTF-8 in a separate
+ *       string arena, also made of direct buffers</li>
+ * </ul>
+ * The only structures left on the heap are primitive arrays: an open-addressing hash table
+ * from hash codes to record numbers, and a list of free record numbers. Neither holds a
+ * reference the collector has to follow.
+ * Events are decoded into new {@link IEvent} objects each time they are read, so they are
+ * short-lived and the store is not resident. Time queries skip records that cannot overlap
+ * the interval before decoding anything. Strings of removed events are reclaimed by
+ * compacting the arena once most of it is unused.
+ * Direct buffers count against the JVM's direct memory limit, which can be raised with
+ * {@code -XX:MaxDirectMemorySize}.
+ */
+public class OffHeapEventStore implements EventStore {
+  private static final int RECORD_SIZE = 56;
+  private static final int RECORDS_PER_CHUNK = 1 << 16;
+  private static final int ARENA_CHUNK_SIZE = 1 << 20;
+  private static final int MIN_TABLE_SIZE = 16;
+  private static final long NO_STRING = -1L;
+
+  // Record fields
+  private static final int START = 0;
+  private static final int END = 8;
+  private static final int START_NANOS = 16;
+  private static final int END_NANOS = 20;
+  private static final int SERIES = 24;
+  private static final int HASH = 28;
+  private static final int FLAGS = 32;
+  private static final int SUBJECT = 40;
+  private static final int DESCRIPTION = 48;
+
+  // Flag bits: location and status are stored as ordinal + 1, with 0 for none
+  private static final int LOCATION_MASK = 0x3;
+  private static final int STATUS_SHIFT = 2;
+  private static final int STATUS_MASK = 0x3;
+  private static final int NO_END = 0x10;
+  private static final int NO_SERIES = 0x20;
+
+  // Hash table entries that are not record numbers
+  private static final int EMPTY = -1;
+  private static final int REMOVED = -2;
+
+  private final List<ByteBuffer> records;
+  private final List<ByteBuffer> arena;
+  private int[] table;
+  private int[] freeRecords;
+  private int freeCount;
+  private int recordCount;
+  private int size;
+  private int removedEntries;
+  private long arenaUsed;
+  private long arenaGarbage;
+
+  /**
+   * Constructs an empty off-heap store.
+   */
+  public OffHeapEventStore() {
+    this.records = new ArrayList<ByteBuffer>();
+    this.arena = new ArrayList<ByteBuffer>();
+    this.table = emptyTable(MIN_TABLE_SIZE);
+    this.freeRecords = new int[MIN_TABLE_SIZE];
+  }
+
+  @Override
+  public boolean add(IEvent event) {
+    if (find(event) != EMPTY) {
+      return false;
+    }
+    if ((size + removedEntries + 1) * 2L > table.length) {
+      rehash(size + 1);
+    }
+    int record = freeCount > 0 ? freeRecords[--freeCount] : newRecord();
+    ByteBuffer chunk = records.get(record / RECORDS_PER_CHUNK);
+    int base = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+
+    LocalDateTime start = event.getStartDateTime();
+    LocalDateTime end = event.getEndDateTime();
+    int flags = 0;
+    chunk.putLong(base + START, start.toEpochSecond(ZoneOffset.UTC));
+    chunk.putInt(base + START_NANOS, start.getNano());
+    if (end == null) {
+      flags |= NO_END;
+    } else {
+      chunk.putLong(base + END, end.toEpochSecond(ZoneOffset.UTC));
+      chunk.putInt(base + END_NANOS, end.getNano());
+    }
+    if (event.getSeriesId() == null) {
+      flags |= NO_SERIES;
+    } else {
+      chunk.putInt(base + SERIES, event.getSeriesId());
+    }
+    if (event.getLocation() != null) {
+      flags |= event.getLocation().ordinal() + 1;
+    }
+    if (event.getStatus() != null) {
+      flags |= (event.getStatus().ordinal() + 1) << STATUS_SHIFT;
+    }
+    chunk.putInt(base + FLAGS, flags);
+    chunk.putInt(base + HASH, event.hashCode());
+    chunk.putLong(base + SUBJECT, putString(event.getSubject()));
+    chunk.putLong(base + DESCRIPTION, putString(event.getDescription()));
+
+    insert(event.hashCode(), record);
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(IEvent event) {
+    int slot = find(event);
+    if (slot == EMPTY) {
+      return false;
+    }
+    int record = table[slot];
+    ByteBuffer chunk = records.get(record / RECORDS_PER_CHUNK);
+    int base = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    arenaGarbage += stringSize(chunk.getLong(base + SUBJECT))
+            + stringSize(chunk.getLong(base + DESCRIPTION));
+    table[slot] = REMOVED;
+    removedEntries++;
+    if (freeCount == freeRecords.length) {
+      freeRecords = Arrays.copyOf(freeRecords, freeRecords.length * 2);
+    }
+    freeRecords[freeCount++] = record;
+    size--;
+    if (arenaGarbage > ARENA_CHUNK_SIZE && arenaGarbage * 2 > arenaUsed) {
+      compactArena();
+    }
+    return true;
+  }
+
+  @Override
+  public boolean contains(IEvent event) {
+    return find(event) != EMPTY;
+  }
+
+  @Override
+  public void clear() {
+    // Dropping the buffers lets the collector free their memory
+    records.clear();
+    arena.clear();
+    table = emptyTable(MIN_TABLE_SIZE);
+    freeRecords = new int[MIN_TABLE_SIZE];
+    freeCount = 0;
+    recordCount = 0;
+    size = 0;
+    removedEntries = 0;
+    arenaUsed = 0;
+    arenaGarbage = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<IEvent> iterator() {
+    return new RecordIterator(Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public Iterator<IEvent> candidates(LocalDateTime startDateTime,
+                                     LocalDateTime endDateTime) {
+    // Whole seconds are compared, so an event sharing a boundary second is kept
+    return new RecordIterator(startDateTime.toEpochSecond(ZoneOffset.UTC),
+            endDateTime.toEpochSecond(ZoneOffset.UTC));
+  }
+
+  @Override
+  public Iterator<IEvent> seriesCandidates(Integer seriesId, LocalDateTime from) {
+    // Records starting before the date are skipped unless they run into it
+    return new RecordIterator((from == null) ? Long.MIN_VALUE
+            : from.toEpochSecond(ZoneOffset.UTC), Long.MAX_VALUE);
+  }
+
+  @Override
+  public Map<String, Integer> countSubjects() {
+    return null;
+  }
+
+  @Override
+  public Integer getMaxSeriesId() {
+    return null;
+  }
+
+  @Override
+  public boolean isResident() {
+    return false;
+  }
+
+  /**
+   * Gets the number of bytes of direct memory this store has allocated.
+   *
+   * @return the allocated direct memory in bytes
+   */
+  public long getOffHeapBytes() {
+    long bytes = 0;
+    for (ByteBuffer chunk : records) {
+      bytes += chunk.capacity();
+    }
+    for (ByteBuffer chunk : arena) {
+      bytes += chunk.capacity();
+    }
+    return bytes;
+  }
+
+  /**
+   * Finds the hash table slot of the record equal to an event.
+   *
+   * @return the slot, or EMPTY if no record is equal to the event
+   */
+  private int find(IEvent event) {
+    int hash = event.hashCode();
+    int mask = table.length - 1;
+    for (int slot = mix(hash) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+      int record = table[slot];
+      if (record != REMOVED && matches(record, hash, event)) {
+        return slot;
+      }
+    }
+    return EMPTY;
+  }
+
+  /**
+   * Checks whether a record is equal to an event, which like {@link Event#equals} compares
+   * the subject, start and end. The stored hash code is compared first so most records are
+   * rejected without reading their subject.
+   */
+  private boolean matches(int record, int hash, IEvent event) {
+    ByteBuffer chunk = records.get(record / RECORDS_PER_CHUNK);
+    int base = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    if (chunk.getInt(base + HASH) != hash) {
+      return false;
+    }
+    LocalDateTime end = event.getEndDateTime();
+    boolean noEnd = (chunk.getInt(base + FLAGS) & NO_END) != 0;
+    return readDateTime(chunk, base + START, base + START_NANOS)
+            .equals(event.getStartDateTime())
+            && (noEnd ? end == null
+                : end != null && readDateTime(chunk, base + END, base + END_NANOS).equals(end))
+            && getString(chunk.getLong(base + SUBJECT)).equals(event.getSubject());
+  }
+
+  /**
+   * Puts a record number in the first free slot for its hash code.
+   */
+  private void insert(int hash, int record) {
+    int mask = table.length - 1;
+    int slot = mix(hash) & mask;
+    while (table[slot] != EMPTY && table[slot] != REMOVED) {
+      slot = (slot + 1) & mask;
+    }
+    if (table[slot] == REMOVED) {
+      removedEntries--;
+    }
+    table[slot] = record;
+  }
+
+  /**
+   * Rebuilds the hash table large enough for the given number of events, dropping the
+   * entries of removed events.
+   */
+  private void rehash(int events) {
+    int[] old = table;
+    int capacity = MIN_TABLE_SIZE;
+    while (capacity < events * 4L && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    table = emptyTable(capacity);
+    removedEntries = 0;
+    for (int record : old) {
+      if (record >= 0) {
+        ByteBuffer chunk = records.get(record / RECORDS_PER_CHUNK);
+        insert(chunk.getInt((record % RECORDS_PER_CHUNK) * RECORD_SIZE + HASH), record);
+      }
+    }
+  }
+
+  /**
+   * Takes the next unused record number, allocating a new chunk of records if needed.
+   */
+  private int newRecord() {
+    if (recordCount == records.size() * RECORDS_PER_CHUNK) {
+      records.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE));
+    }
+    return recordCount++;
+  }
+
+  /**
+   * Copies a string into the arena as its UTF-8 length and bytes.
+   *
+   * @return a reference holding the arena chunk in its high half and the offset in its low
+   *         half, or NO_STRING for null
+   */
+  private long putString(String value) {
+    if (value == null) {
+      return NO_STRING;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    int needed = Integer.BYTES + bytes.length;
+    ByteBuffer chunk = arena.isEmpty() ? null : arena.get(arena.size() - 1);
+    if (chunk == null || chunk.remaining() < needed) {
+      chunk = ByteBuffer.allocateDirect(Math.max(ARENA_CHUNK_SIZE, needed));
+      arena.add(chunk);
+    }
+    long reference = ((long) (arena.size() - 1) << 32) | chunk.position();
+    chunk.putInt(bytes.length);
+    chunk.put(bytes);
+    arenaUsed += needed;
+    return reference;
+  }
+
+  /**
+   * Reads a string from the arena.
+   */
+  private String getString(long reference) {
+    return getString(arena, reference);
+  }
+
+  /**
+   * Gets the number of arena bytes a string takes up.
+   */
+  private long stringSize(long reference) {
+    if (reference == NO_STRING) {
+      return 0;
+    }
+    return Integer.BYTES + arena.get((int) (reference >>> 32)).getInt((int) reference);
+  }
+
+  /**
+   * Copies the strings of every stored event into a new arena and drops the old one.
+   */
+  private void compactArena() {
+    List<ByteBuffer> old = new ArrayList<ByteBuffer>(arena);
+    arena.clear();
+    arenaUsed = 0;
+    arenaGarbage = 0;
+    for (int record : table) {
+      if (record >= 0) {
+        ByteBuffer chunk = records.get(record / RECORDS_PER_CHUNK);
+        int base = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+        chunk.putLong(base + SUBJECT, putString(getString(old, chunk.getLong(base + SUBJECT))));
+        chunk.putLong(base + DESCRIPTION,
+                putString(getString(old, chunk.getLong(base + DESCRIPTION))));
+      }
+    }
+  }
+
+  /**
+   * Reads a string from the given arena chunks.
+   */
+  private static String getString(List<ByteBuffer> chunks, long reference) {
+    if (reference == NO_STRING) {
+      return null;
+    }
+    ByteBuffer chunk = chunks.get((int) (reference >>> 32));
+    int offset = (int) reference;
+    byte[] bytes = new byte[chunk.getInt(offset)];
+    ByteBuffer dup = chunk.duplicate();
+    dup.position(offset + Integer.BYTES);
+    dup.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decodes a record into an event.
+   */
+  private IEvent decode(ByteBuffer chunk, int base) {
+    int flags = chunk.getInt(base + FLAGS);
+    int location = flags & LOCATION_MASK;
+    int status = (flags >> STATUS_SHIFT) & STATUS_MASK;
+    return Event.getBuilder()
+            .subject(getString(chunk.getLong(base + SUBJECT)))
+            .startDateTime(readDateTime(chunk, base + START, base + START_NANOS))
+            .endDateTime((flags & NO_END) != 0 ? null
+                : readDateTime(chunk, base + END, base + END_NANOS))
+            .description(getString(chunk.getLong(base + DESCRIPTION)))
+            .location(location == 0 ? null : EventLocation.values()[location - 1])
+            .status(status == 0 ? null : EventStatus.values()[status - 1])
+            .seriesId((flags & NO_SERIES) != 0 ? null : chunk.getInt(base + SERIES))
+            .build();
+  }
+
+  /**
+   * Reads a date-time stored as epoch seconds and nanoseconds.
+   */
+  private static LocalDateTime readDateTime(ByteBuffer chunk, int seconds, int nanos) {
+    return LocalDateTime.ofEpochSecond(chunk.getLong(seconds), chunk.getInt(nanos),
+            ZoneOffset.UTC);
+  }
+
+  /**
+   * Creates a hash table with every slot empty.
+   */
+  private static int[] emptyTable(int capacity) {
+    int[] empty = new int[capacity];
+    Arrays.fill(empty, EMPTY);
+    return empty;
+  }
+
+  /**
+   * Spreads the bits of a hash code so nearby codes land in different slots.
+   */
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Iterates over the stored events that may overlap an interval of epoch seconds. Records
+   * outside the interval are skipped without being decoded.
+   */
+  private final class RecordIterator implements Iterator<IEvent> {
+    private final long start;
+    private final long end;
+    private int slot;
+    private IEvent next;
+
+    private RecordIterator(long start, long end) {
+      this.start = start;
+      this.end = end;
+      this.slot = 0;
+      this.next = advance();
+    }
+
+    /**
+     * Finds the next stored event that may overlap the interval.
+     */
+    private IEvent advance() {
+      while (slot < table.length) {
+        int record = table[slot++];
+        if (record < 0) {
+          continue;
+        }
+        ByteBuffer chunk = records.get(record / RECORDS_PER_CHUNK);
+        int base = (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+        boolean noEnd = (chunk.getInt(base + FLAGS) & NO_END) != 0;
+        long eventStart = chunk.getLong(base + START);
+        long eventEnd = noEnd ? eventStart : chunk.getLong(base + END);
+        if (eventStart <= end && eventEnd >= start) {
+          return decode(chunk, base);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public IEvent next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      IEvent event = next;
+      next = advance();
+      return event;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package calendar.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Package-private bounded LRU cache of calendar query results.
+ * Every result is stamped with the modification generation of the calendar it was computed
+ * from. A lookup made at a later generation treats the entry as stale and recomputes it, so
+ * any mutation of the calendar invalidates every cached result without scanning the cache.
+ */
+class QueryCache {
+  private final Map<QueryKey, CachedResult> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Constructs an empty cache holding at most the given number of results.
+   *
+   * @param maxEntries the maximum number of cached results
+   */
+  QueryCache(int maxEntries) {
+    this.entries = new LinkedHashMap<QueryKey, CachedResult>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<QueryKey, CachedResult> eldest) {
+        if (size() > maxEntries) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Gets the cached result of a query, computing and caching it if it is missing or stale.
+   *
+   * @param key        the query parameters
+   * @param generation the current modification generation of the calendar
+   * @param compute    computes the result of the query
+   * @param <T>        the type of the result
+   * @return the result of the query
+   */
+  @SuppressWarnings("unchecked")
+  <T> T get(QueryKey key, long generation, Supplier<T> compute) {
+    CachedResult entry = entries.get(key);
+    if (entry != null && entry.generation == generation) {
+      hits++;
+      return (T) entry.value;
+    }
+
+    misses++;
+    T value = compute.get();
+    entries.put(key, new CachedResult(generation, value));
+    return value;
+  }
+
+  /**
+   * Gets the current hit and miss counters.
+   *
+   * @return a snapshot of the cache statistics
+   */
+  QueryCacheStats stats() {
+    return new QueryCacheStats(hits, misses, evictions, entries.size());
+  }
+
+  /**
+   * A cached result and the generation it was computed at.
+   */
+  private static class CachedResult {
+    private final long generation;
+    private final Object value;
+
+    private CachedResult(long generation, Object value) {
+      this.generation = generation;
+      this.value = value;
+    }
+  }
+
+  /**
+   * The kinds of queries that can be cached.
+   */
+  enum QueryType {
+    EVENTS_ON_DATE,
+    EVENTS_IN_RANGE,
+    UPCOMING_EVENTS,
+    STATUS
+  }
+
+  /**
+   * The parameters of a query, used as the cache key.
+   */
+  static final class QueryKey {
+    private final QueryType type;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int limit;
+
+    /**
+     * Constructs a key for a query.
+     *
+     * @param type  the kind of query
+     * @param start the first date/time parameter
+     * @param end   the second date/time parameter (null if unused)
+     * @param limit the count parameter (0 if unused)
+     */
+    QueryKey(QueryType type, LocalDateTime start, LocalDateTime end, int limit) {
+      this.type = type;
+      this.start = start;
+      this.end = end;
+      this.limit = limit;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof QueryKey)) {
+        return false;
+      }
+      QueryKey that = (QueryKey) obj;
+      return this.type == that.type && this.limit == that.limit &&
+              Objects.equals(this.start, that.start) && Objects.equals(this.end, that.end);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.type, this.start, this.end, this.limit);
+    }
+  }
+}
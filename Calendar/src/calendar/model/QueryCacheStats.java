@@ -0,0 +1,74 @@
+package calendar.model;
+
+/**
+ * An immutable snapshot of the hit and miss counters of a calendar's query cache.
+ */
+public final class QueryCacheStats {
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final int size;
+
+  /**
+   * Constructs a new {@code QueryCacheStats} with the given counters.
+   *
+   * @param hits      the number of queries answered from the cache
+   * @param misses    the number of queries that had to be computed
+   * @param evictions the number of entries dropped to stay within the size limit
+   * @param size      the number of entries currently cached
+   */
+  public QueryCacheStats(long hits, long misses, long evictions, int size) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+  }
+
+  /**
+   * Gets the number of queries answered from the cache.
+   * @return the number of cache hits
+   */
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Gets the number of queries that had to be computed, including queries whose cached result
+   * was outdated by a modification of the calendar.
+   * @return the number of cache misses
+   */
+  public long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Gets the number of entries dropped because the cache was full.
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Gets the number of entries currently cached.
+   * @return the cache size
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Gets the fraction of queries answered from the cache.
+   * @return the hit rate between 0 and 1, or 0 if no queries were made
+   */
+  public double getHitRate() {
+    long total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public String toString() {
+    return "QueryCacheStats [hits=" + this.hits + ", misses=" + this.misses +
+        ", evictions=" + this.evictions + ", size=" + this.size + "]";
+  }
+}
@@ -5,11 +5,11 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 
 /**
  * Implementation of a smart calendar model that extends the basic calendar functionality
@@ -34,6 +34,21 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
     this.timezone = timezone;
   }
 
+  /**
+   * Constructs a new SmartCalendarModel whose events are kept in the given store.
+   * Events already in the store belong to the calendar.
+   *
+   * @param calendarName the name of the calendar
+   * @param timezone     the timezone of the calendar
+   * @param store        the store holding the events of this calendar
+   * @throws IllegalArgumentException if the store is null
+   */
+  public SmartCalendarModel(String calendarName, ZoneId timezone, EventStore store) {
+    super(store);
+    this.calendarName = calendarName;
+    this.timezone = timezone;
+  }
+
   /**
    * Gets the name of this calendar.
    *
@@ -61,20 +76,30 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
    */
   @Override
   public void setCalendarName(String calendarName) {
+    String oldName = this.calendarName;
     this.calendarName = calendarName;
+    if (hasChangeListeners() && !Objects.equals(oldName, calendarName)) {
+      recordChange(CalendarChange.calendarRenamed(oldName, calendarName));
+    }
   }
 
   /**
    * Sets the timezone of this calendar.
    * When the timezone changes, all existing events are converted to the new timezone.
+   * Listeners are told of the change once the calendar has its new timezone.
    *
    * @param timezone the new calendar timezone
    */
   @Override
   public void setTimezone(ZoneId timezone) {
     ZoneId oldTimezone = this.timezone;
-    this.convertAllEventsToNewTimezone(oldTimezone, timezone);
-    this.timezone = timezone;
+    beginChanges();
+    try {
+      this.convertAllEventsToNewTimezone(oldTimezone, timezone);
+      this.timezone = timezone;
+    } finally {
+      endChanges();
+    }
   }
 
   /**
@@ -87,8 +112,8 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
    */
   @Override
   public IEvent findEventBySubjectAndTime(String subject, LocalDateTime startDateTime) {
-    List<IEvent> allEvents = printEvents(startDateTime.minusYears(100),
-            startDateTime.plusYears(100));
+    // Every event starting at the given time is running at that time
+    List<IEvent> allEvents = printEvents(startDateTime, startDateTime);
     for (IEvent event : allEvents) {
       if (event.getSubject().equals(subject) &&
               event.getStartDateTime().equals(startDateTime)) {
@@ -145,7 +170,9 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
     // Build series ID mapping for events being copied
     Map<Integer, Integer> seriesIdMapping = buildSeriesIdMapping(eventsOnDate, targetCalendar);
 
-    // Copy each event with mapped series IDs and timezone conversion
+    // Copy each event with mapped series IDs and timezone conversion, adding the copies
+    // together so the target calendar's listeners are told of them at once
+    List<IEvent> copiedEvents = new ArrayList<IEvent>(eventsOnDate.size());
     for (IEvent event : eventsOnDate) {
       LocalDateTime[] convertedTimes = convertEventTimesToTargetTimezone(event, targetCalendar);
       LocalDateTime convertedStartTime = convertedTimes[0];
@@ -157,10 +184,10 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
 
       // Create and add the copied event
       Integer mappedSeriesId = mapSeriesId(event.getSeriesId(), seriesIdMapping);
-      IEvent copiedEvent = buildEventFromTemplate(event, finalStartTime, finalEndTime,
-              mappedSeriesId);
-      targetCalendar.addEvent(copiedEvent);
+      copiedEvents.add(buildEventFromTemplate(event, finalStartTime, finalEndTime,
+              mappedSeriesId));
     }
+    targetCalendar.addEvents(copiedEvents);
   }
 
   /**
@@ -189,7 +216,9 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
     // Build series ID mapping for events being copied
     Map<Integer, Integer> seriesIdMapping = buildSeriesIdMapping(eventsInRange, targetCalendar);
 
-    // Copy each event with mapped series IDs and timezone conversion
+    // Copy each event with mapped series IDs and timezone conversion, adding the copies
+    // together so the target calendar's listeners are told of them at once
+    List<IEvent> copiedEvents = new ArrayList<IEvent>(eventsInRange.size());
     for (IEvent event : eventsInRange) {
       LocalDateTime[] convertedTimes = convertEventTimesToTargetTimezone(event, targetCalendar);
       LocalDateTime convertedStartTime = convertedTimes[0];
@@ -201,26 +230,71 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
 
       // Create and add the copied event
       Integer mappedSeriesId = mapSeriesId(event.getSeriesId(), seriesIdMapping);
-      IEvent copiedEvent = buildEventFromTemplate(event, finalStartTime, finalEndTime,
-              mappedSeriesId);
-      targetCalendar.addEvent(copiedEvent);
+      copiedEvents.add(buildEventFromTemplate(event, finalStartTime, finalEndTime,
+              mappedSeriesId));
     }
+    targetCalendar.addEvents(copiedEvents);
   }
 
   /**
    * Adds a pre-built event to this calendar.
-   * This allows adding events with specific properties like series ID.
+   * This allows adding events with specific properties like series ID. Series IDs generated
+   * afterwards are kept above the added event's series ID, so they never join its series.
    *
    * @param event the event to add to the calendar
    */
   @Override
   public void addEvent(IEvent event) {
-    events.add(event);
+    if (insertEvent(event) && hasChangeListeners()) {
+      recordChange(CalendarChange.eventAdded(event));
+    }
+    if (event.getSeriesId() != null && event.getSeriesId() >= nextSeriesId) {
+      nextSeriesId = event.getSeriesId() + 1;
+    }
+  }
+
+  /**
+   * Adds many pre-built events to this calendar.
+   * Events equal to one already in the calendar are skipped, as with {@link #addEvent}.
+   * Listeners are told of the events added at once.
+   *
+   * @param events the events to add to the calendar
+   */
+  @Override
+  public void addEvents(List<IEvent> events) {
+    int maxSeriesId = nextSeriesId - 1;
+    beginChanges();
+    try {
+      for (IEvent event : events) {
+        if (insertEvent(event) && hasChangeListeners()) {
+          recordChange(CalendarChange.eventAdded(event));
+        }
+        if (event.getSeriesId() != null && event.getSeriesId() > maxSeriesId) {
+          maxSeriesId = event.getSeriesId();
+        }
+      }
+    } finally {
+      nextSeriesId = maxSeriesId + 1;
+      endChanges();
+    }
+  }
+
+  /**
+   * Gets every event in this calendar, in no particular order.
+   *
+   * @return a copy of all events in this calendar
+   */
+  @Override
+  public List<IEvent> getAllEvents() {
+    List<IEvent> allEvents = new ArrayList<IEvent>(events.size());
+    events.forEach(allEvents::add);
+    return allEvents;
   }
 
   /**
    * Converts all events in this calendar from the old timezone to a new timezone.
-   * This is called when the calendar's timezone is changed.
+   * This is called when the calendar's timezone is changed. Listeners are told of it as one
+   * change.
    *
    * @param oldTimezone the original timezone
    * @param newTimezone the new timezone to convert to
@@ -231,10 +305,13 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
     }
 
     // Create a copy of events to avoid concurrent modification
-    Set<IEvent> eventsCopy = new HashSet<IEvent>(events);
-    events.clear(); // Clear all existing events
+    List<IEvent> eventsCopy = new ArrayList<IEvent>(events.size());
+    events.forEach(eventsCopy::add);
+    clearEvents(); // Clear all existing events
 
     // Convert each event and add it back
+    List<IEvent> convertedEvents = hasChangeListeners()
+            ? new ArrayList<IEvent>(eventsCopy.size()) : null;
     for (IEvent event : eventsCopy) {
       LocalDateTime convertedStart = convertTimeBetweenTimezones(event.getStartDateTime(),
               oldTimezone, newTimezone);
@@ -244,7 +321,14 @@ public class SmartCalendarModel extends CalendarModel implements ISmartCalendarM
       // Create new event with converted times
       IEvent convertedEvent = buildEventFromTemplate(event, convertedStart, convertedEnd,
               event.getSeriesId());
-      events.add(convertedEvent);
+      insertEvent(convertedEvent);
+      if (convertedEvents != null) {
+        convertedEvents.add(convertedEvent);
+      }
+    }
+    if (convertedEvents != null) {
+      recordChange(CalendarChange.timezoneChanged(oldTimezone, newTimezone, eventsCopy,
+              convertedEvents));
     }
   }
 
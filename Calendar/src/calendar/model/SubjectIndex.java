@@ -0,0 +1,128 @@
+package calendar.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Package-private sorted index of the distinct event subjects in a calendar.
+ * Subjects are kept in a map sorted by their lower-cased form, so all subjects sharing a prefix
+ * form one contiguous range that can be found with a single ordered lookup.
+ * Each spelling of a subject carries the number of events using it, so a subject disappears
+ * from the index only when its last event is removed.
+ */
+class SubjectIndex {
+  private final TreeMap<String, Map<String, Integer>> subjects;
+
+  /**
+   * Constructs an empty subject index.
+   */
+  SubjectIndex() {
+    this.subjects = new TreeMap<String, Map<String, Integer>>();
+  }
+
+  /**
+   * Records one more event using the given subject.
+   *
+   * @param subject the subject of the added event
+   */
+  void add(String subject) {
+    add(subject, 1);
+  }
+
+  /**
+   * Records the subjects of many events in one pass. Each distinct subject is looked up in the
+   * sorted index once, however many of the events use it.
+   *
+   * @param events the added events
+   */
+  void addAll(Collection<IEvent> events) {
+    Map<String, Integer> counts = new HashMap<String, Integer>();
+    for (IEvent event : events) {
+      counts.merge(event.getSubject(), 1, Integer::sum);
+    }
+    for (Map.Entry<String, Integer> subject : counts.entrySet()) {
+      add(subject.getKey(), subject.getValue());
+    }
+  }
+
+  /**
+   * Records the subjects of events already counted, such as by the store holding them.
+   *
+   * @param counts the number of events using each subject
+   */
+  void addCounts(Map<String, Integer> counts) {
+    for (Map.Entry<String, Integer> subject : counts.entrySet()) {
+      add(subject.getKey(), subject.getValue());
+    }
+  }
+
+  /**
+   * Records a number of events using the given subject.
+   */
+  private void add(String subject, int count) {
+    subjects.computeIfAbsent(normalize(subject), k -> new TreeMap<String, Integer>())
+            .merge(subject, count, Integer::sum);
+  }
+
+  /**
+   * Records one less event using the given subject.
+   *
+   * @param subject the subject of the removed event
+   */
+  void remove(String subject) {
+    String key = normalize(subject);
+    Map<String, Integer> spellings = subjects.get(key);
+    if (spellings == null) {
+      return;
+    }
+    spellings.computeIfPresent(subject, (k, count) -> count == 1 ? null : count - 1);
+    if (spellings.isEmpty()) {
+      subjects.remove(key);
+    }
+  }
+
+  /**
+   * Removes every subject from the index.
+   */
+  void clear() {
+    subjects.clear();
+  }
+
+  /**
+   * Gets the distinct subjects starting with the given prefix (case-insensitive),
+   * in alphabetical order. Only the matching range of the index is visited.
+   *
+   * @param prefix the prefix to complete
+   * @param limit  the maximum number of subjects to return
+   * @return up to limit subjects starting with the prefix
+   */
+  List<String> suggest(String prefix, int limit) {
+    List<String> suggestions = new ArrayList<String>();
+    String key = normalize(prefix);
+
+    for (Map.Entry<String, Map<String, Integer>> entry : subjects.tailMap(key, true).entrySet()) {
+      if (!entry.getKey().startsWith(key)) {
+        break;
+      }
+      for (String spelling : entry.getValue().keySet()) {
+        if (suggestions.size() >= limit) {
+          return suggestions;
+        }
+        suggestions.add(spelling);
+      }
+    }
+    return suggestions;
+  }
+
+  /**
+   * Gets the key a subject is sorted by.
+   */
+  private String normalize(String subject) {
+    return subject.toLowerCase(Locale.ROOT);
+  }
+}
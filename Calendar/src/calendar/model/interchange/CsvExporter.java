@@ -0,0 +1,237 @@
+package calendar.model.interchange;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+
+import calendar.model.EventStatus;
+import calendar.model.ICalendarModel;
+import calendar.model.IEvent;
+
+/**
+ * Writes the events of a calendar as a CSV file that Google Calendar can import.
+ * Events are read one at a time from {@link ICalendarModel#eventIterator} and each row is
+ * written straight into a large character buffer, so exporting never builds a list of events
+ * or a string per row. Events from 8 AM to 5 PM on one day, which is how the calendar stores
+ * all-day events, are written as all-day events. The file is written under a temporary name
+ * and renamed into place once complete.
+ */
+public class CsvExporter {
+  private static final String HEADER = "Subject,Start Date,Start Time,End Date,End Time,"
+          + "All Day Event,Description,Location,Private\r\n";
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final LocalTime ALL_DAY_START = LocalTime.of(8, 0);
+  private static final LocalTime ALL_DAY_END = LocalTime.of(17, 0);
+
+  private final ICalendarModel calendar;
+  private final char[] buffer;
+  private int position;
+  private Writer out;
+
+  /**
+   * Constructs an exporter for a calendar.
+   *
+   * @param calendar the calendar to export
+   * @throws IllegalArgumentException if the calendar is null
+   */
+  public CsvExporter(ICalendarModel calendar) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("Calendar cannot be null");
+    }
+    this.calendar = calendar;
+    this.buffer = new char[BUFFER_SIZE];
+  }
+
+  /**
+   * Writes every event of the calendar to a file, replacing the file if it exists.
+   *
+   * @param file the file to write
+   * @return the number of events written
+   * @throws IOException if the file cannot be written
+   */
+  public int exportTo(Path file) throws IOException {
+    return exportTo(file, LocalDateTime.MIN, LocalDateTime.MAX);
+  }
+
+  /**
+   * Writes the events that occur within a time interval to a file, replacing the file if it
+   * exists.
+   *
+   * @param file          the file to write
+   * @param startDateTime the start of the interval (inclusive)
+   * @param endDateTime   the end of the interval (inclusive)
+   * @return the number of events written
+   * @throws IOException if the file cannot be written
+   */
+  public int exportTo(Path file, LocalDateTime startDateTime, LocalDateTime endDateTime)
+          throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    int count = 0;
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+         Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(),
+                 BUFFER_SIZE)) {
+      out = writer;
+      position = 0;
+      append(HEADER);
+      Iterator<IEvent> events = calendar.eventIterator(startDateTime, endDateTime);
+      while (events.hasNext()) {
+        writeRow(events.next());
+        count++;
+      }
+      flush();
+    } finally {
+      out = null;
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    return count;
+  }
+
+  /**
+   * Writes one event as a CSV row.
+   */
+  private void writeRow(IEvent event) throws IOException {
+    LocalDateTime start = event.getStartDateTime();
+    LocalDateTime end = event.getEndDateTime() == null ? start : event.getEndDateTime();
+    boolean allDay = start.toLocalDate().equals(end.toLocalDate())
+            && start.toLocalTime().equals(ALL_DAY_START)
+            && end.toLocalTime().equals(ALL_DAY_END);
+
+    appendField(event.getSubject());
+    append(',');
+    appendDate(start);
+    append(',');
+    if (!allDay) {
+      appendTime(start);
+    }
+    append(',');
+    appendDate(end);
+    append(',');
+    if (!allDay) {
+      appendTime(end);
+    }
+    append(',');
+    append(allDay ? "True" : "False");
+    append(',');
+    appendField(event.getDescription());
+    append(',');
+    if (event.getLocation() != null) {
+      append(event.getLocation().name().toLowerCase());
+    }
+    append(',');
+    append(event.getStatus() == EventStatus.PRIVATE ? "True" : "False");
+    append('\r');
+    append('\n');
+  }
+
+  /**
+   * Appends a text field, quoting it if it contains a comma, quote or line break.
+   */
+  private void appendField(String value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      append(value);
+      return;
+    }
+    append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        append('"');
+      }
+      append(c);
+    }
+    append('"');
+  }
+
+  /**
+   * Appends a date as MM/DD/YYYY.
+   */
+  private void appendDate(LocalDateTime dateTime) throws IOException {
+    appendDigits(dateTime.getMonthValue(), 2);
+    append('/');
+    appendDigits(dateTime.getDayOfMonth(), 2);
+    append('/');
+    appendDigits(dateTime.getYear(), 4);
+  }
+
+  /**
+   * Appends a time on a 12-hour clock, such as 9:05 AM.
+   */
+  private void appendTime(LocalDateTime dateTime) throws IOException {
+    int hour = dateTime.getHour() % 12;
+    appendDigits(hour == 0 ? 12 : hour, 1);
+    append(':');
+    appendDigits(dateTime.getMinute(), 2);
+    append(dateTime.getHour() < 12 ? " AM" : " PM");
+  }
+
+  /**
+   * Appends a non-negative number padded with leading zeros to the given width.
+   */
+  private void appendDigits(int value, int width) throws IOException {
+    int divisor = 1;
+    int digits = 1;
+    while (divisor <= value / 10) {
+      divisor *= 10;
+      digits++;
+    }
+    for (int i = digits; i < width; i++) {
+      append('0');
+    }
+    for (; divisor > 0; divisor /= 10) {
+      append((char) ('0' + value / divisor % 10));
+    }
+  }
+
+  /**
+   * Appends a string to the buffer, writing the buffer out whenever it fills.
+   */
+  private void append(String value) throws IOException {
+    int offset = 0;
+    while (offset < value.length()) {
+      if (position == buffer.length) {
+        flush();
+      }
+      int length = Math.min(value.length() - offset, buffer.length - position);
+      value.getChars(offset, offset + length, buffer, position);
+      position += length;
+      offset += length;
+    }
+  }
+
+  /**
+   * Appends a character to the buffer, writing the buffer out if it is full.
+   */
+  private void append(char c) throws IOException {
+    if (position == buffer.length) {
+      flush();
+    }
+    buffer[position++] = c;
+  }
+
+  /**
+   * Writes the buffered characters to the file.
+   */
+  private void flush() throws IOException {
+    out.write(buffer, 0, position);
+    position = 0;
+  }
+}
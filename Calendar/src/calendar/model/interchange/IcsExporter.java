@@ -0,0 +1,391 @@
+package calendar.model.interchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * Writes a calendar as an iCalendar (RFC 5545) file.
+ * Times are written in the calendar's time zone with a TZID parameter naming the zone.
+ * A series whose occurrences share their details and follow a weekly pattern is written as
+ * one VEVENT with a weekly RRULE. Occurrences of any other series are written as separate
+ * VEVENTs that carry the series in an X-CALENDAR-SERIES property, so importing the file
+ * puts them back in one series.
+ * Events are read one at a time from the calendar's event iterator and written through a
+ * large buffer, so only a few fields per series are held while exporting, never the events.
+ * The file is written under a temporary name and renamed into place once complete.
+ */
+public class IcsExporter {
+  static final String SERIES_PROPERTY = "X-CALENDAR-SERIES";
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_LINE_OCTETS = 75;
+  private static final String CRLF = "\r\n";
+  private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+  private final ISmartCalendarModel calendar;
+  private final StringBuilder line;
+
+  /**
+   * Constructs an exporter for a calendar.
+   *
+   * @param calendar the calendar to export
+   * @throws IllegalArgumentException if the calendar is null
+   */
+  public IcsExporter(ISmartCalendarModel calendar) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("Calendar cannot be null");
+    }
+    this.calendar = calendar;
+    this.line = new StringBuilder(128);
+  }
+
+  /**
+   * Writes every event of the calendar to a file, replacing the file if it exists.
+   * The calendar is read twice through its event iterator. The first pass writes every event
+   * outside a series and keeps a few fields per series, enough to tell whether the series
+   * follows a weekly rule. Series that do are then written as one VEVENT each, and the second
+   * pass writes the occurrences of the other series.
+   *
+   * @param file the file to write
+   * @return the number of events written, counting each occurrence of a series
+   * @throws IOException if the file cannot be written
+   */
+  public int exportTo(Path file) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    String exportId = UUID.randomUUID().toString();
+    String stamp = formatUtc(Instant.now());
+    int count = 0;
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+         Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8),
+                 BUFFER_SIZE)) {
+      writeHeader(out);
+      Map<Integer, SeriesShape> series = new HashMap<Integer, SeriesShape>();
+      Iterator<IEvent> events = calendar.eventIterator(LocalDateTime.MIN, LocalDateTime.MAX);
+      while (events.hasNext()) {
+        IEvent event = events.next();
+        Integer seriesId = event.getSeriesId();
+        if (seriesId == null) {
+          writeEvent(out, event, "event-" + count + "-" + exportId, stamp, null, null);
+        } else {
+          SeriesShape shape = series.get(seriesId);
+          if (shape == null) {
+            series.put(seriesId, new SeriesShape(event));
+          } else {
+            shape.add(event);
+          }
+        }
+        count++;
+      }
+
+      for (Map.Entry<Integer, SeriesShape> entry : series.entrySet()) {
+        String rule = entry.getValue().weeklyRule();
+        if (rule != null) {
+          // The rule stands for the whole series, so only its first occurrence is written
+          writeEvent(out, entry.getValue().first, "series-" + entry.getKey() + "-" + exportId,
+                  stamp, rule, null);
+          entry.getValue().written = true;
+        }
+      }
+
+      int index = 0;
+      events = calendar.eventIterator(LocalDateTime.MIN, LocalDateTime.MAX);
+      while (events.hasNext()) {
+        IEvent event = events.next();
+        Integer seriesId = event.getSeriesId();
+        if ((seriesId != null) && !series.get(seriesId).written) {
+          writeEvent(out, event, "occurrence-" + index + "-" + exportId, stamp, null, seriesId);
+          index++;
+        }
+      }
+      writeProperty(out, "END:VCALENDAR");
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    return count;
+  }
+
+  /**
+   * Writes the properties describing the whole calendar.
+   */
+  private void writeHeader(Writer out) throws IOException {
+    writeProperty(out, "BEGIN:VCALENDAR");
+    writeProperty(out, "VERSION:2.0");
+    writeProperty(out, "PRODID:-//CS3500//Calendar//EN");
+    writeProperty(out, "CALSCALE:GREGORIAN");
+    line.setLength(0);
+    line.append("X-WR-CALNAME:");
+    appendText(calendar.getCalendarName());
+    writeLine(out);
+    writeProperty(out, "X-WR-TIMEZONE:" + calendar.getTimezone().getId());
+  }
+
+  /**
+   * Writes one VEVENT.
+   */
+  private void writeEvent(Writer out, IEvent event, String uid, String stamp, String rule,
+                          Integer seriesId) throws IOException {
+    writeProperty(out, "BEGIN:VEVENT");
+    writeProperty(out, "UID:" + uid);
+    writeProperty(out, "DTSTAMP:" + stamp);
+
+    line.setLength(0);
+    line.append("SUMMARY:");
+    appendText(event.getSubject());
+    writeLine(out);
+
+    writeDateTime(out, "DTSTART", event.getStartDateTime());
+    if (event.getEndDateTime() != null) {
+      writeDateTime(out, "DTEND", event.getEndDateTime());
+    }
+    if (event.getDescription() != null) {
+      line.setLength(0);
+      line.append("DESCRIPTION:");
+      appendText(event.getDescription());
+      writeLine(out);
+    }
+    if (event.getLocation() != null) {
+      writeProperty(out, "LOCATION:" + event.getLocation().name().toLowerCase());
+    }
+    if (event.getStatus() != null) {
+      writeProperty(out, "CLASS:" + event.getStatus().name());
+    }
+    if (rule != null) {
+      writeProperty(out, "RRULE:" + rule);
+    }
+    if (seriesId != null) {
+      writeProperty(out, SERIES_PROPERTY + ":" + seriesId);
+    }
+    writeProperty(out, "END:VEVENT");
+  }
+
+  /**
+   * Writes a date-time property in the calendar's time zone. Fractions of a second are
+   * dropped, since iCalendar times have a resolution of one second.
+   */
+  private void writeDateTime(Writer out, String name, LocalDateTime dateTime)
+          throws IOException {
+    line.setLength(0);
+    line.append(name).append(";TZID=").append(calendar.getTimezone().getId()).append(':');
+    appendDateTime(line, dateTime);
+    writeLine(out);
+  }
+
+  /**
+   * Writes a property whose value needs no escaping.
+   */
+  private void writeProperty(Writer out, String property) throws IOException {
+    line.setLength(0);
+    line.append(property);
+    writeLine(out);
+  }
+
+  /**
+   * Writes the line being built, folding it so no physical line is longer than 75 octets.
+   * A pair of surrogate characters is never split across lines.
+   */
+  private void writeLine(Writer out) throws IOException {
+    int octets = 0;
+    int start = 0;
+    int i = 0;
+    while (i < line.length()) {
+      char c = line.charAt(i);
+      int width;
+      int chars = 1;
+      if (c < 0x80) {
+        width = 1;
+      } else if (c < 0x800) {
+        width = 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < line.length()) {
+        width = 4;
+        chars = 2;
+      } else {
+        width = 3;
+      }
+      if (octets + width > MAX_LINE_OCTETS) {
+        out.append(line, start, i).append(CRLF).append(' ');
+        start = i;
+        // The leading space of a continuation line counts towards its length
+        octets = 1;
+      }
+      octets += width;
+      i += chars;
+    }
+    out.append(line, start, line.length()).append(CRLF);
+  }
+
+  /**
+   * Appends a text value, escaping the characters iCalendar gives a meaning to.
+   */
+  private void appendText(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\':
+        case ';':
+        case ',':
+          line.append('\\').append(c);
+          break;
+        case '\n':
+          line.append("\\n");
+          break;
+        case '\r':
+          break;
+        default:
+          line.append(c);
+      }
+    }
+  }
+
+  /**
+   * Appends a date-time in the basic iCalendar form, such as 20250305T093000.
+   */
+  private static void appendDateTime(StringBuilder builder, LocalDateTime dateTime) {
+    appendDigits(builder, dateTime.getYear(), 4);
+    appendDigits(builder, dateTime.getMonthValue(), 2);
+    appendDigits(builder, dateTime.getDayOfMonth(), 2);
+    builder.append('T');
+    appendDigits(builder, dateTime.getHour(), 2);
+    appendDigits(builder, dateTime.getMinute(), 2);
+    appendDigits(builder, dateTime.getSecond(), 2);
+  }
+
+  /**
+   * Appends a number padded with leading zeros to the given width.
+   */
+  private static void appendDigits(StringBuilder builder, int value, int width) {
+    int digits = 1;
+    for (int rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    for (int i = digits; i < width; i++) {
+      builder.append('0');
+    }
+    builder.append(value);
+  }
+
+  /**
+   * Formats an instant as a UTC date-time, such as 20250305T143000Z.
+   */
+  private static String formatUtc(Instant instant) {
+    StringBuilder builder = new StringBuilder(16);
+    appendDateTime(builder, LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+    return builder.append('Z').toString();
+  }
+
+  /**
+   * What is known of a series from the occurrences seen so far, in whatever order they come:
+   * its first occurrence, its last start, how many occurrences it has, the weekdays they fall
+   * on, and whether they all share the first one's details, time of day and duration.
+   */
+  private static final class SeriesShape {
+    private IEvent first;
+    private LocalDateTime lastStart;
+    private int count;
+    private boolean uniform;
+    private final Set<DayOfWeek> weekdays;
+    // Whether the series has been written as one VEVENT with a rule
+    private boolean written;
+
+    SeriesShape(IEvent event) {
+      this.first = event;
+      this.lastStart = event.getStartDateTime();
+      this.count = 1;
+      this.uniform = true;
+      this.weekdays = EnumSet.of(event.getStartDateTime().getDayOfWeek());
+    }
+
+    void add(IEvent event) {
+      count++;
+      if (!uniform) {
+        return;
+      }
+      if (!event.getSubject().equals(first.getSubject())
+              || !Objects.equals(event.getDescription(), first.getDescription())
+              || event.getLocation() != first.getLocation()
+              || event.getStatus() != first.getStatus()
+              || !event.getStartDateTime().toLocalTime()
+                      .equals(first.getStartDateTime().toLocalTime())
+              || !Objects.equals(duration(event), duration(first))) {
+        uniform = false;
+        return;
+      }
+      weekdays.add(event.getStartDateTime().getDayOfWeek());
+      if (event.getStartDateTime().isBefore(first.getStartDateTime())) {
+        first = event;
+      }
+      if (event.getStartDateTime().isAfter(lastStart)) {
+        lastStart = event.getStartDateTime();
+      }
+    }
+
+    /**
+     * Finds the weekly RRULE that produces exactly the occurrences seen from the first one.
+     * Occurrences sharing their subject, time of day and duration have different days, so they
+     * are exactly the rule's when their number equals the number of days from the first to
+     * the last whose weekday is in the series.
+     *
+     * @return the rule, or null if the series cannot be written as one
+     */
+    String weeklyRule() {
+      if (!uniform) {
+        return null;
+      }
+      LocalDate day = first.getStartDateTime().toLocalDate();
+      long days = ChronoUnit.DAYS.between(day, lastStart.toLocalDate()) + 1;
+      long expected = days / 7 * weekdays.size();
+      for (long i = 0; i < days % 7; i++) {
+        if (weekdays.contains(day.plusDays(i).getDayOfWeek())) {
+          expected++;
+        }
+      }
+      if (expected != count) {
+        return null;
+      }
+
+      StringBuilder rule = new StringBuilder("FREQ=WEEKLY;COUNT=").append(count)
+              .append(";BYDAY=");
+      String separator = "";
+      for (DayOfWeek weekday : weekdays) {
+        rule.append(separator).append(DAY_CODES[weekday.ordinal()]);
+        separator = ",";
+      }
+      return rule.toString();
+    }
+  }
+
+  /**
+   * Gets the length of an event, or null if it has no end.
+   */
+  private static Duration duration(IEvent event) {
+    if (event.getEndDateTime() == null) {
+      return null;
+    }
+    return Duration.between(event.getStartDateTime(), event.getEndDateTime());
+  }
+}
@@ -0,0 +1,654 @@
+package calendar.model.interchange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * Reads the VEVENTs of an iCalendar (RFC 5545) file into a calendar.
+ * The file is read twice, one line at a time, so memory use does not grow with its size: the
+ * first pass checks every event, and the second adds them to the calendar in batches through
+ * {@link ISmartCalendarModel#addEvents}. A malformed file therefore adds nothing.
+ * Times are converted into the calendar's time zone. Dates without a time become all-day
+ * events. Weekly and daily RRULEs with a COUNT or UNTIL are expanded into a new series; any
+ * other rule keeps only its first occurrence. Overridden occurrences (RECURRENCE-ID) and
+ * exceptions (EXDATE) are not applied. LOCATION is kept only when it names one of the
+ * calendar's locations, and CONFIDENTIAL events become private.
+ */
+public class IcsImporter {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int BATCH_SIZE = 4096;
+  private static final LocalTime ALL_DAY_START = LocalTime.of(8, 0);
+  private static final LocalTime ALL_DAY_END = LocalTime.of(17, 0);
+  private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+  private final ISmartCalendarModel calendar;
+  private final ZoneId zone;
+  private final Map<String, Integer> seriesIds;
+  private List<IEvent> batch;
+  private boolean checking;
+  private int imported;
+  private int simplifiedRules;
+
+  /**
+   * Constructs an importer that adds events to a calendar.
+   *
+   * @param calendar the calendar to add events to
+   * @throws IllegalArgumentException if the calendar is null
+   */
+  public IcsImporter(ISmartCalendarModel calendar) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("Calendar cannot be null");
+    }
+    this.calendar = calendar;
+    this.zone = calendar.getTimezone();
+    this.seriesIds = new HashMap<String, Integer>();
+  }
+
+  /**
+   * Adds every event in a file to the calendar.
+   * Events equal to one already in the calendar are skipped.
+   *
+   * @param file the iCalendar file to read
+   * @return the number of events read, counting each occurrence of a recurring event
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a valid iCalendar file
+   */
+  public int importFrom(Path file) throws IOException {
+    checking = true;
+    read(file);
+    checking = false;
+    imported = 0;
+    simplifiedRules = 0;
+    seriesIds.clear();
+    batch = new ArrayList<IEvent>(BATCH_SIZE);
+    read(file);
+    flush();
+    return imported;
+  }
+
+  /**
+   * Gets the number of recurring events in the last import whose rule could not be expanded,
+   * so only their first occurrence was added.
+   *
+   * @return the number of simplified recurrence rules
+   */
+  public int getSimplifiedRules() {
+    return simplifiedRules;
+  }
+
+  /**
+   * Reads the file one unfolded line at a time, handling each VEVENT as it ends.
+   */
+  private void read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+         BufferedReader in = new BufferedReader(
+                 Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      int depth = 0;
+      int eventDepth = -1;
+      PendingEvent event = null;
+      StringBuilder logical = new StringBuilder();
+      int logicalLine = 0;
+      int lineNumber = 0;
+      String physical = in.readLine();
+      while (physical != null || logical.length() > 0) {
+        lineNumber++;
+        if (physical != null && !physical.isEmpty()
+                && (physical.charAt(0) == ' ' || physical.charAt(0) == '\t')) {
+          // A folded line continues the previous one
+          logical.append(physical, 1, physical.length());
+          physical = in.readLine();
+          continue;
+        }
+        if (logical.length() > 0) {
+          String content = logical.toString();
+          logical.setLength(0);
+          if (content.regionMatches(true, 0, "BEGIN:", 0, 6)) {
+            depth++;
+            if (event == null && content.substring(6).trim().equalsIgnoreCase("VEVENT")) {
+              event = new PendingEvent(logicalLine);
+              eventDepth = depth;
+            }
+          } else if (content.regionMatches(true, 0, "END:", 0, 4)) {
+            if (event != null && depth == eventDepth) {
+              finish(event, logicalLine);
+              event = null;
+            }
+            depth--;
+          } else if (event != null && depth == eventDepth) {
+            readProperty(event, content, logicalLine);
+          }
+        }
+        if (physical == null) {
+          break;
+        }
+        logical.append(physical);
+        logicalLine = lineNumber;
+        physical = in.readLine();
+      }
+      if (event != null) {
+        throw new IllegalArgumentException("VEVENT starting on line " + event.line
+                + " is never ended");
+      }
+    }
+  }
+
+  /**
+   * Reads one property of a VEVENT into the event being built.
+   */
+  private void readProperty(PendingEvent event, String content, int lineNumber) {
+    int colon = valueStart(content);
+    if (colon < 0) {
+      throw invalid(lineNumber, "a property without a value");
+    }
+    int semicolon = content.indexOf(';');
+    int nameEnd = semicolon >= 0 && semicolon < colon ? semicolon : colon;
+    String name = content.substring(0, nameEnd).toUpperCase();
+    String params = content.substring(nameEnd, colon);
+    String value = content.substring(colon + 1);
+
+    switch (name) {
+      case "SUMMARY":
+        event.summary = unescape(value);
+        break;
+      case "DESCRIPTION":
+        event.description = unescape(value);
+        break;
+      case "LOCATION":
+        event.location = parseLocation(unescape(value).trim());
+        break;
+      case "CLASS":
+        event.status = parseClass(value.trim());
+        break;
+      case "DTSTART":
+        event.start = parseTime(value.trim(), params, lineNumber);
+        break;
+      case "DTEND":
+        event.end = parseTime(value.trim(), params, lineNumber);
+        break;
+      case "DURATION":
+        event.duration = parseDuration(value.trim(), lineNumber);
+        break;
+      case "RRULE":
+        event.rule = value.trim();
+        event.ruleLine = lineNumber;
+        break;
+      case IcsExporter.SERIES_PROPERTY:
+        event.seriesKey = value.trim();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Turns a finished VEVENT into events and queues them for the calendar.
+   */
+  private void finish(PendingEvent pending, int endLine) {
+    if (pending.summary == null || pending.summary.trim().isEmpty()) {
+      throw new IllegalArgumentException("VEVENT ending on line " + endLine
+              + " has no SUMMARY");
+    }
+    if (pending.start == null) {
+      throw new IllegalArgumentException("VEVENT ending on line " + endLine
+              + " has no DTSTART");
+    }
+
+    ParsedTime start = pending.start;
+    LocalDateTime localStart;
+    LocalDateTime localEnd;
+    if (start.allDay) {
+      LocalDate lastDay = start.dateTime.toLocalDate();
+      if (pending.end != null && pending.end.dateTime.toLocalDate().isAfter(lastDay)) {
+        // The end of an all-day event is the day after its last day
+        lastDay = pending.end.dateTime.toLocalDate().minusDays(1);
+      } else if (pending.duration != null && pending.duration.toDays() > 1) {
+        lastDay = lastDay.plusDays(pending.duration.toDays() - 1);
+      }
+      localStart = start.dateTime.toLocalDate().atTime(ALL_DAY_START);
+      localEnd = lastDay.atTime(ALL_DAY_END);
+    } else {
+      localStart = start.dateTime;
+      if (pending.end != null) {
+        localEnd = inZone(pending.end, start.zone);
+      } else if (pending.duration != null) {
+        localEnd = localStart.plus(pending.duration);
+      } else {
+        localEnd = localStart;
+      }
+    }
+    if (localEnd.isBefore(localStart)) {
+      throw new IllegalArgumentException("VEVENT ending on line " + endLine
+              + " ends before it starts");
+    }
+
+    Recurrence recurrence = null;
+    if (pending.rule != null) {
+      recurrence = parseRule(pending.rule, pending.ruleLine, localStart, start.zone);
+    }
+    if (checking) {
+      return;
+    }
+
+    Integer seriesId = null;
+    if (recurrence != null) {
+      seriesId = calendar.generateUniqueSeriesId();
+    } else if (pending.seriesKey != null) {
+      seriesId = seriesIds.get(pending.seriesKey);
+      if (seriesId == null) {
+        seriesId = calendar.generateUniqueSeriesId();
+        seriesIds.put(pending.seriesKey, seriesId);
+      }
+    }
+
+    Duration length = Duration.between(localStart, localEnd);
+    Event.EventBuilder builder = Event.getBuilder()
+            .subject(pending.summary)
+            .description(pending.description)
+            .location(pending.location)
+            .status(pending.status)
+            .seriesId(seriesId);
+    if (recurrence == null) {
+      add(builder, localStart, length, start.zone);
+      return;
+    }
+    // Occurrences are added as they are produced, so a long series is never held in memory
+    LocalDateTime current = localStart;
+    int occurrences = 0;
+    while ((recurrence.count < 0 || occurrences < recurrence.count)
+            && (recurrence.until == null || !current.toLocalDate().isAfter(recurrence.until))) {
+      if (occurrences == 0 || recurrence.weekdays.contains(current.getDayOfWeek())) {
+        add(builder, current, length, start.zone);
+        occurrences++;
+      }
+      current = current.plusDays(1);
+    }
+  }
+
+  /**
+   * Parses a recurrence rule. The first occurrence is always the event's start, as
+   * iCalendar requires, and later occurrences fall on the rule's weekdays.
+   *
+   * @return the rule, or null if it is not supported and only the first occurrence is kept
+   */
+  private Recurrence parseRule(String rule, int lineNumber, LocalDateTime start,
+                               ZoneId eventZone) {
+    String frequency = null;
+    int count = -1;
+    LocalDate until = null;
+    Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+    boolean supported = true;
+    for (String part : rule.split(";")) {
+      int equals = part.indexOf('=');
+      if (equals < 0) {
+        throw invalid(lineNumber, "a malformed RRULE");
+      }
+      String key = part.substring(0, equals).toUpperCase();
+      String value = part.substring(equals + 1).toUpperCase();
+      switch (key) {
+        case "FREQ":
+          frequency = value;
+          break;
+        case "COUNT":
+          count = parseCount(value, lineNumber);
+          break;
+        case "UNTIL":
+          until = parseUntil(value, eventZone, lineNumber);
+          break;
+        case "INTERVAL":
+          supported &= value.equals("1");
+          break;
+        case "BYDAY":
+          supported &= parseWeekdays(value, weekdays);
+          break;
+        case "WKST":
+          break;
+        default:
+          supported = false;
+      }
+    }
+    if (frequency == null) {
+      throw invalid(lineNumber, "an RRULE without FREQ");
+    }
+    if (frequency.equals("DAILY") && weekdays.isEmpty()) {
+      weekdays = EnumSet.allOf(DayOfWeek.class);
+    } else if (frequency.equals("WEEKLY") && weekdays.isEmpty()) {
+      weekdays.add(start.getDayOfWeek());
+    } else if (!frequency.equals("WEEKLY") && !frequency.equals("DAILY")) {
+      supported = false;
+    }
+    if (!supported || (count < 0 && until == null)) {
+      if (!checking) {
+        simplifiedRules++;
+      }
+      return null;
+    }
+    return new Recurrence(weekdays, count, until);
+  }
+
+  /**
+   * Queues an occurrence that starts at a time in the event's zone, adding the queue to the
+   * calendar once it is full.
+   */
+  private void add(Event.EventBuilder builder, LocalDateTime start, Duration length,
+                   ZoneId eventZone) {
+    batch.add(builder
+            .startDateTime(toCalendarZone(start, eventZone))
+            .endDateTime(toCalendarZone(start.plus(length), eventZone))
+            .build());
+    imported++;
+    if (batch.size() == BATCH_SIZE) {
+      flush();
+    }
+  }
+
+  /**
+   * Adds the queued events to the calendar.
+   */
+  private void flush() {
+    if (!batch.isEmpty()) {
+      calendar.addEvents(batch);
+      batch = new ArrayList<IEvent>(BATCH_SIZE);
+    }
+  }
+
+  /**
+   * Converts a time in an event's zone to the calendar's zone. Floating times and all-day
+   * events have no zone and are already in the calendar's time.
+   */
+  private LocalDateTime toCalendarZone(LocalDateTime dateTime, ZoneId eventZone) {
+    if (eventZone == null || eventZone.equals(zone)) {
+      return dateTime;
+    }
+    return dateTime.atZone(eventZone).withZoneSameInstant(zone).toLocalDateTime();
+  }
+
+  /**
+   * Expresses a parsed time in the zone of the event's start, so the length of the event can
+   * be measured when its start and end use different zones.
+   */
+  private LocalDateTime inZone(ParsedTime time, ZoneId eventZone) {
+    if (time.allDay || time.zone == null || eventZone == null) {
+      return time.dateTime;
+    }
+    return time.dateTime.atZone(time.zone).withZoneSameInstant(eventZone).toLocalDateTime();
+  }
+
+  /**
+   * Parses a DATE or DATE-TIME value, using its TZID parameter if it has one.
+   */
+  private ParsedTime parseTime(String value, String params, int lineNumber) {
+    try {
+      if (value.length() == 8) {
+        return new ParsedTime(parseDate(value).atStartOfDay(), null, true);
+      }
+      if (value.length() < 15 || value.charAt(8) != 'T') {
+        throw invalid(lineNumber, "an invalid date-time '" + value + "'");
+      }
+      LocalDateTime dateTime = parseDate(value.substring(0, 8)).atTime(
+              digits(value, 9, 11), digits(value, 11, 13), digits(value, 13, 15));
+      if (value.length() == 16 && value.charAt(15) == 'Z') {
+        return new ParsedTime(dateTime, ZoneOffset.UTC, false);
+      }
+      if (value.length() != 15) {
+        throw invalid(lineNumber, "an invalid date-time '" + value + "'");
+      }
+      return new ParsedTime(dateTime, parseZone(params), false);
+    } catch (DateTimeException | NumberFormatException e) {
+      throw invalid(lineNumber, "an invalid date-time '" + value + "'");
+    }
+  }
+
+  /**
+   * Finds the zone named by a TZID parameter. Zones that are not known by their IANA name,
+   * and times without a TZID, are taken to be in the calendar's zone.
+   */
+  private ZoneId parseZone(String params) {
+    int index = params.toUpperCase().indexOf(";TZID=");
+    if (index < 0) {
+      return null;
+    }
+    int start = index + 6;
+    int end = params.indexOf(';', start);
+    String id = params.substring(start, end < 0 ? params.length() : end);
+    if (id.length() >= 2 && id.startsWith("\"") && id.endsWith("\"")) {
+      id = id.substring(1, id.length() - 1);
+    }
+    try {
+      return ZoneId.of(id);
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses the last day of an UNTIL value in the event's zone.
+   */
+  private LocalDate parseUntil(String value, ZoneId eventZone, int lineNumber) {
+    ParsedTime until = parseTime(value, "", lineNumber);
+    if (until.zone != null && eventZone != null) {
+      return until.dateTime.atZone(until.zone).withZoneSameInstant(eventZone).toLocalDate();
+    }
+    return until.dateTime.toLocalDate();
+  }
+
+  /**
+   * Parses a DURATION value such as PT1H30M, P1D or P2W.
+   */
+  private Duration parseDuration(String value, int lineNumber) {
+    try {
+      int weekIndex = value.indexOf('W');
+      if (weekIndex > 0) {
+        int numberStart = value.startsWith("-") || value.startsWith("+") ? 2 : 1;
+        long weeks = Long.parseLong(value.substring(numberStart, weekIndex));
+        return Duration.ofDays(7 * weeks);
+      }
+      return Duration.parse(value);
+    } catch (RuntimeException e) {
+      throw invalid(lineNumber, "an invalid duration '" + value + "'");
+    }
+  }
+
+  /**
+   * Parses a positive COUNT.
+   */
+  private int parseCount(String value, int lineNumber) {
+    try {
+      int count = Integer.parseInt(value);
+      if (count > 0) {
+        return count;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw invalid(lineNumber, "an invalid RRULE COUNT '" + value + "'");
+  }
+
+  /**
+   * Adds the weekdays of a BYDAY list.
+   *
+   * @return false if the list uses positions such as 1MO, which are not supported
+   */
+  private static boolean parseWeekdays(String value, Set<DayOfWeek> weekdays) {
+    for (String code : value.split(",")) {
+      DayOfWeek day = null;
+      for (int i = 0; i < DAY_CODES.length; i++) {
+        if (DAY_CODES[i].equals(code)) {
+          day = DayOfWeek.of(i + 1);
+        }
+      }
+      if (day == null) {
+        return false;
+      }
+      weekdays.add(day);
+    }
+    return true;
+  }
+
+  /**
+   * Parses a date in the basic form, such as 20250305.
+   */
+  private static LocalDate parseDate(String value) {
+    return LocalDate.of(digits(value, 0, 4), digits(value, 4, 6), digits(value, 6, 8));
+  }
+
+  /**
+   * Parses the decimal digits between two positions of a string.
+   */
+  private static int digits(String value, int start, int end) {
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new NumberFormatException("Not a digit: " + c);
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  /**
+   * Finds the colon that separates a property's name and parameters from its value, skipping
+   * colons inside quoted parameter values.
+   */
+  private static int valueStart(String content) {
+    boolean quoted = false;
+    for (int i = 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ':' && !quoted) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Undoes the escaping of a text value.
+   */
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder builder = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char next = value.charAt(++i);
+        builder.append(next == 'n' || next == 'N' ? '\n' : next);
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Maps a LOCATION to one of the calendar's locations, or null if it names neither.
+   */
+  private static EventLocation parseLocation(String value) {
+    for (EventLocation location : EventLocation.values()) {
+      if (location.name().equalsIgnoreCase(value)) {
+        return location;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Maps a CLASS to an event status, or null for classes the calendar does not know.
+   */
+  private static EventStatus parseClass(String value) {
+    if (value.equalsIgnoreCase("PUBLIC")) {
+      return EventStatus.PUBLIC;
+    }
+    if (value.equalsIgnoreCase("PRIVATE") || value.equalsIgnoreCase("CONFIDENTIAL")) {
+      return EventStatus.PRIVATE;
+    }
+    return null;
+  }
+
+  /**
+   * Creates the exception reporting a problem on a line of the file.
+   */
+  private static IllegalArgumentException invalid(int lineNumber, String problem) {
+    return new IllegalArgumentException("Line " + lineNumber + " of the iCalendar file has "
+            + problem);
+  }
+
+  /**
+   * A DTSTART or DTEND value. The zone is null for floating times and dates.
+   */
+  private static final class ParsedTime {
+    private final LocalDateTime dateTime;
+    private final ZoneId zone;
+    private final boolean allDay;
+
+    private ParsedTime(LocalDateTime dateTime, ZoneId zone, boolean allDay) {
+      this.dateTime = dateTime;
+      this.zone = zone;
+      this.allDay = allDay;
+    }
+  }
+
+  /**
+   * A supported recurrence rule. The count is -1 when the rule only has an UNTIL date.
+   */
+  private static final class Recurrence {
+    private final Set<DayOfWeek> weekdays;
+    private final int count;
+    private final LocalDate until;
+
+    private Recurrence(Set<DayOfWeek> weekdays, int count, LocalDate until) {
+      this.weekdays = weekdays;
+      this.count = count;
+      this.until = until;
+    }
+  }
+
+  /**
+   * The properties of a VEVENT read so far.
+   */
+  private static final class PendingEvent {
+    private final int line;
+    private String summary;
+    private String description;
+    private EventLocation location;
+    private EventStatus status;
+    private ParsedTime start;
+    private ParsedTime end;
+    private Duration duration;
+    private String rule;
+    private int ruleLine;
+    private String seriesKey;
+
+    private PendingEvent(int line) {
+      this.line = line;
+    }
+  }
+}
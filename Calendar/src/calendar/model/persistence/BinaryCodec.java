@@ -0,0 +1,141 @@
+package calendar.model.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.IEvent;
+
+/**
+ * Package-private helpers for reading and writing calendar values in binary form.
+ * Date-times are written as epoch seconds and nanoseconds against UTC, so they round-trip
+ * exactly without any time zone rules being applied. Nullable values are marked with a
+ * negative length or ordinal.
+ */
+final class BinaryCodec {
+  private static final int NULL_MARKER = -1;
+
+  private BinaryCodec() {
+  }
+
+  /**
+   * Writes a nullable string as its UTF-8 byte length followed by the bytes.
+   */
+  static void writeString(DataOutput out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(NULL_MARKER);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a nullable string written by {@link #writeString}.
+   */
+  static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length == NULL_MARKER) {
+      return null;
+    }
+    if (length < 0) {
+      throw new IOException("Invalid string length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes a date-time as epoch seconds and nanoseconds.
+   */
+  static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+    out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+    out.writeInt(dateTime.getNano());
+  }
+
+  /**
+   * Reads a date-time written by {@link #writeDateTime}.
+   */
+  static LocalDateTime readDateTime(DataInput in) throws IOException {
+    long seconds = in.readLong();
+    int nanos = in.readInt();
+    return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+  }
+
+  /**
+   * Writes a set of weekdays as a bit mask, with Monday as the lowest bit.
+   */
+  static void writeWeekdays(DataOutput out, ArrayList<DayOfWeek> weekdays) throws IOException {
+    int mask = 0;
+    for (DayOfWeek day : weekdays) {
+      mask |= 1 << (day.getValue() - 1);
+    }
+    out.writeByte(mask);
+  }
+
+  /**
+   * Reads a set of weekdays written by {@link #writeWeekdays}, in Monday to Sunday order.
+   */
+  static ArrayList<DayOfWeek> readWeekdays(DataInput in) throws IOException {
+    int mask = in.readUnsignedByte();
+    ArrayList<DayOfWeek> weekdays = new ArrayList<DayOfWeek>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      if ((mask & (1 << (day.getValue() - 1))) != 0) {
+        weekdays.add(day);
+      }
+    }
+    return weekdays;
+  }
+
+  /**
+   * Writes every property of an event.
+   */
+  static void writeEvent(DataOutput out, IEvent event) throws IOException {
+    writeString(out, event.getSubject());
+    writeDateTime(out, event.getStartDateTime());
+    out.writeBoolean(event.getEndDateTime() != null);
+    if (event.getEndDateTime() != null) {
+      writeDateTime(out, event.getEndDateTime());
+    }
+    writeString(out, event.getDescription());
+    out.writeByte(event.getLocation() == null ? NULL_MARKER : event.getLocation().ordinal());
+    out.writeByte(event.getStatus() == null ? NULL_MARKER : event.getStatus().ordinal());
+    out.writeInt(event.getSeriesId() == null ? NULL_MARKER : event.getSeriesId());
+  }
+
+  /**
+   * Reads an event written by {@link #writeEvent}.
+   */
+  static IEvent readEvent(DataInput in) throws IOException {
+    String subject = readString(in);
+    LocalDateTime start = readDateTime(in);
+    LocalDateTime end = in.readBoolean() ? readDateTime(in) : null;
+    String description = readString(in);
+    byte location = in.readByte();
+    byte status = in.readByte();
+    int seriesId = in.readInt();
+    try {
+      return Event.getBuilder()
+              .subject(subject)
+              .startDateTime(start)
+              .endDateTime(end)
+              .description(description)
+              .location(location == NULL_MARKER ? null : EventLocation.values()[location])
+              .status(status == NULL_MARKER ? null : EventStatus.values()[status])
+              .seriesId(seriesId == NULL_MARKER ? null : seriesId)
+              .build();
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Invalid event location or status", e);
+    }
+  }
+}
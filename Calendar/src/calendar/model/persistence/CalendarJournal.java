@@ -0,0 +1,583 @@
+package calendar.model.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import calendar.model.ICalendarManager;
+
+/**
+ * An append-only binary journal of calendar mutations.
+ * The journal lives in a directory of numbered segment files. Each segment starts with a
+ * header and holds a sequence of framed records: the record length, the record itself (an
+ * opcode followed by its arguments) and a CRC-32 checksum. A record that was only partly
+ * written when the application stopped fails its length or checksum test and is discarded
+ * during recovery, together with anything after it.
+ * Records are appended by {@link JournalingCalendarManager} after each successful mutation,
+ * and are made durable according to the journal's {@link JournalSyncPolicy}.
+ * The directory may also hold {@link CalendarSnapshot} files. A snapshot includes every
+ * segment up to the number in its file name, so recovery loads the newest snapshot and only
+ * replays the segments after it.
+ */
+public class CalendarJournal implements Closeable {
+  private static final int MAGIC = 0x43414C4A; // "CALJ"
+  private static final short VERSION = 1;
+  private static final int HEADER_SIZE = 4 + 2 + 8;
+  private static final int FRAME_OVERHEAD = 4 + 4;
+  private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".snap";
+
+  private final Path directory;
+  private final JournalSyncPolicy syncPolicy;
+  private final int groupCommitSize;
+  private final ByteArrayOutputStream recordBytes;
+  private final DataOutputStream recordOut;
+  private FileChannel channel;
+  private long segmentNumber;
+  private int unsyncedRecords;
+  private int segmentRecords;
+  private int segmentRecordLimit;
+  private Runnable segmentFullHandler;
+  private boolean failed;
+
+  /**
+   * Opens the journal in the given directory for appending, creating the directory and the
+   * first segment if needed. Records are appended to the newest segment.
+   * A journal with existing records should be opened with {@link #recover} instead, so a
+   * partly written record at its end is removed before anything is appended after it.
+   *
+   * @param directory       the directory holding the journal segments
+   * @param syncPolicy      when records are forced to disk
+   * @param groupCommitSize the number of records forced together under
+   *                        {@link JournalSyncPolicy#GROUP_COMMIT}
+   * @throws IOException              if the journal cannot be opened
+   * @throws IllegalArgumentException if the sync policy is null or the group size is not
+   *                                  positive
+   */
+  public CalendarJournal(Path directory, JournalSyncPolicy syncPolicy, int groupCommitSize)
+          throws IOException {
+    if (syncPolicy == null) {
+      throw new IllegalArgumentException("Sync policy cannot be null");
+    }
+    if (groupCommitSize <= 0) {
+      throw new IllegalArgumentException("Group commit size must be positive");
+    }
+    this.directory = directory;
+    this.syncPolicy = syncPolicy;
+    this.groupCommitSize = groupCommitSize;
+    this.recordBytes = new ByteArrayOutputStream();
+    this.recordOut = new DataOutputStream(recordBytes);
+
+    Files.createDirectories(directory);
+    List<Path> segments = listSegments(directory);
+    if (segments.isEmpty()) {
+      openSegment(lastSnapshotSegment(directory) + 1);
+    } else {
+      Path newest = segments.get(segments.size() - 1);
+      this.segmentNumber = fileNumber(newest, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+      this.channel = FileChannel.open(newest, StandardOpenOption.WRITE,
+              StandardOpenOption.APPEND);
+    }
+  }
+
+  /**
+   * Rebuilds the calendars recorded in a journal and opens the journal for appending.
+   * This is the usual way to start an application with a journal: the manager should be
+   * empty, and should afterwards be wrapped in a {@link JournalingCalendarManager} using the
+   * returned journal.
+   *
+   * @param directory       the directory holding the journal segments
+   * @param manager         the empty manager to rebuild
+   * @param syncPolicy      when records are forced to disk
+   * @param groupCommitSize the number of records forced together under group commit
+   * @return the journal, ready for appending
+   * @throws IOException if the journal cannot be read or opened
+   */
+  public static CalendarJournal recover(Path directory, ICalendarManager manager,
+                                        JournalSyncPolicy syncPolicy, int groupCommitSize)
+          throws IOException {
+    replay(directory, manager);
+    return new CalendarJournal(directory, syncPolicy, groupCommitSize);
+  }
+
+  /**
+   * Rebuilds the calendars recorded in a journal directory in the given manager: the newest
+   * snapshot is restored first, then the records of every later segment are applied, oldest
+   * first. A partly written record at the end of the newest segment is truncated away, and
+   * snapshots that were still being written are removed.
+   *
+   * @param directory the directory holding the journal segments
+   * @param manager   the empty manager to apply the snapshot and records to
+   * @return the number of records applied after the snapshot
+   * @throws IOException           if a snapshot or segment cannot be read, or a segment other
+   *                               than the newest is damaged
+   * @throws IllegalStateException if a record cannot be applied to the manager
+   */
+  public static int replay(Path directory, ICalendarManager manager) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return 0;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+            SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX + ".tmp")) {
+      for (Path unfinished : stream) {
+        Files.delete(unfinished);
+      }
+    }
+
+    long lastIncluded = 0;
+    List<Path> snapshots = listFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    if (!snapshots.isEmpty()) {
+      CalendarSnapshot snapshot = CalendarSnapshot.readFrom(snapshots.get(snapshots.size() - 1));
+      snapshot.restoreInto(manager);
+      lastIncluded = snapshot.getLastSegment();
+    }
+
+    JournalReplayer replayer = new JournalReplayer(manager);
+    List<Path> segments = new ArrayList<Path>();
+    for (Path segment : listSegments(directory)) {
+      if (fileNumber(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX) > lastIncluded) {
+        segments.add(segment);
+      }
+    }
+    int applied = 0;
+    for (int i = 0; i < segments.size(); i++) {
+      boolean newest = i == segments.size() - 1;
+      applied += replaySegment(segments.get(i), replayer, newest, applied);
+    }
+    return applied;
+  }
+
+  /**
+   * Appends one record to the journal and makes it durable according to the sync policy.
+   *
+   * @param type the type of the record
+   * @param body writes the arguments of the record
+   * @throws IllegalStateException if the journal is closed or the record cannot be written;
+   *                               after a write failure no further records are accepted
+   */
+  synchronized void append(JournalRecordType type, RecordBody body) {
+    write(type, body);
+    segmentRecords++;
+    runSegmentFullHandler();
+  }
+
+  /**
+   * Appends the records of one group of changes to the journal, making each durable according
+   * to the sync policy. The records all go to the same segment: if they fill it, the handler
+   * registered with {@link #onSegmentFull} only runs after the last of them, so a snapshot it
+   * takes never holds part of the group while the rest is left to be replayed on top of it.
+   *
+   * @param types  the types of the records, in order
+   * @param bodies write the arguments of each record, in the same order
+   * @throws IllegalStateException if the journal is closed or a record cannot be written;
+   *                               after a write failure no further records are accepted
+   */
+  synchronized void appendGroup(List<JournalRecordType> types, List<RecordBody> bodies) {
+    for (int i = 0; i < types.size(); i++) {
+      write(types.get(i), bodies.get(i));
+      segmentRecords++;
+    }
+    runSegmentFullHandler();
+  }
+
+  /**
+   * Runs the segment-full handler if the current segment is full.
+   */
+  private void runSegmentFullHandler() {
+    if (segmentFullHandler != null && segmentRecords >= segmentRecordLimit) {
+      segmentFullHandler.run();
+    }
+  }
+
+  /**
+   * Writes one framed record to the current segment and syncs it if the policy asks to.
+   */
+  private void write(JournalRecordType type, RecordBody body) {
+    if (channel == null || failed) {
+      throw new IllegalStateException("Journal is not open for writing");
+    }
+    try {
+      recordBytes.reset();
+      recordOut.writeByte(type.getCode());
+      body.write(recordOut);
+      byte[] record = recordBytes.toByteArray();
+
+      CRC32 crc = new CRC32();
+      crc.update(record);
+      ByteBuffer frame = ByteBuffer.allocate(record.length + FRAME_OVERHEAD);
+      frame.putInt(record.length).put(record).putInt((int) crc.getValue()).flip();
+      writeFully(frame);
+
+      unsyncedRecords++;
+      if (syncPolicy == JournalSyncPolicy.EVERY_RECORD
+              || (syncPolicy == JournalSyncPolicy.GROUP_COMMIT
+              && unsyncedRecords >= groupCommitSize)) {
+        force();
+      }
+    } catch (IOException e) {
+      failed = true;
+      throw new IllegalStateException("Failed to write to journal: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Registers a handler that runs once the current segment holds the given number of records.
+   * The handler runs on the appending thread, right after the record that filled the segment
+   * or after the group of records that record is part of, and is expected to {@link #rotate}
+   * the journal; until it does, it runs after every record.
+   *
+   * @param recordLimit the number of records that fills a segment
+   * @param handler     the handler to run, or null to remove the handler
+   * @throws IllegalArgumentException if the record limit is not positive
+   */
+  public synchronized void onSegmentFull(int recordLimit, Runnable handler) {
+    if (recordLimit <= 0) {
+      throw new IllegalArgumentException("Segment record limit must be positive");
+    }
+    this.segmentRecordLimit = recordLimit;
+    this.segmentFullHandler = handler;
+  }
+
+  /**
+   * Closes the current segment and starts appending to a new one. The closed segment is
+   * forced to disk first, whatever the sync policy.
+   *
+   * @return the number of the segment that was closed
+   * @throws IOException if the segments cannot be switched
+   */
+  public synchronized long rotate() throws IOException {
+    if (channel == null || failed) {
+      throw new IllegalStateException("Journal is not open for writing");
+    }
+    long closed = segmentNumber;
+    try {
+      channel.force(false);
+      channel.close();
+      openSegment(closed + 1);
+    } catch (IOException e) {
+      failed = true;
+      throw e;
+    }
+    unsyncedRecords = 0;
+    segmentRecords = 0;
+    return closed;
+  }
+
+  /**
+   * Deletes the segments and snapshots made obsolete by the snapshot including every segment
+   * up to the given number: those segments, and every older snapshot.
+   *
+   * @param lastIncluded the last segment number included in the newest durable snapshot
+   * @throws IOException if a file cannot be deleted
+   */
+  public void deleteObsoleteFiles(long lastIncluded) throws IOException {
+    for (Path segment : listSegments(directory)) {
+      if (fileNumber(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= lastIncluded) {
+        Files.delete(segment);
+      }
+    }
+    for (Path snapshot : listFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+      if (fileNumber(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < lastIncluded) {
+        Files.delete(snapshot);
+      }
+    }
+  }
+
+  /**
+   * Gets the path of the snapshot including every segment up to the given number.
+   *
+   * @param lastIncluded the last segment number included in the snapshot
+   * @return the snapshot path in the journal directory
+   */
+  public Path snapshotPath(long lastIncluded) {
+    return directory.resolve(String.format("%s%010d%s", SNAPSHOT_PREFIX, lastIncluded,
+            SNAPSHOT_SUFFIX));
+  }
+
+  /**
+   * Forces every record written so far to disk, whatever the sync policy.
+   *
+   * @throws IOException if the records cannot be forced
+   */
+  public synchronized void sync() throws IOException {
+    if (channel != null && unsyncedRecords > 0) {
+      force();
+    }
+  }
+
+  /**
+   * Gets the number of the segment records are currently appended to.
+   *
+   * @return the current segment number
+   */
+  public synchronized long getSegmentNumber() {
+    return segmentNumber;
+  }
+
+  /**
+   * Gets the directory holding the journal segments.
+   *
+   * @return the journal directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Closes the journal. Pending records are forced to disk unless the sync policy leaves
+   * write-back to the operating system.
+   *
+   * @throws IOException if the journal cannot be closed cleanly
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    try {
+      if (syncPolicy != JournalSyncPolicy.OS_DEFAULT && !failed) {
+        sync();
+      }
+    } finally {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  /**
+   * Creates a new, empty segment with the given number and makes it the current segment.
+   */
+  private void openSegment(long number) throws IOException {
+    Path path = directory.resolve(segmentFileName(number));
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    this.segmentNumber = number;
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putShort(VERSION).putLong(number).flip();
+    writeFully(header);
+    channel.force(true);
+  }
+
+  /**
+   * Writes the whole buffer to the current segment.
+   */
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Forces the current segment to disk.
+   */
+  private void force() throws IOException {
+    channel.force(false);
+    unsyncedRecords = 0;
+  }
+
+  /**
+   * Applies the records of one segment, truncating a damaged tail if it is the newest one.
+   *
+   * @return the number of records applied
+   */
+  private static int replaySegment(Path segment, JournalReplayer replayer, boolean newest,
+                                   int previouslyApplied) throws IOException {
+    if (newest && Files.size(segment) < HEADER_SIZE) {
+      // The application stopped while creating this segment, before anything was appended
+      Files.delete(segment);
+      return 0;
+    }
+
+    int applied = 0;
+    long validLength = HEADER_SIZE;
+    boolean damaged = false;
+
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(segment));
+         DataInputStream in = new DataInputStream(stream)) {
+      readHeader(in, segment);
+      while (true) {
+        byte[] record = readFrame(in);
+        if (record == null) {
+          break;
+        }
+        if (record.length == 0) {
+          damaged = true;
+          break;
+        }
+        applyRecord(record, replayer, previouslyApplied + applied);
+        applied++;
+        validLength += record.length + FRAME_OVERHEAD;
+      }
+    }
+
+    if (damaged || Files.size(segment) > validLength) {
+      if (!newest) {
+        throw new IOException("Journal segment " + segment.getFileName() + " is damaged");
+      }
+      try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+        truncate.truncate(validLength);
+        truncate.force(true);
+      }
+    }
+    return applied;
+  }
+
+  /**
+   * Reads and checks a segment header.
+   */
+  private static void readHeader(DataInputStream in, Path segment) throws IOException {
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(segment.getFileName() + " is not a calendar journal");
+      }
+      short version = in.readShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported journal version " + version);
+      }
+      in.readLong();
+    } catch (EOFException e) {
+      throw new IOException("Journal segment " + segment.getFileName()
+              + " has an incomplete header", e);
+    }
+  }
+
+  /**
+   * Reads the next framed record.
+   *
+   * @return the record, null at a clean end of the segment, or an empty array if the frame
+   *         is incomplete or fails its checksum
+   */
+  private static byte[] readFrame(DataInputStream in) throws IOException {
+    int length;
+    try {
+      length = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    if (length <= 0 || length > MAX_RECORD_SIZE) {
+      return new byte[0];
+    }
+
+    byte[] record = new byte[length];
+    int checksum;
+    try {
+      in.readFully(record);
+      checksum = in.readInt();
+    } catch (EOFException e) {
+      return new byte[0];
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    return (int) crc.getValue() == checksum ? record : new byte[0];
+  }
+
+  /**
+   * Decodes one record and applies it.
+   */
+  private static void applyRecord(byte[] record, JournalReplayer replayer, int index)
+          throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    JournalRecordType type;
+    try {
+      type = JournalRecordType.fromCode(in.readByte());
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    try {
+      replayer.apply(type, in);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Journal record " + index + " (" + type
+              + ") could not be replayed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Lists the segment files in a directory, oldest first.
+   */
+  static List<Path> listSegments(Path directory) throws IOException {
+    return listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+  }
+
+  /**
+   * Lists the numbered files with the given prefix and suffix in a directory, lowest number
+   * first.
+   */
+  private static List<Path> listFiles(Path directory, String prefix, String suffix)
+          throws IOException {
+    List<Path> files = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+            prefix + "*" + suffix)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        String number = name.substring(prefix.length(), name.length() - suffix.length());
+        if (!number.isEmpty() && number.chars().allMatch(Character::isDigit)) {
+          files.add(path);
+        }
+      }
+    }
+    files.sort((a, b) -> Long.compare(fileNumber(a, prefix, suffix),
+            fileNumber(b, prefix, suffix)));
+    return files;
+  }
+
+  /**
+   * Gets the number of a numbered file from its file name.
+   */
+  private static long fileNumber(Path file, String prefix, String suffix) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+  }
+
+  /**
+   * Gets the last segment number included in the newest snapshot, or 0 if there is none.
+   */
+  private static long lastSnapshotSegment(Path directory) throws IOException {
+    List<Path> snapshots = listFiles(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    if (snapshots.isEmpty()) {
+      return 0;
+    }
+    return fileNumber(snapshots.get(snapshots.size() - 1), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+  }
+
+  /**
+   * Gets the file name of the segment with the given number.
+   */
+  static String segmentFileName(long number) {
+    return String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+  }
+
+  /**
+   * Writes the arguments of a journal record.
+   */
+  @FunctionalInterface
+  interface RecordBody {
+    /**
+     * Writes the arguments of the record.
+     *
+     * @param out the output to write to
+     * @throws IOException if the arguments cannot be written
+     */
+    void write(DataOutput out) throws IOException;
+  }
+}
@@ -0,0 +1,356 @@
+package calendar.model.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.ICalendarManager;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * A point-in-time copy of every calendar in a manager.
+ * A snapshot is captured in memory, which only copies references to the immutable events, and
+ * can then be written to disk on another thread while the calendars keep changing. It records
+ * the number of the last journal segment it includes, so recovery only has to replay the
+ * segments after it.
+ * On disk, every distinct string (names, time zones, subjects and descriptions) is stored once
+ * in a string table and referred to by index, and the file ends with a CRC-32 of its contents.
+ */
+public final class CalendarSnapshot {
+  private static final int MAGIC = 0x43414C53; // "CALS"
+  private static final short VERSION = 1;
+  private static final int NO_VALUE = -1;
+
+  // Flags describing which optional event fields are stored
+  private static final int HAS_END = 1;
+  private static final int HAS_NANOS = 2;
+  private static final int HAS_SERIES = 4;
+
+  private final long lastSegment;
+  private final String currentCalendar;
+  private final List<CalendarState> calendars;
+
+  private CalendarSnapshot(long lastSegment, String currentCalendar,
+                           List<CalendarState> calendars) {
+    this.lastSegment = lastSegment;
+    this.currentCalendar = currentCalendar;
+    this.calendars = calendars;
+  }
+
+  /**
+   * Captures the calendars of a manager. This must run on the thread that changes the
+   * calendars, between two changes.
+   *
+   * @param manager     the manager to capture
+   * @param lastSegment the number of the last journal segment whose records are included
+   * @return the captured snapshot
+   */
+  public static CalendarSnapshot capture(ICalendarManager manager, long lastSegment) {
+    List<CalendarState> calendars = new ArrayList<CalendarState>();
+    for (String name : manager.getCalendarNames()) {
+      ISmartCalendarModel calendar = manager.getCalendar(name);
+      calendars.add(new CalendarState(name, calendar.getTimezone(), calendar.getAllEvents()));
+    }
+    ISmartCalendarModel current = manager.getCurrentCalendar();
+    String currentName = current == null ? null : current.getCalendarName();
+    return new CalendarSnapshot(lastSegment, currentName, calendars);
+  }
+
+  /**
+   * Gets the number of the last journal segment included in this snapshot.
+   *
+   * @return the last included segment number
+   */
+  public long getLastSegment() {
+    return lastSegment;
+  }
+
+  /**
+   * Recreates the captured calendars in an empty manager.
+   *
+   * @param manager the manager to restore into
+   * @throws IllegalArgumentException if the manager already has a calendar of the same name
+   */
+  public void restoreInto(ICalendarManager manager) {
+    for (CalendarState state : calendars) {
+      manager.createCalendar(state.name, state.timezone);
+      ISmartCalendarModel calendar = manager.getCalendar(state.name);
+      for (IEvent event : state.events) {
+        calendar.addEvent(event);
+      }
+    }
+    if (currentCalendar != null) {
+      manager.useCalendar(currentCalendar);
+    }
+  }
+
+  /**
+   * Writes this snapshot durably. The snapshot is written to a temporary file, forced to disk
+   * and then renamed over the target, so the target is never left partly written.
+   *
+   * @param file the file to write
+   * @throws IOException if the snapshot cannot be written
+   */
+  public void writeTo(Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel),
+              64 * 1024);
+      CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      writeContents(out);
+      out.flush();
+      new DataOutputStream(stream).writeInt((int) checked.getChecksum().getValue());
+      stream.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot written by {@link #writeTo}.
+   *
+   * @param file the file to read
+   * @return the snapshot
+   * @throws IOException if the file cannot be read, or is damaged
+   */
+  public static CalendarSnapshot readFrom(Path file) throws IOException {
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+      CheckedInputStream checked = new CheckedInputStream(stream, new CRC32());
+      CalendarSnapshot snapshot = readContents(new DataInputStream(checked));
+      int expected = (int) checked.getChecksum().getValue();
+      if (new DataInputStream(stream).readInt() != expected) {
+        throw new IOException("Snapshot " + file.getFileName() + " failed its checksum");
+      }
+      return snapshot;
+    } catch (EOFException e) {
+      throw new IOException("Snapshot " + file.getFileName() + " is incomplete", e);
+    }
+  }
+
+  /**
+   * Writes the header, string table and calendars.
+   */
+  private void writeContents(DataOutputStream out) throws IOException {
+    Map<String, Integer> strings = buildStringTable();
+    out.writeInt(MAGIC);
+    out.writeShort(VERSION);
+    out.writeLong(lastSegment);
+
+    out.writeInt(strings.size());
+    for (String value : strings.keySet()) {
+      BinaryCodec.writeString(out, value);
+    }
+
+    out.writeInt(indexOf(strings, currentCalendar));
+    out.writeInt(calendars.size());
+    for (CalendarState state : calendars) {
+      out.writeInt(indexOf(strings, state.name));
+      out.writeInt(indexOf(strings, state.timezone.getId()));
+      out.writeInt(state.events.size());
+      for (IEvent event : state.events) {
+        writeEvent(out, event, strings);
+      }
+    }
+  }
+
+  /**
+   * Reads the header, string table and calendars.
+   */
+  private static CalendarSnapshot readContents(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a calendar snapshot");
+    }
+    short version = in.readShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot version " + version);
+    }
+    long lastSegment = in.readLong();
+
+    int stringCount = readCount(in);
+    List<String> strings = new ArrayList<String>();
+    for (int i = 0; i < stringCount; i++) {
+      strings.add(BinaryCodec.readString(in));
+    }
+
+    String currentCalendar = lookup(strings, in.readInt());
+    int calendarCount = readCount(in);
+    List<CalendarState> calendars = new ArrayList<CalendarState>();
+    for (int i = 0; i < calendarCount; i++) {
+      String name = lookup(strings, in.readInt());
+      ZoneId timezone = ZoneId.of(lookup(strings, in.readInt()));
+      int eventCount = readCount(in);
+      List<IEvent> events = new ArrayList<IEvent>();
+      for (int j = 0; j < eventCount; j++) {
+        events.add(readEvent(in, strings));
+      }
+      calendars.add(new CalendarState(name, timezone, events));
+    }
+    return new CalendarSnapshot(lastSegment, currentCalendar, calendars);
+  }
+
+  /**
+   * Writes one event. Only the fields the event uses are stored, as listed by its flags.
+   */
+  private static void writeEvent(DataOutputStream out, IEvent event,
+                                 Map<String, Integer> strings) throws IOException {
+    LocalDateTime start = event.getStartDateTime();
+    LocalDateTime end = event.getEndDateTime();
+    boolean hasNanos = start.getNano() != 0 || (end != null && end.getNano() != 0);
+    int flags = (end != null ? HAS_END : 0) | (hasNanos ? HAS_NANOS : 0)
+            | (event.getSeriesId() != null ? HAS_SERIES : 0);
+
+    out.writeByte(flags);
+    out.writeInt(indexOf(strings, event.getSubject()));
+    out.writeInt(indexOf(strings, event.getDescription()));
+    out.writeByte(event.getLocation() == null ? NO_VALUE : event.getLocation().ordinal());
+    out.writeByte(event.getStatus() == null ? NO_VALUE : event.getStatus().ordinal());
+    out.writeLong(start.toEpochSecond(ZoneOffset.UTC));
+    if (end != null) {
+      out.writeLong(end.toEpochSecond(ZoneOffset.UTC));
+    }
+    if (hasNanos) {
+      out.writeInt(start.getNano());
+      out.writeInt(end == null ? 0 : end.getNano());
+    }
+    if (event.getSeriesId() != null) {
+      out.writeInt(event.getSeriesId());
+    }
+  }
+
+  /**
+   * Reads one event written by {@link #writeEvent}.
+   */
+  private static IEvent readEvent(DataInputStream in, List<String> strings) throws IOException {
+    int flags = in.readUnsignedByte();
+    String subject = lookup(strings, in.readInt());
+    String description = lookup(strings, in.readInt());
+    byte location = in.readByte();
+    byte status = in.readByte();
+    long startSeconds = in.readLong();
+    long endSeconds = (flags & HAS_END) != 0 ? in.readLong() : 0;
+    int startNanos = 0;
+    int endNanos = 0;
+    if ((flags & HAS_NANOS) != 0) {
+      startNanos = in.readInt();
+      endNanos = in.readInt();
+    }
+    Integer seriesId = (flags & HAS_SERIES) != 0 ? in.readInt() : null;
+
+    try {
+      return Event.getBuilder()
+              .subject(subject)
+              .description(description)
+              .location(location == NO_VALUE ? null : EventLocation.values()[location])
+              .status(status == NO_VALUE ? null : EventStatus.values()[status])
+              .startDateTime(LocalDateTime.ofEpochSecond(startSeconds, startNanos,
+                      ZoneOffset.UTC))
+              .endDateTime((flags & HAS_END) == 0 ? null
+                      : LocalDateTime.ofEpochSecond(endSeconds, endNanos, ZoneOffset.UTC))
+              .seriesId(seriesId)
+              .build();
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Invalid event location or status", e);
+    }
+  }
+
+  /**
+   * Assigns an index to every distinct string in the snapshot, in order of first use.
+   */
+  private Map<String, Integer> buildStringTable() {
+    Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+    addString(strings, currentCalendar);
+    for (CalendarState state : calendars) {
+      addString(strings, state.name);
+      addString(strings, state.timezone.getId());
+      for (IEvent event : state.events) {
+        addString(strings, event.getSubject());
+        addString(strings, event.getDescription());
+      }
+    }
+    return strings;
+  }
+
+  /**
+   * Adds a string to the string table if it is not null and not already present.
+   */
+  private static void addString(Map<String, Integer> strings, String value) {
+    if (value != null) {
+      strings.putIfAbsent(value, strings.size());
+    }
+  }
+
+  /**
+   * Gets the string table index of a nullable string.
+   */
+  private static int indexOf(Map<String, Integer> strings, String value) {
+    return value == null ? NO_VALUE : strings.get(value);
+  }
+
+  /**
+   * Gets the string at a string table index, which may mark a null string.
+   */
+  private static String lookup(List<String> strings, int index) throws IOException {
+    if (index == NO_VALUE) {
+      return null;
+    }
+    if (index < 0 || index >= strings.size()) {
+      throw new IOException("Invalid string table index " + index);
+    }
+    return strings.get(index);
+  }
+
+  /**
+   * Reads a count of following items, which cannot be negative.
+   */
+  private static int readCount(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Invalid count " + count);
+    }
+    return count;
+  }
+
+  /**
+   * The captured state of one calendar.
+   */
+  private static final class CalendarState {
+    private final String name;
+    private final ZoneId timezone;
+    private final List<IEvent> events;
+
+    private CalendarState(String name, ZoneId timezone, List<IEvent> events) {
+      this.name = name;
+      this.timezone = timezone;
+      this.events = Collections.unmodifiableList(events);
+    }
+  }
+}
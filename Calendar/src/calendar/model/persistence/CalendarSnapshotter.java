@@ -0,0 +1,153 @@
+package calendar.model.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import calendar.model.ICalendarManager;
+
+/**
+ * Takes snapshots of the calendars in a manager so their journal can be truncated.
+ * Taking a snapshot has two parts. On the thread that changes the calendars, the journal is
+ * switched to a new segment and the calendars are captured in memory; this only copies event
+ * references. The capture is then written to disk by a background thread, so commands keep
+ * running during the write. Once the snapshot is durable, the journal segments it includes
+ * and any older snapshots are deleted.
+ */
+public class CalendarSnapshotter implements Closeable {
+  private final ICalendarManager manager;
+  private final CalendarJournal journal;
+  private final ExecutorService writer;
+  private IOException failure;
+
+  /**
+   * Constructs a snapshotter for the calendars of a manager and the journal recording them.
+   *
+   * @param manager the manager whose calendars are captured
+   * @param journal the journal recording the manager's changes
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public CalendarSnapshotter(ICalendarManager manager, CalendarJournal journal) {
+    if (manager == null || journal == null) {
+      throw new IllegalArgumentException("Manager and journal cannot be null");
+    }
+    this.manager = manager;
+    this.journal = journal;
+    this.writer = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "calendar-snapshot-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.failure = null;
+  }
+
+  /**
+   * Takes a snapshot automatically each time the journal has recorded the given number of
+   * changes since the last one.
+   *
+   * @param records the number of journal records between snapshots
+   * @throws IllegalArgumentException if the number of records is not positive
+   */
+  public void snapshotEvery(int records) {
+    journal.onSegmentFull(records, this::snapshotInBackground);
+  }
+
+  /**
+   * Takes a snapshot now. The calendars are captured before this method returns; the
+   * snapshot is written in the background.
+   *
+   * @return a future completing with the snapshot file once it is durable
+   * @throws IOException if the journal cannot be switched to a new segment
+   */
+  public Future<Path> snapshot() throws IOException {
+    CalendarSnapshot snapshot;
+    // Hold the journal while capturing, so no record lands between the switch and the capture
+    synchronized (journal) {
+      long lastIncluded = journal.rotate();
+      snapshot = CalendarSnapshot.capture(manager, lastIncluded);
+    }
+    return writer.submit(() -> write(snapshot));
+  }
+
+  /**
+   * Waits for a snapshot future, turning its failure back into an IOException.
+   *
+   * @param future the future returned by {@link #snapshot}
+   * @return the snapshot file
+   * @throws IOException if the snapshot could not be written
+   */
+  public static Path await(Future<Path> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a snapshot", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Snapshot failed: " + e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  /**
+   * Waits for pending snapshots to be written and stops the background writer.
+   *
+   * @throws IOException if a snapshot could not be written
+   */
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Writes a captured snapshot and deletes the files it makes obsolete.
+   */
+  private Path write(CalendarSnapshot snapshot) throws IOException {
+    Path file = journal.snapshotPath(snapshot.getLastSegment());
+    try {
+      snapshot.writeTo(file);
+      journal.deleteObsoleteFiles(snapshot.getLastSegment());
+      return file;
+    } catch (IOException e) {
+      recordFailure(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Takes a snapshot when the journal asks for one. A failure is kept and reported by
+   * {@link #close} instead of failing the change that filled the segment.
+   */
+  private void snapshotInBackground() {
+    try {
+      snapshot();
+    } catch (IOException e) {
+      recordFailure(e);
+    }
+  }
+
+  /**
+   * Keeps the first snapshot failure.
+   */
+  private synchronized void recordFailure(IOException e) {
+    if (failure == null) {
+      failure = e;
+    }
+  }
+}
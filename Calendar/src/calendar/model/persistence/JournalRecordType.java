@@ -0,0 +1,61 @@
+package calendar.model.persistence;
+
+/**
+ * Package-private opcodes of the records in a calendar journal.
+ * Each record starts with its opcode, followed by the arguments of the mutation it describes.
+ * Opcodes are part of the file format, so existing values must never be changed or reused.
+ */
+enum JournalRecordType {
+  CREATE_CALENDAR(1),
+  USE_CALENDAR(2),
+  EDIT_CALENDAR(3),
+  COPY_EVENT(4),
+  COPY_EVENTS_ON_DATE(5),
+  COPY_EVENTS_BETWEEN(6),
+  CREATE_TIMED_EVENT(10),
+  CREATE_ALL_DAY_EVENT(11),
+  CREATE_RECURRING_TIMED_EVENT(12),
+  CREATE_RECURRING_TIMED_EVENT_UNTIL(13),
+  CREATE_RECURRING_ALL_DAY_EVENT(14),
+  CREATE_RECURRING_ALL_DAY_EVENT_UNTIL(15),
+  EDIT_EVENT(16),
+  EDIT_EVENTS(17),
+  EDIT_SERIES(18),
+  ADD_EVENT(19),
+  SET_CALENDAR_NAME(20),
+  SET_TIMEZONE(21),
+  CONVERT_TIMEZONE(22),
+  GENERATE_SERIES_ID(23),
+  ADD_EVENTS(24);
+
+  private final byte code;
+
+  JournalRecordType(int code) {
+    this.code = (byte) code;
+  }
+
+  /**
+   * Gets the opcode written for this record type.
+   *
+   * @return the opcode
+   */
+  byte getCode() {
+    return code;
+  }
+
+  /**
+   * Finds the record type with the given opcode.
+   *
+   * @param code the opcode read from a journal
+   * @return the matching record type
+   * @throws IllegalArgumentException if no record type has the opcode
+   */
+  static JournalRecordType fromCode(byte code) {
+    for (JournalRecordType type : values()) {
+      if (type.code == code) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown journal record type " + code);
+  }
+}
@@ -0,0 +1,164 @@
+package calendar.model.persistence;
+
+import static calendar.model.persistence.BinaryCodec.readDateTime;
+import static calendar.model.persistence.BinaryCodec.readEvent;
+import static calendar.model.persistence.BinaryCodec.readString;
+import static calendar.model.persistence.BinaryCodec.readWeekdays;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import calendar.model.ICalendarManager;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * Package-private applier of journal records.
+ * Each record is decoded and applied by calling the same manager or calendar method that
+ * produced it, so recovery goes straight into the model without re-parsing any commands.
+ */
+final class JournalReplayer {
+  private final ICalendarManager manager;
+
+  /**
+   * Constructs a replayer that applies records to the given manager.
+   *
+   * @param manager the manager to rebuild
+   */
+  JournalReplayer(ICalendarManager manager) {
+    this.manager = manager;
+  }
+
+  /**
+   * Decodes the arguments of one record and applies it.
+   *
+   * @param type the type of the record
+   * @param in   the arguments of the record
+   * @throws IOException if the arguments cannot be read
+   */
+  void apply(JournalRecordType type, DataInput in) throws IOException {
+    switch (type) {
+      case CREATE_CALENDAR:
+        manager.createCalendar(readString(in), ZoneId.of(readString(in)));
+        break;
+      case USE_CALENDAR:
+        manager.useCalendar(readString(in));
+        break;
+      case EDIT_CALENDAR:
+        manager.editCalendar(readString(in), readString(in), readString(in));
+        break;
+      case COPY_EVENT:
+        manager.copyEvent(readString(in), readDateTime(in), readString(in), readDateTime(in));
+        break;
+      case COPY_EVENTS_ON_DATE:
+        manager.copyEventsOnDate(readDateTime(in), readString(in), readDateTime(in));
+        break;
+      case COPY_EVENTS_BETWEEN:
+        manager.copyEventsBetweenDates(readDateTime(in), readDateTime(in), readString(in),
+                readDateTime(in));
+        break;
+      default:
+        applyToCalendar(type, findCalendar(readString(in)), in);
+        break;
+    }
+  }
+
+  /**
+   * Finds the calendar a record was written for. Records carry the calendar's own name, which
+   * only differs from the name the manager knows it by if the calendar was renamed directly
+   * instead of through the manager.
+   */
+  private ISmartCalendarModel findCalendar(String calendarName) {
+    try {
+      return manager.getCalendar(calendarName);
+    } catch (IllegalArgumentException e) {
+      for (String name : manager.getCalendarNames()) {
+        ISmartCalendarModel calendar = manager.getCalendar(name);
+        if (calendar.getCalendarName().equals(calendarName)) {
+          return calendar;
+        }
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Applies a record that mutates a single calendar.
+   */
+  private void applyToCalendar(JournalRecordType type, ISmartCalendarModel calendar,
+                               DataInput in) throws IOException {
+    switch (type) {
+      case CREATE_TIMED_EVENT:
+        calendar.createSingleTimedEvent(readString(in), readDateTime(in), readDateTime(in));
+        break;
+      case CREATE_ALL_DAY_EVENT:
+        calendar.createSingleAllDayEvent(readString(in), readDateTime(in));
+        break;
+      case CREATE_RECURRING_TIMED_EVENT:
+        calendar.createRecurringTimedEvent(readString(in), readDateTime(in), readDateTime(in),
+                readWeekdays(in), in.readInt());
+        break;
+      case CREATE_RECURRING_TIMED_EVENT_UNTIL:
+        calendar.createRecurringTimedEventUntil(readString(in), readDateTime(in),
+                readDateTime(in), readWeekdays(in), readDateTime(in));
+        break;
+      case CREATE_RECURRING_ALL_DAY_EVENT:
+        calendar.createRecurringAllDayEvent(readString(in), readDateTime(in), readWeekdays(in),
+                in.readInt());
+        break;
+      case CREATE_RECURRING_ALL_DAY_EVENT_UNTIL:
+        calendar.createRecurringAllDayEventUntil(readString(in), readDateTime(in),
+                readWeekdays(in), readDateTime(in));
+        break;
+      case EDIT_EVENT:
+        calendar.editEvent(readString(in), readDateTime(in), readDateTime(in), readString(in),
+                readString(in));
+        break;
+      case EDIT_EVENTS:
+        calendar.editEvents(readString(in), readDateTime(in), readString(in), readString(in));
+        break;
+      case EDIT_SERIES:
+        calendar.editSeries(readString(in), readDateTime(in), readString(in), readString(in));
+        break;
+      case ADD_EVENT:
+        calendar.addEvent(readEvent(in));
+        break;
+      case SET_CALENDAR_NAME:
+        calendar.setCalendarName(readString(in));
+        break;
+      case SET_TIMEZONE:
+        calendar.setTimezone(ZoneId.of(readString(in)));
+        break;
+      case CONVERT_TIMEZONE:
+        calendar.convertAllEventsToNewTimezone(ZoneId.of(readString(in)),
+                ZoneId.of(readString(in)));
+        break;
+      case ADD_EVENTS:
+        calendar.addEvents(readEvents(in));
+        break;
+      case GENERATE_SERIES_ID:
+        calendar.generateUniqueSeriesId();
+        break;
+      default:
+        throw new IOException("Unexpected journal record type " + type);
+    }
+  }
+
+  /**
+   * Reads a count followed by that many events.
+   */
+  private List<IEvent> readEvents(DataInput in) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Journal record has a negative event count");
+    }
+    List<IEvent> events = new ArrayList<IEvent>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(readEvent(in));
+    }
+    return events;
+  }
+}
@@ -0,0 +1,26 @@
+package calendar.model.persistence;
+
+/**
+ * Controls when journal records are forced to the storage device.
+ * Every policy hands each record to the operating system as soon as it is written, so records
+ * survive the application crashing; the policies differ in how much can be lost if the
+ * machine itself fails.
+ */
+public enum JournalSyncPolicy {
+  /**
+   * Forces every record to disk before the mutation returns. Nothing acknowledged is ever
+   * lost, at the cost of one disk flush per command.
+   */
+  EVERY_RECORD,
+
+  /**
+   * Forces records to disk in groups, once a configured number of records has been written
+   * and whenever the journal is synced or closed. At most one group can be lost.
+   */
+  GROUP_COMMIT,
+
+  /**
+   * Never forces records explicitly and leaves write-back to the operating system.
+   */
+  OS_DEFAULT
+}
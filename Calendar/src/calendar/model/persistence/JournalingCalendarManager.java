@@ -0,0 +1,140 @@
+package calendar.model.persistence;
+
+import static calendar.model.persistence.BinaryCodec.writeDateTime;
+import static calendar.model.persistence.BinaryCodec.writeString;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import calendar.model.ICalendarManager;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * A calendar manager that records every successful mutation in a {@link CalendarJournal}.
+ * Calendar creation, renames, timezone changes, switching calendars and copies are journaled
+ * here; the calendars handed out by this manager journal their own event creations and edits.
+ * After a restart, {@link CalendarJournal#recover} rebuilds the calendars by replaying the
+ * records directly into a fresh manager. Each calendar is wrapped once, and the same journaling
+ * calendar is handed out every time it is asked for.
+ */
+public class JournalingCalendarManager implements ICalendarManager {
+  private final ICalendarManager delegate;
+  private final CalendarJournal journal;
+  // The journaling calendar wrapping each calendar of the delegate
+  private final Map<ISmartCalendarModel, JournalingCalendarModel> journaled;
+
+  /**
+   * Constructs a manager that journals the mutations of the given manager.
+   *
+   * @param delegate the manager holding the calendars
+   * @param journal  the journal to append to
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public JournalingCalendarManager(ICalendarManager delegate, CalendarJournal journal) {
+    if (delegate == null || journal == null) {
+      throw new IllegalArgumentException("Manager and journal cannot be null");
+    }
+    this.delegate = delegate;
+    this.journal = journal;
+    this.journaled = new IdentityHashMap<ISmartCalendarModel, JournalingCalendarModel>();
+  }
+
+  @Override
+  public ISmartCalendarModel getCurrentCalendar() {
+    return journaling(delegate.getCurrentCalendar());
+  }
+
+  @Override
+  public ISmartCalendarModel getCalendar(String calendarName) {
+    return journaling(delegate.getCalendar(calendarName));
+  }
+
+  /**
+   * Gets the journaling calendar wrapping a calendar of the delegate, wrapping it the first
+   * time it is asked for. Renames need no new wrapper, as the wrapper journals the calendar's
+   * current name.
+   *
+   * @param calendar the calendar of the delegate, or null
+   * @return the journaling calendar, or null if the calendar is null
+   */
+  private synchronized ISmartCalendarModel journaling(ISmartCalendarModel calendar) {
+    if (calendar == null) {
+      return null;
+    }
+    return journaled.computeIfAbsent(calendar,
+            each -> new JournalingCalendarModel(each, journal));
+  }
+
+  @Override
+  public void createCalendar(String calendarName, ZoneId timezone) {
+    delegate.createCalendar(calendarName, timezone);
+    journal.append(JournalRecordType.CREATE_CALENDAR, out -> {
+      writeString(out, calendarName);
+      writeString(out, timezone.getId());
+    });
+  }
+
+  @Override
+  public void useCalendar(String calendarName) {
+    delegate.useCalendar(calendarName);
+    journal.append(JournalRecordType.USE_CALENDAR, out -> writeString(out, calendarName));
+  }
+
+  @Override
+  public void editCalendar(String calendarName, String property, String newValue) {
+    delegate.editCalendar(calendarName, property, newValue);
+    journal.append(JournalRecordType.EDIT_CALENDAR, out -> {
+      writeString(out, calendarName);
+      writeString(out, property);
+      writeString(out, newValue);
+    });
+  }
+
+  @Override
+  public void copyEvent(String eventName, LocalDateTime sourceDateTime,
+                        String targetCalendarName, LocalDateTime targetDateTime) {
+    delegate.copyEvent(eventName, sourceDateTime, targetCalendarName, targetDateTime);
+    journal.append(JournalRecordType.COPY_EVENT, out -> {
+      writeString(out, eventName);
+      writeDateTime(out, sourceDateTime);
+      writeString(out, targetCalendarName);
+      writeDateTime(out, targetDateTime);
+    });
+  }
+
+  @Override
+  public void copyEventsOnDate(LocalDateTime sourceDate, String targetCalendarName,
+                               LocalDateTime targetDate) {
+    delegate.copyEventsOnDate(sourceDate, targetCalendarName, targetDate);
+    journal.append(JournalRecordType.COPY_EVENTS_ON_DATE, out -> {
+      writeDateTime(out, sourceDate);
+      writeString(out, targetCalendarName);
+      writeDateTime(out, targetDate);
+    });
+  }
+
+  @Override
+  public void copyEventsBetweenDates(LocalDateTime startDate, LocalDateTime endDate,
+                                     String targetCalendarName, LocalDateTime targetStartDate) {
+    delegate.copyEventsBetweenDates(startDate, endDate, targetCalendarName, targetStartDate);
+    journal.append(JournalRecordType.COPY_EVENTS_BETWEEN, out -> {
+      writeDateTime(out, startDate);
+      writeDateTime(out, endDate);
+      writeString(out, targetCalendarName);
+      writeDateTime(out, targetStartDate);
+    });
+  }
+
+  @Override
+  public List<String> getCalendarNames() {
+    return delegate.getCalendarNames();
+  }
+
+  @Override
+  public int save() {
+    return delegate.save();
+  }
+}
@@ -0,0 +1,417 @@
+package calendar.model.persistence;
+
+import static calendar.model.persistence.BinaryCodec.writeDateTime;
+import static calendar.model.persistence.BinaryCodec.writeEvent;
+import static calendar.model.persistence.BinaryCodec.writeString;
+import static calendar.model.persistence.BinaryCodec.writeWeekdays;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import calendar.model.ICalendarListener;
+import calendar.model.ICalendarModel;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+
+/**
+ * Package-private decorator that journals every mutation of one calendar.
+ * Queries are passed straight through. Each mutation is applied to the wrapped calendar
+ * first and journaled only if it succeeds, together with the calendar's current name, so the
+ * record can be applied to the same calendar during recovery. Mutations that change several
+ * events are applied as a group of changes, so one that fails partway leaves the calendar as
+ * it was, just as replaying it would. The records of a group of changes are held back until
+ * the whole group has been applied.
+ */
+class JournalingCalendarModel implements ISmartCalendarModel {
+  private final ISmartCalendarModel delegate;
+  private final CalendarJournal journal;
+  // The records of the group of changes being applied, or null if there is none
+  private List<HeldRecord> heldRecords;
+
+  /**
+   * Constructs a decorator journaling the mutations of the given calendar.
+   *
+   * @param delegate the calendar to wrap
+   * @param journal  the journal to append to
+   */
+  JournalingCalendarModel(ISmartCalendarModel delegate, CalendarJournal journal) {
+    this.delegate = delegate;
+    this.journal = journal;
+  }
+
+  @Override
+  public void createSingleTimedEvent(String subject, LocalDateTime startDateTime,
+                                     LocalDateTime endDateTime) {
+    delegate.createSingleTimedEvent(subject, startDateTime, endDateTime);
+    append(JournalRecordType.CREATE_TIMED_EVENT, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDateTime);
+      writeDateTime(out, endDateTime);
+    });
+  }
+
+  @Override
+  public void createSingleAllDayEvent(String subject, LocalDateTime date) {
+    delegate.createSingleAllDayEvent(subject, date);
+    append(JournalRecordType.CREATE_ALL_DAY_EVENT, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, date);
+    });
+  }
+
+  @Override
+  public void createRecurringTimedEvent(String subject, LocalDateTime startDateTime,
+                                        LocalDateTime endDateTime,
+                                        ArrayList<DayOfWeek> weekdays, int count) {
+    applyWhole(() -> delegate.createRecurringTimedEvent(subject, startDateTime, endDateTime,
+            weekdays, count));
+    append(JournalRecordType.CREATE_RECURRING_TIMED_EVENT, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDateTime);
+      writeDateTime(out, endDateTime);
+      writeWeekdays(out, weekdays);
+      out.writeInt(count);
+    });
+  }
+
+  @Override
+  public void createRecurringTimedEventUntil(String subject, LocalDateTime startDateTime,
+                                             LocalDateTime endDateTime,
+                                             ArrayList<DayOfWeek> weekdays,
+                                             LocalDateTime untilDate) {
+    applyWhole(() -> delegate.createRecurringTimedEventUntil(subject, startDateTime,
+            endDateTime, weekdays, untilDate));
+    append(JournalRecordType.CREATE_RECURRING_TIMED_EVENT_UNTIL, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDateTime);
+      writeDateTime(out, endDateTime);
+      writeWeekdays(out, weekdays);
+      writeDateTime(out, untilDate);
+    });
+  }
+
+  @Override
+  public void createRecurringAllDayEvent(String subject, LocalDateTime startDate,
+                                         ArrayList<DayOfWeek> weekdays, int count) {
+    applyWhole(() -> delegate.createRecurringAllDayEvent(subject, startDate, weekdays, count));
+    append(JournalRecordType.CREATE_RECURRING_ALL_DAY_EVENT, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDate);
+      writeWeekdays(out, weekdays);
+      out.writeInt(count);
+    });
+  }
+
+  @Override
+  public void createRecurringAllDayEventUntil(String subject, LocalDateTime startDate,
+                                              ArrayList<DayOfWeek> weekdays,
+                                              LocalDateTime untilDate) {
+    applyWhole(() -> delegate.createRecurringAllDayEventUntil(subject, startDate, weekdays,
+            untilDate));
+    append(JournalRecordType.CREATE_RECURRING_ALL_DAY_EVENT_UNTIL, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDate);
+      writeWeekdays(out, weekdays);
+      writeDateTime(out, untilDate);
+    });
+  }
+
+  @Override
+  public void editEvent(String subject, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                        String property, String newValue) {
+    applyWhole(() -> delegate.editEvent(subject, startDateTime, endDateTime, property,
+            newValue));
+    append(JournalRecordType.EDIT_EVENT, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDateTime);
+      writeDateTime(out, endDateTime);
+      writeString(out, property);
+      writeString(out, newValue);
+    });
+  }
+
+  @Override
+  public void editEvents(String subject, LocalDateTime startDateTime, String property,
+                         String newValue) {
+    applyWhole(() -> delegate.editEvents(subject, startDateTime, property, newValue));
+    journalEdit(JournalRecordType.EDIT_EVENTS, subject, startDateTime, property, newValue);
+  }
+
+  @Override
+  public void editSeries(String subject, LocalDateTime startDateTime, String property,
+                         String newValue) {
+    applyWhole(() -> delegate.editSeries(subject, startDateTime, property, newValue));
+    journalEdit(JournalRecordType.EDIT_SERIES, subject, startDateTime, property, newValue);
+  }
+
+  @Override
+  public List<IEvent> printEvents(LocalDateTime date) {
+    return delegate.printEvents(date);
+  }
+
+  @Override
+  public List<IEvent> printEvents(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    return delegate.printEvents(startDateTime, endDateTime);
+  }
+
+  @Override
+  public Iterator<IEvent> eventIterator(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    return delegate.eventIterator(startDateTime, endDateTime);
+  }
+
+  @Override
+  public List<IEvent> getUpcomingEvents(LocalDateTime startDateTime, int maxEvents) {
+    return delegate.getUpcomingEvents(startDateTime, maxEvents);
+  }
+
+  @Override
+  public boolean showStatus(LocalDateTime dateTime) {
+    return delegate.showStatus(dateTime);
+  }
+
+  @Override
+  public List<IEvent> searchEvents(String terms) {
+    return delegate.searchEvents(terms);
+  }
+
+  @Override
+  public List<IEvent> searchEvents(String terms, LocalDateTime startDateTime,
+                                   LocalDateTime endDateTime) {
+    return delegate.searchEvents(terms, startDateTime, endDateTime);
+  }
+
+  @Override
+  public List<String> suggestSubjects(String prefix, int limit) {
+    return delegate.suggestSubjects(prefix, limit);
+  }
+
+  @Override
+  public String getCalendarName() {
+    return delegate.getCalendarName();
+  }
+
+  @Override
+  public ZoneId getTimezone() {
+    return delegate.getTimezone();
+  }
+
+  @Override
+  public void setCalendarName(String calendarName) {
+    String oldName = name();
+    delegate.setCalendarName(calendarName);
+    append(JournalRecordType.SET_CALENDAR_NAME, out -> {
+      writeString(out, oldName);
+      writeString(out, calendarName);
+    });
+  }
+
+  @Override
+  public void setTimezone(ZoneId timezone) {
+    delegate.setTimezone(timezone);
+    append(JournalRecordType.SET_TIMEZONE, out -> {
+      writeString(out, name());
+      writeString(out, timezone.getId());
+    });
+  }
+
+  @Override
+  public IEvent findEventBySubjectAndTime(String subject, LocalDateTime startDateTime) {
+    return delegate.findEventBySubjectAndTime(subject, startDateTime);
+  }
+
+  @Override
+  public void convertAllEventsToNewTimezone(ZoneId oldTimezone, ZoneId newTimezone) {
+    delegate.convertAllEventsToNewTimezone(oldTimezone, newTimezone);
+    append(JournalRecordType.CONVERT_TIMEZONE, out -> {
+      writeString(out, name());
+      writeString(out, oldTimezone.getId());
+      writeString(out, newTimezone.getId());
+    });
+  }
+
+  @Override
+  public IEvent createCopiedEvent(String eventName, LocalDateTime sourceDateTime,
+                                  LocalDateTime targetDateTime) {
+    return delegate.createCopiedEvent(eventName, sourceDateTime, targetDateTime);
+  }
+
+  /**
+   * Copies events to a target calendar. The copies are journaled as individual additions to
+   * the target calendar, so the target is wrapped if it is not already journaled.
+   */
+  @Override
+  public void copyAllEventsToCalendar(LocalDateTime sourceDate,
+                                      ISmartCalendarModel targetCalendar,
+                                      LocalDateTime targetDate) {
+    delegate.copyAllEventsToCalendar(sourceDate, journaled(targetCalendar), targetDate);
+  }
+
+  /**
+   * Copies events to a target calendar. The copies are journaled as individual additions to
+   * the target calendar, so the target is wrapped if it is not already journaled.
+   */
+  @Override
+  public void copyEventsInRangeToCalendar(LocalDateTime startDate, LocalDateTime endDate,
+                                          ISmartCalendarModel targetCalendar,
+                                          LocalDateTime targetStartDate) {
+    delegate.copyEventsInRangeToCalendar(startDate, endDate, journaled(targetCalendar),
+            targetStartDate);
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    delegate.addEvent(event);
+    append(JournalRecordType.ADD_EVENT, out -> {
+      writeString(out, name());
+      writeEvent(out, event);
+    });
+  }
+
+  @Override
+  public void addEvents(List<IEvent> events) {
+    delegate.addEvents(events);
+    append(JournalRecordType.ADD_EVENTS, out -> {
+      writeString(out, name());
+      out.writeInt(events.size());
+      for (IEvent event : events) {
+        writeEvent(out, event);
+      }
+    });
+  }
+
+  @Override
+  public List<IEvent> getAllEvents() {
+    return delegate.getAllEvents();
+  }
+
+  @Override
+  public Integer generateUniqueSeriesId() {
+    Integer seriesId = delegate.generateUniqueSeriesId();
+    append(JournalRecordType.GENERATE_SERIES_ID, out -> writeString(out, name()));
+    return seriesId;
+  }
+
+  /**
+   * Makes a group of changes as one unit. Their records are held back and journaled only once
+   * the wrapped calendar has applied the whole group, so a group that fails and is undone
+   * leaves nothing in the journal to replay. They are appended together, so a snapshot is
+   * never taken between them.
+   */
+  @Override
+  public void applyChanges(Consumer<? super ICalendarModel> changes) {
+    if (heldRecords != null) {
+      changes.accept(this);
+      return;
+    }
+    List<HeldRecord> records = new ArrayList<HeldRecord>();
+    heldRecords = records;
+    try {
+      delegate.applyChanges(calendar -> changes.accept(this));
+    } finally {
+      heldRecords = null;
+    }
+    List<JournalRecordType> types = new ArrayList<JournalRecordType>(records.size());
+    List<CalendarJournal.RecordBody> bodies =
+            new ArrayList<CalendarJournal.RecordBody>(records.size());
+    for (HeldRecord record : records) {
+      types.add(record.type);
+      bodies.add(out -> out.write(record.body));
+    }
+    journal.appendGroup(types, bodies);
+  }
+
+  @Override
+  public void addChangeListener(ICalendarListener listener) {
+    delegate.addChangeListener(listener);
+  }
+
+  @Override
+  public void removeChangeListener(ICalendarListener listener) {
+    delegate.removeChangeListener(listener);
+  }
+
+  /**
+   * Journals a record, or holds it back while a group of changes is being applied. A held
+   * record is written out at once, so it keeps the calendar name of the moment it was made.
+   */
+  private void append(JournalRecordType type, CalendarJournal.RecordBody body) {
+    if (heldRecords == null) {
+      journal.append(type, body);
+      return;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      body.write(new DataOutputStream(bytes));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write journal record: " + e.getMessage(), e);
+    }
+    heldRecords.add(new HeldRecord(type, bytes.toByteArray()));
+  }
+
+  /**
+   * Journals an edit of several events identified by subject and start.
+   */
+  private void journalEdit(JournalRecordType type, String subject, LocalDateTime startDateTime,
+                           String property, String newValue) {
+    append(type, out -> {
+      writeString(out, name());
+      writeString(out, subject);
+      writeDateTime(out, startDateTime);
+      writeString(out, property);
+      writeString(out, newValue);
+    });
+  }
+
+  /**
+   * Applies a mutation of the wrapped calendar as one group of changes, so that if it fails
+   * after changing some events, those changes are undone.
+   */
+  private void applyWhole(Runnable mutation) {
+    delegate.applyChanges(calendar -> mutation.run());
+  }
+
+  /**
+   * Gets the current name of the wrapped calendar.
+   */
+  private String name() {
+    return delegate.getCalendarName();
+  }
+
+  /**
+   * Wraps a calendar so its mutations are journaled, unless it already is.
+   */
+  private ISmartCalendarModel journaled(ISmartCalendarModel calendar) {
+    if (calendar instanceof JournalingCalendarModel) {
+      return calendar;
+    }
+    return new JournalingCalendarModel(calendar, journal);
+  }
+
+  /**
+   * A journal record held back until its group of changes has been applied.
+   */
+  private static final class HeldRecord {
+    private final JournalRecordType type;
+    private final byte[] body;
+
+    HeldRecord(JournalRecordType type, byte[] body) {
+      this.type = type;
+      this.body = body;
+    }
+  }
+}
@@ -0,0 +1,797 @@
+package calendar.model.persistence;
+
+import static calendar.model.persistence.BinaryCodec.readDateTime;
+import static calendar.model.persistence.BinaryCodec.readEvent;
+import static calendar.model.persistence.BinaryCodec.readString;
+import static calendar.model.persistence.BinaryCodec.writeDateTime;
+import static calendar.model.persistence.BinaryCodec.writeEvent;
+import static calendar.model.persistence.BinaryCodec.writeString;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import calendar.model.EventStore;
+import calendar.model.IEvent;
+
+/**
+ * An event store that keeps events on disk in one segment file per month, loading segments
+ * only when a query touches them.
+ * Each event belongs to the month it starts in. A small catalog stays in memory for every
+ * month: how many events it holds, the latest end among them, and how many of them use each
+ * subject and belong to each series. Each month's entry is kept on disk in a header file
+ * beside its segment file. A time query loads the months inside its interval, plus any earlier
+ * month holding an event that runs into it, and an edit of a series loads only the months
+ * holding its events. Opening a calendar on the store reads the headers but no segment at all,
+ * since they have the subjects and series IDs the calendar needs.
+ * Loaded segments are kept in least-recently-used order, and once their estimated size goes
+ * over the memory budget the oldest are dropped. A changed segment that is dropped is first
+ * written to a staging file beside its segment file, which it is read back from when needed;
+ * the segment file itself is left as it was. Only {@link #flush} changes segment files: each
+ * changed segment is written to a temporary file that is then renamed over the old one, each
+ * staging file is renamed over its segment file, and the headers of the changed months are
+ * written last. Nothing is written for unchanged months, so flushing after one edit costs one
+ * segment file and its header, however many months and subjects the calendar has. A header
+ * records the length of its segment file, so a month whose segment was written but not its
+ * header is read once at the next open to rebuild it.
+ * Staging files left behind by a store that was never flushed hold changes that were never
+ * saved, and are deleted when the store is next opened.
+ * Errors reading or writing segments during a query are thrown as {@link UncheckedIOException},
+ * since the store interface does not declare checked exceptions.
+ */
+public class MonthSegmentStore implements EventStore, Closeable {
+  private static final int SEGMENT_MAGIC = 0x43414C47; // "CALG"
+  private static final int HEADER_MAGIC = 0x43414C48; // "CALH"
+  private static final short SEGMENT_VERSION = 1;
+  private static final short HEADER_VERSION = 1;
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String HEADER_SUFFIX = ".hdr";
+  private static final String STAGED_SUFFIX = ".staged";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // Rough heap cost of an event and its entry in a segment's hash set, excluding its strings
+  private static final long EVENT_OVERHEAD_BYTES = 200;
+
+  private final Path directory;
+  private final long memoryBudget;
+  private final NavigableMap<YearMonth, MonthInfo> catalog;
+  private final LinkedHashMap<YearMonth, Segment> loaded;
+  // The months whose changes were written to staging files when their segments were dropped
+  private final Set<YearMonth> staged;
+  private long loadedBytes;
+  private int size;
+  private long segmentLoads;
+
+  /**
+   * Opens the store kept in a directory, creating the directory if needed.
+   * Only the month headers are read; segments are loaded when queries need them. A month whose
+   * header is missing or does not match its segment file has its segment read once to rebuild
+   * the header. Staging files of changes that were never flushed, and headers of months with
+   * no segment file, are deleted.
+   *
+   * @param directory    the directory holding the segment files
+   * @param memoryBudget the estimated number of bytes loaded segments may use
+   * @throws IOException if the directory or its files cannot be read
+   * @throws IllegalArgumentException if the directory is null or the budget is not positive
+   */
+  public MonthSegmentStore(Path directory, long memoryBudget) throws IOException {
+    if (directory == null || memoryBudget <= 0) {
+      throw new IllegalArgumentException("Directory cannot be null and memory budget must be "
+              + "positive");
+    }
+    this.directory = directory;
+    this.memoryBudget = memoryBudget;
+    this.catalog = new TreeMap<YearMonth, MonthInfo>();
+    this.loaded = new LinkedHashMap<YearMonth, Segment>(16, 0.75f, true);
+    this.staged = new HashSet<YearMonth>();
+    Files.createDirectories(directory);
+    deleteStagedFiles();
+    openCatalog();
+  }
+
+  @Override
+  public boolean add(IEvent event) {
+    YearMonth month = YearMonth.from(event.getStartDateTime());
+    Segment segment = segment(month, true);
+    if (!segment.events.add(event)) {
+      return false;
+    }
+    MonthInfo info = catalog.get(month);
+    info.count(event, 1);
+    info.include(effectiveEnd(event));
+    info.dirty = true;
+    segment.dirty = true;
+    segment.bytes += estimate(event);
+    loadedBytes += estimate(event);
+    size++;
+    evictOverBudget();
+    return true;
+  }
+
+  @Override
+  public boolean remove(IEvent event) {
+    YearMonth month = YearMonth.from(event.getStartDateTime());
+    Segment segment = segment(month, false);
+    if (segment == null || !segment.events.remove(event)) {
+      return false;
+    }
+    // The month's latest end is left as it is; it is only an upper bound
+    MonthInfo info = catalog.get(month);
+    info.count(event, -1);
+    info.dirty = true;
+    segment.dirty = true;
+    segment.bytes -= estimate(event);
+    loadedBytes -= estimate(event);
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean contains(IEvent event) {
+    Segment segment = segment(YearMonth.from(event.getStartDateTime()), false);
+    return segment != null && segment.events.contains(event);
+  }
+
+  @Override
+  public void clear() {
+    // Every month becomes an empty, changed segment, so flushing deletes its file
+    for (Map.Entry<YearMonth, MonthInfo> entry : catalog.entrySet()) {
+      entry.getValue().count = 0;
+      entry.getValue().latestEnd = null;
+      entry.getValue().subjects.clear();
+      entry.getValue().series.clear();
+      entry.getValue().dirty = true;
+      Segment segment = new Segment(new HashSet<IEvent>());
+      segment.dirty = true;
+      Segment old = loaded.put(entry.getKey(), segment);
+      if (old != null) {
+        loadedBytes -= old.bytes;
+      }
+    }
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Iterator<IEvent> iterator() {
+    return new SegmentIterator(new ArrayList<YearMonth>(catalog.keySet()));
+  }
+
+  @Override
+  public Iterator<IEvent> candidates(LocalDateTime startDateTime,
+                                     LocalDateTime endDateTime) {
+    YearMonth first = YearMonth.from(startDateTime);
+    YearMonth last = YearMonth.from(endDateTime);
+    List<YearMonth> months = new ArrayList<YearMonth>();
+    // Earlier months only matter if one of their events is still running at the start
+    for (Map.Entry<YearMonth, MonthInfo> entry : catalog.headMap(first, false).entrySet()) {
+      LocalDateTime latestEnd = entry.getValue().latestEnd;
+      if (latestEnd != null && !latestEnd.isBefore(startDateTime)) {
+        months.add(entry.getKey());
+      }
+    }
+    if (!first.isAfter(last)) {
+      months.addAll(catalog.subMap(first, true, last, true).keySet());
+    }
+    return new SegmentIterator(months);
+  }
+
+  @Override
+  public Iterator<IEvent> seriesCandidates(Integer seriesId, LocalDateTime from) {
+    // Events belong to the month they start in, so earlier months never hold a later start
+    Map<YearMonth, MonthInfo> months = (from == null) ? catalog
+            : catalog.tailMap(YearMonth.from(from), true);
+    List<YearMonth> holding = new ArrayList<YearMonth>();
+    for (Map.Entry<YearMonth, MonthInfo> entry : months.entrySet()) {
+      if (entry.getValue().series.containsKey(seriesId)) {
+        holding.add(entry.getKey());
+      }
+    }
+    return new SegmentIterator(holding);
+  }
+
+  @Override
+  public Map<String, Integer> countSubjects() {
+    Map<String, Integer> counts = new HashMap<String, Integer>();
+    for (MonthInfo info : catalog.values()) {
+      for (Map.Entry<String, Integer> subject : info.subjects.entrySet()) {
+        counts.merge(subject.getKey(), subject.getValue(), Integer::sum);
+      }
+    }
+    return counts;
+  }
+
+  @Override
+  public Integer getMaxSeriesId() {
+    int max = 0;
+    for (MonthInfo info : catalog.values()) {
+      for (Integer seriesId : info.series.keySet()) {
+        max = Math.max(max, seriesId);
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public boolean isResident() {
+    return false;
+  }
+
+  /**
+   * Writes every changed segment, moves every staged segment into place, and then writes the
+   * header of every changed month. Months left without events have their segment and header
+   * files deleted.
+   *
+   * @return the number of files written or deleted
+   * @throws IOException if a file cannot be written
+   */
+  public int flush() throws IOException {
+    int files = 0;
+    for (Map.Entry<YearMonth, Segment> entry : loaded.entrySet()) {
+      if (entry.getValue().dirty) {
+        writeSegment(entry.getKey(), entry.getValue(), false);
+        files++;
+        if (staged.remove(entry.getKey())) {
+          Files.deleteIfExists(stagedPath(entry.getKey()));
+        }
+      }
+    }
+    for (YearMonth month : staged) {
+      MonthInfo info = catalog.get(month);
+      if (info.count == 0) {
+        Files.deleteIfExists(segmentPath(month));
+        Files.delete(stagedPath(month));
+        info.fileLength = 0;
+      } else {
+        Files.move(stagedPath(month), segmentPath(month), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        info.fileLength = Files.size(segmentPath(month));
+      }
+      files++;
+    }
+    staged.clear();
+    for (Map.Entry<YearMonth, MonthInfo> entry : catalog.entrySet()) {
+      if (entry.getValue().dirty) {
+        if (entry.getValue().count == 0) {
+          Files.deleteIfExists(headerPath(entry.getKey()));
+        } else {
+          writeHeader(entry.getKey(), entry.getValue());
+        }
+        entry.getValue().dirty = false;
+        files++;
+      }
+    }
+    catalog.values().removeIf(info -> info.count == 0);
+    loaded.keySet().retainAll(catalog.keySet());
+    return files;
+  }
+
+  /**
+   * Gets the months with changes that are not yet flushed, whether their segments are loaded
+   * or staged.
+   *
+   * @return the changed months, in order
+   */
+  public List<YearMonth> getDirtyMonths() {
+    List<YearMonth> dirty = new ArrayList<YearMonth>(staged);
+    for (Map.Entry<YearMonth, Segment> entry : loaded.entrySet()) {
+      if (entry.getValue().dirty && !staged.contains(entry.getKey())) {
+        dirty.add(entry.getKey());
+      }
+    }
+    Collections.sort(dirty);
+    return dirty;
+  }
+
+  /**
+   * Flushes the store. The store can still be used afterwards.
+   *
+   * @throws IOException if a file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+
+  /**
+   * Gets the months whose segments are loaded, from least to most recently used.
+   *
+   * @return the loaded months
+   */
+  public List<YearMonth> getLoadedMonths() {
+    return new ArrayList<YearMonth>(loaded.keySet());
+  }
+
+  /**
+   * Gets the estimated number of bytes used by the loaded segments.
+   *
+   * @return the estimated size of the loaded segments
+   */
+  public long getLoadedBytes() {
+    return loadedBytes;
+  }
+
+  /**
+   * Gets the number of times a segment has been read from disk since the store was opened.
+   *
+   * @return the number of segment loads
+   */
+  public long getSegmentLoads() {
+    return segmentLoads;
+  }
+
+  /**
+   * Gets the segment of a month, loading it if needed.
+   *
+   * @param create whether to create an empty segment for a month with no events yet
+   * @return the segment, or null if the month has none and create is false
+   */
+  private Segment segment(YearMonth month, boolean create) {
+    Segment segment = loaded.get(month);
+    if (segment != null) {
+      return segment;
+    }
+    MonthInfo info = catalog.get(month);
+    if (info == null) {
+      if (!create) {
+        return null;
+      }
+      catalog.put(month, new MonthInfo(0, null, 0));
+      segment = new Segment(new HashSet<IEvent>());
+    } else {
+      try {
+        segment = new Segment(readSegment(staged.contains(month) ? stagedPath(month)
+                : segmentPath(month)));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not load events of " + month, e);
+      }
+      segmentLoads++;
+      for (IEvent event : segment.events) {
+        segment.bytes += estimate(event);
+      }
+    }
+    loaded.put(month, segment);
+    loadedBytes += segment.bytes;
+    evictOverBudget();
+    return segment;
+  }
+
+  /**
+   * Drops least recently used segments while the loaded segments are over budget, staging the
+   * changed ones. The most recently used segment is always kept.
+   */
+  private void evictOverBudget() {
+    Iterator<Map.Entry<YearMonth, Segment>> eldest = loaded.entrySet().iterator();
+    while (loadedBytes > memoryBudget && loaded.size() > 1) {
+      Map.Entry<YearMonth, Segment> entry = eldest.next();
+      if (entry.getValue().dirty) {
+        try {
+          writeSegment(entry.getKey(), entry.getValue(), true);
+          staged.add(entry.getKey());
+        } catch (IOException e) {
+          throw new UncheckedIOException("Could not save events of " + entry.getKey(), e);
+        }
+      }
+      loadedBytes -= entry.getValue().bytes;
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Writes a segment to its file, or deletes the file if the segment is empty, and records
+   * the file's length in the month's catalog entry. A staged segment is written to its staging
+   * file instead, even if it is empty, and the entry keeps the length of the segment file.
+   */
+  private void writeSegment(YearMonth month, Segment segment, boolean staging)
+          throws IOException {
+    Path file = staging ? stagedPath(month) : segmentPath(month);
+    MonthInfo info = catalog.get(month);
+    if (segment.events.isEmpty() && !staging) {
+      Files.deleteIfExists(file);
+      info.fileLength = 0;
+    } else {
+      LocalDateTime latestEnd = null;
+      for (IEvent event : segment.events) {
+        LocalDateTime end = effectiveEnd(event);
+        latestEnd = latestEnd == null || end.isAfter(latestEnd) ? end : latestEnd;
+      }
+      info.latestEnd = latestEnd;
+      writeChecked(file, out -> {
+        out.writeInt(SEGMENT_MAGIC);
+        out.writeShort(SEGMENT_VERSION);
+        out.writeInt(segment.events.size());
+        for (IEvent event : segment.events) {
+          writeEvent(out, event);
+        }
+      });
+      if (!staging) {
+        info.fileLength = Files.size(file);
+      }
+    }
+    segment.dirty = false;
+    info.dirty = true;
+  }
+
+  /**
+   * Reads the events of a segment file.
+   */
+  private static Set<IEvent> readSegment(Path file) throws IOException {
+    return readChecked(file, in -> {
+      if (in.readInt() != SEGMENT_MAGIC || in.readShort() != SEGMENT_VERSION) {
+        throw new IOException(file.getFileName() + " is not a calendar segment");
+      }
+      int count = readCount(in);
+      Set<IEvent> events = new HashSet<IEvent>(Math.max(16, count * 4 / 3 + 1));
+      for (int i = 0; i < count; i++) {
+        events.add(readEvent(in));
+      }
+      return events;
+    });
+  }
+
+  /**
+   * Builds the catalog from the header of every segment file in the directory, reading the
+   * segment of any month whose header is missing, damaged or records another file length.
+   * Headers left without a segment file are deleted.
+   */
+  private void openCatalog() throws IOException {
+    Map<YearMonth, Long> files = new TreeMap<YearMonth, Long>();
+    for (Path file : listFiles(SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      YearMonth month = monthOf(file, SEGMENT_SUFFIX);
+      if (month != null) {
+        files.put(month, Files.size(file));
+      }
+    }
+    for (Path file : listFiles(SEGMENT_PREFIX + "*" + HEADER_SUFFIX)) {
+      YearMonth month = monthOf(file, HEADER_SUFFIX);
+      if (month != null && !files.containsKey(month)) {
+        Files.delete(file);
+      }
+    }
+
+    for (Map.Entry<YearMonth, Long> file : files.entrySet()) {
+      MonthInfo info = null;
+      if (Files.exists(headerPath(file.getKey()))) {
+        try {
+          info = readHeader(headerPath(file.getKey()));
+        } catch (IOException e) {
+          // A damaged header is rebuilt from the segment
+        }
+      }
+      if (info == null || info.fileLength != file.getValue()) {
+        Set<IEvent> events = readSegment(segmentPath(file.getKey()));
+        info = new MonthInfo(0, null, file.getValue());
+        for (IEvent event : events) {
+          info.count(event, 1);
+          info.include(effectiveEnd(event));
+        }
+        info.dirty = true;
+      }
+      catalog.put(file.getKey(), info);
+    }
+    size = 0;
+    for (MonthInfo info : catalog.values()) {
+      size += info.count;
+    }
+  }
+
+  /**
+   * Reads a month's header file. A header of another version is rejected like a damaged one,
+   * so it is rebuilt from the segment.
+   */
+  private static MonthInfo readHeader(Path file) throws IOException {
+    return readChecked(file, in -> {
+      if (in.readInt() != HEADER_MAGIC || in.readShort() != HEADER_VERSION) {
+        throw new IOException(file.getFileName() + " is not a segment header");
+      }
+      int count = readCount(in);
+      LocalDateTime latestEnd = readDateTime(in);
+      MonthInfo info = new MonthInfo(count, latestEnd, in.readLong());
+      int subjects = readCount(in);
+      for (int j = 0; j < subjects; j++) {
+        info.subjects.put(readString(in), readCount(in));
+      }
+      int series = readCount(in);
+      for (int j = 0; j < series; j++) {
+        info.series.put(in.readInt(), readCount(in));
+      }
+      return info;
+    });
+  }
+
+  /**
+   * Writes a month's header file.
+   */
+  private void writeHeader(YearMonth month, MonthInfo info) throws IOException {
+    writeChecked(headerPath(month), out -> {
+      out.writeInt(HEADER_MAGIC);
+      out.writeShort(HEADER_VERSION);
+      out.writeInt(info.count);
+      writeDateTime(out, info.latestEnd);
+      out.writeLong(info.fileLength);
+      out.writeInt(info.subjects.size());
+      for (Map.Entry<String, Integer> subject : info.subjects.entrySet()) {
+        writeString(out, subject.getKey());
+        out.writeInt(subject.getValue());
+      }
+      out.writeInt(info.series.size());
+      for (Map.Entry<Integer, Integer> series : info.series.entrySet()) {
+        out.writeInt(series.getKey());
+        out.writeInt(series.getValue());
+      }
+    });
+  }
+
+  /**
+   * Gets the month in the name of a segment or header file, or null if the name has none.
+   */
+  private static YearMonth monthOf(Path file, String suffix) {
+    String name = file.getFileName().toString();
+    try {
+      return YearMonth.parse(name.substring(SEGMENT_PREFIX.length(),
+              name.length() - suffix.length()));
+    } catch (DateTimeParseException e) {
+      // Not one of our files
+      return null;
+    }
+  }
+
+  /**
+   * Lists the files in the directory whose names match a glob.
+   */
+  private List<Path> listFiles(String glob) throws IOException {
+    List<Path> files = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+      for (Path file : stream) {
+        files.add(file);
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Deletes the staging files in the directory.
+   */
+  private void deleteStagedFiles() throws IOException {
+    for (Path file : listFiles(SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX + STAGED_SUFFIX)) {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Gets the path of a month's staging file.
+   */
+  private Path stagedPath(YearMonth month) {
+    return directory.resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX + STAGED_SUFFIX);
+  }
+
+  /**
+   * Gets the path of a month's header file.
+   */
+  private Path headerPath(YearMonth month) {
+    return directory.resolve(SEGMENT_PREFIX + month + HEADER_SUFFIX);
+  }
+
+  /**
+   * Gets the path of a month's segment file.
+   */
+  private Path segmentPath(YearMonth month) {
+    return directory.resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX);
+  }
+
+  /**
+   * Writes a file under a temporary name, followed by a CRC-32 of its contents, forces it to
+   * disk and renames it over the old file.
+   */
+  private static void writeChecked(Path file, Body body) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel),
+              BUFFER_SIZE);
+      CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      body.write(out);
+      out.flush();
+      new DataOutputStream(stream).writeInt((int) checked.getChecksum().getValue());
+      stream.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a file written by {@link #writeChecked}, checking its CRC-32.
+   */
+  private static <T> T readChecked(Path file, Reader<T> reader) throws IOException {
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(file),
+            BUFFER_SIZE)) {
+      CheckedInputStream checked = new CheckedInputStream(stream, new CRC32());
+      T result = reader.read(new DataInputStream(checked));
+      int expected = (int) checked.getChecksum().getValue();
+      if (new DataInputStream(stream).readInt() != expected) {
+        throw new IOException(file.getFileName() + " failed its checksum");
+      }
+      return result;
+    } catch (NoSuchFileException e) {
+      throw e;
+    } catch (EOFException e) {
+      throw new IOException(file.getFileName() + " is incomplete", e);
+    }
+  }
+
+  /**
+   * Reads a count, rejecting negative values from a damaged file.
+   */
+  private static int readCount(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Negative count in segment file");
+    }
+    return count;
+  }
+
+  /**
+   * Gets the end of an event, or its start if it has no end.
+   */
+  private static LocalDateTime effectiveEnd(IEvent event) {
+    return event.getEndDateTime() == null ? event.getStartDateTime() : event.getEndDateTime();
+  }
+
+  /**
+   * Estimates the heap bytes an event uses while its segment is loaded.
+   */
+  private static long estimate(IEvent event) {
+    long chars = event.getSubject() == null ? 0 : event.getSubject().length();
+    chars += event.getDescription() == null ? 0 : event.getDescription().length();
+    return EVENT_OVERHEAD_BYTES + 2 * chars;
+  }
+
+  /**
+   * Writes the contents of a checked file.
+   */
+  @FunctionalInterface
+  private interface Body {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * Reads the contents of a checked file.
+   */
+  @FunctionalInterface
+  private interface Reader<T> {
+    T read(DataInputStream in) throws IOException;
+  }
+
+  /**
+   * What the catalog knows about a month without loading its segment.
+   */
+  private static final class MonthInfo {
+    private int count;
+    private LocalDateTime latestEnd;
+    private long fileLength;
+    // Whether the month changed since its header was last written
+    private boolean dirty;
+    // The number of the month's events using each subject and belonging to each series
+    private final Map<String, Integer> subjects = new HashMap<String, Integer>();
+    private final Map<Integer, Integer> series = new HashMap<Integer, Integer>();
+
+    private MonthInfo(int count, LocalDateTime latestEnd, long fileLength) {
+      this.count = count;
+      this.latestEnd = latestEnd;
+      this.fileLength = fileLength;
+    }
+
+    /**
+     * Counts an event added to the month, or with a change of -1, one removed from it.
+     */
+    private void count(IEvent event, int change) {
+      count += change;
+      subjects.merge(event.getSubject(), change, MonthInfo::sumOrNone);
+      if (event.getSeriesId() != null) {
+        series.merge(event.getSeriesId(), change, MonthInfo::sumOrNone);
+      }
+    }
+
+    /**
+     * Adds two counts, giving null for none so the map entry is dropped.
+     */
+    private static Integer sumOrNone(Integer count, Integer change) {
+      int sum = count + change;
+      return (sum == 0) ? null : sum;
+    }
+
+    /**
+     * Widens the month's latest end to cover an event ending at the given time.
+     */
+    private void include(LocalDateTime end) {
+      if (latestEnd == null || end.isAfter(latestEnd)) {
+        latestEnd = end;
+      }
+    }
+  }
+
+  /**
+   * The loaded events of a month.
+   */
+  private static final class Segment {
+    private final Set<IEvent> events;
+    private boolean dirty;
+    private long bytes;
+
+    private Segment(Set<IEvent> events) {
+      this.events = events;
+    }
+  }
+
+  /**
+   * Iterates over the events of a list of months, loading each month only when reached.
+   */
+  private final class SegmentIterator implements Iterator<IEvent> {
+    private final Iterator<YearMonth> months;
+    private Iterator<IEvent> current;
+
+    private SegmentIterator(List<YearMonth> months) {
+      this.months = months.iterator();
+      this.current = Collections.emptyIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext() && months.hasNext()) {
+        Segment segment = segment(months.next(), false);
+        if (segment != null) {
+          current = segment.events.iterator();
+        }
+      }
+      return current.hasNext();
+    }
+
+    @Override
+    public IEvent next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+  }
+}
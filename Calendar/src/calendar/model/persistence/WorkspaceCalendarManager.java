@@ -0,0 +1,395 @@
+package calendar.model.persistence;
+
+import static calendar.model.persistence.BinaryCodec.readString;
+import static calendar.model.persistence.BinaryCodec.writeString;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import calendar.model.CalendarManager;
+import calendar.model.ICalendarManager;
+import calendar.model.ISmartCalendarModel;
+import calendar.model.SmartCalendarModel;
+
+/**
+ * A calendar manager whose calendars are kept in a workspace directory and saved
+ * incrementally.
+ * Each calendar keeps its events in its own {@link MonthSegmentStore}, in a directory named
+ * after a number the calendar keeps for its whole life, so renaming a calendar never moves
+ * its files. A small calendar list records the number, name and time zone of each calendar.
+ * Nothing is written until {@link #save} is called or an autosave is due. The manager tracks
+ * what changed since the last save:
+ * <ul>
+ *   <li>each calendar's store tracks the month segments that gained, lost or changed events,
+ *       which covers series edits as well, since occurrences are stored in the months they
+ *       start in</li>
+ *   <li>creating a calendar, renaming one or changing its time zone marks the calendar list
+ *       as changed</li>
+ * </ul>
+ * Saving writes only the changed segments, each to a temporary file renamed over the old one,
+ * and the calendar list if it changed. An edit to one event costs one segment file and that
+ * month's header, however many events, months and subjects the calendar holds. Changing a
+ * time zone moves every event, so it changes every segment.
+ * Months dropped from memory to stay within the budget are written to staging files rather
+ * than over their saved segments, so between saves the saved files only ever hold what the
+ * last save wrote, and a crash loses the unsaved changes of every month alike.
+ * Opening the workspace reads the calendar list and each calendar's month headers, which
+ * hold everything a calendar needs to open; months are read when first queried.
+ * Calendar directories left by calendars that were created but never saved, and staging files
+ * left by changes that were never saved, are deleted when the workspace is opened.
+ */
+public class WorkspaceCalendarManager implements ICalendarManager, Closeable {
+  private static final int MAGIC = 0x43414C57; // "CALW"
+  private static final short VERSION = 1;
+  private static final String CALENDARS_FILE = "calendars.idx";
+  private static final String CALENDAR_PREFIX = "calendar-";
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  private final CalendarManager delegate;
+  private final Path directory;
+  private final long memoryBudget;
+  private final int queryCacheSize;
+  private final Map<ISmartCalendarModel, SavedCalendar> saved;
+  private int nextCalendarId;
+  private boolean calendarsChanged;
+  private long autosaveNanos;
+  private long lastSaveNanos;
+
+  /**
+   * Opens a workspace, creating its directory if needed, and loads the calendars saved in it.
+   *
+   * @param directory      the workspace directory
+   * @param memoryBudget   the estimated bytes of events each calendar may keep loaded
+   * @param queryCacheSize the number of query results each calendar caches, or 0 for none
+   * @throws IOException if the workspace cannot be read
+   * @throws IllegalArgumentException if the directory is null, the budget is not positive or
+   *                                  the cache size is negative
+   */
+  public WorkspaceCalendarManager(Path directory, long memoryBudget, int queryCacheSize)
+          throws IOException {
+    if (directory == null || memoryBudget <= 0) {
+      throw new IllegalArgumentException("Directory cannot be null and memory budget must be "
+              + "positive");
+    }
+    this.delegate = new CalendarManager(queryCacheSize);
+    this.directory = directory;
+    this.memoryBudget = memoryBudget;
+    this.queryCacheSize = queryCacheSize;
+    this.saved = new IdentityHashMap<ISmartCalendarModel, SavedCalendar>();
+    this.nextCalendarId = 0;
+    this.calendarsChanged = false;
+    this.autosaveNanos = 0;
+    this.lastSaveNanos = System.nanoTime();
+    Files.createDirectories(directory);
+    Path calendarsFile = directory.resolve(CALENDARS_FILE);
+    if (Files.exists(calendarsFile)) {
+      readCalendars(calendarsFile);
+    }
+    deleteUnsavedCalendars();
+  }
+
+  /**
+   * Saves the changes automatically once the given time has passed since the last save. The
+   * check happens whenever a command reaches this manager, so an autosave never runs in the
+   * middle of a command. If an autosave fails, the command that triggered it fails with the
+   * reason, and the next autosave is tried one interval later.
+   *
+   * @param interval the time between saves, or null or zero to turn autosave off
+   * @throws IllegalArgumentException if the interval is negative
+   */
+  public void setAutosaveInterval(Duration interval) {
+    if (interval != null && interval.isNegative()) {
+      throw new IllegalArgumentException("Autosave interval cannot be negative");
+    }
+    this.autosaveNanos = interval == null ? 0 : interval.toNanos();
+  }
+
+  @Override
+  public ISmartCalendarModel getCurrentCalendar() {
+    autosaveIfDue();
+    return delegate.getCurrentCalendar();
+  }
+
+  @Override
+  public ISmartCalendarModel getCalendar(String calendarName) {
+    autosaveIfDue();
+    return delegate.getCalendar(calendarName);
+  }
+
+  @Override
+  public void createCalendar(String calendarName, ZoneId timezone) {
+    autosaveIfDue();
+    if (delegate.getCalendarNames().contains(calendarName)) {
+      throw new IllegalArgumentException("Calendar with name " + calendarName
+          + " already exists");
+    }
+    int id = nextCalendarId;
+    MonthSegmentStore store;
+    try {
+      store = new MonthSegmentStore(calendarDirectory(id), memoryBudget);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not create calendar " + calendarName + ": "
+          + e.getMessage());
+    }
+    addCalendar(id, new SmartCalendarModel(calendarName, timezone, store), store);
+    nextCalendarId++;
+    calendarsChanged = true;
+  }
+
+  @Override
+  public void useCalendar(String calendarName) {
+    autosaveIfDue();
+    delegate.useCalendar(calendarName);
+  }
+
+  @Override
+  public void editCalendar(String calendarName, String property, String newValue) {
+    autosaveIfDue();
+    delegate.editCalendar(calendarName, property, newValue);
+    calendarsChanged = true;
+  }
+
+  @Override
+  public void copyEvent(String eventName, LocalDateTime sourceDateTime,
+                        String targetCalendarName, LocalDateTime targetDateTime) {
+    autosaveIfDue();
+    delegate.copyEvent(eventName, sourceDateTime, targetCalendarName, targetDateTime);
+  }
+
+  @Override
+  public void copyEventsOnDate(LocalDateTime sourceDate, String targetCalendarName,
+                               LocalDateTime targetDate) {
+    autosaveIfDue();
+    delegate.copyEventsOnDate(sourceDate, targetCalendarName, targetDate);
+  }
+
+  @Override
+  public void copyEventsBetweenDates(LocalDateTime startDate, LocalDateTime endDate,
+                                     String targetCalendarName, LocalDateTime targetStartDate) {
+    autosaveIfDue();
+    delegate.copyEventsBetweenDates(startDate, endDate, targetCalendarName, targetStartDate);
+  }
+
+  @Override
+  public List<String> getCalendarNames() {
+    return delegate.getCalendarNames();
+  }
+
+  /**
+   * Writes the changed segments of every calendar, then the calendar list if it changed.
+   *
+   * @return the number of files written or deleted
+   * @throws IllegalArgumentException if the changes cannot be written
+   */
+  @Override
+  public int save() {
+    lastSaveNanos = System.nanoTime();
+    try {
+      int files = 0;
+      for (SavedCalendar calendar : saved.values()) {
+        files += calendar.store.flush();
+      }
+      if (calendarsChanged) {
+        writeCalendars();
+        calendarsChanged = false;
+        files++;
+      }
+      return files;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not save calendars: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the names of the calendars with changes that are not yet saved.
+   *
+   * @return the names of the changed calendars
+   */
+  public List<String> getChangedCalendars() {
+    List<String> changed = new ArrayList<String>();
+    for (Map.Entry<ISmartCalendarModel, SavedCalendar> entry : saved.entrySet()) {
+      if (!entry.getValue().store.getDirtyMonths().isEmpty()) {
+        changed.add(entry.getKey().getCalendarName());
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Saves any remaining changes.
+   *
+   * @throws IOException if the changes cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      save();
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Saves if autosave is on and its interval has passed since the last save.
+   */
+  private void autosaveIfDue() {
+    if (autosaveNanos > 0 && System.nanoTime() - lastSaveNanos >= autosaveNanos) {
+      save();
+    }
+  }
+
+  /**
+   * Adds a calendar to the delegate and remembers where it is saved.
+   */
+  private void addCalendar(int id, SmartCalendarModel calendar, MonthSegmentStore store) {
+    if (queryCacheSize > 0) {
+      calendar.enableQueryCache(queryCacheSize);
+    }
+    delegate.addCalendar(calendar);
+    saved.put(calendar, new SavedCalendar(id, store));
+  }
+
+  /**
+   * Reads the calendar list and opens the store of each calendar in it.
+   */
+  private void readCalendars(Path file) throws IOException {
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(file),
+            BUFFER_SIZE)) {
+      CheckedInputStream checked = new CheckedInputStream(stream, new CRC32());
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+        throw new IOException(file.getFileName() + " is not a calendar list");
+      }
+      nextCalendarId = in.readInt();
+      int count = in.readInt();
+      int[] ids = new int[Math.max(0, count)];
+      String[] names = new String[ids.length];
+      String[] timezones = new String[ids.length];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = in.readInt();
+        names[i] = readString(in);
+        timezones[i] = readString(in);
+      }
+      int expected = (int) checked.getChecksum().getValue();
+      if (new DataInputStream(stream).readInt() != expected) {
+        throw new IOException(file.getFileName() + " failed its checksum");
+      }
+
+      for (int i = 0; i < ids.length; i++) {
+        MonthSegmentStore store = new MonthSegmentStore(calendarDirectory(ids[i]),
+                memoryBudget);
+        addCalendar(ids[i], new SmartCalendarModel(names[i], ZoneId.of(timezones[i]), store),
+                store);
+      }
+    } catch (EOFException e) {
+      throw new IOException(file.getFileName() + " is incomplete", e);
+    } catch (DateTimeException e) {
+      throw new IOException(file.getFileName() + " has an invalid time zone", e);
+    }
+  }
+
+  /**
+   * Writes the calendar list under a temporary name and renames it into place.
+   */
+  private void writeCalendars() throws IOException {
+    Path file = directory.resolve(CALENDARS_FILE);
+    Path temporary = directory.resolve(CALENDARS_FILE + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel),
+              BUFFER_SIZE);
+      CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeInt(nextCalendarId);
+      out.writeInt(saved.size());
+      for (Map.Entry<ISmartCalendarModel, SavedCalendar> entry : saved.entrySet()) {
+        out.writeInt(entry.getValue().id);
+        writeString(out, entry.getKey().getCalendarName());
+        writeString(out, entry.getKey().getTimezone().getId());
+      }
+      out.flush();
+      new DataOutputStream(stream).writeInt((int) checked.getChecksum().getValue());
+      stream.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Deletes the directories of calendars that are not in the calendar list, which were
+   * created but never saved.
+   */
+  private void deleteUnsavedCalendars() throws IOException {
+    Set<Path> known = new HashSet<Path>();
+    for (SavedCalendar calendar : saved.values()) {
+      known.add(calendarDirectory(calendar.id));
+    }
+    List<Path> unsaved = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+            CALENDAR_PREFIX + "*")) {
+      for (Path path : stream) {
+        if (Files.isDirectory(path) && !known.contains(path)) {
+          unsaved.add(path);
+        }
+      }
+    }
+    for (Path path : unsaved) {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+        for (Path file : files) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Gets the directory holding the segments of a calendar.
+   */
+  private Path calendarDirectory(int id) {
+    return directory.resolve(CALENDAR_PREFIX + id);
+  }
+
+  /**
+   * Where a calendar is saved.
+   */
+  private static final class SavedCalendar {
+    private final int id;
+    private final MonthSegmentStore store;
+
+    private SavedCalendar(int id, MonthSegmentStore store) {
+      this.id = id;
+      this.store = store;
+    }
+  }
+}
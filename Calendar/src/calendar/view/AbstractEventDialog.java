@@ -5,9 +5,12 @@ import javax.swing.JDialog;
 import javax.swing.JPanel;
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JTextField;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Abstract base class for event dialogs that provides common functionality
@@ -105,6 +108,22 @@ public abstract class AbstractEventDialog extends JDialog {
     return DialogUtils.getDateTimeFromSpinners(endDateSpinner, endTimeSpinner);
   }
   
+  /**
+   * Enables autocompletion of the subject field with existing event subjects.
+   * 
+   * @param suggester gives the existing subjects starting with the text typed so far
+   */
+  public void setSubjectSuggestions(Function<String, List<String>> suggester) {
+    DialogUtils.attachSuggestions(getSubjectField(), suggester);
+  }
+  
+  /**
+   * Subclasses must implement this method to expose the field holding the event subject.
+   * 
+   * @return the subject text field
+   */
+  protected abstract JTextField getSubjectField();
+  
   /**
    * Subclasses must implement this method to create their specific content.
    * 
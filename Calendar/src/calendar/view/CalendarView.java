@@ -1,6 +1,7 @@
 package calendar.view;
 
 import calendar.model.IEvent;
+import java.io.Flushable;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -10,6 +11,8 @@ import java.util.List;
 /**
  * Implementation of the calendar view that displays information to the user.
  * This view formats and displays calendar events and messages using the provided Appendable.
+ * A buffered view collects its output and hands it to the Appendable in large pieces, when
+ * the buffer fills up or when {@link #flush()} is called, instead of fragment by fragment.
  */
 public class CalendarView implements ICalendarView {
   private static final DateTimeFormatter TIME_FORMATTER =
@@ -18,6 +21,10 @@ public class CalendarView implements ICalendarView {
           DateTimeFormatter.ofPattern("yyyy-MM-dd");
   private static final DateTimeFormatter DATE_TIME_FORMATTER =
           DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+  private final Appendable destination;
+  private final StringBuilder buffer;
+  private final int bufferSize;
+  // What the display methods write to: the buffer, or the destination when unbuffered
   private final Appendable out;
 
   /**
@@ -25,9 +32,29 @@ public class CalendarView implements ICalendarView {
    * @param out the Appendable to write output to
    */
   public CalendarView(Appendable out) {
+    this.destination = out;
+    this.buffer = null;
+    this.bufferSize = 0;
     this.out = out;
   }
 
+  /**
+   * Constructs a new buffered CalendarView. Output reaches the destination whenever the
+   * buffer holds at least the given number of characters, and when the view is flushed.
+   * @param out the Appendable to write output to
+   * @param bufferSize the number of characters to collect before writing them out
+   * @throws IllegalArgumentException if the buffer size is not positive
+   */
+  public CalendarView(Appendable out, int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive");
+    }
+    this.destination = out;
+    this.buffer = new StringBuilder(bufferSize + bufferSize / 4);
+    this.bufferSize = bufferSize;
+    this.out = buffer;
+  }
+
   /**
    * Displays a general message to the user.
    * @param message the message to display
@@ -36,6 +63,7 @@ public class CalendarView implements ICalendarView {
   public void displayMessage(String message) {
     try {
       this.out.append(message).append("\n");
+      written();
     } catch (IOException e) {
       throw new IllegalStateException("Failed to write output", e);
     }
@@ -49,6 +77,7 @@ public class CalendarView implements ICalendarView {
   public void displayError(String error) {
     try {
       this.out.append("\nERROR: ").append(error).append("\n");
+      written();
     } catch (IOException e) {
       throw new IllegalStateException("Failed to write output", e);
     }
@@ -79,6 +108,17 @@ public class CalendarView implements ICalendarView {
     displayEvents(header, events);
   }
 
+  /**
+   * Displays the events that matched a search.
+   * @param terms the search terms that were used
+   * @param events the list of matching events to display
+   */
+  @Override
+  public void displaySearchResults(String terms, List<IEvent> events) {
+    String header = "Search results for \"" + terms + "\"";
+    displayEvents(header, events);
+  }
+
   /**
    * Displays the current status of a specific date/time.
    * @param dateTime the date/time to check
@@ -102,6 +142,26 @@ public class CalendarView implements ICalendarView {
   public void displayPrompt() {
     try {
       this.out.append("> ");
+      written();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write output", e);
+    }
+  }
+
+  /**
+   * Writes out everything the view has buffered and flushes the destination, if it can be
+   * flushed.
+   */
+  @Override
+  public void flush() {
+    try {
+      if ((buffer != null) && (buffer.length() > 0)) {
+        destination.append(buffer);
+        buffer.setLength(0);
+      }
+      if (destination instanceof Flushable) {
+        ((Flushable) destination).flush();
+      }
     } catch (IOException e) {
       throw new IllegalStateException("Failed to write output", e);
     }
@@ -118,19 +178,31 @@ public class CalendarView implements ICalendarView {
 
       if (events.isEmpty()) {
         this.out.append("No events found.\n");
+        written();
         return;
       }
 
       for (IEvent event : events) {
-        String eventLine = formatEvent(event);
-        this.out.append("• ").append(eventLine).append("\n");
+        this.out.append("• ");
+        writeEvent(event);
+        this.out.append("\n");
       }
       this.out.append("\n");
+      written();
     } catch (IOException e) {
       throw new IllegalStateException("Failed to write output", e);
     }
   }
 
+  /**
+   * Writes the buffered output out once the buffer has filled up.
+   */
+  private void written() {
+    if ((buffer != null) && (buffer.length() >= bufferSize)) {
+      flush();
+    }
+  }
+
   /**
    * Displays the header with underline for event lists.
    * @param header the header text to display
@@ -142,28 +214,24 @@ public class CalendarView implements ICalendarView {
   }
 
   /**
-   * Formats a single event for display.
-   * @param event the event to format
-   * @return the formatted event string
+   * Writes a single event, with its dates formatted straight into the output.
+   * @param event the event to write
+   * @throws IOException if output fails
    */
-  private String formatEvent(IEvent event) {
-    StringBuilder eventLine = new StringBuilder();
-
-    eventLine.append(event.getSubject()).append(" (");
+  private void writeEvent(IEvent event) throws IOException {
+    this.out.append(event.getSubject()).append(" (");
 
     if (isMultiDayEvent(event)) {
-      formatMultiDayEvent(event, eventLine);
+      writeMultiDayEvent(event);
     } else {
-      formatSingleDayEvent(event, eventLine);
+      writeSingleDayEvent(event);
     }
 
-    eventLine.append(")");
+    this.out.append(")");
 
     if (event.getLocation() != null) {
-      eventLine.append(" : ").append(event.getLocation());
+      this.out.append(" : ").append(String.valueOf(event.getLocation()));
     }
-
-    return eventLine.toString();
   }
 
   /**
@@ -177,26 +245,26 @@ public class CalendarView implements ICalendarView {
   }
 
   /**
-   * Formats a multi-day event's date and time information.
+   * Writes a multi-day event's date and time information.
    * @param event the multi-day event
-   * @param eventLine the StringBuilder to append to
+   * @throws IOException if output fails
    */
-  private void formatMultiDayEvent(IEvent event, StringBuilder eventLine) {
-    eventLine.append(event.getStartDateTime().format(DATE_TIME_FORMATTER))
-            .append(" - ")
-            .append(event.getEndDateTime().format(DATE_TIME_FORMATTER));
+  private void writeMultiDayEvent(IEvent event) throws IOException {
+    DATE_TIME_FORMATTER.formatTo(event.getStartDateTime(), this.out);
+    this.out.append(" - ");
+    DATE_TIME_FORMATTER.formatTo(event.getEndDateTime(), this.out);
   }
 
   /**
-   * Formats a single-day event's date and time information.
+   * Writes a single-day event's date and time information.
    * @param event the single-day event
-   * @param eventLine the StringBuilder to append to
+   * @throws IOException if output fails
    */
-  private void formatSingleDayEvent(IEvent event, StringBuilder eventLine) {
-    eventLine.append(event.getStartDateTime().toLocalDate().format(DATE_FORMATTER))
-            .append(" ")
-            .append(event.getStartDateTime().toLocalTime().format(TIME_FORMATTER))
-            .append(" - ")
-            .append(event.getEndDateTime().toLocalTime().format(TIME_FORMATTER));
+  private void writeSingleDayEvent(IEvent event) throws IOException {
+    DATE_FORMATTER.formatTo(event.getStartDateTime(), this.out);
+    this.out.append(" ");
+    TIME_FORMATTER.formatTo(event.getStartDateTime(), this.out);
+    this.out.append(" - ");
+    TIME_FORMATTER.formatTo(event.getEndDateTime(), this.out);
   }
-}
\ No newline at end of file
+}
@@ -82,6 +82,11 @@ public class CreateEventDialog extends AbstractEventDialog {
     return panel;
   }
   
+  @Override
+  protected JTextField getSubjectField() {
+    return eventNameField;
+  }
+  
   /**
    * Gets the event name entered by the user.
    * 
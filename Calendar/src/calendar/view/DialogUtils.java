@@ -7,11 +7,19 @@ import javax.swing.JLabel;
 import javax.swing.BoxLayout;
 import javax.swing.BorderFactory;
 import javax.swing.SpinnerDateModel;
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.FlowLayout;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Utility class for common dialog operations with simple, clean layouts.
@@ -165,4 +173,65 @@ public final class DialogUtils {
 
     return date.atTime(timeCal.get(Calendar.HOUR_OF_DAY), timeCal.get(Calendar.MINUTE));
   }
-} 
\ No newline at end of file
+
+  /**
+   * Shows a popup of suggested completions below a text field while the user types.
+   * Choosing a suggestion replaces the text in the field.
+   *
+   * @param field     the text field to complete
+   * @param suggester gives the completions for the text typed so far
+   */
+  public static void attachSuggestions(JTextField field,
+                                       Function<String, List<String>> suggester) {
+    JPopupMenu popup = new JPopupMenu();
+    popup.setFocusable(false);
+
+    field.getDocument().addDocumentListener(new DocumentListener() {
+      @Override
+      public void insertUpdate(DocumentEvent e) {
+        SwingUtilities.invokeLater(() -> updateSuggestions(field, popup, suggester));
+      }
+
+      @Override
+      public void removeUpdate(DocumentEvent e) {
+        SwingUtilities.invokeLater(() -> updateSuggestions(field, popup, suggester));
+      }
+
+      @Override
+      public void changedUpdate(DocumentEvent e) {
+        // Attribute changes do not change the text
+      }
+    });
+  }
+
+  /**
+   * Refills the suggestion popup for the current text of the field.
+   */
+  private static void updateSuggestions(JTextField field, JPopupMenu popup,
+                                        Function<String, List<String>> suggester) {
+    popup.setVisible(false);
+    popup.removeAll();
+
+    String text = field.getText();
+    if (text.trim().isEmpty() || !field.isShowing()) {
+      return;
+    }
+
+    for (String suggestion : suggester.apply(text)) {
+      if (suggestion.equals(text)) {
+        continue;
+      }
+      JMenuItem item = new JMenuItem(suggestion);
+      item.addActionListener(e -> {
+        field.setText(suggestion);
+        popup.setVisible(false);
+      });
+      popup.add(item);
+    }
+
+    if (popup.getComponentCount() > 0) {
+      popup.show(field, 0, field.getHeight());
+      field.requestFocusInWindow();
+    }
+  }
+}
@@ -126,6 +126,11 @@ public class EditEventDialog extends AbstractEventDialog {
     inputPanel.repaint();
   }
   
+  @Override
+  protected JTextField getSubjectField() {
+    return subjectField;
+  }
+  
   /**
    * Gets the property being edited.
    * 
@@ -38,6 +38,13 @@ public interface ICalendarView {
   void displayEventsForDateRange(LocalDateTime startDate, LocalDateTime endDate,
                                  List<IEvent> events);
 
+  /**
+   * Displays the events that matched a search.
+   * @param terms the search terms that were used
+   * @param events the list of matching events to display
+   */
+  void displaySearchResults(String terms, List<IEvent> events);
+
   /**
    * Displays the current status of a specific date/time.
    * @param dateTime the date/time to check
@@ -49,4 +56,9 @@ public interface ICalendarView {
    * Displays the command prompt.
    */
   void displayPrompt();
-}
\ No newline at end of file
+
+  /**
+   * Writes out any output the view is still holding back.
+   */
+  void flush();
+}
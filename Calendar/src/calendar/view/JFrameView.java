@@ -59,6 +59,7 @@ public class JFrameView extends JFrame implements ICalendarViewGUI {
   private static final int EVENT_LIST_DIALOG_HEIGHT = 400;
   private static final int SCHEDULE_TEXT_AREA_WIDTH = 280;
   private static final int SCHEDULE_TEXT_AREA_HEIGHT = 300;
+  private static final int SUBJECT_SUGGESTION_LIMIT = 8;
 
 
   // Constants for spacing
@@ -406,6 +407,7 @@ public class JFrameView extends JFrame implements ICalendarViewGUI {
    */
   public void showCreateEventDialog(LocalDate selectedDate) {
     CreateEventDialog dialog = new CreateEventDialog(this, selectedDate);
+    enableSubjectSuggestions(dialog);
     dialog.setVisible(true);
 
     if (dialog.isConfirmed() && features != null) {
@@ -524,6 +526,7 @@ public class JFrameView extends JFrame implements ICalendarViewGUI {
    */
   public void showEditEventDialog(IEvent event) {
     EditEventDialog dialog = new EditEventDialog(this, event);
+    enableSubjectSuggestions(dialog);
     dialog.setVisible(true);
 
     if (dialog.isConfirmed() && features != null) {
@@ -533,6 +536,16 @@ public class JFrameView extends JFrame implements ICalendarViewGUI {
     }
   }
 
+  /**
+   * Lets the subject field of an event dialog autocomplete from the current calendar.
+   */
+  private void enableSubjectSuggestions(AbstractEventDialog dialog) {
+    if (features != null) {
+      dialog.setSubjectSuggestions(prefix ->
+              features.suggestSubjects(prefix, SUBJECT_SUGGESTION_LIMIT));
+    }
+  }
+
   private JDialog createDialog(String title) {
     JDialog dialog = new JDialog(this, title, true);
     dialog.setSize(JFrameView.EVENT_LIST_DIALOG_WIDTH, JFrameView.EVENT_LIST_DIALOG_HEIGHT);
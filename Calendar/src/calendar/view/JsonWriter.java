@@ -0,0 +1,256 @@
+package calendar.view;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+import calendar.model.IEvent;
+
+/**
+ * Writes JSON a value at a time to a writer, such as the body of an HTTP response.
+ * Everything is written straight into a character buffer that is handed to the writer when
+ * it fills up, so a long array of events is never held as one string. Commas between the
+ * members of objects and arrays are written as needed.
+ */
+public class JsonWriter {
+  private static final int BUFFER_SIZE = 1 << 13;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final Writer out;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
+  // For each open object or array, whether nothing has been written in it yet
+  private boolean[] empty = new boolean[8];
+  private int depth;
+  // Whether a member name was just written, so its value needs no comma
+  private boolean afterName;
+
+  /**
+   * Creates a writer of JSON.
+   *
+   * @param out the writer to write the JSON to
+   * @throws IllegalArgumentException if the writer is null
+   */
+  public JsonWriter(Writer out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Writer cannot be null");
+    }
+    this.out = out;
+  }
+
+  /**
+   * Starts an object.
+   *
+   * @return this writer
+   */
+  public JsonWriter beginObject() throws IOException {
+    open('{');
+    return this;
+  }
+
+  /**
+   * Ends the innermost object.
+   *
+   * @return this writer
+   */
+  public JsonWriter endObject() throws IOException {
+    close('}');
+    return this;
+  }
+
+  /**
+   * Starts an array.
+   *
+   * @return this writer
+   */
+  public JsonWriter beginArray() throws IOException {
+    open('[');
+    return this;
+  }
+
+  /**
+   * Ends the innermost array.
+   *
+   * @return this writer
+   */
+  public JsonWriter endArray() throws IOException {
+    close(']');
+    return this;
+  }
+
+  /**
+   * Writes the name of the next member of an object.
+   *
+   * @param name the name
+   * @return this writer
+   */
+  public JsonWriter name(String name) throws IOException {
+    beforeValue();
+    string(name);
+    append(':');
+    afterName = true;
+    return this;
+  }
+
+  /**
+   * Writes a string, or null.
+   *
+   * @param value the string
+   * @return this writer
+   */
+  public JsonWriter value(String value) throws IOException {
+    beforeValue();
+    if (value == null) {
+      append("null");
+    } else {
+      string(value);
+    }
+    return this;
+  }
+
+  /**
+   * Writes a date-time as an ISO string such as 2025-05-05T14:30, or null.
+   *
+   * @param value the date-time
+   * @return this writer
+   */
+  public JsonWriter value(LocalDateTime value) throws IOException {
+    return value((value == null) ? null : value.toString());
+  }
+
+  /**
+   * Writes a number.
+   *
+   * @param value the number
+   * @return this writer
+   */
+  public JsonWriter value(long value) throws IOException {
+    beforeValue();
+    append(Long.toString(value));
+    return this;
+  }
+
+  /**
+   * Writes true or false.
+   *
+   * @param value the value
+   * @return this writer
+   */
+  public JsonWriter value(boolean value) throws IOException {
+    beforeValue();
+    append(value ? "true" : "false");
+    return this;
+  }
+
+  /**
+   * Writes an event as an object of its properties. Properties an event does not have, such
+   * as the series of an event that does not repeat, are null.
+   *
+   * @param event the event
+   * @return this writer
+   */
+  public JsonWriter event(IEvent event) throws IOException {
+    beginObject();
+    name("subject").value(event.getSubject());
+    name("start").value(event.getStartDateTime());
+    name("end").value(event.getEndDateTime());
+    name("description").value(event.getDescription());
+    name("location").value((event.getLocation() == null) ? null
+            : event.getLocation().name().toLowerCase());
+    name("status").value((event.getStatus() == null) ? null
+            : event.getStatus().name().toLowerCase());
+    name("seriesId");
+    if (event.getSeriesId() == null) {
+      value((String) null);
+    } else {
+      value(event.getSeriesId().longValue());
+    }
+    return endObject();
+  }
+
+  /**
+   * Hands everything written so far to the writer and flushes it.
+   */
+  public void flush() throws IOException {
+    out.write(buffer, 0, position);
+    position = 0;
+    out.flush();
+  }
+
+  /**
+   * Starts an object or array.
+   */
+  private void open(char bracket) throws IOException {
+    beforeValue();
+    append(bracket);
+    if (depth == empty.length) {
+      boolean[] deeper = new boolean[depth * 2];
+      System.arraycopy(empty, 0, deeper, 0, depth);
+      empty = deeper;
+    }
+    empty[depth++] = true;
+  }
+
+  /**
+   * Ends the innermost object or array.
+   */
+  private void close(char bracket) throws IOException {
+    if (depth == 0) {
+      throw new IllegalStateException("Nothing to close with " + bracket);
+    }
+    depth--;
+    append(bracket);
+  }
+
+  /**
+   * Writes the comma before a value, unless it is the first in its object or array or
+   * follows its name.
+   */
+  private void beforeValue() throws IOException {
+    if (afterName) {
+      afterName = false;
+    } else if (depth > 0) {
+      if (!empty[depth - 1]) {
+        append(',');
+      }
+      empty[depth - 1] = false;
+    }
+  }
+
+  /**
+   * Writes a string in quotes, escaping the characters JSON requires.
+   */
+  private void string(String value) throws IOException {
+    append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if ((c == '"') || (c == '\\')) {
+        append('\\');
+        append(c);
+      } else if (c == '\n') {
+        append("\\n");
+      } else if (c < 0x20) {
+        append("\\u00");
+        append(HEX[c >> 4]);
+        append(HEX[c & 0xF]);
+      } else {
+        append(c);
+      }
+    }
+    append('"');
+  }
+
+  private void append(String text) throws IOException {
+    for (int i = 0; i < text.length(); i++) {
+      append(text.charAt(i));
+    }
+  }
+
+  private void append(char c) throws IOException {
+    if (position == BUFFER_SIZE) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+    buffer[position++] = c;
+  }
+}
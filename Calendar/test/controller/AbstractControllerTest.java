@@ -9,6 +9,7 @@ import calendar.model.ICalendarModel;
 import calendar.view.ICalendarView;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * This class represents the abstract test class for the CalendarController.
@@ -315,6 +316,60 @@ public abstract class AbstractControllerTest {
     assertEquals(expectedOut, logModel.toString());
   }
 
+  @Test
+  public void testBlockRunsAsOneGroupAtCommit() {
+    convertStringInput("begin\n" +
+            "create event Standup on 2024-03-20\n" +
+            "print events on 2024-03-20\n" +
+            "commit\n" +
+            "commit\n" +
+            "exit\n");
+    controller = createController();
+    controller.execute();
+
+    assertEquals("Applying changes: Created single all day event Standup on " +
+            "2024-03-20T00:00Queried for all events that occur on 2024-03-20T00:00 " +
+            "Applied changes", logModel.toString());
+    assertTrue(logView.toString(),
+            logView.toString().contains("Message displayed: Committed 2 commands\n"));
+    assertTrue(logView.toString().contains(
+            "Error: No block is open. Use 'begin' before 'commit'.\n"));
+  }
+
+  @Test
+  public void testRolledBackBlockNeverRuns() {
+    convertStringInput("begin\n" +
+            "create event Standup on 2024-03-20\n" +
+            "create event Broken on 2024-03-20T10::00\n" +
+            "use calendar --name Home\n" +
+            "begin\n" +
+            "rollback\n" +
+            "exit\n");
+    controller = createController();
+    controller.execute();
+
+    assertEquals("", logModel.toString());
+    String output = logView.toString();
+    assertTrue(output, output.contains("Error: Invalid date format"));
+    assertTrue(output.contains("Error: Only commands on the events of the calendar in use " +
+            "can be run in a block."));
+    assertTrue(output.contains("Error: A block is already open."));
+    assertTrue(output.contains("Message displayed: Rolled back 1 command\n"));
+  }
+
+  @Test
+  public void testBlockOpenAtExitIsReported() {
+    convertStringInput("begin\n" +
+            "create event Standup on 2024-03-20\n" +
+            "exit\n");
+    controller = createController();
+    controller.execute();
+
+    assertEquals("", logModel.toString());
+    assertTrue(logView.toString(), logView.toString().contains("Error: Rolled back 1 command, " +
+            "since the input ended before 'commit'.\n"));
+  }
+
   @Test
   public void testExitNotAtEnd() {
     String in = "create event \"Team Meeting\" from 2024-03-20T10:00 to 2024-03-20T11:00\n" +
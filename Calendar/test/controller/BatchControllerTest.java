@@ -0,0 +1,157 @@
+package controller;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import calendar.controller.BatchController;
+import calendar.controller.HeadlessController;
+import calendar.model.CalendarManager;
+import calendar.view.CalendarView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for BatchController.
+ */
+public class BatchControllerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Writes a script that creates the same calendar, so scripts sharing calendars would fail.
+   */
+  private File script(String name, String subject) throws IOException {
+    File file = new File(folder.getRoot(), name);
+    Files.write(file.toPath(), Arrays.asList(
+        "create calendar --name Work --timezone America/New_York",
+        "use calendar --name Work",
+        "create event \"" + subject + "\" from 2025-03-10T09:00 to 2025-03-10T10:00",
+        "print events on 2025-03-10",
+        "exit"), StandardCharsets.UTF_8);
+    return file;
+  }
+
+  /**
+   * Runs a script on its own, as headless mode would.
+   */
+  private static String runAlone(File script) throws IOException {
+    StringBuilder out = new StringBuilder();
+    new HeadlessController(new CalendarManager(), new CalendarView(out), script).execute();
+    return out.toString();
+  }
+
+  @Test
+  public void testScriptsRunWithTheirOwnCalendars() throws IOException {
+    List<File> scripts = Arrays.asList(script("a.txt", "Standup"), script("b.txt", "Review"),
+        script("c.txt", "Planning"));
+    Path output = folder.getRoot().toPath().resolve("out");
+    AtomicInteger managers = new AtomicInteger();
+    StringBuilder summary = new StringBuilder();
+    new BatchController(scripts, output, 2, () -> {
+      managers.incrementAndGet();
+      return new CalendarManager();
+    }, new MockCalendarView(summary)).execute();
+
+    assertEquals(3, managers.get());
+    for (File script : scripts) {
+      String written = new String(Files.readAllBytes(output.resolve(script.getName() + ".out")),
+          StandardCharsets.UTF_8);
+      assertEquals(runAlone(script), written);
+    }
+    assertTrue(written(output, "b.txt").contains("Review"));
+    assertTrue(summary.toString(),
+        summary.toString().startsWith("Message displayed: Ran 3 scripts in "));
+    assertTrue(summary.toString().contains(" ms on 2 threads (0 failed)"));
+  }
+
+  @Test
+  public void testFailedScriptIsReported() throws IOException {
+    File unreadable = folder.newFolder("not-a-script");
+    List<File> scripts = Arrays.asList(script("a.txt", "Standup"), unreadable);
+    StringBuilder summary = new StringBuilder();
+    new BatchController(scripts, null, 4, CalendarManager::new,
+        new MockCalendarView(summary)).execute();
+
+    assertTrue(summary.toString(), summary.toString().startsWith("Error: " + unreadable +
+        ": Could not read commands"));
+    assertTrue(summary.toString().contains(" on 2 threads (1 failed)"));
+    // Without an output directory, output is written next to the script
+    assertTrue(written(folder.getRoot().toPath(), "a.txt").contains("Standup"));
+  }
+
+  @Test
+  public void testFindScriptsInDirectoryByName() throws IOException {
+    File directory = folder.newFolder("scripts");
+    for (String name : new String[] {"b.txt", "c.txt", "a.txt"}) {
+      Files.write(directory.toPath().resolve(name), Collections.singletonList("exit"));
+    }
+    File single = script("single.txt", "Standup");
+
+    List<File> scripts = BatchController.findScripts(Arrays.asList(directory.getPath(),
+        single.getPath()));
+    assertEquals(Arrays.asList(new File(directory, "a.txt"), new File(directory, "b.txt"),
+        new File(directory, "c.txt"), single), scripts);
+  }
+
+  @Test
+  public void testDirectoryRunTwiceSkipsItsOutput() throws IOException {
+    File directory = folder.newFolder("scripts");
+    for (String name : new String[] {"a.txt", "b.txt"}) {
+      Files.copy(script(name, "Standup").toPath(), directory.toPath().resolve(name));
+    }
+    List<String> paths = Collections.singletonList(directory.getPath());
+    new BatchController(BatchController.findScripts(paths), null, 2, CalendarManager::new,
+        new MockCalendarView(new StringBuilder())).execute();
+    String first = written(directory.toPath(), "a.txt");
+
+    // The second run finds the same two scripts, not the output of the first
+    List<File> scripts = BatchController.findScripts(paths);
+    assertEquals(Arrays.asList(new File(directory, "a.txt"), new File(directory, "b.txt")),
+        scripts);
+    StringBuilder summary = new StringBuilder();
+    new BatchController(scripts, null, 2, CalendarManager::new,
+        new MockCalendarView(summary)).execute();
+    assertTrue(summary.toString(), summary.toString().contains("Ran 2 scripts in "));
+    assertEquals(first, written(directory.toPath(), "a.txt"));
+    assertFalse(Files.exists(directory.toPath().resolve("a.txt.out.out")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingScript() {
+    BatchController.findScripts(Collections.singletonList(
+        new File(folder.getRoot(), "missing.txt").getPath()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testScriptsWritingSameOutputRejected() throws IOException {
+    File first = script("a.txt", "Standup");
+    File second = new File(folder.newFolder("other"), "a.txt");
+    Files.copy(first.toPath(), second.toPath());
+    new BatchController(Arrays.asList(first, second), folder.getRoot().toPath(), 2,
+        CalendarManager::new, new MockCalendarView(new StringBuilder()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelismMustBePositive() throws IOException {
+    new BatchController(Collections.singletonList(script("a.txt", "Standup")), null, 0,
+        CalendarManager::new, new MockCalendarView(new StringBuilder()));
+  }
+
+  private static String written(Path directory, String script) throws IOException {
+    return new String(Files.readAllBytes(directory.resolve(script + ".out")),
+        StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,136 @@
+package controller;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import calendar.controller.command.CopyEventsCommand;
+import calendar.controller.command.CreateCalendarCommand;
+import calendar.controller.command.CreateEventCommand;
+import calendar.controller.command.EditEventCommand;
+import calendar.controller.command.ICalendarCommand;
+import calendar.controller.command.PrintEventsCommand;
+import calendar.controller.parser.SmartCommandParserFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the command objects parsers produce, which are run separately from parsing.
+ */
+public class CalendarCommandTest {
+  private StringBuilder managerLog;
+  private StringBuilder viewOutput;
+  private MockCalendarManager manager;
+  private MockCalendarView view;
+  private SmartCommandParserFactory factory;
+
+  @Before
+  public void setUp() {
+    managerLog = new StringBuilder();
+    viewOutput = new StringBuilder();
+    manager = new MockCalendarManager(managerLog);
+    view = new MockCalendarView(viewOutput);
+    factory = new SmartCommandParserFactory(manager, view);
+  }
+
+  /**
+   * Compiles a command line with the parser the factory routes it to.
+   */
+  private ICalendarCommand compile(String commandLine) {
+    return factory.createParser(commandLine).compile(commandLine);
+  }
+
+  @Test
+  public void testCompilingChangesNothing() {
+    StringBuilder modelLog = new StringBuilder();
+    manager.setCurrentCalendar(new MockSmartCalendarModel(modelLog));
+
+    ICalendarCommand create = compile("create event Standup from 2024-03-20T09:00 to " +
+            "2024-03-20T09:15 repeats MTWRF for 5 times");
+    ICalendarCommand print = compile("print events on 2024-03-20");
+    ICalendarCommand copy = compile("copy events between 2024-03-18 and 2024-03-22 " +
+            "--target Home to 2024-04-01");
+
+    assertEquals("", modelLog.toString());
+    assertEquals("", managerLog.toString());
+    assertEquals("", viewOutput.toString());
+
+    // The arguments are typed values
+    CreateEventCommand event = (CreateEventCommand) create;
+    assertEquals("Standup", event.getSubject());
+    assertEquals(LocalDateTime.of(2024, 3, 20, 9, 15), event.getEnd());
+    assertEquals(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY), event.getWeekdays());
+    assertEquals(5, event.getCount());
+    assertNull(event.getUntil());
+    assertEquals(LocalDateTime.of(2024, 3, 20, 0, 0),
+            ((PrintEventsCommand) print).getStart());
+    assertEquals("Home", ((CopyEventsCommand) copy).getTargetCalendar());
+  }
+
+  @Test
+  public void testEditCompilesToItsScope() {
+    manager.setCurrentCalendar(new MockSmartCalendarModel(new StringBuilder()));
+    EditEventCommand edit = (EditEventCommand) compile("edit series location \"Weekly sync\" " +
+            "from 2024-03-20T10:00 with \"Room 4\"");
+
+    assertEquals(EditEventCommand.Scope.SERIES, edit.getScope());
+    assertEquals("Weekly sync", edit.getSubject());
+    assertEquals("location", edit.getProperty());
+    assertEquals("Room 4", edit.getValue());
+    assertNull(edit.getEnd());
+  }
+
+  @Test
+  public void testCommandRunsOnCalendarInUseWhenExecuted() {
+    StringBuilder workLog = new StringBuilder();
+    StringBuilder homeLog = new StringBuilder();
+    manager.setCurrentCalendar(new MockSmartCalendarModel(workLog));
+    ICalendarCommand create = compile("create event Holiday on 2024-12-25");
+
+    manager.setCurrentCalendar(new MockSmartCalendarModel(homeLog));
+    create.execute(manager, view);
+    create.execute(manager, view);
+
+    assertEquals("", workLog.toString());
+    assertEquals("Created single all day event Holiday on 2024-12-25T00:00" +
+            "Created single all day event Holiday on 2024-12-25T00:00", homeLog.toString());
+  }
+
+  @Test
+  public void testCalendarCommandsCompileWithoutManager() {
+    CreateCalendarCommand create = (CreateCalendarCommand)
+            compile("create calendar --name Work --timezone Europe/Paris");
+    assertEquals(ZoneId.of("Europe/Paris"), create.getTimezone());
+    assertEquals("", managerLog.toString());
+
+    create.execute(manager, view);
+    assertEquals("Created calendar Work with timezone Europe/Paris", managerLog.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEventCommandNeedsCalendarInUse() {
+    new CreateEventCommand("Holiday", LocalDateTime.of(2024, 12, 25, 0, 0))
+            .execute(manager, view);
+  }
+
+  @Test
+  public void testRepeatingCommandKeepsItsWeekdays() {
+    StringBuilder modelLog = new StringBuilder();
+    manager.setCurrentCalendar(new MockSmartCalendarModel(modelLog));
+    CreateEventCommand event = new CreateEventCommand("Gym", LocalDateTime.of(2024, 3, 4, 0, 0))
+            .repeatingUntil(Arrays.asList(DayOfWeek.MONDAY), LocalDateTime.of(2024, 3, 25, 0, 0));
+
+    event.execute(manager, view);
+    assertTrue(event.isAllDay());
+    assertEquals(Arrays.asList(DayOfWeek.MONDAY), event.getWeekdays());
+    assertTrue(modelLog.toString().endsWith(
+            "Gym starting on the date 2024-03-04T00:00 to the date 2024-03-25T00:00"));
+  }
+}
@@ -50,6 +50,30 @@ public class CommandParserTest {
     assertEquals(expectedLog, modelLog.toString());
   }
 
+  @Test
+  public void testWordsSeparatedByMixedWhitespace() {
+    input = "  CREATE\tevent  \"Team   Meeting\"\tFROM 2024-03-20T10:00 \t to  2024-03-20T11:00 ";
+    parser = factory.createParser(input);
+    parser.parse(input);
+
+    // Quoted words are joined by single spaces, as they always have been
+    String expectedLog = "Created single timed event Team Meeting starting at " +
+            "2024-03-20T10:00 until 2024-03-20T11:00";
+    assertEquals(expectedLog, modelLog.toString());
+  }
+
+  @Test
+  public void testDateMustBeWholeWord() {
+    input = "show status on 2024-03-20T10:00x";
+    parser = factory.createParser(input);
+    try {
+      parser.parse(input);
+      fail("Expected an invalid date-time");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Invalid date-time format: '2024-03-20T10:00x'"));
+    }
+  }
+
   @Test
   public void testCreateSingleTimedEventQuoted() {
     input = "create event \"Team Meeting\" from 2024-03-20T10:00 to 2024-03-20T11:00";
@@ -676,6 +700,76 @@ public class CommandParserTest {
     parser.parse(input);
   }
 
+  @Test
+  public void testSearchEvents() {
+    input = "search events \"Team Meeting\"";
+    parser = factory.createParser(input);
+    parser.parse(input);
+
+    assertEquals("Searched for events matching Team Meeting", modelLog.toString());
+  }
+
+  @Test
+  public void testSearchEventsBetweenDates() {
+    input = "search events review between 2024-03-01 and 2024-03-31";
+    parser = factory.createParser(input);
+    parser.parse(input);
+
+    assertEquals("Searched for events matching review from 2024-03-01T00:00 to " +
+            "2024-03-31T23:59:59.999999999", modelLog.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchMissingTerms() {
+    input = "search events";
+    parser = factory.createParser(input);
+    parser.parse(input);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchMissingEventsKeyword() {
+    input = "search meetings \"Team\"";
+    parser = factory.createParser(input);
+    parser.parse(input);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchIncompleteDateRange() {
+    input = "search events review between 2024-03-01";
+    parser = factory.createParser(input);
+    parser.parse(input);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchInvalidDateRangeKeyword() {
+    input = "search events review from 2024-03-01 to 2024-03-31";
+    parser = factory.createParser(input);
+    parser.parse(input);
+  }
+
+  @Test
+  public void testSuggestSubjects() {
+    input = "suggest subjects \"Team M\"";
+    parser = factory.createParser(input);
+    parser.parse(input);
+
+    assertEquals("Suggested up to 10 subjects starting with Team M", modelLog.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSuggestMissingPrefix() {
+    input = "suggest subjects";
+    parser = factory.createParser(input);
+    parser.parse(input);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSuggestUnquotedMultiWordPrefix() {
+    input = "suggest subjects Team M";
+    parser = factory.createParser(input);
+    parser.parse(input);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testUnclosedQuote() {
     input = "create event \"Team Meeting from 2024-03-20T10:00 to 2024-03-20T11:00";
@@ -154,11 +154,11 @@ public class HeadlessControllerTest extends AbstractControllerTest {
 
     assertEquals("", logModel.toString());
     assertEquals("Error: Unknown command: 'invalid'. Valid commands are: create, edit, " +
-                    "print, show\n" +
+                    "print, show, search, suggest\n" +
                     "Error: Unknown command: 'another'. Valid commands are: create, edit, print, " +
-                    "show\n" +
+                    "show, search, suggest\n" +
                     "Error: Unknown command: 'delete'. Valid commands are: create, edit, " +
-                    "print, show\n",
+                    "print, show, search, suggest\n",
             logView.toString());
   }
 
@@ -191,4 +191,53 @@ public class HeadlessControllerTest extends AbstractControllerTest {
     assertEquals("", logModel.toString());
     assertEquals("Error: No exit command.\n", logView.toString());
   }
+
+  @Test
+  public void testOutputFlushedOnceAtExit() {
+    convertStringInput("invalid\n\nanother\nexit\nmore");
+    controller = createController();
+    controller.execute();
+
+    assertEquals(1, ((MockCalendarView) view).getFlushCount());
+  }
+
+  @Test
+  public void testWindowsAndOldMacLineBreaks() {
+    ((MockCalendarManager) manager).setCurrentCalendar(new MockSmartCalendarModel(logModel));
+    String input = "create event Meeting from 2024-03-20T10:00 to 2024-03-20T11:00\r\n" +
+            "\r\n" +
+            "create event Lunch from 2024-03-20T12:00 to 2024-03-20T13:00\r" +
+            "exit\r\n";
+    convertStringInput(input);
+    controller = createController();
+    controller.execute();
+
+    assertEquals("Created single timed event Meeting starting at 2024-03-20T10:00 until " +
+            "2024-03-20T11:00Created single timed event Lunch starting at 2024-03-20T12:00 " +
+            "until 2024-03-20T13:00", logModel.toString());
+    assertEquals("Error: Command cannot be empty. Please enter a valid command.\n",
+            logView.toString());
+  }
+
+  @Test
+  public void testLargeFileWithLongLines() {
+    ((MockCalendarManager) manager).setCurrentCalendar(new MockSmartCalendarModel(logModel));
+    // Big enough to be memory-mapped, with lines longer than the read buffer
+    String indent = new String(new char[100_000]).replace('\0', ' ');
+    StringBuilder input = new StringBuilder();
+    StringBuilder expectedLog = new StringBuilder();
+    for (int i = 0; i < 400; i++) {
+      input.append(indent).append("create event Meeting").append(i)
+              .append(" from 2024-03-20T10:00 to 2024-03-20T11:00").append(indent).append('\n');
+      expectedLog.append("Created single timed event Meeting").append(i)
+              .append(" starting at 2024-03-20T10:00 until 2024-03-20T11:00");
+    }
+    input.append("exit\n").append(indent);
+    convertStringInput(input.toString());
+    controller = createController();
+    controller.execute();
+
+    assertEquals(expectedLog.toString(), logModel.toString());
+    assertEquals("", logView.toString());
+  }
 }
@@ -0,0 +1,140 @@
+package controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import calendar.controller.HttpApiController;
+import calendar.model.CalendarManager;
+import calendar.model.MappedCalendarModel;
+import calendar.model.SmartCalendarModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for HttpApiController, with requests sent over HTTP.
+ */
+public class HttpApiControllerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private CalendarManager manager;
+  private HttpApiController api;
+  private Thread serving;
+  private final HttpClient http = HttpClient.newHttpClient();
+
+  @Before
+  public void setUp() throws IOException {
+    manager = new CalendarManager();
+    api = new HttpApiController(manager, 0, 2, new MockCalendarView(new StringBuilder()));
+    serving = new Thread(api::execute);
+    serving.start();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    api.stop();
+    serving.join(5000);
+  }
+
+  private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return http.send(HttpRequest.newBuilder(uri(path)).GET().build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> post(String path, String form)
+      throws IOException, InterruptedException {
+    return http.send(HttpRequest.newBuilder(uri(path))
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString(form)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + api.getPort() + "/api/calendars" + path);
+  }
+
+  private void createWorkCalendar() throws IOException, InterruptedException {
+    assertEquals(201, post("", "name=Work&timezone=America%2FNew_York").statusCode());
+    post("/Work/events", "subject=Review&start=2025-03-10T13:00&end=2025-03-10T14:00");
+    post("/Work/events", "subject=Standup&start=2025-03-10T09:00&end=2025-03-10T09:30");
+    post("/Work/events", "subject=Sync&start=2025-03-10T09:15&end=2025-03-10T10:00");
+  }
+
+  @Test
+  public void testQueries() throws IOException, InterruptedException {
+    createWorkCalendar();
+
+    assertEquals("{\"calendars\":[{\"name\":\"Work\",\"timezone\":\"America/New_York\"}]}",
+        get("").body());
+    assertEquals("{\"calendar\":\"Work\",\"from\":\"2025-03-10T00:00\","
+        + "\"to\":\"2025-03-10T12:00\",\"events\":["
+        + "{\"subject\":\"Standup\",\"start\":\"2025-03-10T09:00\",\"end\":\"2025-03-10T09:30\","
+        + "\"description\":null,\"location\":null,\"status\":null,\"seriesId\":null},"
+        + "{\"subject\":\"Sync\",\"start\":\"2025-03-10T09:15\",\"end\":\"2025-03-10T10:00\","
+        + "\"description\":null,\"location\":null,\"status\":null,\"seriesId\":null}]}",
+        get("/Work/events?from=2025-03-10T00:00&to=2025-03-10T12:00").body());
+    assertEquals("{\"calendar\":\"Work\",\"at\":\"2025-03-10T13:30\",\"busy\":true}",
+        get("/Work/status?at=2025-03-10T13:30").body());
+    assertEquals("{\"calendar\":\"Work\",\"from\":\"2025-03-10T00:00\","
+        + "\"to\":\"2025-03-10T23:59\",\"busy\":["
+        + "{\"start\":\"2025-03-10T09:00\",\"end\":\"2025-03-10T10:00\"},"
+        + "{\"start\":\"2025-03-10T13:00\",\"end\":\"2025-03-10T14:00\"}]}",
+        get("/Work/freebusy?from=2025-03-10T00:00&to=2025-03-10T23:59").body());
+    String upcoming = get("/Work/upcoming?from=2025-03-10T09:10&limit=1").body();
+    assertEquals(upcoming, 1, upcoming.split("\"subject\"").length - 1);
+  }
+
+  @Test
+  public void testEditAndCopy() throws IOException, InterruptedException {
+    createWorkCalendar();
+    post("", "name=Home&timezone=America%2FNew_York");
+
+    assertEquals(200, post("/Work/events/edit", "subject=Standup&start=2025-03-10T09:00"
+        + "&end=2025-03-10T09:30&property=location&value=online").statusCode());
+    assertEquals(200, post("/Work/events/copy", "subject=Standup&start=2025-03-10T09:00"
+        + "&target=Home&to=2025-03-11T08:00").statusCode());
+
+    assertEquals("online", manager.getCalendar("Work")
+        .findEventBySubjectAndTime("Standup", LocalDateTime.of(2025, 3, 10, 9, 0))
+        .getLocation().name().toLowerCase());
+    assertEquals(1, manager.getCalendar("Home")
+        .printEvents(LocalDateTime.of(2025, 3, 11, 0, 0)).size());
+  }
+
+  @Test
+  public void testErrors() throws IOException, InterruptedException {
+    HttpResponse<String> missing = get("/Home/status?at=2025-03-10T09:00");
+    assertEquals(404, missing.statusCode());
+    assertEquals("{\"error\":\"Calendar with name Home does not exist\"}", missing.body());
+
+    createWorkCalendar();
+    HttpResponse<String> badDate = get("/Work/status?at=2025-02-30T09:00");
+    assertEquals(400, badDate.statusCode());
+    assertEquals(400, get("/Work/events?from=2025-03-10T00:00").statusCode());
+    assertEquals(404, get("/Work/nothing").statusCode());
+  }
+
+  @Test
+  public void testWriteToReadOnlyCalendarIsBadRequest() throws IOException, InterruptedException {
+    Path file = folder.getRoot().toPath().resolve("archive.cal");
+    MappedCalendarModel.write(new SmartCalendarModel("Archive", ZoneId.of("UTC")), file);
+    manager.addCalendar(MappedCalendarModel.open(file));
+
+    HttpResponse<String> write = post("/Archive/events",
+        "subject=Review&start=2025-03-10T13:00&end=2025-03-10T14:00");
+    assertEquals(400, write.statusCode());
+    assertEquals("{\"error\":\"Calendar Archive is read-only\"}", write.body());
+  }
+}
@@ -44,7 +44,8 @@ public class InteractiveControllerTest extends AbstractControllerTest {
             " Mode\n" +
             "Message displayed: Type 'exit' to quit\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'exit'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'exit'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n", logView.toString());
   }
 
@@ -59,10 +60,21 @@ public class InteractiveControllerTest extends AbstractControllerTest {
             " Mode\n" +
             "Message displayed: Type 'exit' to quit\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'exit'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'exit'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n", logView.toString());
   }
 
+  @Test
+  public void testOutputFlushedAfterEachCommand() {
+    convertStringInput("invalid\n\nexit\n");
+    controller = createController();
+    controller.execute();
+
+    // Once after the welcome, once per command and once after the goodbye
+    assertEquals(4, ((MockCalendarView) view).getFlushCount());
+  }
+
   // Tests for input edge cases
 
   @Test
@@ -211,13 +223,17 @@ public class InteractiveControllerTest extends AbstractControllerTest {
             "Interactive Mode\n" +
             "Message displayed: Type 'exit' to quit\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'invalid1'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'invalid1'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'invalid2'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'invalid2'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'delete'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'delete'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'remove'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'remove'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n" +
             "Message displayed: Goodbye\n", logView.toString());
   }
@@ -243,11 +259,13 @@ public class InteractiveControllerTest extends AbstractControllerTest {
             "Message displayed: Type 'exit' to quit\n" +
             "Message displayed: \n> \n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'invalid'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'invalid'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n" +
             "2024-03-20T10:30is busy: false\n" +
             "Message displayed: \n> \n" +
-            "Error: Unknown command: 'delete'. Valid commands are: create, edit, print, show\n" +
+            "Error: Unknown command: 'delete'. Valid commands are: create, edit, print, show, " +
+            "search, suggest\n" +
             "Message displayed: \n> \n" +
             "Events on 2024-03-20\n" +
             "Message displayed: \n> \n" +
@@ -404,7 +422,7 @@ public class InteractiveControllerTest extends AbstractControllerTest {
               "to 2024-03-20T11:00\n"),
       new InputInteraction("not a valid command\n"),
       new PrintInteraction("Message displayed: \n> \nError: Unknown command: " +
-              "'not'. Valid commands are: create, edit, print, show"),
+              "'not'. Valid commands are: create, edit, print, show, search, suggest"),
       new InputInteraction("q"),
       new PrintInteraction("Message displayed: \n> "),
       new PrintInteraction("Message displayed: Goodbye"),
@@ -26,6 +26,12 @@ public class MockCalendarManager implements ICalendarManager {
     return currentCalendar;
   }
 
+  @Override
+  public ISmartCalendarModel getCalendar(String calendarName) {
+    log.append("Retrieved calendar " + calendarName);
+    return currentCalendar;
+  }
+
   @Override
   public void createCalendar(String calendarName, ZoneId timezone) {
     String s = "Created calendar " + calendarName + " with timezone " + timezone;
@@ -79,6 +85,12 @@ public class MockCalendarManager implements ICalendarManager {
     return List.of();
   }
 
+  @Override
+  public int save() {
+    log.append("Saved calendars");
+    return 0;
+  }
+
   // Additional methods for testing setup
   public void setCurrentCalendar(ISmartCalendarModel calendar) {
     this.currentCalendar = calendar;
@@ -3,9 +3,13 @@ package controller;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
+import calendar.model.ICalendarListener;
 import calendar.model.ICalendarModel;
 import calendar.model.IEvent;
 
@@ -136,6 +140,16 @@ public class MockCalendarModel implements ICalendarModel {
     return List.of();
   }
 
+  /**
+   * Iterates over all the events within the time interval.
+   */
+  @Override
+  public Iterator<IEvent> eventIterator(LocalDateTime startDateTime, LocalDateTime endDateTime) {
+    log.append("Iterated over all events that occur from ").append(startDateTime).append(" to ")
+            .append(endDateTime);
+    return Collections.emptyIterator();
+  }
+
   @Override
   public List<IEvent> getUpcomingEvents(LocalDateTime startDateTime, int maxEvents) {
     String msg = "Got upcoming " + maxEvents + " events starting from " + startDateTime;
@@ -151,4 +165,54 @@ public class MockCalendarModel implements ICalendarModel {
     log.append("Checked if there is an event during ").append(dateTime);
     return false;
   }
+
+  /**
+   * Searches for events containing the given terms.
+   */
+  @Override
+  public List<IEvent> searchEvents(String terms) {
+    log.append("Searched for events matching ").append(terms);
+    return List.of();
+  }
+
+  /**
+   * Searches for events in a time interval containing the given terms.
+   */
+  @Override
+  public List<IEvent> searchEvents(String terms, LocalDateTime startDateTime,
+                                   LocalDateTime endDateTime) {
+    log.append("Searched for events matching ").append(terms).append(" from ")
+            .append(startDateTime).append(" to ").append(endDateTime);
+    return List.of();
+  }
+
+  /**
+   * Suggests subjects starting with the given prefix.
+   */
+  @Override
+  public List<String> suggestSubjects(String prefix, int limit) {
+    log.append("Suggested up to ").append(limit).append(" subjects starting with ")
+            .append(prefix);
+    return List.of();
+  }
+
+  /**
+   * Applies a group of changes, logging where the group starts and ends.
+   */
+  @Override
+  public void applyChanges(Consumer<? super ICalendarModel> changes) {
+    log.append("Applying changes: ");
+    changes.accept(this);
+    log.append(" Applied changes");
+  }
+
+  @Override
+  public void addChangeListener(ICalendarListener listener) {
+    log.append("Added change listener");
+  }
+
+  @Override
+  public void removeChangeListener(ICalendarListener listener) {
+    log.append("Removed change listener");
+  }
 }
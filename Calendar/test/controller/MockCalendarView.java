@@ -12,6 +12,7 @@ import calendar.view.ICalendarView;
  */
 public class MockCalendarView implements ICalendarView {
   private final StringBuilder output;
+  private int flushes;
 
   public MockCalendarView(StringBuilder output) {
     this.output = output;
@@ -64,6 +65,17 @@ public class MockCalendarView implements ICalendarView {
             .append(endDate.toString()).append("\n");
   }
 
+  /**
+   * Display the events that matched a search.
+   *
+   * @param terms the search terms that were used
+   * @param events the list of matching events to display
+   */
+  @Override
+  public void displaySearchResults(String terms, List<IEvent> events) {
+    output.append("Search results for ").append(terms).append("\n");
+  }
+
   /**
    * Displays the prompt in the command line.
    */
@@ -83,4 +95,21 @@ public class MockCalendarView implements ICalendarView {
     String msg = dateTime + "is busy: " + isBusy + "\n";
     output.append(msg);
   }
-} 
\ No newline at end of file
+
+  /**
+   * Counts the flush without logging it, so the logged output stays the same.
+   */
+  @Override
+  public void flush() {
+    flushes++;
+  }
+
+  /**
+   * Gets the number of times the view was flushed.
+   *
+   * @return the number of flushes
+   */
+  public int getFlushCount() {
+    return flushes;
+  }
+}
@@ -5,6 +5,8 @@ import calendar.model.ISmartCalendarModel;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Mock implementation of ISmartCalendarModel for testing purposes.
@@ -107,6 +109,17 @@ public class MockSmartCalendarModel extends MockCalendarModel implements ISmartC
     log.append(s);
   }
 
+  @Override
+  public void addEvents(List<IEvent> events) {
+    log.append("Added " + events.size() + " pre-built events");
+  }
+
+  @Override
+  public List<IEvent> getAllEvents() {
+    log.append("Retrieved all events");
+    return new ArrayList<>();
+  }
+
   @Override
   public Integer generateUniqueSeriesId() {
     log.append("Generated unique series ID");
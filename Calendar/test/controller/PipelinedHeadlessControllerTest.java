@@ -0,0 +1,120 @@
+package controller;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import calendar.controller.HeadlessController;
+import calendar.controller.PipelinedHeadlessController;
+import calendar.model.CalendarManager;
+import calendar.view.CalendarView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for PipelinedHeadlessController.
+ * Each script is run by both headless controllers on real calendars, and the pipelined
+ * controller must write exactly the same output.
+ */
+public class PipelinedHeadlessControllerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testOutputMatchesSerialController() throws IOException {
+    assertSameOutput("create calendar --name Work --timezone America/New_York\n"
+        + "use calendar --name Work\n"
+        + "create event \"Standup\" from 2025-03-03T09:00 to 2025-03-03T09:15 "
+        + "repeats MTWRF for 5 times\n"
+        + "print events on 2025-03-04\n"
+        + "\n"
+        + "show status on 2025-03-04T09:05\n"
+        + "create event broken\n"
+        + "   \n"
+        + "print events from 2025-03-03T00:00 to 2025-03-07T23:59\n"
+        + "use calendar --name Missing\n"
+        + "exit\n"
+        + "print events on 2025-03-04\n");
+  }
+
+  @Test
+  public void testTrailingBlankLinesAndMissingExit() throws IOException {
+    assertSameOutput("create calendar --name Work --timezone UTC\n"
+        + "\n"
+        + "use calendar --name Work\n"
+        + "\n\n   \n");
+  }
+
+  @Test
+  public void testParseErrorsReportedInTurn() throws IOException {
+    // Lines are parsed ahead of the calendar in use, but fail as if parsed when they run
+    assertSameOutput("create event broken\n"
+        + "not a command\n"
+        + "export cal to calendar.txt\n"
+        + "create calendar --name Work\n"
+        + "create calendar --name Work --timezone UTC\n"
+        + "use calendar --name Work\n"
+        + "create event broken\n"
+        + "not a command\n"
+        + "begin\n"
+        + "create event \"Review\" on 2025-03-04\n"
+        + "create event \"Review\" from 2025-03-04T25:00 to 2025-03-04T26:00\n"
+        + "use calendar --name Work\n"
+        + "commit\n"
+        + "begin\n"
+        + "create event \"Review\" on 2025-03-04\n"
+        + "rollback\n"
+        + "print events on 2025-03-04\n"
+        + "exit\n");
+  }
+
+  @Test
+  public void testManyBatches() throws IOException {
+    StringBuilder script = new StringBuilder(
+        "create calendar --name Work --timezone UTC\nuse calendar --name Work\n");
+    for (int i = 0; i < 3000; i++) {
+      script.append("create event \"Task ").append(i).append("\" on 2025-01-")
+          .append(String.format("%02d", i % 28 + 1)).append('\n');
+      if (i % 7 == 0) {
+        script.append("show status on 2025-01-01T09:00\n");
+      }
+      if (i % 11 == 0) {
+        script.append("not a command\n");
+      }
+    }
+    script.append("print events on 2025-01-05\nq\n");
+    String output = assertSameOutput(script.toString());
+    assertTrue(output.contains("Task 4 "));
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testMissingFile() throws FileNotFoundException {
+    new PipelinedHeadlessController(new CalendarManager(), new CalendarView(new StringBuilder()),
+        new File("nonexistent.txt"));
+  }
+
+  /**
+   * Runs a script with both controllers and checks that they write the same output.
+   *
+   * @return the output
+   */
+  private String assertSameOutput(String script) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+    StringBuilder serial = new StringBuilder();
+    new HeadlessController(new CalendarManager(), new CalendarView(serial), file).execute();
+    StringBuilder pipelined = new StringBuilder();
+    new PipelinedHeadlessController(new CalendarManager(), new CalendarView(pipelined), file)
+        .execute();
+    assertEquals(serial.toString(), pipelined.toString());
+    return pipelined.toString();
+  }
+}
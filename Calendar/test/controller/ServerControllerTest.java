@@ -0,0 +1,141 @@
+package controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import calendar.controller.ServerController;
+import calendar.model.CalendarManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ServerController, with clients connected over TCP.
+ */
+public class ServerControllerTest {
+  private static final LocalDateTime MARCH_10 = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+  private CalendarManager manager;
+  private StringBuilder log;
+  private ServerController server;
+  private Thread serving;
+
+  @Before
+  public void setUp() throws IOException {
+    manager = new CalendarManager();
+    log = new StringBuilder();
+    server = new ServerController(manager, 0, new MockCalendarView(log));
+    serving = new Thread(server::execute);
+    serving.start();
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    server.stop();
+    serving.join(5000);
+  }
+
+  /**
+   * A client of the server, which sends a command and reads the reply up to the next prompt.
+   */
+  private final class Client implements AutoCloseable {
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    private Client() throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      socket.setSoTimeout(5000);
+      in = new BufferedInputStream(socket.getInputStream());
+      out = socket.getOutputStream();
+      assertTrue(reply().contains("Welcome to the Calendar Application - Server Mode"));
+    }
+
+    private String send(String command) throws IOException {
+      out.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      return reply();
+    }
+
+    private String reply() throws IOException {
+      ByteArrayOutputStream reply = new ByteArrayOutputStream();
+      for (int b = in.read(); b >= 0; b = in.read()) {
+        reply.write(b);
+        String text = reply.toString(StandardCharsets.UTF_8);
+        if (text.endsWith("> ")) {
+          return text;
+        }
+      }
+      return reply.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  @Test
+  public void testEachSessionHasItsOwnCalendarInUse() throws IOException {
+    try (Client first = new Client(); Client second = new Client()) {
+      first.send("create calendar --name Work --timezone America/New_York");
+      first.send("create calendar --name Home --timezone America/New_York");
+      first.send("use calendar --name Work");
+      assertTrue(second.send("print events on 2025-03-10").contains("No calendar is " +
+          "currently in use"));
+
+      second.send("use calendar --name Home");
+      first.send("create event \"Standup\" from 2025-03-10T09:00 to 2025-03-10T09:15");
+      second.send("create event \"Dinner\" from 2025-03-10T19:00 to 2025-03-10T20:00");
+
+      String work = first.send("print events on 2025-03-10");
+      assertTrue(work, work.contains("Standup") && !work.contains("Dinner"));
+      String home = second.send("print events on 2025-03-10");
+      assertTrue(home, home.contains("Dinner") && !home.contains("Standup"));
+      assertEquals(1, manager.getCalendar("Work").printEvents(MARCH_10).size());
+    }
+  }
+
+  @Test
+  public void testCopyFromSessionsCalendar() throws IOException {
+    try (Client first = new Client(); Client second = new Client()) {
+      first.send("create calendar --name Work --timezone UTC");
+      first.send("create calendar --name Home --timezone UTC");
+      first.send("use calendar --name Work");
+      first.send("create event \"Standup\" from 2025-03-10T09:00 to 2025-03-10T09:15");
+      second.send("use calendar --name Home");
+
+      String copied = first.send("copy event \"Standup\" on 2025-03-10T09:00 --target Home " +
+          "to 2025-03-11T09:00");
+      assertTrue(copied, !copied.contains("ERROR"));
+      assertEquals(1, manager.getCalendar("Home").getAllEvents().size());
+      assertEquals(1, manager.getCalendar("Work").printEvents(MARCH_10).size());
+    }
+  }
+
+  @Test
+  public void testExitEndsSession() throws IOException {
+    try (Client client = new Client()) {
+      String goodbye = client.send("exit");
+      assertEquals("Goodbye\n", goodbye);
+    }
+    assertTrue(log.toString(), log.toString().startsWith("Message displayed: Listening on " +
+        "port " + server.getPort()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPort() throws IOException {
+    new ServerController(manager, 70000, new MockCalendarView(new StringBuilder()));
+  }
+}
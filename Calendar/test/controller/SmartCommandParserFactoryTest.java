@@ -9,6 +9,7 @@ import calendar.controller.parser.SmartCommandParserFactory;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -382,4 +383,59 @@ public class SmartCommandParserFactoryTest {
     ICommandParser parser = factory.createParser(command);
     parser.parse(command);
   }
-} 
\ No newline at end of file
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testExportUnsupportedExtension() {
+    String command = "export cal calendar.txt";
+    ICommandParser parser = factory.createParser(command);
+    parser.parse(command);
+  }
+
+  @Test
+  public void testImportMissingFile() {
+    mockManager.useCalendar("Work");
+    String command = "import cal \"no such calendar.ics\"";
+    ICommandParser parser = factory.createParser(command);
+    try {
+      parser.parse(command);
+      fail("Expected the missing file to be reported");
+    } catch (IllegalArgumentException e) {
+      assertEquals("File not found: 'no such calendar.ics'", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testSaveCommand() {
+    // Save needs no calendar in use
+    ICommandParser parser = factory.createParser("save");
+    parser.parse("save");
+    assertEquals("Saved calendars", mockManager.getLog());
+    assertEquals("Message displayed: No changes to save\n", viewOutput.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSaveRejectsArguments() {
+    factory.createParser("save now").parse("save now");
+  }
+
+  @Test
+  public void testParsersAreReusedAcrossCalendars() {
+    StringBuilder workLog = new StringBuilder();
+    StringBuilder homeLog = new StringBuilder();
+    String command = "create event Standup from 2024-03-20T09:00 to 2024-03-20T09:15";
+
+    mockManager.setCurrentCalendar(new MockSmartCalendarModel(workLog));
+    ICommandParser first = factory.createParser(command);
+    first.parse(command);
+    // The same parser applies the command to whichever calendar is now in use
+    mockManager.setCurrentCalendar(new MockSmartCalendarModel(homeLog));
+    ICommandParser second = factory.createParser(command);
+    second.parse(command);
+
+    assertSame(first, second);
+    assertSame(factory.createParser("use calendar --name Work"),
+        factory.createParser("use calendar --name Home"));
+    assertEquals(workLog.toString(), homeLog.toString());
+    assertTrue(homeLog.toString().startsWith("Created single timed event Standup"));
+  }
+}
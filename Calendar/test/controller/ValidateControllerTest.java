@@ -0,0 +1,110 @@
+package controller;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import calendar.controller.ValidateController;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for ValidateController.
+ */
+public class ValidateControllerTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File script(List<String> lines) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private static String validate(File script, int parallelism) throws FileNotFoundException {
+    StringBuilder out = new StringBuilder();
+    new ValidateController(script, parallelism, new MockCalendarView(out)).execute();
+    return out.toString();
+  }
+
+  @Test
+  public void testErrorsReportedWithLineNumbers() throws IOException {
+    // No calendar is in use, so none of these could run, but only lines 2 and 6 are wrong
+    String out = validate(script(Arrays.asList(
+        "create event \"Standup\" from 2025-03-10T09:00 to 2025-03-10T09:15",
+        "create event \"Review\" from 2025-03-10T10:00 to 2025-02-30T11:00",
+        "begin",
+        "edit event location \"Standup\" from 2025-03-10T09:00 to 2025-03-10T09:15 with A",
+        "commit",
+        "fly to the moon",
+        "use calendar --name Work",
+        "exit")), 2);
+
+    assertTrue(out, out.startsWith("Error: Line 2: "));
+    assertTrue(out, out.contains("Error: Line 6: Unknown command: 'fly'"));
+    assertEquals(out, 2, out.split("Error: ").length - 1);
+    assertTrue(out, out.contains("Message displayed: Checked 8 lines in "));
+    assertTrue(out, out.endsWith(" ms: 2 errors\n"));
+  }
+
+  @Test
+  public void testLinesAfterExitNotChecked() throws IOException {
+    String out = validate(script(Arrays.asList(
+        "print events on 2025-03-10",
+        "q",
+        "fly to the moon",
+        "print events on 2025-13-01")), 2);
+
+    assertFalse(out, out.contains("Error: "));
+    assertTrue(out, out.contains("Message displayed: Checked 2 lines in "));
+    assertTrue(out, out.endsWith(" ms: 0 errors\n"));
+  }
+
+  @Test
+  public void testLargeFileCheckedInOrder() throws IOException {
+    List<String> lines = new ArrayList<String>();
+    for (int i = 1; i <= 100_000; i++) {
+      lines.add((i % 7919 == 0) ? "print events on 2025-13-01"
+          : "print events on 2025-03-" + (10 + i % 10));
+    }
+    String out = validate(script(lines), 3);
+
+    StringBuilder expected = new StringBuilder();
+    for (int i = 7919; i <= 100_000; i += 7919) {
+      expected.append("Error: Line ").append(i).append(": ");
+    }
+    StringBuilder reported = new StringBuilder();
+    for (String line : out.split("\n")) {
+      if (line.startsWith("Error: Line ")) {
+        reported.append(line, 0, line.indexOf(": ", 7) + 2);
+      }
+    }
+    assertEquals(expected.toString(), reported.toString());
+    assertTrue(out, out.contains("Error: No exit command."));
+    assertTrue(out, out.contains("Checked 100000 lines in "));
+    assertTrue(out, out.endsWith(" ms: 12 errors\n"));
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testMissingFile() throws FileNotFoundException {
+    new ValidateController(new File(folder.getRoot(), "missing.txt"), 1,
+        new MockCalendarView(new StringBuilder()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelismMustBePositive() throws IOException {
+    new ValidateController(script(Arrays.asList("exit")), 0,
+        new MockCalendarView(new StringBuilder()));
+  }
+}
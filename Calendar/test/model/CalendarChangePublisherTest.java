@@ -0,0 +1,211 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import calendar.model.CalendarChange;
+import calendar.model.CalendarChangePublisher;
+import calendar.model.CalendarChangePublisher.Overflow;
+import calendar.model.CalendarManager;
+import calendar.model.SmartCalendarModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for CalendarChangePublisher. Most deliveries run on the thread making the change, so
+ * what each subscriber has been given can be checked right after.
+ */
+public class CalendarChangePublisherTest {
+  private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+  private SmartCalendarModel calendar;
+
+  @Before
+  public void setUp() {
+    calendar = new SmartCalendarModel("Work", ZoneId.of("UTC"));
+  }
+
+  /**
+   * A subscriber that keeps what it is given and asks for more only when told to.
+   */
+  private static class Recorder implements Flow.Subscriber<CalendarChange> {
+    private final List<CalendarChange> changes = new ArrayList<CalendarChange>();
+    private final long initialRequest;
+    private Flow.Subscription subscription;
+    private boolean complete;
+
+    Recorder(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initialRequest > 0) {
+        subscription.request(initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(CalendarChange item) {
+      changes.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      changes.add(null);
+    }
+
+    @Override
+    public void onComplete() {
+      complete = true;
+    }
+  }
+
+  private void createEvents(int count) {
+    for (int i = 0; i < count; i++) {
+      calendar.createSingleTimedEvent("Event " + i, MONDAY.plusHours(i),
+              MONDAY.plusHours(i).plusMinutes(30));
+    }
+  }
+
+  @Test
+  public void testChangesHandedOverAsRequested() {
+    CalendarChangePublisher publisher = CalendarChangePublisher.of(calendar, 10,
+            Overflow.DROP_OLDEST, Runnable::run);
+    Recorder recorder = new Recorder(2);
+    publisher.subscribe(recorder);
+
+    createEvents(5);
+    assertEquals(2, recorder.changes.size());
+    assertEquals("Event 0", recorder.changes.get(0).getNewEvents().get(0).getSubject());
+    assertEquals("Work", recorder.changes.get(0).getCalendarName());
+
+    recorder.subscription.request(10);
+    assertEquals(5, recorder.changes.size());
+    assertEquals("Event 4", recorder.changes.get(4).getNewEvents().get(0).getSubject());
+  }
+
+  @Test
+  public void testDropOldestKeepsNewestChanges() {
+    CalendarChangePublisher publisher = CalendarChangePublisher.of(calendar, 2,
+            Overflow.DROP_OLDEST, Runnable::run);
+    Recorder recorder = new Recorder(0);
+    publisher.subscribe(recorder);
+
+    createEvents(4);
+    recorder.subscription.request(10);
+
+    assertEquals(2, recorder.changes.size());
+    assertEquals("Event 2", recorder.changes.get(0).getNewEvents().get(0).getSubject());
+    assertEquals("Event 3", recorder.changes.get(1).getNewEvents().get(0).getSubject());
+  }
+
+  @Test
+  public void testResyncCollapsesFullBuffer() {
+    CalendarChangePublisher publisher = CalendarChangePublisher.of(calendar, 2,
+            Overflow.RESYNC, Runnable::run);
+    Recorder recorder = new Recorder(0);
+    publisher.subscribe(recorder);
+
+    createEvents(4);
+    recorder.subscription.request(10);
+    assertEquals(1, recorder.changes.size());
+    assertEquals(CalendarChange.Type.RESYNC, recorder.changes.get(0).getType());
+    assertEquals("Work", recorder.changes.get(0).getCalendarName());
+
+    // Once the marker is handed over, changes are kept again
+    calendar.setCalendarName("Office");
+    assertEquals(2, recorder.changes.size());
+    assertEquals(CalendarChange.Type.CALENDAR_RENAMED, recorder.changes.get(1).getType());
+    assertEquals("Office", recorder.changes.get(1).getCalendarName());
+  }
+
+  @Test
+  public void testManagerPublishesEveryCalendar() {
+    CalendarManager manager = new CalendarManager();
+    manager.createCalendar("Work", ZoneId.of("UTC"));
+    CalendarChangePublisher publisher = CalendarChangePublisher.of(manager, 10,
+            Overflow.RESYNC, Runnable::run);
+    Recorder recorder = new Recorder(Long.MAX_VALUE);
+    publisher.subscribe(recorder);
+
+    manager.createCalendar("Home", ZoneId.of("UTC"));
+    manager.getCalendar("Work").createSingleAllDayEvent("Offsite", MONDAY);
+    manager.getCalendar("Home").createSingleAllDayEvent("Chores", MONDAY);
+    manager.editCalendar("Home", "timezone", "Europe/Paris");
+    publisher.close();
+    manager.getCalendar("Work").createSingleAllDayEvent("Review", MONDAY);
+
+    assertEquals(3, recorder.changes.size());
+    assertEquals("Work", recorder.changes.get(0).getCalendarName());
+    assertEquals("Home", recorder.changes.get(1).getCalendarName());
+    assertEquals(CalendarChange.Type.TIMEZONE_CHANGED, recorder.changes.get(2).getType());
+    assertTrue(recorder.complete);
+    assertEquals(0, publisher.getSubscriberCount());
+  }
+
+  @Test
+  public void testInvalidRequestFailsSubscriber() {
+    CalendarChangePublisher publisher = CalendarChangePublisher.of(calendar, 10,
+            Overflow.DROP_OLDEST, Runnable::run);
+    Recorder recorder = new Recorder(0);
+    publisher.subscribe(recorder);
+
+    recorder.subscription.request(0);
+    createEvents(1);
+
+    assertEquals(1, recorder.changes.size());
+    assertEquals(null, recorder.changes.get(0));
+    assertEquals(0, publisher.getSubscriberCount());
+  }
+
+  @Test
+  public void testSlowSubscriberNeverStallsCalendar() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<CalendarChange> seen = new ArrayList<CalendarChange>();
+    CalendarChangePublisher publisher = CalendarChangePublisher.of(calendar, 8,
+            Overflow.DROP_OLDEST, executor);
+    publisher.subscribe(new Recorder(Long.MAX_VALUE) {
+      @Override
+      public void onNext(CalendarChange item) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        seen.add(item);
+      }
+    });
+
+    // The subscriber blocks on the first change, while the calendar goes on changing
+    createEvents(1);
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i < 200; i++) {
+      calendar.createSingleTimedEvent("Event " + i, MONDAY.plusHours(i),
+              MONDAY.plusHours(i).plusMinutes(30));
+    }
+    assertEquals(200, calendar.getAllEvents().size());
+
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    // The first change, then the last eight kept by the buffer
+    assertEquals(9, seen.size());
+    assertEquals("Event 199", seen.get(8).getNewEvents().get(0).getSubject());
+  }
+}
@@ -0,0 +1,151 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import calendar.model.CalendarChange;
+import calendar.model.ICalendarListener;
+import calendar.model.SmartCalendarModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the changes a calendar tells its listeners of.
+ */
+public class CalendarChangeTest {
+  private SmartCalendarModel calendar;
+  // Each list of changes the listener was told of, one per call
+  private List<List<CalendarChange>> calls;
+  private ICalendarListener listener;
+
+  @Before
+  public void setUp() {
+    calendar = new SmartCalendarModel("Work", ZoneId.of("America/New_York"));
+    calls = new ArrayList<List<CalendarChange>>();
+    listener = (changed, changes) -> {
+      assertSame(calendar, changed);
+      calls.add(changes);
+    };
+    calendar.addChangeListener(listener);
+  }
+
+  @Test
+  public void testEventAddedAndReplaced() {
+    LocalDateTime start = LocalDateTime.of(2025, 3, 10, 9, 0);
+    calendar.createSingleTimedEvent("Standup", start, start.plusMinutes(30));
+    calendar.editEvent("Standup", start, start.plusMinutes(30), "location", "online");
+
+    assertEquals(2, calls.size());
+    CalendarChange added = calls.get(0).get(0);
+    assertEquals(CalendarChange.Type.EVENT_ADDED, added.getType());
+    assertEquals("Standup", added.getNewEvents().get(0).getSubject());
+    assertTrue(added.getOldEvents().isEmpty());
+
+    CalendarChange replaced = calls.get(1).get(0);
+    assertEquals(CalendarChange.Type.EVENT_REPLACED, replaced.getType());
+    assertSame(added.getNewEvents().get(0), replaced.getOldEvents().get(0));
+    assertEquals("ONLINE", replaced.getNewEvents().get(0).getLocation().name());
+  }
+
+  @Test
+  public void testRecurringEventToldAtOnce() {
+    calendar.createRecurringTimedEvent("Gym", LocalDateTime.of(2025, 3, 10, 7, 0),
+            LocalDateTime.of(2025, 3, 10, 8, 0),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), 4);
+
+    assertEquals(1, calls.size());
+    assertEquals(4, calls.get(0).size());
+    for (CalendarChange change : calls.get(0)) {
+      assertEquals(CalendarChange.Type.EVENT_ADDED, change.getType());
+    }
+  }
+
+  @Test
+  public void testSeriesEditedAsOneChange() {
+    LocalDateTime start = LocalDateTime.of(2025, 3, 10, 7, 0);
+    calendar.createRecurringTimedEvent("Gym", start, start.plusHours(1),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY)), 3);
+    calls.clear();
+
+    calendar.editEvents("Gym", start.plusWeeks(1), "subject", "Swim");
+
+    assertEquals(1, calls.size());
+    CalendarChange edited = calls.get(0).get(0);
+    assertEquals(CalendarChange.Type.SERIES_EDITED, edited.getType());
+    assertEquals(2, edited.getOldEvents().size());
+    assertEquals("Gym", edited.getOldEvents().get(0).getSubject());
+    assertEquals("Swim", edited.getNewEvents().get(1).getSubject());
+    assertEquals(edited.getOldEvents().get(0).getSeriesId(), edited.getSeriesId());
+  }
+
+  @Test
+  public void testGroupToldOnceOrNotAtAll() {
+    LocalDateTime start = LocalDateTime.of(2025, 3, 10, 9, 0);
+    calendar.applyChanges(changes -> {
+      changes.createSingleTimedEvent("Standup", start, start.plusMinutes(30));
+      changes.createSingleTimedEvent("Review", start.plusHours(4), start.plusHours(5));
+      assertTrue(calls.isEmpty());
+    });
+    assertEquals(1, calls.size());
+    assertEquals(2, calls.get(0).size());
+
+    try {
+      calendar.applyChanges(changes -> {
+        changes.createSingleTimedEvent("Lunch", start.plusHours(3), start.plusHours(4));
+        changes.createSingleTimedEvent("Standup", start, start.plusMinutes(30));
+      });
+      fail("The duplicate event should fail the group");
+    } catch (IllegalArgumentException e) {
+      assertEquals(1, calls.size());
+    }
+  }
+
+  @Test
+  public void testTimezoneChangedAndCalendarRenamed() {
+    calendar.createSingleTimedEvent("Standup", LocalDateTime.of(2025, 3, 10, 9, 0),
+            LocalDateTime.of(2025, 3, 10, 9, 30));
+    calls.clear();
+    calendar.removeChangeListener(listener);
+    calendar.addChangeListener((changed, changes) -> {
+      // The calendar already has its new timezone when the listener is told
+      assertEquals(ZoneId.of("Europe/London"), calendar.getTimezone());
+      calls.add(changes);
+    });
+
+    calendar.setTimezone(ZoneId.of("Europe/London"));
+    calendar.setCalendarName("Office");
+
+    assertEquals(2, calls.size());
+    CalendarChange moved = calls.get(0).get(0);
+    assertEquals(CalendarChange.Type.TIMEZONE_CHANGED, moved.getType());
+    assertEquals(ZoneId.of("America/New_York"), moved.getOldTimezone());
+    assertEquals(LocalDateTime.of(2025, 3, 10, 13, 0),
+            moved.getNewEvents().get(0).getStartDateTime());
+    CalendarChange renamed = calls.get(1).get(0);
+    assertEquals(CalendarChange.Type.CALENDAR_RENAMED, renamed.getType());
+    assertEquals("Work", renamed.getOldName());
+    assertEquals("Office", renamed.getNewName());
+  }
+
+  @Test
+  public void testRemovedListenerNotTold() {
+    calendar.removeChangeListener(listener);
+    calendar.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 3, 10, 0, 0));
+    assertTrue(calls.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullListener() {
+    calendar.addChangeListener(null);
+  }
+}
@@ -0,0 +1,302 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import calendar.model.CalendarManager;
+import calendar.model.ICalendarManager;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+import calendar.model.interchange.IcsImporter;
+import calendar.model.persistence.CalendarJournal;
+import calendar.model.persistence.JournalSyncPolicy;
+import calendar.model.persistence.JournalingCalendarManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for CalendarJournal and JournalingCalendarManager.
+ * Each test makes changes through a journaling manager, then recovers a fresh manager from the
+ * journal and checks that it holds the same calendars.
+ */
+public class CalendarJournalTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void setUp() {
+    directory = folder.getRoot().toPath().resolve("journal");
+  }
+
+  @Test
+  public void testRecoverEventsAndEdits() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    ISmartCalendarModel work = manager.getCurrentCalendar();
+    work.createSingleTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            LocalDateTime.of(2025, 3, 3, 9, 15));
+    work.createRecurringTimedEvent("Review", LocalDateTime.of(2025, 3, 4, 14, 0),
+            LocalDateTime.of(2025, 3, 4, 15, 0),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.TUESDAY)), 3);
+    work.createSingleAllDayEvent("Offsite", LocalDateTime.of(2025, 3, 7, 0, 0));
+    work.editEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            LocalDateTime.of(2025, 3, 3, 9, 15), "location", "online");
+    work.editSeries("Review", LocalDateTime.of(2025, 3, 11, 14, 0), "subject", "Sprint Review");
+    journal.close();
+
+    ICalendarManager recovered = recover();
+    assertEquals("Work", recovered.getCurrentCalendar().getCalendarName());
+    assertSameEvents(manager.getCalendar("Work"), recovered.getCalendar("Work"));
+    assertEquals(3, recovered.getCurrentCalendar().searchEvents("sprint review").size());
+  }
+
+  @Test
+  public void testCalendarWrappedOnce() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    ISmartCalendarModel work = manager.getCurrentCalendar();
+    assertSame(work, manager.getCurrentCalendar());
+    assertSame(work, manager.getCalendar("Work"));
+
+    manager.editCalendar("Work", "name", "Office");
+    assertSame(work, manager.getCalendar("Office"));
+    work.createSingleAllDayEvent("Offsite", LocalDateTime.of(2025, 3, 7, 0, 0));
+    journal.close();
+
+    assertEquals(1, recover().getCalendar("Office").searchEvents("offsite").size());
+  }
+
+  @Test
+  public void testRecoverCalendarEditsAndCopies() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.GROUP_COMMIT, 4);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.createCalendar("Travel", NEW_YORK);
+    manager.useCalendar("Work");
+    manager.getCurrentCalendar().createRecurringTimedEvent("Sync",
+            LocalDateTime.of(2025, 3, 3, 10, 0), LocalDateTime.of(2025, 3, 3, 11, 0),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)), 4);
+    manager.editCalendar("Travel", "timezone", "Europe/London");
+    manager.editCalendar("Travel", "name", "London");
+    manager.copyEvent("Sync", LocalDateTime.of(2025, 3, 3, 10, 0), "London",
+            LocalDateTime.of(2025, 4, 1, 9, 0));
+    manager.copyEventsBetweenDates(LocalDateTime.of(2025, 3, 3, 0, 0),
+            LocalDateTime.of(2025, 3, 12, 23, 59), "London", LocalDateTime.of(2025, 5, 5, 0, 0));
+    journal.close();
+
+    ICalendarManager recovered = recover();
+    assertEquals(Arrays.asList("London", "Work"), sortedNames(recovered));
+    assertEquals(LONDON, recovered.getCalendar("London").getTimezone());
+    assertSameEvents(manager.getCalendar("Work"), recovered.getCalendar("Work"));
+    assertSameEvents(manager.getCalendar("London"), recovered.getCalendar("London"));
+  }
+
+  @Test
+  public void testCalendarCopyThroughModelIsJournaled() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.OS_DEFAULT, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.createCalendar("Home", LONDON);
+    ISmartCalendarModel work = manager.getCalendar("Work");
+    work.createRecurringTimedEvent("Gym", LocalDateTime.of(2025, 3, 3, 7, 0),
+            LocalDateTime.of(2025, 3, 3, 8, 0),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY)), 2);
+    work.copyAllEventsToCalendar(LocalDateTime.of(2025, 3, 3, 0, 0),
+            manager.getCalendar("Home"), LocalDateTime.of(2025, 3, 4, 0, 0));
+    journal.close();
+
+    ICalendarManager recovered = recover();
+    assertSameEvents(manager.getCalendar("Home"), recovered.getCalendar("Home"));
+    assertEquals(1, recovered.getCalendar("Home").printEvents(
+            LocalDateTime.of(2025, 3, 4, 0, 0)).size());
+  }
+
+  @Test
+  public void testImportedEventsAreJournaledAsOneRecord() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.OS_DEFAULT, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    Path file = folder.getRoot().toPath().resolve("import.ics");
+    Files.write(file, Arrays.asList("BEGIN:VCALENDAR", "BEGIN:VEVENT", "SUMMARY:Gym",
+            "DTSTART:20250303T070000", "DTEND:20250303T080000",
+            "RRULE:FREQ=DAILY;COUNT=3", "END:VEVENT", "END:VCALENDAR"));
+    new IcsImporter(manager.getCurrentCalendar()).importFrom(file);
+    journal.close();
+
+    // Create, use, the series id and the batch of three events
+    CalendarManager recovered = new CalendarManager();
+    assertEquals(4, CalendarJournal.replay(directory, recovered));
+    assertSameEvents(manager.getCalendar("Work"), recovered.getCalendar("Work"));
+  }
+
+  @Test
+  public void testFailedMutationIsNotJournaled() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    try {
+      manager.createCalendar("Work", LONDON);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    journal.close();
+
+    assertEquals(1, CalendarJournal.replay(directory, new CalendarManager()));
+  }
+
+  @Test
+  public void testGroupOfChangesIsJournaledOnlyIfApplied() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    ISmartCalendarModel work = manager.getCurrentCalendar();
+    LocalDateTime start = LocalDateTime.of(2025, 3, 3, 9, 0);
+    work.applyChanges(calendar -> {
+      calendar.createSingleTimedEvent("Standup", start, start.plusMinutes(15));
+      calendar.editEvent("Standup", start, start.plusMinutes(15), "location", "online");
+    });
+    try {
+      work.applyChanges(calendar -> {
+        calendar.createSingleAllDayEvent("Offsite", start);
+        calendar.createSingleTimedEvent("Standup", start, start.plusMinutes(15));
+      });
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    journal.close();
+
+    // The calendar, its use and the first group
+    assertEquals(4, CalendarJournal.replay(directory, new CalendarManager()));
+    assertSameEvents(manager.getCalendar("Work"), recover().getCalendar("Work"));
+  }
+
+  @Test
+  public void testFailedRecurringEventLeavesNothingToRecover() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    ISmartCalendarModel work = manager.getCurrentCalendar();
+    work.createSingleTimedEvent("Gym", LocalDateTime.of(2025, 3, 10, 7, 0),
+            LocalDateTime.of(2025, 3, 10, 8, 0));
+    try {
+      // The second occurrence is the event already there
+      work.createRecurringTimedEvent("Gym", LocalDateTime.of(2025, 3, 3, 7, 0),
+              LocalDateTime.of(2025, 3, 3, 8, 0),
+              new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY)), 3);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+    journal.close();
+
+    assertEquals(1, work.getAllEvents().size());
+    ICalendarManager recovered = recover();
+    assertEquals(1, recovered.getCalendar("Work").getAllEvents().size());
+    assertSameEvents(work, recovered.getCalendar("Work"));
+  }
+
+  @Test
+  public void testTornRecordIsTruncated() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    journal.close();
+
+    // Simulate a crash in the middle of writing a record
+    Path segment = directory.resolve("journal-0000000001.log");
+    long validSize = Files.size(segment);
+    Files.write(segment, new byte[] {0, 0, 0, 40, 3, 1, 2}, StandardOpenOption.APPEND);
+
+    CalendarManager recoveredManager = new CalendarManager();
+    journal = CalendarJournal.recover(directory, recoveredManager,
+            JournalSyncPolicy.EVERY_RECORD, 1);
+    assertEquals(validSize, Files.size(segment));
+    ICalendarManager recovered = new JournalingCalendarManager(recoveredManager, journal);
+    recovered.getCurrentCalendar().createSingleAllDayEvent("Holiday",
+            LocalDateTime.of(2025, 7, 4, 0, 0));
+    journal.close();
+
+    assertEquals(3, CalendarJournal.replay(directory, new CalendarManager()));
+    assertEquals(1, recover().getCalendar("Work").printEvents(
+            LocalDateTime.of(2025, 7, 4, 0, 0)).size());
+  }
+
+  @Test
+  public void testReplayMissingDirectory() throws IOException {
+    assertEquals(0, CalendarJournal.replay(directory, new CalendarManager()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAppendAfterCloseThrows() throws IOException {
+    CalendarJournal journal = new CalendarJournal(directory, JournalSyncPolicy.EVERY_RECORD, 1);
+    ICalendarManager manager = new JournalingCalendarManager(new CalendarManager(), journal);
+    journal.close();
+    manager.createCalendar("Work", NEW_YORK);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidGroupCommitSize() throws IOException {
+    new CalendarJournal(directory, JournalSyncPolicy.GROUP_COMMIT, 0);
+  }
+
+  /**
+   * Recovers a fresh manager from the journal directory.
+   */
+  private ICalendarManager recover() throws IOException {
+    CalendarManager recovered = new CalendarManager();
+    CalendarJournal.replay(directory, recovered);
+    return recovered;
+  }
+
+  /**
+   * Gets the calendar names of a manager in sorted order.
+   */
+  private List<String> sortedNames(ICalendarManager manager) {
+    List<String> names = new ArrayList<String>(manager.getCalendarNames());
+    names.sort(null);
+    return names;
+  }
+
+  /**
+   * Checks that two calendars hold the same events, including their series ids.
+   */
+  private void assertSameEvents(ISmartCalendarModel expected, ISmartCalendarModel actual) {
+    LocalDateTime from = LocalDateTime.of(2000, 1, 1, 0, 0);
+    LocalDateTime to = LocalDateTime.of(2100, 1, 1, 0, 0);
+    List<IEvent> expectedEvents = expected.printEvents(from, to);
+    List<IEvent> actualEvents = actual.printEvents(from, to);
+    assertTrue(!expectedEvents.isEmpty());
+    assertEquals(expectedEvents.size(), actualEvents.size());
+    for (int i = 0; i < expectedEvents.size(); i++) {
+      assertEquals(expectedEvents.get(i), actualEvents.get(i));
+      assertEquals(expectedEvents.get(i).getSeriesId(), actualEvents.get(i).getSeriesId());
+    }
+  }
+}
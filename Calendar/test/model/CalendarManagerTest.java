@@ -11,7 +11,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import calendar.model.CalendarManager;
+import calendar.model.CalendarModel;
 import calendar.model.ISmartCalendarModel;
+import calendar.model.OffHeapEventStore;
 import calendar.model.IEvent;
 
 import static org.junit.Assert.assertEquals;
@@ -36,6 +38,43 @@ public class CalendarManagerTest {
   
 
   
+  @Test
+  public void testConstructorWithQueryCache() {
+    CalendarManager cachingManager = new CalendarManager(16);
+    cachingManager.createCalendar("Work", ZoneId.of("America/New_York"));
+    cachingManager.useCalendar("Work");
+    ISmartCalendarModel calendar = cachingManager.getCurrentCalendar();
+    calendar.printEvents(LocalDateTime.of(2024, 3, 20, 0, 0));
+    calendar.printEvents(LocalDateTime.of(2024, 3, 20, 0, 0));
+
+    assertEquals(1, ((CalendarModel) calendar).getQueryCacheStats().getHits());
+  }
+
+  @Test
+  public void testConstructorWithStoreFactory() {
+    List<OffHeapEventStore> stores = new ArrayList<OffHeapEventStore>();
+    CalendarManager offHeapManager = new CalendarManager(0, () -> {
+      OffHeapEventStore store = new OffHeapEventStore();
+      stores.add(store);
+      return store;
+    });
+    offHeapManager.createCalendar("Work", ZoneId.of("America/New_York"));
+    offHeapManager.createCalendar("Home", ZoneId.of("America/New_York"));
+    offHeapManager.getCalendar("Work").createSingleAllDayEvent("Offsite",
+            LocalDateTime.of(2024, 3, 20, 0, 0));
+
+    assertEquals(2, stores.size());
+    assertEquals(1, stores.get(0).size());
+    assertEquals(0, stores.get(1).size());
+    assertEquals("Offsite", offHeapManager.getCalendar("Work")
+            .printEvents(LocalDateTime.of(2024, 3, 20, 0, 0)).get(0).getSubject());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorNegativeQueryCacheSize() {
+    new CalendarManager(-1);
+  }
+
   @Test
   public void testConstructor() {
     CalendarManager newManager = new CalendarManager();
@@ -17,6 +17,7 @@ import calendar.model.EventLocation;
 import calendar.model.EventStatus;
 import calendar.model.ICalendarModel;
 import calendar.model.IEvent;
+import calendar.model.QueryCacheStats;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -24,6 +25,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Represents tests and examples for CalendarModel.
@@ -1035,4 +1037,238 @@ public class CalendarModelTest {
       assertEquals(seriesId, event.getSeriesId());
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testSearchEventsMatchesAllTerms() {
+    model.createSingleTimedEvent("Team Meeting", baseDateTime, endDateTime);
+    model.createSingleTimedEvent("Team Lunch", nextDay, nextDay.plusHours(1));
+    model.createSingleTimedEvent("Budget Meeting", nextDay.plusHours(2), nextDay.plusHours(3));
+
+    List<IEvent> results = model.searchEvents("team meeting");
+    assertEquals(1, results.size());
+    assertEquals("Team Meeting", results.get(0).getSubject());
+
+    results = model.searchEvents("MEETING");
+    assertEquals(2, results.size());
+    assertEquals("Team Meeting", results.get(0).getSubject());
+    assertEquals("Budget Meeting", results.get(1).getSubject());
+
+    assertTrue(model.searchEvents("team dinner").isEmpty());
+  }
+
+  @Test
+  public void testSearchEventsIncludesDescription() {
+    model.createSingleTimedEvent("Sync", baseDateTime, endDateTime);
+    model.editEvent("Sync", baseDateTime, endDateTime, "description", "Quarterly review");
+
+    List<IEvent> results = model.searchEvents("review");
+    assertEquals(1, results.size());
+    assertEquals("Sync", results.get(0).getSubject());
+  }
+
+  @Test
+  public void testSearchEventsFollowsEdits() {
+    model.createSingleTimedEvent("Standup", baseDateTime, endDateTime);
+    model.editEvent("Standup", baseDateTime, endDateTime, "subject", "Retro");
+
+    assertTrue(model.searchEvents("standup").isEmpty());
+    assertEquals(1, model.searchEvents("retro").size());
+  }
+
+  @Test
+  public void testSearchEventsInRange() {
+    model.createRecurringTimedEvent("Weekly Review", baseDateTime, endDateTime,
+            new ArrayList<>(Arrays.asList(DayOfWeek.MONDAY)), 4);
+
+    List<IEvent> results = model.searchEvents("review",
+            LocalDateTime.of(2024, 3, 25, 0, 0), LocalDateTime.of(2024, 4, 1, 23, 59));
+    assertEquals(2, results.size());
+    assertEquals(LocalDateTime.of(2024, 3, 25, 10, 0), results.get(0).getStartDateTime());
+    assertEquals(LocalDateTime.of(2024, 4, 1, 10, 0), results.get(1).getStartDateTime());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchEventsEmptyTerms() {
+    model.searchEvents("  --  ");
+  }
+
+  @Test
+  public void testSuggestSubjectsByPrefix() {
+    model.createSingleTimedEvent("Team Meeting", baseDateTime, endDateTime);
+    model.createSingleTimedEvent("Team Lunch", nextDay, nextDay.plusHours(1));
+    model.createSingleTimedEvent("Tax Prep", nextDay.plusHours(2), nextDay.plusHours(3));
+    model.createSingleTimedEvent("Budget", nextDay.plusHours(4), nextDay.plusHours(5));
+
+    assertEquals(Arrays.asList("Team Lunch", "Team Meeting"), model.suggestSubjects("team", 10));
+    assertEquals(Arrays.asList("Tax Prep", "Team Lunch", "Team Meeting"),
+            model.suggestSubjects("T", 10));
+    assertEquals(Arrays.asList("Tax Prep"), model.suggestSubjects("t", 1));
+    assertTrue(model.suggestSubjects("x", 10).isEmpty());
+  }
+
+  @Test
+  public void testSuggestSubjectsCountsOccurrences() {
+    model.createRecurringTimedEvent("Standup", baseDateTime, endDateTime,
+            new ArrayList<>(Arrays.asList(DayOfWeek.MONDAY)), 3);
+
+    // One distinct subject even though three events use it
+    assertEquals(Arrays.asList("Standup"), model.suggestSubjects("stand", 10));
+
+    // The subject stays until its last event is renamed
+    model.editEvent("Standup", baseDateTime, endDateTime, "subject", "Kickoff");
+    assertEquals(Arrays.asList("Standup"), model.suggestSubjects("stand", 10));
+    model.editSeries("Standup", baseDateTime.plusWeeks(1), "subject", "Kickoff");
+    assertTrue(model.suggestSubjects("stand", 10).isEmpty());
+    assertEquals(Arrays.asList("Kickoff"), model.suggestSubjects("k", 10));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSuggestSubjectsNegativeLimit() {
+    model.suggestSubjects("a", -1);
+  }
+
+  @Test
+  public void testQueryCacheDisabledByDefault() {
+    assertNull(((CalendarModel) model).getQueryCacheStats());
+  }
+
+  @Test
+  public void testQueryCacheHitsRepeatedQueries() {
+    CalendarModel cached = new CalendarModel();
+    cached.enableQueryCache(10);
+    cached.createSingleTimedEvent("Meeting", baseDateTime, endDateTime);
+
+    List<IEvent> first = cached.printEvents(baseDateTime);
+    List<IEvent> second = cached.printEvents(baseDateTime);
+    assertEquals(first, second);
+    assertTrue(cached.showStatus(baseDateTime));
+    assertTrue(cached.showStatus(baseDateTime));
+
+    QueryCacheStats stats = cached.getQueryCacheStats();
+    assertEquals(2, stats.getHits());
+    assertEquals(2, stats.getMisses());
+    assertEquals(2, stats.getSize());
+    assertEquals(0.5, stats.getHitRate(), 0.0001);
+  }
+
+  @Test
+  public void testQueryCacheInvalidatedByModification() {
+    CalendarModel cached = new CalendarModel();
+    cached.enableQueryCache(10);
+    cached.createSingleTimedEvent("Meeting", baseDateTime, endDateTime);
+    assertEquals(1, cached.printEvents(baseDateTime).size());
+
+    long generation = cached.getGeneration();
+    cached.createSingleTimedEvent("Lunch", baseDateTime.plusHours(2), endDateTime.plusHours(2));
+    assertTrue(cached.getGeneration() > generation);
+    assertEquals(2, cached.printEvents(baseDateTime).size());
+
+    cached.editEvent("Lunch", baseDateTime.plusHours(2), endDateTime.plusHours(2),
+            "subject", "Brunch");
+    assertEquals("Brunch", cached.printEvents(baseDateTime).get(1).getSubject());
+    assertEquals(0, cached.getQueryCacheStats().getHits());
+    assertEquals(3, cached.getQueryCacheStats().getMisses());
+  }
+
+  @Test
+  public void testQueryCacheResultsCannotBeCorrupted() {
+    CalendarModel cached = new CalendarModel();
+    cached.enableQueryCache(10);
+    cached.createSingleTimedEvent("Meeting", baseDateTime, endDateTime);
+
+    cached.printEvents(baseDateTime).clear();
+    assertEquals(1, cached.printEvents(baseDateTime).size());
+  }
+
+  @Test
+  public void testQueryCacheEvictsLeastRecentlyUsed() {
+    CalendarModel cached = new CalendarModel();
+    cached.enableQueryCache(2);
+    cached.printEvents(baseDateTime);
+    cached.printEvents(nextDay);
+    cached.printEvents(baseDateTime);
+    cached.printEvents(nextDay.plusDays(1));
+
+    QueryCacheStats stats = cached.getQueryCacheStats();
+    assertEquals(1, stats.getEvictions());
+    assertEquals(2, stats.getSize());
+
+    // The most recently used day is still cached
+    cached.printEvents(baseDateTime);
+    assertEquals(2, cached.getQueryCacheStats().getHits());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQueryCacheInvalidSize() {
+    new CalendarModel().enableQueryCache(0);
+  }
+
+  @Test
+  public void testApplyChangesIndexesOnceDone() {
+    model.createSingleTimedEvent("Sync", baseDateTime, endDateTime);
+    model.applyChanges(calendar -> {
+      calendar.createRecurringTimedEvent("Weekly Review", nextDay, nextDay.plusHours(1),
+              new ArrayList<>(Arrays.asList(DayOfWeek.TUESDAY)), 3);
+      calendar.editEvent("Sync", baseDateTime, endDateTime, "description", "Budget review");
+      calendar.editEvent("Weekly Review", nextDay, nextDay.plusHours(1), "subject", "Retro");
+      // Searches inside the group see the changes made so far
+      assertEquals(3, calendar.searchEvents("review").size());
+    });
+
+    assertEquals(3, model.searchEvents("review").size());
+    assertEquals(1, model.searchEvents("budget").size());
+    assertEquals(Arrays.asList("Retro"), model.suggestSubjects("r", 10));
+    assertEquals(Arrays.asList("Weekly Review"), model.suggestSubjects("w", 10));
+  }
+
+  @Test
+  public void testApplyChangesRestoresCalendarOnFailure() {
+    model.createRecurringTimedEvent("Standup", baseDateTime, endDateTime,
+            new ArrayList<>(Arrays.asList(DayOfWeek.MONDAY)), 2);
+    Set<IEvent> before = new HashSet<>(model.printEvents(baseDateTime,
+            baseDateTime.plusWeeks(2)));
+
+    try {
+      model.applyChanges(calendar -> {
+        calendar.createSingleTimedEvent("Lunch", nextDay, nextDay.plusHours(1));
+        calendar.editSeries("Standup", baseDateTime, "subject", "Kickoff");
+        assertEquals(Arrays.asList("Kickoff"), calendar.suggestSubjects("k", 10));
+        calendar.createSingleTimedEvent("Lunch", nextDay, nextDay.plusHours(1));
+      });
+      fail("The duplicate event should have failed the group");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+
+    assertEquals(before, new HashSet<>(model.printEvents(baseDateTime,
+            baseDateTime.plusWeeks(2))));
+    assertEquals(2, model.searchEvents("standup").size());
+    assertTrue(model.searchEvents("lunch").isEmpty());
+    assertTrue(model.suggestSubjects("k", 10).isEmpty());
+    assertEquals(Arrays.asList("Standup"), model.suggestSubjects("s", 10));
+  }
+
+  @Test
+  public void testApplyChangesRestoresDetailsOfEditedEvents() {
+    model.createSingleTimedEvent("Sync", baseDateTime, endDateTime);
+    model.editEvent("Sync", baseDateTime, endDateTime, "location", "online");
+
+    try {
+      model.applyChanges(calendar -> {
+        // The edited event is equal to the one it replaces, with other details
+        calendar.editEvent("Sync", baseDateTime, endDateTime, "description", "Budget review");
+        calendar.editEvent("Sync", baseDateTime, endDateTime, "location", "physical");
+        calendar.createSingleTimedEvent("Sync", baseDateTime, endDateTime);
+      });
+      fail("The duplicate event should have failed the group");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+
+    IEvent sync = model.printEvents(baseDateTime).get(0);
+    assertNull(sync.getDescription());
+    assertEquals(EventLocation.ONLINE, sync.getLocation());
+    assertTrue(model.searchEvents("budget").isEmpty());
+    assertEquals(1, model.searchEvents("sync").size());
+  }
+}
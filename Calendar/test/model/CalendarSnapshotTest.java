@@ -0,0 +1,226 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import calendar.model.CalendarManager;
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.ICalendarManager;
+import calendar.model.IEvent;
+import calendar.model.ISmartCalendarModel;
+import calendar.model.persistence.CalendarJournal;
+import calendar.model.persistence.CalendarSnapshot;
+import calendar.model.persistence.CalendarSnapshotter;
+import calendar.model.persistence.JournalSyncPolicy;
+import calendar.model.persistence.JournalingCalendarManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for CalendarSnapshot and CalendarSnapshotter, and for recovering calendars from a
+ * snapshot followed by the journal written after it.
+ */
+public class CalendarSnapshotTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path directory;
+  private CalendarManager base;
+  private CalendarJournal journal;
+  private ICalendarManager manager;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.getRoot().toPath().resolve("journal");
+    base = new CalendarManager();
+    journal = new CalendarJournal(directory, JournalSyncPolicy.OS_DEFAULT, 1);
+    manager = new JournalingCalendarManager(base, journal);
+  }
+
+  @Test
+  public void testSnapshotTruncatesJournal() throws IOException {
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    manager.getCurrentCalendar().createRecurringTimedEvent("Standup",
+            LocalDateTime.of(2025, 3, 3, 9, 0), LocalDateTime.of(2025, 3, 3, 9, 15),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)), 6);
+
+    CalendarSnapshotter snapshotter = new CalendarSnapshotter(base, journal);
+    Path snapshot = CalendarSnapshotter.await(snapshotter.snapshot());
+    assertTrue(Files.exists(snapshot));
+    assertEquals(Arrays.asList("journal-0000000002.log", "snapshot-0000000001.snap"),
+            listDirectory());
+
+    // Changes after the snapshot go to the new segment and are replayed on top of it
+    manager.getCurrentCalendar().editSeries("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            "subject", "Daily Standup");
+    manager.createCalendar("Home", NEW_YORK);
+    snapshotter.close();
+    journal.close();
+
+    CalendarManager recovered = new CalendarManager();
+    assertEquals(2, CalendarJournal.replay(directory, recovered));
+    assertEquals("Work", recovered.getCurrentCalendar().getCalendarName());
+    assertEquals(2, recovered.getCalendarNames().size());
+    assertSameEvents(base.getCalendar("Work"), recovered.getCalendar("Work"));
+  }
+
+  @Test
+  public void testPeriodicSnapshots() throws IOException {
+    CalendarSnapshotter snapshotter = new CalendarSnapshotter(base, journal);
+    snapshotter.snapshotEvery(3);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    ISmartCalendarModel work = manager.getCurrentCalendar();
+    for (int day = 1; day <= 7; day++) {
+      work.createSingleTimedEvent("Task " + day, LocalDateTime.of(2025, 4, day, 10, 0),
+              LocalDateTime.of(2025, 4, day, 11, 0));
+    }
+    snapshotter.close();
+    journal.close();
+
+    // 9 records: snapshots after records 3, 6 and 9, leaving only the empty fourth segment
+    assertEquals(Arrays.asList("journal-0000000004.log", "snapshot-0000000003.snap"),
+            listDirectory());
+    CalendarManager recovered = new CalendarManager();
+    assertEquals(0, CalendarJournal.replay(directory, recovered));
+    assertSameEvents(base.getCalendar("Work"), recovered.getCalendar("Work"));
+  }
+
+  @Test
+  public void testSegmentFilledByGroupSnapshotsAfterGroup() throws IOException {
+    CalendarSnapshotter snapshotter = new CalendarSnapshotter(base, journal);
+    snapshotter.snapshotEvery(4);
+    manager.createCalendar("Work", NEW_YORK);
+    manager.useCalendar("Work");
+    ISmartCalendarModel work = manager.getCurrentCalendar();
+    // The segment fills after the second event of the group
+    work.applyChanges(changes -> {
+      for (int day = 1; day <= 4; day++) {
+        changes.createSingleTimedEvent("Task " + day, LocalDateTime.of(2025, 4, day, 10, 0),
+                LocalDateTime.of(2025, 4, day, 11, 0));
+      }
+    });
+    work.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 4, 5, 0, 0));
+    snapshotter.close();
+    journal.close();
+
+    // The snapshot holds the whole group, and only the event after it is replayed
+    assertEquals(Arrays.asList("journal-0000000002.log", "snapshot-0000000001.snap"),
+            listDirectory());
+    CalendarManager recovered = new CalendarManager();
+    assertEquals(1, CalendarJournal.replay(directory, recovered));
+    assertEquals(5, recovered.getCalendar("Work").getAllEvents().size());
+    assertSameEvents(base.getCalendar("Work"), recovered.getCalendar("Work"));
+  }
+
+  @Test
+  public void testSnapshotPreservesEventDetails() throws IOException {
+    manager.createCalendar("Work", NEW_YORK);
+    ISmartCalendarModel work = manager.getCalendar("Work");
+    work.addEvent(Event.getBuilder()
+            .subject("Launch")
+            .description("Ship the release")
+            .location(EventLocation.ONLINE)
+            .status(EventStatus.PRIVATE)
+            .startDateTime(LocalDateTime.of(2025, 5, 1, 9, 30, 15, 500))
+            .endDateTime(LocalDateTime.of(2025, 5, 1, 10, 0))
+            .seriesId(42)
+            .build());
+    work.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 5, 2, 0, 0));
+
+    Path file = folder.getRoot().toPath().resolve("calendars.snap");
+    CalendarSnapshot.capture(base, 7).writeTo(file);
+    CalendarSnapshot snapshot = CalendarSnapshot.readFrom(file);
+    assertEquals(7, snapshot.getLastSegment());
+
+    CalendarManager restored = new CalendarManager();
+    snapshot.restoreInto(restored);
+    assertSameEvents(base.getCalendar("Work"), restored.getCalendar("Work"));
+    IEvent launch = restored.getCalendar("Work").findEventBySubjectAndTime("Launch",
+            LocalDateTime.of(2025, 5, 1, 9, 30, 15, 500));
+    assertEquals("Ship the release", launch.getDescription());
+    assertEquals(EventLocation.ONLINE, launch.getLocation());
+    assertEquals(EventStatus.PRIVATE, launch.getStatus());
+    assertEquals(Integer.valueOf(42), launch.getSeriesId());
+  }
+
+  @Test
+  public void testDamagedSnapshotIsRejected() throws IOException {
+    manager.createCalendar("Work", NEW_YORK);
+    Path file = folder.getRoot().toPath().resolve("calendars.snap");
+    CalendarSnapshot.capture(base, 1).writeTo(file);
+
+    // Change the first letter of the calendar name in the string table
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(22);
+      raf.write('X');
+    }
+    try {
+      CalendarSnapshot.readFrom(file);
+      fail("Expected a damaged snapshot to be rejected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("checksum"));
+    }
+  }
+
+  @Test
+  public void testUnfinishedSnapshotIsIgnored() throws IOException {
+    manager.createCalendar("Work", NEW_YORK);
+    journal.close();
+    Path unfinished = directory.resolve("snapshot-0000000001.snap.tmp");
+    Files.write(unfinished, new byte[] {1, 2, 3});
+
+    CalendarManager recovered = new CalendarManager();
+    assertEquals(1, CalendarJournal.replay(directory, recovered));
+    assertFalse(Files.exists(unfinished));
+  }
+
+  /**
+   * Lists the file names in the journal directory in sorted order.
+   */
+  private List<String> listDirectory() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(path -> path.getFileName().toString()).sorted()
+              .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Checks that two calendars hold the same events, including their series ids.
+   */
+  private void assertSameEvents(ISmartCalendarModel expected, ISmartCalendarModel actual) {
+    LocalDateTime from = LocalDateTime.of(2000, 1, 1, 0, 0);
+    LocalDateTime to = LocalDateTime.of(2100, 1, 1, 0, 0);
+    List<IEvent> expectedEvents = expected.printEvents(from, to);
+    List<IEvent> actualEvents = actual.printEvents(from, to);
+    assertFalse(expectedEvents.isEmpty());
+    assertEquals(expectedEvents.size(), actualEvents.size());
+    for (int i = 0; i < expectedEvents.size(); i++) {
+      assertEquals(expectedEvents.get(i), actualEvents.get(i));
+      assertEquals(expectedEvents.get(i).getSeriesId(), actualEvents.get(i).getSeriesId());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.SmartCalendarModel;
+import calendar.model.interchange.CsvExporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for CsvExporter.
+ */
+public class CsvExporterTest {
+  private static final String HEADER = "Subject,Start Date,Start Time,End Date,End Time,"
+          + "All Day Event,Description,Location,Private";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SmartCalendarModel calendar;
+  private Path file;
+
+  @Before
+  public void setUp() {
+    calendar = new SmartCalendarModel("Work", ZoneId.of("America/New_York"));
+    file = folder.getRoot().toPath().resolve("work.csv");
+  }
+
+  @Test
+  public void testRows() throws IOException {
+    calendar.createSingleTimedEvent("Review", LocalDateTime.of(2025, 3, 5, 0, 5),
+            LocalDateTime.of(2025, 3, 5, 12, 30));
+    calendar.createSingleAllDayEvent("Offsite", LocalDateTime.of(2025, 11, 14, 0, 0));
+
+    assertEquals(2, new CsvExporter(calendar).exportTo(file));
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(HEADER, lines.get(0));
+    assertEquals(3, lines.size());
+    assertTrue(lines.contains("Review,03/05/2025,12:05 AM,03/05/2025,12:30 PM,False,,,False"));
+    assertTrue(lines.contains("Offsite,11/14/2025,,11/14/2025,,True,,,False"));
+  }
+
+  @Test
+  public void testQuotedFields() throws IOException {
+    calendar.addEvent(Event.getBuilder()
+            .subject("Lunch, with \"Sam\"")
+            .description("Bring notes\nand slides")
+            .location(EventLocation.PHYSICAL)
+            .status(EventStatus.PRIVATE)
+            .startDateTime(LocalDateTime.of(2025, 3, 5, 13, 0))
+            .endDateTime(LocalDateTime.of(2025, 3, 5, 14, 0))
+            .build());
+
+    new CsvExporter(calendar).exportTo(file);
+    String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertEquals(HEADER + "\r\n\"Lunch, with \"\"Sam\"\"\",03/05/2025,1:00 PM,03/05/2025,"
+            + "2:00 PM,False,\"Bring notes\nand slides\",physical,True\r\n", text);
+  }
+
+  @Test
+  public void testRangeAndLargeExport() throws IOException {
+    LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+    for (int i = 0; i < 20000; i++) {
+      calendar.createSingleTimedEvent("Task " + i, start.plusHours(i), start.plusHours(i)
+              .plusMinutes(30));
+    }
+
+    assertEquals(20000, new CsvExporter(calendar).exportTo(file));
+    assertEquals(20001, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+
+    assertEquals(24, new CsvExporter(calendar).exportTo(file,
+            LocalDateTime.of(2025, 1, 2, 0, 0), LocalDateTime.of(2025, 1, 2, 23, 59)));
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(25, lines.size());
+    assertFalse(lines.contains("Task 0,01/01/2025,9:00 AM,01/01/2025,9:30 AM,False,,,False"));
+    assertFalse(Files.exists(folder.getRoot().toPath().resolve("work.csv.tmp")));
+    assertTrue(lines.containsAll(Arrays.asList(
+            "Task 15,01/02/2025,12:00 AM,01/02/2025,12:30 AM,False,,,False",
+            "Task 38,01/02/2025,11:00 PM,01/02/2025,11:30 PM,False,,,False")));
+  }
+}
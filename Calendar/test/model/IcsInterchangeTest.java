@@ -0,0 +1,252 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.IEvent;
+import calendar.model.SmartCalendarModel;
+import calendar.model.interchange.IcsExporter;
+import calendar.model.interchange.IcsImporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for exporting calendars to iCalendar files and importing them back.
+ */
+public class IcsInterchangeTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SmartCalendarModel calendar;
+  private Path file;
+
+  @Before
+  public void setUp() {
+    calendar = new SmartCalendarModel("Work", NEW_YORK);
+    file = folder.getRoot().toPath().resolve("work.ics");
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            LocalDateTime.of(2025, 3, 3, 9, 15),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.THURSDAY)), 5);
+    calendar.createSingleAllDayEvent("Offsite", LocalDateTime.of(2025, 3, 5, 0, 0));
+    calendar.addEvent(Event.getBuilder()
+            .subject("Launch; phase 1, part 2")
+            .description("Line one\nLine two with a long tail that needs folding because it "
+                    + "is well over seventy five octets ééé")
+            .location(EventLocation.ONLINE)
+            .status(EventStatus.PRIVATE)
+            .startDateTime(LocalDateTime.of(2025, 3, 10, 14, 0))
+            .endDateTime(LocalDateTime.of(2025, 3, 10, 15, 30))
+            .build());
+
+    assertEquals(7, new IcsExporter(calendar).exportTo(file));
+    SmartCalendarModel copy = new SmartCalendarModel("Copy", NEW_YORK);
+    assertEquals(7, new IcsImporter(copy).importFrom(file));
+
+    List<IEvent> expected = allEvents(calendar);
+    List<IEvent> actual = allEvents(copy);
+    assertEquals(expected, actual);
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+      assertEquals(expected.get(i).getLocation(), actual.get(i).getLocation());
+      assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+      assertEquals(expected.get(i).getSeriesId() == null, actual.get(i).getSeriesId() == null);
+    }
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      assertTrue(line, line.getBytes(StandardCharsets.UTF_8).length <= 75);
+    }
+  }
+
+  @Test
+  public void testSeriesExportedAsRule() throws IOException {
+    calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            LocalDateTime.of(2025, 3, 3, 9, 15),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)), 4);
+    new IcsExporter(calendar).exportTo(file);
+
+    String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertEquals(1, count(text, "BEGIN:VEVENT"));
+    assertTrue(text.contains("RRULE:FREQ=WEEKLY;COUNT=4;BYDAY=MO,WE\r\n"));
+    assertTrue(text.contains("DTSTART;TZID=America/New_York:20250303T090000\r\n"));
+  }
+
+  @Test
+  public void testSeriesWithGapNotExportedAsRule() throws IOException {
+    calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            LocalDateTime.of(2025, 3, 3, 9, 15),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY)), 3);
+    // Moving the last occurrence a week later leaves the same weekday, time and count
+    calendar.editEvent("Standup", LocalDateTime.of(2025, 3, 17, 9, 0),
+            LocalDateTime.of(2025, 3, 17, 9, 15), "end", "2025-03-24T09:15");
+    calendar.editEvent("Standup", LocalDateTime.of(2025, 3, 17, 9, 0),
+            LocalDateTime.of(2025, 3, 24, 9, 15), "start", "2025-03-24T09:00");
+    new IcsExporter(calendar).exportTo(file);
+
+    String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertFalse(text.contains("RRULE:"));
+    assertEquals(3, count(text, "BEGIN:VEVENT"));
+    SmartCalendarModel copy = new SmartCalendarModel("Copy", NEW_YORK);
+    new IcsImporter(copy).importFrom(file);
+    assertEquals(allEvents(calendar), allEvents(copy));
+  }
+
+  @Test
+  public void testEditedSeriesKeepsItsGroup() throws IOException {
+    calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+            LocalDateTime.of(2025, 3, 3, 9, 15),
+            new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY)), 3);
+    calendar.editEvent("Standup", LocalDateTime.of(2025, 3, 10, 9, 0),
+            LocalDateTime.of(2025, 3, 10, 9, 15), "description", "Demo day");
+    new IcsExporter(calendar).exportTo(file);
+    String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertEquals(3, count(text, "X-CALENDAR-SERIES:"));
+
+    SmartCalendarModel copy = new SmartCalendarModel("Copy", NEW_YORK);
+    new IcsImporter(copy).importFrom(file);
+    List<IEvent> events = allEvents(copy);
+    assertEquals(3, events.size());
+    assertNotNull(events.get(0).getSeriesId());
+    for (IEvent event : events) {
+      assertEquals(events.get(0).getSeriesId(), event.getSeriesId());
+    }
+  }
+
+  @Test
+  public void testImportConvertsForeignEvents() throws IOException {
+    write("BEGIN:VCALENDAR",
+            "BEGIN:VTIMEZONE",
+            "TZID:Europe/London",
+            "END:VTIMEZONE",
+            "BEGIN:VEVENT",
+            "SUMMARY:Call with\\, London",
+            "DTSTART;TZID=Europe/London:20250310T150000",
+            "DTEND;TZID=Europe/London:20250310T160000",
+            "CLASS:CONFIDENTIAL",
+            "BEGIN:VALARM",
+            "SUMMARY:Reminder",
+            "END:VALARM",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Flight",
+            "DTSTART:20250311T120000Z",
+            "DURATION:PT2H",
+            "LOCATION:Gate 12",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Holi",
+            "DESCRIPTION:Festival of colours spread ",
+            " over two days",
+            "DTSTART;VALUE=DATE:20250314",
+            "DTEND;VALUE=DATE:20250316",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Gym",
+            "DTSTART:20250303T070000",
+            "DTEND:20250303T080000",
+            "RRULE:FREQ=WEEKLY;BYDAY=MO,FR;UNTIL=20250310",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Rent",
+            "DTSTART:20250301T090000",
+            "RRULE:FREQ=MONTHLY;COUNT=12",
+            "END:VEVENT",
+            "END:VCALENDAR");
+    IcsImporter importer = new IcsImporter(calendar);
+    assertEquals(7, importer.importFrom(file));
+    assertEquals(1, importer.getSimplifiedRules());
+
+    IEvent call = calendar.findEventBySubjectAndTime("Call with, London",
+            LocalDateTime.of(2025, 3, 10, 11, 0));
+    assertEquals(LocalDateTime.of(2025, 3, 10, 12, 0), call.getEndDateTime());
+    assertEquals(EventStatus.PRIVATE, call.getStatus());
+
+    IEvent flight = calendar.findEventBySubjectAndTime("Flight",
+            LocalDateTime.of(2025, 3, 11, 8, 0));
+    assertEquals(LocalDateTime.of(2025, 3, 11, 10, 0), flight.getEndDateTime());
+    assertNull(flight.getLocation());
+
+    IEvent holi = calendar.findEventBySubjectAndTime("Holi",
+            LocalDateTime.of(2025, 3, 14, 8, 0));
+    assertEquals(LocalDateTime.of(2025, 3, 15, 17, 0), holi.getEndDateTime());
+    assertEquals("Festival of colours spread over two days", holi.getDescription());
+
+    List<IEvent> gym = calendar.searchEvents("gym");
+    assertEquals(3, gym.size());
+    assertEquals(gym.get(0).getSeriesId(), gym.get(2).getSeriesId());
+    assertEquals(1, calendar.searchEvents("rent").size());
+  }
+
+  @Test
+  public void testMalformedFileAddsNothing() throws IOException {
+    write("BEGIN:VCALENDAR",
+            "BEGIN:VEVENT",
+            "SUMMARY:Good",
+            "DTSTART:20250303T070000",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "SUMMARY:Bad",
+            "DTSTART:2025-03-04T07:00",
+            "END:VEVENT",
+            "END:VCALENDAR");
+    try {
+      new IcsImporter(calendar).importFrom(file);
+      fail("Expected the malformed date-time to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Line 8 of the iCalendar file has an invalid date-time "
+              + "'2025-03-04T07:00'", e.getMessage());
+    }
+    assertFalse(calendar.showStatus(LocalDateTime.of(2025, 3, 3, 7, 0)));
+  }
+
+  /**
+   * Writes lines to the test file with iCalendar line endings.
+   */
+  private void write(String... lines) throws IOException {
+    Files.write(file, (String.join("\r\n", lines) + "\r\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Gets every event of a calendar in start order.
+   */
+  private List<IEvent> allEvents(SmartCalendarModel model) {
+    return model.printEvents(LocalDateTime.of(2000, 1, 1, 0, 0),
+            LocalDateTime.of(2100, 1, 1, 0, 0));
+  }
+
+  /**
+   * Counts the occurrences of a substring.
+   */
+  private int count(String text, String part) {
+    int count = 0;
+    for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,65 @@
+package model;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import calendar.model.IsoDateTimeParser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for IsoDateTimeParser, which must accept exactly what the ISO formatters accept.
+ */
+public class IsoDateTimeParserTest {
+
+  @Test
+  public void testCommonShapes() {
+    assertEquals(LocalDateTime.of(2025, 5, 5, 14, 30),
+        IsoDateTimeParser.parseDateTime("2025-05-05T14:30"));
+    assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0),
+        IsoDateTimeParser.parseDateTime("2024-02-29t00:00"));
+    assertEquals(LocalDate.of(2000, 2, 29), IsoDateTimeParser.parseDate("2000-02-29"));
+    assertEquals(LocalDate.of(0, 1, 1), IsoDateTimeParser.parseDate("0000-01-01"));
+  }
+
+  @Test
+  public void testOtherIsoFormsStillAccepted() {
+    assertEquals(LocalDateTime.of(2025, 5, 5, 14, 30, 15),
+        IsoDateTimeParser.parseDateTime("2025-05-05T14:30:15"));
+    assertEquals(LocalDateTime.of(2025, 5, 5, 14, 30, 15, 500_000_000),
+        IsoDateTimeParser.parseDateTime("2025-05-05T14:30:15.5"));
+    assertEquals(LocalDate.of(10000, 1, 1), IsoDateTimeParser.parseDate("+10000-01-01"));
+  }
+
+  @Test
+  public void testInvalidText() {
+    assertNull(IsoDateTimeParser.parseDateTime("2023-02-29T10:00"));
+    assertNull(IsoDateTimeParser.parseDateTime("2025-04-31T10:00"));
+    assertNull(IsoDateTimeParser.parseDateTime("2025-05-05T24:00"));
+    assertNull(IsoDateTimeParser.parseDateTime("2025-05-05T10:60"));
+    assertNull(IsoDateTimeParser.parseDateTime("2025-05-05 10:00"));
+    assertNull(IsoDateTimeParser.parseDateTime("2025-05-05"));
+    assertNull(IsoDateTimeParser.parseDateTime("2025-5-5T1:00"));
+    assertNull(IsoDateTimeParser.parseDate("2025-13-01"));
+    assertNull(IsoDateTimeParser.parseDate("2025-00-10"));
+    assertNull(IsoDateTimeParser.parseDate("2O25-01-01"));
+    assertNull(IsoDateTimeParser.parseDate("2025-01-01T10:00"));
+    assertNull(IsoDateTimeParser.parseDate(""));
+  }
+
+  @Test
+  public void testPartOfLine() {
+    String line = "print events from 2025-03-10T08:00 to 2025-03-10T17:30:45";
+    assertEquals(LocalDateTime.of(2025, 3, 10, 8, 0),
+        IsoDateTimeParser.parseDateTime(line, 18, 34));
+    assertEquals(LocalDateTime.of(2025, 3, 10, 17, 30, 45),
+        IsoDateTimeParser.parseDateTime(line, 38, line.length()));
+    // The date-time must fill the whole range
+    assertNull(IsoDateTimeParser.parseDateTime(line, 18, 35));
+    assertEquals(LocalDate.of(2025, 3, 10), IsoDateTimeParser.parseDate(line, 18, 28));
+    assertNull(IsoDateTimeParser.parseDate(line, 18, 34));
+  }
+}
@@ -0,0 +1,195 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import calendar.controller.command.ExportCalendarCommand;
+import calendar.model.CalendarManager;
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.IEvent;
+import calendar.model.MappedCalendarModel;
+import calendar.model.SmartCalendarModel;
+import calendar.view.CalendarView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for MappedCalendarModel.
+ * Every query on a mapped calendar is compared against the same query on the in-memory
+ * calendar it was written from.
+ */
+public class MappedCalendarModelTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private SmartCalendarModel source;
+  private MappedCalendarModel mapped;
+
+  @Before
+  public void setUp() throws IOException {
+    source = new SmartCalendarModel("Work", NEW_YORK);
+    source.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+        LocalDateTime.of(2025, 3, 3, 9, 15),
+        new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)), 8);
+    source.createSingleAllDayEvent("Offsite", LocalDateTime.of(2025, 3, 5, 0, 0));
+    // A long event that is still running when many later events start
+    source.createSingleTimedEvent("Conference", LocalDateTime.of(2025, 3, 1, 8, 0),
+        LocalDateTime.of(2025, 3, 20, 18, 0));
+    source.createSingleTimedEvent("Late review", LocalDateTime.of(2025, 3, 12, 23, 30),
+        LocalDateTime.of(2025, 3, 13, 0, 30));
+    source.addEvent(Event.getBuilder()
+        .subject("Launch")
+        .description("Ship the release to customers")
+        .location(EventLocation.ONLINE)
+        .status(EventStatus.PRIVATE)
+        .startDateTime(LocalDateTime.of(2025, 3, 10, 14, 0, 30, 250))
+        .endDateTime(LocalDateTime.of(2025, 3, 10, 15, 0))
+        .build());
+
+    Path file = folder.getRoot().toPath().resolve("work.cal");
+    MappedCalendarModel.write(source, file);
+    mapped = MappedCalendarModel.open(file);
+  }
+
+  @Test
+  public void testHeader() {
+    assertEquals("Work", mapped.getCalendarName());
+    assertEquals(NEW_YORK, mapped.getTimezone());
+    assertEquals(source.getAllEvents().size(), mapped.size());
+  }
+
+  @Test
+  public void testPrintEventsMatchesSource() {
+    for (int day = 1; day <= 22; day++) {
+      LocalDateTime date = LocalDateTime.of(2025, 3, day, 0, 0);
+      assertSameEvents(source.printEvents(date), mapped.printEvents(date));
+    }
+    LocalDateTime start = LocalDateTime.of(2025, 3, 10, 14, 0, 30, 250);
+    assertSameEvents(source.printEvents(start, start.plusHours(10)),
+        mapped.printEvents(start, start.plusHours(10)));
+    assertSameEvents(source.printEvents(LocalDateTime.of(2025, 1, 1, 0, 0),
+        LocalDateTime.of(2025, 12, 31, 0, 0)), mapped.printEvents(
+        LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 12, 31, 0, 0)));
+  }
+
+  @Test
+  public void testEventIteratorMatchesPrintEvents() {
+    LocalDateTime start = LocalDateTime.of(2025, 3, 9, 0, 0);
+    LocalDateTime end = LocalDateTime.of(2025, 3, 12, 23, 59);
+    List<IEvent> iterated = new ArrayList<IEvent>();
+    mapped.eventIterator(start, end).forEachRemaining(iterated::add);
+    assertSameEvents(source.printEvents(start, end), iterated);
+  }
+
+  @Test
+  public void testShowStatusMatchesSource() {
+    LocalDateTime time = LocalDateTime.of(2025, 2, 28, 0, 0);
+    while (time.isBefore(LocalDateTime.of(2025, 3, 22, 0, 0))) {
+      assertEquals(time.toString(), source.showStatus(time), mapped.showStatus(time));
+      time = time.plusMinutes(45);
+    }
+  }
+
+  @Test
+  public void testUpcomingEventsMatchesSource() {
+    LocalDateTime time = LocalDateTime.of(2025, 3, 4, 12, 0);
+    assertSameEvents(source.getUpcomingEvents(time, 4), mapped.getUpcomingEvents(time, 4));
+    assertEquals(0, mapped.getUpcomingEvents(LocalDateTime.of(2026, 1, 1, 0, 0), 5).size());
+  }
+
+  @Test
+  public void testEventDetailsRoundTrip() {
+    IEvent launch = mapped.findEventBySubjectAndTime("Launch",
+        LocalDateTime.of(2025, 3, 10, 14, 0, 30, 250));
+    assertEquals("Ship the release to customers", launch.getDescription());
+    assertEquals(EventLocation.ONLINE, launch.getLocation());
+    assertEquals(EventStatus.PRIVATE, launch.getStatus());
+    assertNull(launch.getSeriesId());
+
+    IEvent standup = mapped.findEventBySubjectAndTime("Standup",
+        LocalDateTime.of(2025, 3, 5, 9, 0));
+    assertEquals(source.findEventBySubjectAndTime("Standup",
+        LocalDateTime.of(2025, 3, 5, 9, 0)).getSeriesId(), standup.getSeriesId());
+  }
+
+  @Test
+  public void testSearchAndSuggest() {
+    assertSameEvents(source.searchEvents("release"), mapped.searchEvents("release"));
+    assertSameEvents(source.searchEvents("standup", LocalDateTime.of(2025, 3, 10, 0, 0),
+        LocalDateTime.of(2025, 3, 12, 23, 59)), mapped.searchEvents("standup",
+        LocalDateTime.of(2025, 3, 10, 0, 0), LocalDateTime.of(2025, 3, 12, 23, 59)));
+    assertEquals(Arrays.asList("Late review", "Launch"), mapped.suggestSubjects("la", 5));
+  }
+
+  @Test
+  public void testCopyFromMappedCalendar() {
+    CalendarManager manager = new CalendarManager();
+    manager.addCalendar(mapped);
+    manager.createCalendar("Archive", NEW_YORK);
+    manager.useCalendar("Work");
+    manager.copyEventsOnDate(LocalDateTime.of(2025, 3, 3, 0, 0), "Archive",
+        LocalDateTime.of(2025, 4, 7, 0, 0));
+
+    List<IEvent> copied = manager.getCalendar("Archive").printEvents(
+        LocalDateTime.of(2025, 4, 7, 0, 0));
+    assertEquals(2, copied.size());
+  }
+
+  @Test
+  public void testExportCommandWritesCalendarFile() throws IOException {
+    CalendarManager manager = new CalendarManager();
+    manager.addCalendar(source);
+    manager.useCalendar("Work");
+    Path file = folder.getRoot().toPath().resolve("exported.cal");
+    StringBuilder output = new StringBuilder();
+    new ExportCalendarCommand(file.toString()).execute(manager, new CalendarView(output));
+
+    assertEquals("Exported " + source.getAllEvents().size() + " events to " +
+        file.toAbsolutePath() + "\n", output.toString());
+    MappedCalendarModel exported = MappedCalendarModel.open(file);
+    assertEquals("Work", exported.getCalendarName());
+    assertEquals(new HashSet<IEvent>(source.getAllEvents()),
+        new HashSet<IEvent>(exported.getAllEvents()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMappedCalendarIsReadOnly() {
+    mapped.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 7, 4, 0, 0));
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpenRejectsOtherFiles() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("notes.cal");
+    Files.write(file, "not a calendar".getBytes());
+    MappedCalendarModel.open(file);
+  }
+
+  /**
+   * Checks that two event lists hold the same events in the same start order.
+   */
+  private void assertSameEvents(List<IEvent> expected, List<IEvent> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getStartDateTime(), actual.get(i).getStartDateTime());
+    }
+    assertEquals(new HashSet<IEvent>(expected), new HashSet<IEvent>(actual));
+  }
+}
@@ -0,0 +1,277 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import calendar.model.IEvent;
+import calendar.model.SmartCalendarModel;
+import calendar.model.persistence.MonthSegmentStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for MonthSegmentStore.
+ * The memory budget in most tests only fits one month's segment, so the loaded months show
+ * exactly which segments a query needed.
+ */
+public class MonthSegmentStoreTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final long ONE_SEGMENT = 700;
+  private static final long TWO_SEGMENTS = 1000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.getRoot().toPath().resolve("work");
+    try (MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE)) {
+      SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+      for (int month = 1; month <= 6; month++) {
+        calendar.createSingleTimedEvent("Review " + month,
+            LocalDateTime.of(2025, month, 10, 9, 0), LocalDateTime.of(2025, month, 10, 10, 0));
+        calendar.createSingleAllDayEvent("Planning " + month,
+            LocalDateTime.of(2025, month, 20, 0, 0));
+      }
+      // Runs from the end of March into April
+      calendar.createSingleTimedEvent("Offsite", LocalDateTime.of(2025, 3, 30, 9, 0),
+          LocalDateTime.of(2025, 4, 2, 17, 0));
+    }
+  }
+
+  @Test
+  public void testSegmentsWrittenPerMonth() throws IOException {
+    for (int month = 1; month <= 6; month++) {
+      assertTrue(Files.exists(directory.resolve("segment-2025-0" + month + ".seg")));
+      assertTrue(Files.exists(directory.resolve("segment-2025-0" + month + ".hdr")));
+    }
+  }
+
+  @Test
+  public void testFlushWritesOnlyTheChangedMonth() throws IOException {
+    byte[] march = Files.readAllBytes(directory.resolve("segment-2025-03.hdr"));
+    MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    calendar.editEvent("Review 5", LocalDateTime.of(2025, 5, 10, 9, 0),
+        LocalDateTime.of(2025, 5, 10, 10, 0), "subject", "Budget");
+
+    // May's segment and its header, and no other month's files
+    assertEquals(2, store.flush());
+    assertTrue(Arrays.equals(march, Files.readAllBytes(directory.resolve("segment-2025-03.hdr"))));
+    SmartCalendarModel reopened = new SmartCalendarModel("Work", NEW_YORK,
+        new MonthSegmentStore(directory, ONE_SEGMENT));
+    assertEquals(Arrays.asList("Budget"), reopened.suggestSubjects("b", 3));
+  }
+
+  @Test
+  public void testReopenReadsOnlyTheCatalog() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    assertEquals(13, store.size());
+    assertEquals(0, store.getSegmentLoads());
+    assertEquals(Collections.emptyList(), store.getLoadedMonths());
+  }
+
+  @Test
+  public void testCalendarOpensFromTheCatalog() throws IOException {
+    try (MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE)) {
+      SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+      calendar.createRecurringAllDayEvent("Payday", LocalDateTime.of(2025, 1, 31, 0, 0),
+          new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.FRIDAY)), 1);
+    }
+
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    assertEquals(0, store.getSegmentLoads());
+    assertEquals(Arrays.asList("Payday", "Planning 1", "Planning 2"),
+        calendar.suggestSubjects("p", 3));
+    // New series are numbered after the one already stored
+    assertEquals(Integer.valueOf(2), calendar.generateUniqueSeriesId());
+    assertEquals(0, store.getSegmentLoads());
+  }
+
+  @Test
+  public void testEditSeriesLoadsOnlyMonthsOfTheSeries() throws IOException {
+    try (MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE)) {
+      SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+      calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 2, 24, 9, 0),
+          LocalDateTime.of(2025, 2, 24, 9, 15),
+          new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY)), 3);
+    }
+
+    MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    calendar.editEvents("Standup", LocalDateTime.of(2025, 3, 3, 9, 0), "subject", "Sync");
+    assertEquals(Arrays.asList(YearMonth.of(2025, 3)), store.getLoadedMonths());
+    calendar.editSeries("Sync", LocalDateTime.of(2025, 3, 3, 9, 0), "location", "online");
+    assertEquals(Arrays.asList(YearMonth.of(2025, 2), YearMonth.of(2025, 3)),
+        store.getDirtyMonths());
+    assertEquals(2, calendar.searchEvents("sync").size());
+  }
+
+  @Test
+  public void testPrintEventsLoadsOnlyItsMonth() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+
+    List<IEvent> events = calendar.printEvents(LocalDateTime.of(2025, 5, 10, 0, 0));
+    assertEquals(1, events.size());
+    assertEquals("Review 5", events.get(0).getSubject());
+    assertEquals(Arrays.asList(YearMonth.of(2025, 5)), store.getLoadedMonths());
+  }
+
+  @Test
+  public void testQueriesLoadEarlierMonthsOnlyForEventsRunningIntoThem() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    long loads = store.getSegmentLoads();
+
+    assertTrue(calendar.showStatus(LocalDateTime.of(2025, 4, 1, 12, 0)));
+    // The offsite in March answers the query before April is needed
+    assertEquals(loads + 1, store.getSegmentLoads());
+    assertEquals(Arrays.asList(YearMonth.of(2025, 3)), store.getLoadedMonths());
+    assertFalse(calendar.showStatus(LocalDateTime.of(2025, 6, 1, 12, 0)));
+    assertEquals(Arrays.asList(YearMonth.of(2025, 6)), store.getLoadedMonths());
+  }
+
+  @Test
+  public void testCopyEventsInRangeLoadsOnlyThoseMonths() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel source = new SmartCalendarModel("Work", NEW_YORK, store);
+    SmartCalendarModel target = new SmartCalendarModel("Archive", NEW_YORK);
+
+    source.copyEventsInRangeToCalendar(LocalDateTime.of(2025, 2, 1, 0, 0),
+        LocalDateTime.of(2025, 2, 28, 23, 59), target, LocalDateTime.of(2026, 2, 1, 0, 0));
+    assertEquals(2, target.getAllEvents().size());
+    assertEquals(Arrays.asList(YearMonth.of(2025, 2)), store.getLoadedMonths());
+  }
+
+  @Test
+  public void testBudgetEvictsLeastRecentlyUsedSegments() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, TWO_SEGMENTS);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    calendar.printEvents(LocalDateTime.of(2025, 1, 10, 0, 0));
+    calendar.printEvents(LocalDateTime.of(2025, 2, 10, 0, 0));
+    calendar.printEvents(LocalDateTime.of(2025, 1, 20, 0, 0));
+    calendar.printEvents(LocalDateTime.of(2025, 5, 10, 0, 0));
+
+    assertEquals(Arrays.asList(YearMonth.of(2025, 1), YearMonth.of(2025, 5)),
+        store.getLoadedMonths());
+    assertTrue(store.getLoadedBytes() <= TWO_SEGMENTS);
+  }
+
+  @Test
+  public void testEvictedChangesAreWrittenBack() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 1, 6, 9, 0),
+        LocalDateTime.of(2025, 1, 6, 9, 15), new ArrayList<DayOfWeek>(
+            Arrays.asList(DayOfWeek.MONDAY)), 2);
+    calendar.printEvents(LocalDateTime.of(2025, 6, 10, 0, 0));
+    assertFalse(store.getLoadedMonths().contains(YearMonth.of(2025, 1)));
+    assertEquals(1, calendar.printEvents(LocalDateTime.of(2025, 1, 13, 0, 0)).size());
+    store.close();
+
+    MonthSegmentStore reopened = new MonthSegmentStore(directory, ONE_SEGMENT);
+    assertEquals(15, reopened.size());
+    SmartCalendarModel again = new SmartCalendarModel("Work", NEW_YORK, reopened);
+    assertEquals(2, again.searchEvents("standup").size());
+  }
+
+  @Test
+  public void testFailedGroupDirtiesOnlyTheMonthsItTouched() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    try {
+      calendar.applyChanges(changes -> {
+        changes.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 5, 26, 0, 0));
+        changes.createSingleAllDayEvent("Planning 2", LocalDateTime.of(2025, 2, 20, 0, 0));
+      });
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+
+    assertEquals(13, store.size());
+    assertEquals(Arrays.asList(YearMonth.of(2025, 5)), store.getDirtyMonths());
+  }
+
+  @Test
+  public void testEvictedChangesAreStagedUntilFlush() throws IOException {
+    Path january = directory.resolve("segment-2025-01.seg");
+    byte[] saved = Files.readAllBytes(january);
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    calendar.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 1, 1, 0, 0));
+    calendar.printEvents(LocalDateTime.of(2025, 6, 10, 0, 0));
+
+    // January was dropped, but its segment file is untouched until the store is flushed
+    assertFalse(store.getLoadedMonths().contains(YearMonth.of(2025, 1)));
+    assertTrue(Arrays.equals(saved, Files.readAllBytes(january)));
+    assertEquals(Arrays.asList(YearMonth.of(2025, 1)), store.getDirtyMonths());
+    assertEquals(3, calendar.printEvents(LocalDateTime.of(2025, 1, 1, 0, 0),
+        LocalDateTime.of(2025, 1, 31, 0, 0)).size());
+
+    store.flush();
+    assertFalse(Arrays.equals(saved, Files.readAllBytes(january)));
+    assertFalse(Files.exists(directory.resolve("segment-2025-01.seg.staged")));
+    assertEquals(Collections.emptyList(), store.getDirtyMonths());
+  }
+
+  @Test
+  public void testUnflushedStagedChangesAreDiscarded() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    calendar.createSingleAllDayEvent("Holiday", LocalDateTime.of(2025, 1, 1, 0, 0));
+    calendar.printEvents(LocalDateTime.of(2025, 6, 10, 0, 0));
+    assertTrue(Files.exists(directory.resolve("segment-2025-01.seg.staged")));
+
+    // Opened again without a flush, as after a crash
+    MonthSegmentStore reopened = new MonthSegmentStore(directory, ONE_SEGMENT);
+    assertEquals(13, reopened.size());
+    assertFalse(Files.exists(directory.resolve("segment-2025-01.seg.staged")));
+  }
+
+  @Test
+  public void testEmptiedMonthsAreDeleted() throws IOException {
+    MonthSegmentStore store = new MonthSegmentStore(directory, Long.MAX_VALUE);
+    store.clear();
+    assertEquals(0, store.size());
+    store.flush();
+    assertFalse(Files.exists(directory.resolve("segment-2025-01.seg")));
+    assertFalse(Files.exists(directory.resolve("segment-2025-01.hdr")));
+    assertEquals(0, new MonthSegmentStore(directory, Long.MAX_VALUE).size());
+  }
+
+  @Test
+  public void testHeaderRebuiltWhenMissing() throws IOException {
+    Files.delete(directory.resolve("segment-2025-03.hdr"));
+    MonthSegmentStore store = new MonthSegmentStore(directory, ONE_SEGMENT);
+    SmartCalendarModel calendar = new SmartCalendarModel("Work", NEW_YORK, store);
+    assertEquals(13, store.size());
+    assertTrue(calendar.showStatus(LocalDateTime.of(2025, 4, 2, 9, 0)));
+    assertEquals(1, store.flush());
+    assertTrue(Files.exists(directory.resolve("segment-2025-03.hdr")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBudgetMustBePositive() throws IOException {
+    new MonthSegmentStore(directory, 0);
+  }
+}
@@ -0,0 +1,150 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.model.EventStatus;
+import calendar.model.IEvent;
+import calendar.model.OffHeapEventStore;
+import calendar.model.SmartCalendarModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for OffHeapEventStore.
+ * A calendar backed by the off-heap store is given the same changes as an in-memory calendar,
+ * and their answers are compared.
+ */
+public class OffHeapEventStoreTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  private OffHeapEventStore store;
+  private SmartCalendarModel offHeap;
+  private SmartCalendarModel onHeap;
+
+  @Before
+  public void setUp() {
+    store = new OffHeapEventStore();
+    offHeap = new SmartCalendarModel("Work", NEW_YORK, store);
+    onHeap = new SmartCalendarModel("Work", NEW_YORK);
+    for (SmartCalendarModel calendar : Arrays.asList(offHeap, onHeap)) {
+      calendar.createRecurringTimedEvent("Standup", LocalDateTime.of(2025, 3, 3, 9, 0),
+          LocalDateTime.of(2025, 3, 3, 9, 15),
+          new ArrayList<DayOfWeek>(Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.THURSDAY)), 6);
+      calendar.createSingleAllDayEvent("Offsite", LocalDateTime.of(2025, 3, 5, 0, 0));
+      calendar.createSingleTimedEvent("Conference", LocalDateTime.of(2025, 3, 1, 8, 0),
+          LocalDateTime.of(2025, 3, 12, 18, 0));
+      calendar.addEvent(Event.getBuilder()
+          .subject("Café review")
+          .description("Menu tasting, 日本語 notes")
+          .location(EventLocation.PHYSICAL)
+          .status(EventStatus.PRIVATE)
+          .startDateTime(LocalDateTime.of(2025, 3, 7, 12, 0, 15, 500))
+          .endDateTime(LocalDateTime.of(2025, 3, 7, 13, 0))
+          .build());
+    }
+  }
+
+  @Test
+  public void testEventDetailsRoundTrip() {
+    IEvent review = offHeap.findEventBySubjectAndTime("Café review",
+        LocalDateTime.of(2025, 3, 7, 12, 0, 15, 500));
+    assertEquals("Menu tasting, 日本語 notes", review.getDescription());
+    assertEquals(EventLocation.PHYSICAL, review.getLocation());
+    assertEquals(EventStatus.PRIVATE, review.getStatus());
+    assertNull(review.getSeriesId());
+    assertEquals(onHeap.findEventBySubjectAndTime("Standup",
+        LocalDateTime.of(2025, 3, 6, 9, 0)).getSeriesId(),
+        offHeap.findEventBySubjectAndTime("Standup",
+            LocalDateTime.of(2025, 3, 6, 9, 0)).getSeriesId());
+    assertEquals(9, store.size());
+  }
+
+  @Test
+  public void testQueriesMatchInMemoryCalendar() {
+    for (int day = 1; day <= 20; day++) {
+      LocalDateTime date = LocalDateTime.of(2025, 3, day, 0, 0);
+      assertEquals(new HashSet<IEvent>(onHeap.printEvents(date)),
+          new HashSet<IEvent>(offHeap.printEvents(date)));
+    }
+    LocalDateTime time = LocalDateTime.of(2025, 2, 28, 0, 0);
+    while (time.isBefore(LocalDateTime.of(2025, 3, 20, 0, 0))) {
+      assertEquals(time.toString(), onHeap.showStatus(time), offHeap.showStatus(time));
+      time = time.plusMinutes(50);
+    }
+    assertEquals(onHeap.getUpcomingEvents(LocalDateTime.of(2025, 3, 6, 0, 0), 3),
+        offHeap.getUpcomingEvents(LocalDateTime.of(2025, 3, 6, 0, 0), 3));
+    assertEquals(onHeap.searchEvents("menu"), offHeap.searchEvents("menu"));
+  }
+
+  @Test
+  public void testEditsMatchInMemoryCalendar() {
+    for (SmartCalendarModel calendar : Arrays.asList(offHeap, onHeap)) {
+      calendar.editSeries("Standup", LocalDateTime.of(2025, 3, 6, 9, 0), "subject", "Sync");
+      calendar.editEvent("Offsite", LocalDateTime.of(2025, 3, 5, 8, 0),
+          LocalDateTime.of(2025, 3, 5, 17, 0), "location", "online");
+      calendar.editEvents("Sync", LocalDateTime.of(2025, 3, 13, 9, 0), "start",
+          "2025-03-13T09:05");
+    }
+    assertEquals(new HashSet<IEvent>(onHeap.getAllEvents()),
+        new HashSet<IEvent>(offHeap.getAllEvents()));
+    assertEquals(EventLocation.ONLINE, offHeap.findEventBySubjectAndTime("Offsite",
+        LocalDateTime.of(2025, 3, 5, 8, 0)).getLocation());
+    assertEquals(9, store.size());
+  }
+
+  @Test
+  public void testStoreRejectsDuplicatesAndRemoves() {
+    IEvent standup = offHeap.findEventBySubjectAndTime("Standup",
+        LocalDateTime.of(2025, 3, 10, 9, 0));
+    assertFalse(store.add(standup));
+    assertTrue(store.contains(standup));
+    assertTrue(store.remove(standup));
+    assertFalse(store.contains(standup));
+    assertFalse(store.remove(standup));
+    assertTrue(store.add(standup));
+    assertEquals(9, store.size());
+  }
+
+  @Test
+  public void testRemovedStringsAreReclaimed() {
+    OffHeapEventStore churn = new OffHeapEventStore();
+    String description = new String(new char[2000]).replace('\0', 'x');
+    List<IEvent> events = new ArrayList<IEvent>();
+    for (int i = 0; i < 2000; i++) {
+      events.add(Event.getBuilder()
+          .subject("Event " + i)
+          .description(description)
+          .startDateTime(LocalDateTime.of(2025, 1, 1, 9, 0).plusHours(i))
+          .endDateTime(LocalDateTime.of(2025, 1, 1, 10, 0).plusHours(i))
+          .build());
+    }
+    for (int round = 0; round < 5; round++) {
+      for (IEvent event : events) {
+        churn.add(event);
+      }
+      for (int i = 1; i < events.size(); i++) {
+        churn.remove(events.get(i));
+      }
+    }
+    assertEquals(1, churn.size());
+    assertTrue(churn.getOffHeapBytes() < 8L * 1024 * 1024);
+    assertEquals(description, churn.iterator().next().getDescription());
+    churn.clear();
+    assertEquals(0, churn.size());
+    assertFalse(churn.iterator().hasNext());
+  }
+}
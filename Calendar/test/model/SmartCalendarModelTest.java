@@ -12,6 +12,7 @@ import java.util.Arrays;
 import java.util.Set;
 import java.util.HashSet;
 
+import calendar.model.Event;
 import calendar.model.SmartCalendarModel;
 import calendar.model.IEvent;
 
@@ -802,4 +803,49 @@ public class SmartCalendarModelTest {
     // EDT to UTC = +4 hours (March 2024 is DST)
     assertEquals(LocalDateTime.of(2024, 3, 20, 18, 0), events.get(0).getStartDateTime());
   }
-} 
\ No newline at end of file
+
+  @Test
+  public void testAddEventKeepsGeneratedSeriesIdsUnique() {
+    calendar.addEvent(Event.getBuilder()
+        .subject("Imported")
+        .startDateTime(LocalDateTime.of(2024, 3, 15, 9, 0))
+        .endDateTime(LocalDateTime.of(2024, 3, 15, 10, 0))
+        .seriesId(41)
+        .build());
+
+    assertEquals(Integer.valueOf(42), calendar.generateUniqueSeriesId());
+  }
+
+  @Test
+  public void testGetAllEvents() {
+    calendar.createSingleTimedEvent("First", LocalDateTime.of(2024, 3, 15, 9, 0),
+        LocalDateTime.of(2024, 3, 15, 10, 0));
+    calendar.createSingleAllDayEvent("Second", LocalDateTime.of(2024, 3, 16, 0, 0));
+
+    List<IEvent> events = calendar.getAllEvents();
+    assertEquals(2, events.size());
+    events.clear();
+    assertEquals(2, calendar.getAllEvents().size());
+  }
+
+  @Test
+  public void testFailedGroupUndoesTimezoneConversion() {
+    LocalDateTime start = LocalDateTime.of(2025, 3, 10, 9, 0);
+    calendar.createSingleTimedEvent("Standup", start, start.plusMinutes(30));
+    try {
+      calendar.applyChanges(changes -> {
+        calendar.convertAllEventsToNewTimezone(ZoneId.of("America/New_York"),
+                ZoneId.of("Europe/London"));
+        changes.createSingleTimedEvent("Standup", start.plusHours(4),
+                start.plusHours(4).plusMinutes(30));
+      });
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+
+    assertEquals(1, calendar.getAllEvents().size());
+    assertEquals(start, calendar.getAllEvents().get(0).getStartDateTime());
+    assertEquals(1, calendar.searchEvents("standup").size());
+    assertEquals(Arrays.asList("Standup"), calendar.suggestSubjects("st", 10));
+  }
+}
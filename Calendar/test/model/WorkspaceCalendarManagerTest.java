@@ -0,0 +1,161 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import calendar.model.CalendarManager;
+import calendar.model.ISmartCalendarModel;
+import calendar.model.persistence.WorkspaceCalendarManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for WorkspaceCalendarManager.
+ * The number of files each save writes shows that only the changed parts are saved.
+ */
+public class WorkspaceCalendarManagerTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final long BUDGET = 1024 * 1024;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path directory;
+  private WorkspaceCalendarManager workspace;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.getRoot().toPath().resolve("workspace");
+    workspace = new WorkspaceCalendarManager(directory, BUDGET, 0);
+    workspace.createCalendar("Work", NEW_YORK);
+    workspace.useCalendar("Work");
+    // Two years of weekly reviews
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+    for (int week = 0; week < 104; week++) {
+      workspace.getCurrentCalendar().createSingleTimedEvent("Review " + week,
+          start.plusWeeks(week), start.plusWeeks(week).plusHours(1));
+    }
+  }
+
+  @Test
+  public void testSavedCalendarsReopen() throws IOException {
+    workspace.createCalendar("Home", ZoneId.of("Europe/London"));
+    workspace.getCalendar("Home").createSingleAllDayEvent("Holiday",
+        LocalDateTime.of(2025, 8, 1, 0, 0));
+    workspace.close();
+
+    WorkspaceCalendarManager reopened = new WorkspaceCalendarManager(directory, BUDGET, 0);
+    assertEquals(Arrays.asList("Home", "Work"), sorted(reopened));
+    assertEquals(ZoneId.of("Europe/London"), reopened.getCalendar("Home").getTimezone());
+    assertEquals(104, reopened.getCalendar("Work").getAllEvents().size());
+    assertEquals(1, reopened.getCalendar("Home").printEvents(
+        LocalDateTime.of(2025, 8, 1, 0, 0)).size());
+  }
+
+  @Test
+  public void testSaveAfterOneEditWritesOneSegment() {
+    // 24 segments, their headers and the calendar list
+    assertEquals(49, workspace.save());
+    assertEquals(0, workspace.save());
+
+    workspace.getCurrentCalendar().editEvent("Review 60", LocalDateTime.of(2025, 2, 24, 9, 0),
+        LocalDateTime.of(2025, 2, 24, 10, 0), "description", "Quarterly numbers");
+    assertEquals(Arrays.asList("Work"), workspace.getChangedCalendars());
+    // The month's segment and its header
+    assertEquals(2, workspace.save());
+    assertEquals(Collections.emptyList(), workspace.getChangedCalendars());
+  }
+
+  @Test
+  public void testRenameOnlyWritesCalendarList() throws IOException {
+    workspace.save();
+    workspace.editCalendar("Work", "name", "Office");
+    assertEquals(1, workspace.save());
+
+    WorkspaceCalendarManager reopened = new WorkspaceCalendarManager(directory, BUDGET, 0);
+    assertEquals(Arrays.asList("Office"), reopened.getCalendarNames());
+    assertEquals(104, reopened.getCalendar("Office").getAllEvents().size());
+  }
+
+  @Test
+  public void testTimezoneChangeRewritesSegments() throws IOException {
+    workspace.save();
+    workspace.editCalendar("Work", "timezone", "America/Los_Angeles");
+    // Every segment, its header and the calendar list
+    assertEquals(49, workspace.save());
+
+    ISmartCalendarModel work = new WorkspaceCalendarManager(directory, BUDGET, 0)
+        .getCalendar("Work");
+    assertEquals(ZoneId.of("America/Los_Angeles"), work.getTimezone());
+    assertTrue(work.showStatus(LocalDateTime.of(2024, 1, 1, 6, 30)));
+  }
+
+  @Test
+  public void testUnsavedCalendarsAreDiscarded() throws IOException {
+    workspace.save();
+    workspace.createCalendar("Scratch", NEW_YORK);
+    workspace.getCalendar("Scratch").createSingleAllDayEvent("Draft",
+        LocalDateTime.of(2025, 1, 1, 0, 0));
+    // The calendar has a directory, but the saved calendar list does not mention it
+    assertTrue(Files.exists(directory.resolve("calendar-1")));
+
+    WorkspaceCalendarManager reopened = new WorkspaceCalendarManager(directory, BUDGET, 0);
+    assertEquals(Arrays.asList("Work"), reopened.getCalendarNames());
+    assertFalse(Files.exists(directory.resolve("calendar-1")));
+  }
+
+  @Test
+  public void testMonthsDroppedBetweenSavesAreNotSaved() throws IOException {
+    workspace.save();
+    WorkspaceCalendarManager small = new WorkspaceCalendarManager(directory, 1, 0);
+    ISmartCalendarModel work = small.getCalendar("Work");
+    work.editEvent("Review 0", LocalDateTime.of(2024, 1, 1, 9, 0),
+        LocalDateTime.of(2024, 1, 1, 10, 0), "subject", "Kickoff");
+    // Only one month fits the budget, so January is dropped with its change
+    work.printEvents(LocalDateTime.of(2025, 6, 2, 0, 0));
+    assertEquals(Arrays.asList("Work"), small.getChangedCalendars());
+
+    // Opened again without saving, as after a crash
+    WorkspaceCalendarManager reopened = new WorkspaceCalendarManager(directory, BUDGET, 0);
+    assertEquals(1, reopened.getCalendar("Work").searchEvents("review 0").size());
+    assertTrue(reopened.getCalendar("Work").searchEvents("kickoff").isEmpty());
+  }
+
+  @Test
+  public void testAutosave() throws IOException {
+    workspace.setAutosaveInterval(Duration.ofNanos(1));
+    workspace.createCalendar("Home", NEW_YORK);
+    workspace.useCalendar("Home");
+
+    WorkspaceCalendarManager reopened = new WorkspaceCalendarManager(directory, BUDGET, 0);
+    assertEquals(Arrays.asList("Home", "Work"), sorted(reopened));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInMemoryManagerCannotSave() {
+    new CalendarManager().save();
+  }
+
+  /**
+   * Gets the calendar names of a manager in order.
+   */
+  private static List<String> sorted(WorkspaceCalendarManager manager) {
+    List<String> names = manager.getCalendarNames();
+    Collections.sort(names);
+    return names;
+  }
+}
@@ -542,6 +542,49 @@ public class CalendarViewTest {
                     output.contains("Workflow completed successfully"));
   }
 
+  @Test
+  public void testBufferedViewHoldsOutputUntilFlushed() {
+    CalendarView buffered = new CalendarView(output, 1024);
+    buffered.displayMessage("Hello");
+    buffered.displayPrompt();
+    assertEquals("", output.toString());
+
+    buffered.flush();
+    assertEquals("Hello\n> ", output.toString());
+    buffered.flush();
+    assertEquals("Hello\n> ", output.toString());
+  }
+
+  @Test
+  public void testBufferedViewWritesWhenFull() {
+    CalendarView buffered = new CalendarView(output, 16);
+    buffered.displayMessage("0123456789");
+    assertEquals("", output.toString());
+    buffered.displayMessage("abcdef");
+    assertEquals("0123456789\nabcdef\n", output.toString());
+  }
+
+  @Test
+  public void testBufferedViewWritesSameEvents() {
+    List<IEvent> events = new ArrayList<>(createSampleEvents());
+    events.add(createMultiDayEvent());
+    StringBuilder bufferedOutput = new StringBuilder();
+    ICalendarView buffered = new CalendarView(bufferedOutput, 8);
+
+    for (ICalendarView each : Arrays.asList(view, buffered)) {
+      each.displayEventsForDate(LocalDate.of(2024, 3, 20), events);
+      each.displayStatus("2024-03-20T10:30", true);
+      each.displaySearchResults("meeting", new ArrayList<>());
+      each.flush();
+    }
+    assertEquals(output.toString(), bufferedOutput.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBufferSizeMustBePositive() {
+    new CalendarView(output, 0);
+  }
+
   private IEvent createBasicEvent() {
     return Event.getBuilder()
             .subject("Meeting")
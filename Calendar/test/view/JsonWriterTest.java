@@ -0,0 +1,74 @@
+package view;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import calendar.model.Event;
+import calendar.model.EventLocation;
+import calendar.view.JsonWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for JsonWriter.
+ */
+public class JsonWriterTest {
+
+  @Test
+  public void testCommasAndNesting() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter json = new JsonWriter(out);
+    json.beginObject().name("a").value(1).name("b").beginArray().value(true).beginObject()
+        .endObject().beginArray().endArray().value((String) null).endArray()
+        .name("c").value("x").endObject();
+    json.flush();
+
+    assertEquals("{\"a\":1,\"b\":[true,{},[],null],\"c\":\"x\"}", out.toString());
+  }
+
+  @Test
+  public void testStringsEscaped() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter json = new JsonWriter(out);
+    json.value("say \"hi\"\\\n\té");
+    json.flush();
+
+    assertEquals("\"say \\\"hi\\\"\\\\\\n\\u0009é\"", out.toString());
+  }
+
+  @Test
+  public void testEvent() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter json = new JsonWriter(out);
+    json.event(Event.getBuilder()
+        .subject("Meeting")
+        .startDateTime(LocalDateTime.of(2024, 3, 20, 10, 0))
+        .endDateTime(LocalDateTime.of(2024, 3, 20, 11, 0))
+        .location(EventLocation.ONLINE)
+        .build());
+    json.flush();
+
+    assertEquals("{\"subject\":\"Meeting\",\"start\":\"2024-03-20T10:00\","
+        + "\"end\":\"2024-03-20T11:00\",\"description\":null,\"location\":\"online\","
+        + "\"status\":null,\"seriesId\":null}", out.toString());
+  }
+
+  @Test
+  public void testLongOutputWrittenInPieces() throws IOException {
+    StringWriter out = new StringWriter();
+    JsonWriter json = new JsonWriter(out);
+    json.beginArray();
+    for (int i = 0; i < 10000; i++) {
+      json.value(i);
+    }
+    json.endArray();
+    json.flush();
+
+    assertEquals(10000, out.toString().split(",").length);
+    assertEquals("[0,1,", out.toString().substring(0, 5));
+    assertEquals(",9999]", out.toString().substring(out.toString().length() - 6));
+  }
+}